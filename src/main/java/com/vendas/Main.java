@@ -7,10 +7,23 @@ import javax.swing.UIManager;
 /**
  * Classe principal da aplicação Sistema de Vendas de Camisas.
  * Responsável por inicializar o banco de dados e a interface gráfica.
+ * 
+ * Comandos de manutenção (executados sem abrir a interface):
+ * <ul>
+ *   <li>{@code --verificar-saldos}: confere os saldos dos clientes com o histórico</li>
+ *   <li>{@code --reconstruir-saldos}: recalcula os saldos a partir do histórico</li>
+ *   <li>{@code --normalizar-imagens}: normaliza as imagens gravadas antes da
+ *       normalização no cadastro (também feito em segundo plano ao abrir a aplicação)</li>
+ * </ul>
  */
 public class Main {
     
     public static void main(String[] args) {
+        // Comandos de manutenção rodam sem interface gráfica
+        if (args.length > 0) {
+            System.exit(executarComando(args[0]));
+        }
+        
         // Configurar handler global de exceções
         com.vendas.util.ExceptionHandler.configurarHandlerGlobal();
         
@@ -40,6 +53,9 @@ public class Main {
                 com.vendas.view.MainFrame mainFrame = new com.vendas.view.MainFrame();
                 mainFrame.setVisible(true);
                 
+                // Imagens antigas são normalizadas sem bloquear a interface
+                new com.vendas.controller.ImagemController().iniciarNormalizacaoPendentes();
+                
                 com.vendas.util.ExceptionHandler.logInfo("Aplicação iniciada com sucesso!");
                 
             } catch (java.sql.SQLException e) {
@@ -62,4 +78,49 @@ public class Main {
             }
         });
     }
+    
+    /**
+     * Executa um comando de manutenção.
+     * 
+     * @param comando Nome do comando
+     * @return Código de saída do processo (0 em caso de sucesso)
+     */
+    private static int executarComando(String comando) {
+        try {
+            com.vendas.util.DatabaseManager.inicializarBanco();
+            com.vendas.controller.ClienteController clienteController = new com.vendas.controller.ClienteController();
+            
+            switch (comando) {
+                case "--verificar-saldos":
+                    java.util.List<Long> divergentes = clienteController.verificarSaldos();
+                    if (divergentes.isEmpty()) {
+                        System.out.println("Saldos dos clientes conferem com o histórico.");
+                        return 0;
+                    }
+                    System.out.println("Clientes com saldo divergente: " + divergentes);
+                    System.out.println("Execute com --reconstruir-saldos para corrigir.");
+                    return 2;
+                    
+                case "--reconstruir-saldos":
+                    int clientes = clienteController.reconstruirSaldos();
+                    System.out.println("Saldos reconstruídos para " + clientes + " cliente(s).");
+                    return 0;
+                    
+                case "--normalizar-imagens":
+                    int imagens = new com.vendas.controller.ImagemController().normalizarImagensPendentes();
+                    System.out.println("Imagens normalizadas: " + imagens + ".");
+                    return 0;
+                    
+                default:
+                    System.err.println("Comando desconhecido: " + comando);
+                    System.err.println("Comandos: --verificar-saldos, --reconstruir-saldos, --normalizar-imagens");
+                    return 1;
+            }
+        } catch (Exception e) {
+            com.vendas.util.ExceptionHandler.logErro("Erro ao executar comando " + comando, e);
+            return 1;
+        } finally {
+            com.vendas.util.DatabaseManager.fecharConexao();
+        }
+    }
 }
@@ -3,12 +3,48 @@ package com.vendas;
 import com.vendas.controller.*;
 import com.vendas.dao.*;
 import com.vendas.model.*;
+import com.vendas.util.ArmazemMiniaturas;
+import com.vendas.util.CacheConsultas;
+import com.vendas.util.CacheLRU;
+import com.vendas.util.CacheMiniaturas;
+import com.vendas.util.ConnectionPool;
 import com.vendas.util.DatabaseManager;
+import com.vendas.util.EventosBanco;
+import com.vendas.util.HashUtils;
+import com.vendas.util.IndiceBusca;
+import com.vendas.util.IndiceFacetas;
+import com.vendas.util.ProcessadorImagens;
+import com.vendas.util.ProcessadorImagens.ImagemNormalizada;
 
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 
 /**
  * Classe para testes automatizados do sistema.
@@ -36,6 +72,26 @@ public class TesteSistema {
             testar11_2_GerenciamentoClientesPagamentos();
             testar11_3_PersistenciaDados();
             testar11_4_ValidacoesErros();
+            testar11_5_PoolConexoes();
+            testar11_6_CacheStatements();
+            testar11_7_VendaUnica();
+            testar11_8_Carrinho();
+            testar11_9_Migracoes();
+            testar11_10_Dinheiro();
+            testar11_11_Paginacao();
+            testar11_12_ConsultaStreaming();
+            testar11_13_SaldosClientes();
+            testar11_14_ResumoFinanceiro();
+            testar11_15_ListagemComSaldo();
+            testar11_16_IndiceBusca();
+            testar11_17_IndiceFacetas();
+            testar11_18_CacheLRU();
+            testar11_19_ArmazemMiniaturas();
+            testar11_20_OrientacaoExif();
+            testar11_21_BuscaTextual();
+            testar11_22_Transacoes();
+            testar11_23_ImportacaoCsv();
+            testar11_24_RecargaSugestoes();
             
             // Resumo
             System.out.println("\n=================================================");
@@ -123,10 +179,14 @@ public class TesteSistema {
             verificar("Cadastrar terceiro produto", cadastrado3);
             
             // Teste 4: Verificar produtos disponíveis
-            List<Produto> disponiveis = produtoController.listarProdutosDisponiveis();
+            List<ProdutoResumo> disponiveis = produtoController.listarProdutosDisponiveis();
             verificar("Produtos aparecem na lista de disponíveis", disponiveis.size() >= 3);
             System.out.println("  → " + disponiveis.size() + " produtos disponíveis");
             
+            verificar("Sugestão de produtos sem acentos",
+                produtoController.sugerirProdutosDisponiveis("basica pre").stream()
+                    .anyMatch(p -> p.getId().equals(produto1.getId())));
+            
             // Teste 5: Registrar venda do primeiro produto
             Venda venda1 = new Venda();
             venda1.setProdutoId(produto1.getId());
@@ -138,10 +198,16 @@ public class TesteSistema {
             verificar("Registrar venda do primeiro produto", vendaRegistrada);
             
             // Teste 6: Verificar remoção do estoque
-            List<Produto> disponiveisAposVenda = produtoController.listarProdutosDisponiveis();
+            List<ProdutoResumo> disponiveisAposVenda = produtoController.listarProdutosDisponiveis();
             verificar("Produto removido do estoque após venda", 
                 disponiveisAposVenda.size() == disponiveis.size() - 1);
             System.out.println("  → " + disponiveisAposVenda.size() + " produtos disponíveis após venda");
+            verificar("Produto vendido sai das sugestões",
+                produtoController.sugerirProdutosDisponiveis("basica pre").stream()
+                    .noneMatch(p -> p.getId().equals(produto1.getId())));
+            verificar("Sugestão de clientes por trecho do nome",
+                clienteController.sugerirClientes("liente tes").stream()
+                    .anyMatch(c -> c.getId().equals(cliente.getId())));
             
             // Teste 7: Validar cálculos no painel de gerenciamento
             BigDecimal totalGasto = gerenciamentoController.calcularTotalGasto();
@@ -158,10 +224,47 @@ public class TesteSistema {
             System.out.println("  → Lucro: R$ " + lucro);
             
             // Teste 8: Produtos em estoque
-            List<Produto> estoque = gerenciamentoController.obterProdutosEmEstoque();
+            List<ProdutoResumo> estoque = gerenciamentoController.obterProdutosEmEstoque();
             verificar("Listar produtos em estoque", estoque.size() >= 2);
             System.out.println("  → " + estoque.size() + " produtos em estoque");
             
+            List<ProdutoResumo> encontrados = new ProdutoDAO().pesquisarResumos("estampada az", true, 100);
+            verificar("Pesquisa de produtos por descrição",
+                encontrados.stream().anyMatch(p -> p.getDescricao().equals("Camisa Estampada Azul")));
+            
+            List<ClienteComSaldo> clientesEncontrados = clienteController.pesquisarClientesComSaldo("cliente teste");
+            verificar("Pesquisa de clientes por nome", !clientesEncontrados.isEmpty());
+            
+            CarregadorEmLote<Long, ProdutoResumo> carregador = produtoController.novoCarregadorProdutos();
+            for (ProdutoResumo produto : estoque) {
+                carregador.solicitar(produto.getId());
+            }
+            boolean todosCarregados = estoque.stream()
+                .allMatch(p -> carregador.carregar(p.getId()) != null);
+            verificar("Busca de produtos por IDs em lote",
+                todosCarregados && carregador.getBuscas() == 1);
+            
+            Long produtoCache = estoque.get(0).getId();
+            produtoController.obterResumoProduto(produtoCache);
+            long acertosAntes = produtoController.getEstatisticasCache().getAcertos();
+            produtoController.obterResumoProduto(produtoCache);
+            verificar("Consulta repetida de produto atendida pelo cache",
+                produtoController.getEstatisticasCache().getAcertos() == acertosAntes + 1);
+            
+            ResumoFinanceiro resumo = gerenciamentoController.obterResumoFinanceiro();
+            verificar("Resumo financeiro confere com o estoque",
+                resumo.getQuantidadeEmEstoque() == estoque.size());
+            verificar("Resumo financeiro repetido vem do cache de consultas",
+                gerenciamentoController.obterResumoFinanceiro() == resumo);
+            
+            Map<FacetasEstoque.Faceta, Set<String>> filtroDisponiveis = new EnumMap<>(FacetasEstoque.Faceta.class);
+            filtroDisponiveis.put(FacetasEstoque.Faceta.SITUACAO, Collections.singleton(FacetasEstoque.DISPONIVEL));
+            IndiceFacetas.Resultado<FacetasEstoque.Faceta, ProdutoResumo> facetas =
+                gerenciamentoController.filtrarEstoque(filtroDisponiveis);
+            verificar("Facetas do estoque conferem com os disponíveis",
+                facetas.getItens().size() == estoque.size()
+                    && facetas.getContagens(FacetasEstoque.Faceta.SITUACAO).get(FacetasEstoque.VENDIDO) != null);
+            
         } catch (Exception e) {
             System.err.println("✗ ERRO no teste 11.1: " + e.getMessage());
             e.printStackTrace();
@@ -239,6 +342,11 @@ public class TesteSistema {
             verificar("Histórico de vendas do cliente", vendasCliente.size() >= 2);
             System.out.println("  → " + vendasCliente.size() + " vendas para o cliente");
             
+            List<VendaDetalhada> historico = vendaController.obterHistoricoCliente(cliente.getId());
+            verificar("Histórico com descrição dos produtos",
+                historico.size() == vendasCliente.size()
+                    && historico.stream().allMatch(v -> v.getDescricaoProduto() != null));
+            
             // Teste 5: Verificar cálculo de saldo devedor (antes de pagamentos)
             BigDecimal saldoDevedor = clienteController.calcularSaldoDevedor(cliente.getId());
             verificar("Cálculo de saldo devedor inicial", 
@@ -377,6 +485,22 @@ public class TesteSistema {
                 clienteRecuperado != null && 
                 clienteRecuperado.getNome().equals("Maria Santos"));
             
+            // Teste 8: Miniaturas mantêm a proporção dentro de 180x180
+            BufferedImage miniatura = CacheMiniaturas.reduzir(
+                new BufferedImage(800, 600, BufferedImage.TYPE_3BYTE_BGR), CacheMiniaturas.LADO);
+            verificar("Miniatura reduzida mantendo a proporção",
+                miniatura.getWidth() == 180 && miniatura.getHeight() == 135);
+            
+            // Teste 9: Foto grande é reduzida e gravada em JPEG, com miniatura
+            ByteArrayOutputStream png = new ByteArrayOutputStream();
+            ImageIO.write(new BufferedImage(2400, 1800, BufferedImage.TYPE_INT_ARGB), "png", png);
+            ImagemNormalizada normalizada = ProcessadorImagens.normalizar(png.toByteArray());
+            verificar("Imagem normalizada para JPEG dentro do lado máximo",
+                normalizada != null &&
+                normalizada.getLargura() == Math.min(2400, ProcessadorImagens.LADO_MAXIMO) &&
+                (normalizada.getDados()[0] & 0xFF) == 0xFF && (normalizada.getDados()[1] & 0xFF) == 0xD8 &&
+                normalizada.getMiniatura() != null);
+            
         } catch (Exception e) {
             System.err.println("✗ ERRO no teste 11.3: " + e.getMessage());
             e.printStackTrace();
@@ -527,6 +651,1576 @@ public class TesteSistema {
         System.out.println();
     }
     
+    /**
+     * Teste 11.5: Pool de conexões
+     * - Limite de conexões emprestadas ao mesmo tempo
+     * - close() devolve a conexão ao pool
+     * - Conexões ociosas além do tempo máximo são descartadas
+     */
+    private static void testar11_5_PoolConexoes() {
+        System.out.println("=================================================");
+        System.out.println("  TESTE 11.5: Pool de Conexões");
+        System.out.println("=================================================\n");
+        
+        try {
+            Path arquivo = Files.createTempFile("vendas-pool", ".db");
+            ConnectionPool.Configuracao config = new ConnectionPool.Configuracao();
+            config.setTamanhoMaximo(2);
+            config.setMinimoOcioso(0);
+            config.setTempoMaximoEsperaMs(200);
+            config.setTempoMaximoOciosoMs(100);
+            ConnectionPool pool = new ConnectionPool("jdbc:sqlite:" + arquivo, config);
+            try {
+                // Teste 1: limite do pool
+                Connection primeira = pool.obterConexao();
+                Connection segunda = pool.obterConexao();
+                boolean esgotado;
+                try {
+                    pool.obterConexao().close();
+                    esgotado = false;
+                } catch (SQLException e) {
+                    esgotado = true;
+                }
+                verificar("Pool não empresta além do tamanho máximo",
+                    esgotado && pool.getEstatisticas().getTimeouts() == 1 && pool.getEstatisticas().getAtivas() == 2);
+                
+                // Teste 2: close() devolve a conexão física
+                primeira.close();
+                verificar("Conexão fechada volta ao pool",
+                    primeira.isClosed() && pool.getEstatisticas().getAtivas() == 1
+                        && pool.getEstatisticas().getOciosas() == 1);
+                boolean usoRejeitado;
+                try {
+                    primeira.createStatement();
+                    usoRejeitado = false;
+                } catch (SQLException e) {
+                    usoRejeitado = true;
+                }
+                verificar("Conexão devolvida não pode mais ser usada", usoRejeitado);
+                try (Connection reaproveitada = pool.obterConexao()) {
+                    verificar("Conexão devolvida é reaproveitada",
+                        !reaproveitada.isClosed() && pool.getEstatisticas().getCriadas() == 2);
+                }
+                segunda.close();
+                verificar("Todas as conexões devolvidas",
+                    pool.getEstatisticas().getAtivas() == 0 && pool.getEstatisticas().getOciosas() == 2);
+                
+                // Teste 3: remoção das ociosas (a limpeza roda a cada segundo, no mínimo)
+                Thread.sleep(2500);
+                verificar("Conexões ociosas descartadas após o tempo máximo",
+                    pool.getEstatisticas().getOciosas() == 0 && pool.getEstatisticas().getTotal() == 0
+                        && pool.getEstatisticas().getDescartadas() == 2);
+            } finally {
+                pool.fechar();
+                Files.deleteIfExists(arquivo);
+            }
+            
+        } catch (Exception e) {
+            System.err.println("✗ ERRO no teste 11.5: " + e.getMessage());
+            e.printStackTrace();
+        }
+        
+        System.out.println();
+    }
+    
+    /**
+     * Teste 11.6: Cache de PreparedStatements
+     * - Mesmo SQL na mesma conexão reaproveita o statement preparado
+     * - ResultSet deixado aberto é fechado na devolução
+     * - maxRows, fetchSize e queryTimeout não passam para o próximo uso
+     */
+    private static void testar11_6_CacheStatements() {
+        System.out.println("=================================================");
+        System.out.println("  TESTE 11.6: Cache de Statements");
+        System.out.println("=================================================\n");
+        
+        try {
+            Path arquivo = Files.createTempFile("vendas-statements", ".db");
+            ConnectionPool.Configuracao config = new ConnectionPool.Configuracao();
+            config.setTamanhoMaximo(1);
+            ConnectionPool pool = new ConnectionPool("jdbc:sqlite:" + arquivo, config);
+            String sql = "SELECT 1 UNION ALL SELECT 2 UNION ALL SELECT 3";
+            try (Connection conn = pool.obterConexao()) {
+                // Teste 1: statement usado com outra configuração e ResultSet aberto
+                PreparedStatement primeiro = conn.prepareStatement(sql);
+                primeiro.setMaxRows(1);
+                primeiro.setFetchSize(50);
+                primeiro.setQueryTimeout(7);
+                ResultSet aberto = primeiro.executeQuery();
+                aberto.next();
+                primeiro.close();
+                verificar("ResultSet aberto fechado ao devolver o statement", aberto.isClosed());
+                
+                // Teste 2: reaproveitamento com a configuração original
+                try (PreparedStatement segundo = conn.prepareStatement(sql)) {
+                    verificar("Statement reaproveitado do cache", pool.getEstatisticas().getAcertosCache() == 1);
+                    verificar("Configuração do uso anterior desfeita",
+                        segundo.getMaxRows() == 0 && segundo.getQueryTimeout() == 0
+                            && segundo.getFetchSize() != 50);
+                    int linhas = 0;
+                    try (ResultSet rs = segundo.executeQuery()) {
+                        while (rs.next()) {
+                            linhas++;
+                        }
+                    }
+                    verificar("Consulta reaproveitada retorna todas as linhas", linhas == 3);
+                }
+                
+                // Teste 3: outra configuração descarta o statement
+                try (PreparedStatement terceiro = conn.prepareStatement(sql)) {
+                    terceiro.setPoolable(false);
+                }
+                conn.prepareStatement(sql).close();
+                verificar("Statement com configuração não restaurável não volta ao cache",
+                    pool.getEstatisticas().getAcertosCache() == 2 && pool.getEstatisticas().getFalhasCache() == 2);
+            } finally {
+                pool.fechar();
+                Files.deleteIfExists(arquivo);
+            }
+            
+        } catch (Exception e) {
+            System.err.println("✗ ERRO no teste 11.6: " + e.getMessage());
+            e.printStackTrace();
+        }
+        
+        System.out.println();
+    }
+    
+    /**
+     * Teste 11.7: Produto vendido uma única vez
+     * - Reserva de produto já vendido retorna JA_VENDIDO
+     * - Reserva de produto inexistente retorna NAO_ENCONTRADO
+     * - Segunda venda do mesmo produto é rejeitada sem gravar outra venda
+     */
+    private static void testar11_7_VendaUnica() {
+        System.out.println("=================================================");
+        System.out.println("  TESTE 11.7: Produto Vendido Uma Única Vez");
+        System.out.println("=================================================\n");
+        
+        try {
+            emBancoTemporario(() -> {
+                DatabaseManager.inicializarBanco();
+                ProdutoDAO produtoDAO = new ProdutoDAO();
+                VendaDAO vendaDAO = new VendaDAO();
+                VendaController vendaController = new VendaController();
+                
+                Produto produto = novoProduto("Camisa Única", "M", false);
+                produtoDAO.inserir(produto);
+                Cliente cliente = novoCliente("Cliente Venda Única");
+                
+                verificar("Primeira venda registrada",
+                    vendaController.registrarVenda(novaVenda(produto.getId(), cliente.getId())));
+                
+                // Teste 1: resultados da reserva
+                ProdutoDAO.ResultadoReserva jaVendido = DatabaseManager.executarTransacao(conn ->
+                    produtoDAO.reservarParaVenda(conn, produto.getId()));
+                verificar("Reserva de produto vendido retorna JA_VENDIDO",
+                    jaVendido == ProdutoDAO.ResultadoReserva.JA_VENDIDO);
+                
+                ProdutoDAO.ResultadoReserva inexistente = DatabaseManager.executarTransacao(conn ->
+                    produtoDAO.reservarParaVenda(conn, 999999L));
+                verificar("Reserva de produto inexistente retorna NAO_ENCONTRADO",
+                    inexistente == ProdutoDAO.ResultadoReserva.NAO_ENCONTRADO);
+                
+                // Teste 2: segunda venda do mesmo produto
+                try {
+                    vendaController.registrarVenda(novaVenda(produto.getId(), cliente.getId()));
+                    verificar("Segunda venda do mesmo produto rejeitada", false);
+                } catch (IllegalArgumentException e) {
+                    verificar("Segunda venda do mesmo produto rejeitada", true);
+                }
+                verificar("Nenhuma venda a mais gravada", vendaDAO.buscarTodas().size() == 1);
+                
+                // Teste 3: venda de produto inexistente
+                try {
+                    vendaController.registrarVenda(novaVenda(999999L, cliente.getId()));
+                    verificar("Venda de produto inexistente rejeitada", false);
+                } catch (IllegalArgumentException e) {
+                    verificar("Venda de produto inexistente rejeitada", true);
+                }
+                verificar("Venda de produto inexistente não gravada", vendaDAO.buscarTodas().size() == 1);
+            });
+            
+        } catch (Exception e) {
+            System.err.println("✗ ERRO no teste 11.7: " + e.getMessage());
+            e.printStackTrace();
+        }
+        
+        System.out.println();
+    }
+    
+    /**
+     * Teste 11.8: Carrinho
+     * - Carrinho com um produto já vendido desfaz todas as reservas
+     * - Produto repetido no carrinho é rejeitado
+     * - Carrinho com clientes diferentes é rejeitado
+     */
+    private static void testar11_8_Carrinho() {
+        System.out.println("=================================================");
+        System.out.println("  TESTE 11.8: Carrinho");
+        System.out.println("=================================================\n");
+        
+        try {
+            emBancoTemporario(() -> {
+                DatabaseManager.inicializarBanco();
+                ProdutoDAO produtoDAO = new ProdutoDAO();
+                VendaDAO vendaDAO = new VendaDAO();
+                VendaController vendaController = new VendaController();
+                
+                Produto primeiro = novoProduto("Camisa Carrinho 1", "P", false);
+                Produto segundo = novoProduto("Camisa Carrinho 2", "M", false);
+                Produto vendido = novoProduto("Camisa Carrinho Vendida", "G", true);
+                produtoDAO.inserir(primeiro);
+                produtoDAO.inserir(segundo);
+                produtoDAO.inserir(vendido);
+                Cliente cliente = novoCliente("Cliente Carrinho");
+                Cliente outroCliente = novoCliente("Outro Cliente Carrinho");
+                
+                // Teste 1: um produto vendido no fim do carrinho desfaz as reservas anteriores
+                List<Venda> comVendido = new ArrayList<>();
+                comVendido.add(novaVenda(primeiro.getId(), cliente.getId()));
+                comVendido.add(novaVenda(segundo.getId(), cliente.getId()));
+                comVendido.add(novaVenda(vendido.getId(), cliente.getId()));
+                verificar("Carrinho com produto vendido rejeitado", rejeitado(() -> vendaController.registrarVendas(comVendido)));
+                verificar("Nenhuma venda gravada do carrinho rejeitado", vendaDAO.buscarTodas().isEmpty());
+                verificar("Demais produtos continuam disponíveis",
+                    !produtoDAO.buscarPorId(primeiro.getId()).isVendido()
+                        && !produtoDAO.buscarPorId(segundo.getId()).isVendido());
+                
+                // Teste 2: produto repetido
+                List<Venda> repetido = new ArrayList<>();
+                repetido.add(novaVenda(primeiro.getId(), cliente.getId()));
+                repetido.add(novaVenda(primeiro.getId(), cliente.getId()));
+                verificar("Produto repetido no carrinho rejeitado", rejeitado(() -> vendaController.registrarVendas(repetido)));
+                
+                // Teste 3: clientes diferentes
+                List<Venda> misturado = new ArrayList<>();
+                misturado.add(novaVenda(primeiro.getId(), cliente.getId()));
+                misturado.add(novaVenda(segundo.getId(), outroCliente.getId()));
+                verificar("Carrinho com clientes diferentes rejeitado", rejeitado(() -> vendaController.registrarVendas(misturado)));
+                
+                verificar("Carrinhos rejeitados não gravam vendas", vendaDAO.buscarTodas().isEmpty());
+                
+                // Teste 4: carrinho válido
+                List<Venda> valido = new ArrayList<>();
+                valido.add(novaVenda(primeiro.getId(), cliente.getId()));
+                valido.add(novaVenda(segundo.getId(), cliente.getId()));
+                verificar("Carrinho válido registrado",
+                    vendaController.registrarVendas(valido) && vendaDAO.buscarTodas().size() == 2);
+            });
+            
+        } catch (Exception e) {
+            System.err.println("✗ ERRO no teste 11.8: " + e.getMessage());
+            e.printStackTrace();
+        }
+        
+        System.out.println();
+    }
+    
+    /**
+     * Teste 11.9: Migração de um banco da primeira versão do sistema
+     * - Imagens saem de produtos para a tabela de imagens, por hash
+     * - Valores monetários viram centavos, sem erro de ponto flutuante
+     * - Datas em texto viram dias desde 1970 e continuam achadas por período
+     * - Saldos e busca textual são preenchidos, a versão do esquema é gravada e não migra de novo
+     */
+    private static void testar11_9_Migracoes() {
+        System.out.println("=================================================");
+        System.out.println("  TESTE 11.9: Migrações");
+        System.out.println("=================================================\n");
+        
+        try {
+            emBancoTemporario(() -> {
+                byte[] imagem = {1, 2, 3, 4, 5, 6, 7, 8};
+                criarBancoVersao0(imagem);
+                
+                DatabaseManager.inicializarBanco();
+                
+                // Teste 1: imagem por hash
+                Produto produto = new ProdutoDAO().buscarPorId(1L);
+                verificar("Imagem migrada para o hash do conteúdo",
+                    HashUtils.sha256(imagem).equals(produto.getImagemHash())
+                        && Arrays.equals(imagem, new ImagemDAO().buscarPorHash(produto.getImagemHash())));
+                verificar("Coluna antiga da imagem removida",
+                    consultarLong("SELECT COUNT(*) FROM pragma_table_info('produtos') WHERE name = 'imagem'") == 0);
+                
+                // Teste 2: centavos
+                verificar("Valor de compra migrado para centavos",
+                    consultarLong("SELECT valor_compra_centavos FROM produtos WHERE id = 1") == 1234
+                        && produto.getValorCompra().compareTo(new BigDecimal("12.34")) == 0);
+                verificar("Valor sem representação exata em REAL migrado sem perder centavo",
+                    consultarLong("SELECT valor_compra_centavos FROM produtos WHERE id = 2") == 1999);
+                verificar("Venda migrada para centavos",
+                    consultarLong("SELECT valor_venda_centavos FROM vendas WHERE id = 1") == 5050);
+                verificar("Pagamento migrado para centavos",
+                    consultarLong("SELECT valor_pago_centavos FROM pagamentos WHERE id = 1") == 2025);
+                
+                // Teste 3: dias desde 1970
+                verificar("Data de compra migrada para dias desde 1970",
+                    consultarLong("SELECT data_compra_dia FROM produtos WHERE id = 1") == LocalDate.of(2024, 3, 15).toEpochDay()
+                        && produto.getDataCompra().equals(LocalDate.of(2024, 3, 15)));
+                verificar("Venda e pagamento migrados para dias desde 1970",
+                    consultarLong("SELECT data_venda_dia FROM vendas WHERE id = 1") == LocalDate.of(2024, 4, 1).toEpochDay()
+                        && consultarLong("SELECT data_pagamento_dia FROM pagamentos WHERE id = 1") == LocalDate.of(2024, 4, 2).toEpochDay());
+                verificar("Consulta por período acha as linhas migradas",
+                    new VendaDAO().buscarPorPeriodo(LocalDate.of(2024, 4, 1), LocalDate.of(2024, 4, 1)).size() == 1
+                        && new PagamentoDAO().buscarPorPeriodo(LocalDate.of(2024, 4, 1), LocalDate.of(2024, 4, 1)).isEmpty()
+                        && new ProdutoDAO().buscarResumosPorPeriodoCompra(LocalDate.of(2024, 3, 16), LocalDate.of(2024, 3, 31)).size() == 1);
+                verificar("Índices antigos por cliente removidos",
+                    consultarLong("SELECT COUNT(*) FROM sqlite_master WHERE name IN " +
+                        "('idx_vendas_cliente', 'idx_pagamentos_cliente')") == 0);
+                
+                // Teste 4: tabelas derivadas e versão
+                verificar("Saldo do cliente preenchido na migração",
+                    consultarLong("SELECT saldo_centavos FROM saldos_clientes WHERE cliente_id = 1") == 5050 - 2025);
+                verificar("Busca textual indexa produtos e clientes migrados",
+                    new ProdutoDAO().pesquisarResumos("antiga", false, 10).size() == 1
+                        && new ClienteDAO().pesquisarComSaldo("antigo", 10).size() == 1);
+                long versao = consultarLong("PRAGMA user_version");
+                verificar("Versão do esquema gravada", versao > 0);
+                
+                // Teste 5: inicializar de novo não migra outra vez
+                DatabaseManager.inicializarBanco();
+                verificar("Segunda inicialização mantém versão e dados",
+                    consultarLong("PRAGMA user_version") == versao
+                        && consultarLong("SELECT COUNT(*) FROM imagens") == 1
+                        && consultarLong("SELECT valor_compra_centavos FROM produtos WHERE id = 1") == 1234);
+            });
+            
+        } catch (Exception e) {
+            System.err.println("✗ ERRO no teste 11.9: " + e.getMessage());
+            e.printStackTrace();
+        }
+        
+        System.out.println();
+    }
+    
+    /**
+     * Teste 11.10: Valores monetários em centavos
+     * - Conversão de reais arredonda meio centavo para cima (HALF_UP)
+     * - Valores que não cabem em centavos são rejeitados em vez de truncados
+     */
+    private static void testar11_10_Dinheiro() {
+        System.out.println("=================================================");
+        System.out.println("  TESTE 11.10: Dinheiro");
+        System.out.println("=================================================\n");
+        
+        try {
+            // Teste 1: arredondamento
+            verificar("Meio centavo arredondado para cima",
+                Dinheiro.centavosDe(new BigDecimal("2.345")) == 235
+                    && Dinheiro.centavosDe(new BigDecimal("2.344")) == 234);
+            verificar("Meio centavo negativo arredondado para longe do zero",
+                Dinheiro.centavosDe(new BigDecimal("-2.345")) == -235);
+            verificar("Valor com duas casas convertido sem arredondar",
+                Dinheiro.de(new BigDecimal("19.99")).getCentavos() == 1999
+                    && Dinheiro.deCentavos(1999).toBigDecimal().equals(new BigDecimal("19.99")));
+            
+            // Teste 2: estouro
+            BigDecimal maximo = BigDecimal.valueOf(Long.MAX_VALUE, 2);
+            verificar("Maior valor representável aceito",
+                Dinheiro.de(maximo).getCentavos() == Long.MAX_VALUE);
+            verificar("Valor acima de um long de centavos rejeitado",
+                estourou(() -> Dinheiro.de(maximo.add(new BigDecimal("0.01")))));
+            verificar("Soma que estoura rejeitada",
+                estourou(() -> Dinheiro.deCentavos(Long.MAX_VALUE).somar(Dinheiro.deCentavos(1))));
+            verificar("Subtração que estoura rejeitada",
+                estourou(() -> Dinheiro.deCentavos(Long.MIN_VALUE).subtrair(Dinheiro.deCentavos(1))));
+            
+        } catch (Exception e) {
+            System.err.println("✗ ERRO no teste 11.10: " + e.getMessage());
+            e.printStackTrace();
+        }
+        
+        System.out.println();
+    }
+    
+    /**
+     * Teste 11.11: Paginação por token de continuação
+     * - Percorrer as páginas retorna cada linha exatamente uma vez,
+     *   inclusive nomes iguais sem diferenciar maiúsculas
+     * - Token adulterado ou inválido é rejeitado
+     */
+    private static void testar11_11_Paginacao() {
+        System.out.println("=================================================");
+        System.out.println("  TESTE 11.11: Paginação");
+        System.out.println("=================================================\n");
+        
+        try {
+            emBancoTemporario(() -> {
+                DatabaseManager.inicializarBanco();
+                ClienteDAO clienteDAO = new ClienteDAO();
+                ProdutoDAO produtoDAO = new ProdutoDAO();
+                VendaDAO vendaDAO = new VendaDAO();
+                
+                // Nomes repetidos com caixas diferentes caem em páginas diferentes
+                String[] nomes = {"ana", "Bia", "ANA", "Ana", "bia", "Carlos", "Ana", "ana"};
+                List<Long> clientes = new ArrayList<>();
+                for (String nome : nomes) {
+                    clientes.add(novoCliente(nome).getId());
+                }
+                List<Long> produtos = new ArrayList<>();
+                for (int i = 0; i < 8; i++) {
+                    Produto produto = novoProduto("Camisa Página " + i, "M", false);
+                    produtoDAO.inserir(produto);
+                    produtos.add(produto.getId());
+                }
+                // Vendas com datas repetidas: a ordem desempata pelo ID
+                List<Long> vendas = new ArrayList<>();
+                for (int i = 0; i < 6; i++) {
+                    Venda venda = novaVenda(produtos.get(i), clientes.get(i % 2));
+                    venda.setDataVenda(LocalDate.now().minusDays(i / 3));
+                    vendaDAO.inserir(venda);
+                    vendas.add(venda.getId());
+                }
+                
+                // Teste 1: cada linha aparece exatamente uma vez
+                List<Long> clientesPaginados = percorrerPaginas(t -> clienteDAO.buscarPagina(t, 3), Cliente::getId);
+                verificar("Páginas de clientes retornam cada cliente uma vez",
+                    clientesPaginados.size() == clientes.size() && clientesPaginados.containsAll(clientes));
+                
+                List<Long> produtosPaginados = percorrerPaginas(t -> produtoDAO.buscarPaginaResumos(t, 3), ProdutoResumo::getId);
+                verificar("Páginas de produtos retornam cada produto uma vez", produtosPaginados.equals(produtos));
+                
+                List<Long> vendasPaginadas = percorrerPaginas(t -> vendaDAO.buscarPagina(t, 4), Venda::getId);
+                verificar("Páginas de vendas retornam cada venda uma vez",
+                    vendasPaginadas.size() == vendas.size() && vendasPaginadas.containsAll(vendas));
+                
+                List<Long> vendasCliente = percorrerPaginas(t -> vendaDAO.buscarPaginaPorCliente(clientes.get(0), t, 2), Venda::getId);
+                verificar("Páginas de vendas do cliente retornam só as do cliente", vendasCliente.size() == 3);
+                
+                // Teste 2: tokens inválidos
+                String token = clienteDAO.buscarPagina(null, 3).getContinuacao();
+                verificar("Token sem separador rejeitado", rejeitadoNoBanco(t -> clienteDAO.buscarPagina("abc", 3)));
+                verificar("Token com Base64 inválido rejeitado", rejeitadoNoBanco(t -> clienteDAO.buscarPagina("!!!" + token.substring(token.indexOf('.')), 3)));
+                verificar("Token com ID adulterado rejeitado",
+                    rejeitadoNoBanco(t -> clienteDAO.buscarPagina(token.substring(0, token.indexOf('.') + 1) + "eA", 3)));
+                verificar("Token de produto com chave não numérica rejeitado",
+                    rejeitadoNoBanco(t -> produtoDAO.buscarPaginaResumos("eA", 3)));
+                verificar("Token de venda com chaves a mais rejeitado",
+                    rejeitadoNoBanco(t -> vendaDAO.buscarPagina(token + ".MQ", 3)));
+            });
+            
+        } catch (Exception e) {
+            System.err.println("✗ ERRO no teste 11.11: " + e.getMessage());
+            e.printStackTrace();
+        }
+        
+        System.out.println();
+    }
+    
+    /**
+     * Teste 11.12: Consultas em streaming
+     * - Cada linha é entregue ao consumidor, na ordem da consulta
+     * - Exceção do consumidor chega a quem chamou e libera statement e conexão
+     */
+    private static void testar11_12_ConsultaStreaming() {
+        System.out.println("=================================================");
+        System.out.println("  TESTE 11.12: Consultas em Streaming");
+        System.out.println("=================================================\n");
+        
+        try {
+            emBancoTemporario(() -> {
+                DatabaseManager.inicializarBanco();
+                ClienteDAO clienteDAO = new ClienteDAO();
+                for (int i = 0; i < 5; i++) {
+                    novoCliente("Cliente Streaming " + i);
+                }
+                
+                // Teste 1: todas as linhas entregues
+                List<String> nomes = new ArrayList<>();
+                long linhas = clienteDAO.percorrerTodos(cliente -> nomes.add(cliente.getNome()));
+                verificar("Streaming entrega todas as linhas em ordem",
+                    linhas == 5 && nomes.size() == 5 && nomes.get(0).equals("Cliente Streaming 0"));
+                
+                // Teste 2: consumidor falha na segunda linha
+                IllegalStateException falha = new IllegalStateException("falha simulada");
+                List<Cliente> recebidos = new ArrayList<>();
+                RuntimeException lancada = null;
+                try {
+                    clienteDAO.percorrerTodos(cliente -> {
+                        recebidos.add(cliente);
+                        if (recebidos.size() == 2) {
+                            throw falha;
+                        }
+                    });
+                } catch (RuntimeException e) {
+                    lancada = e;
+                }
+                verificar("Exceção do consumidor chega a quem chamou", lancada == falha && recebidos.size() == 2);
+                verificar("Conexão devolvida ao pool após a exceção",
+                    DatabaseManager.getEstatisticasPool().getAtivas() == 0);
+                
+                // O statement só volta ao cache se tiver sido fechado
+                long acertos = DatabaseManager.getEstatisticasPool().getAcertosCache();
+                clienteDAO.percorrerTodos(cliente -> { });
+                verificar("Statement fechado após a exceção e reaproveitado",
+                    DatabaseManager.getEstatisticasPool().getAcertosCache() == acertos + 1);
+            });
+            
+        } catch (Exception e) {
+            System.err.println("✗ ERRO no teste 11.12: " + e.getMessage());
+            e.printStackTrace();
+        }
+        
+        System.out.println();
+    }
+    
+    /**
+     * Teste 11.13: Saldos dos clientes
+     * - Verificação aponta saldos alterados, ausentes e sobrando
+     * - Reconstrução volta a conferir com vendas e pagamentos
+     */
+    private static void testar11_13_SaldosClientes() {
+        System.out.println("=================================================");
+        System.out.println("  TESTE 11.13: Saldos dos Clientes");
+        System.out.println("=================================================\n");
+        
+        try {
+            emBancoTemporario(() -> {
+                DatabaseManager.inicializarBanco();
+                ProdutoDAO produtoDAO = new ProdutoDAO();
+                VendaDAO vendaDAO = new VendaDAO();
+                PagamentoDAO pagamentoDAO = new PagamentoDAO();
+                SaldoClienteDAO saldoClienteDAO = new SaldoClienteDAO();
+                
+                Cliente ana = novoCliente("Ana Saldo");
+                Cliente bruno = novoCliente("Bruno Saldo");
+                Cliente carla = novoCliente("Carla Saldo");
+                String[] valores = {"50.00", "30.00", "40.00"};
+                Long[] compradores = {ana.getId(), ana.getId(), bruno.getId()};
+                for (int i = 0; i < valores.length; i++) {
+                    Produto produto = novoProduto("Camisa Saldo " + i, "M", false);
+                    produtoDAO.inserir(produto);
+                    Venda venda = novaVenda(produto.getId(), compradores[i]);
+                    venda.setValorVenda(new BigDecimal(valores[i]));
+                    vendaDAO.inserir(venda);
+                }
+                pagamentoDAO.inserir(new Pagamento(null, ana.getId(), LocalDate.now(), new BigDecimal("20.00"), null));
+                pagamentoDAO.inserir(new Pagamento(null, bruno.getId(), LocalDate.now(), new BigDecimal("40.00"), null));
+                
+                verificar("Saldos mantidos pelos gatilhos conferem", saldoClienteDAO.verificar().isEmpty());
+                
+                // Teste 1: saldo alterado, saldo apagado e saldo de quem não tem movimento
+                executarSql("UPDATE saldos_clientes SET saldo_centavos = 99999 WHERE cliente_id = " + ana.getId());
+                executarSql("DELETE FROM saldos_clientes WHERE cliente_id = " + bruno.getId());
+                executarSql("INSERT INTO saldos_clientes (cliente_id, total_vendas_centavos, total_pago_centavos, " +
+                    "saldo_centavos) VALUES (" + carla.getId() + ", 100, 0, 100)");
+                verificar("Verificação aponta os saldos divergentes",
+                    saldoClienteDAO.verificar().equals(Arrays.asList(ana.getId(), bruno.getId(), carla.getId())));
+                
+                // Teste 2: reconstrução
+                saldoClienteDAO.reconstruir();
+                verificar("Saldos conferem depois da reconstrução", saldoClienteDAO.verificar().isEmpty());
+                boolean recalculados = true;
+                for (Cliente cliente : new Cliente[] {ana, bruno, carla}) {
+                    SaldoCliente saldo = saldoClienteDAO.buscarPorCliente(cliente.getId());
+                    long vendas = consultarLong("SELECT COALESCE(SUM(valor_venda_centavos), 0) FROM vendas " +
+                        "WHERE cliente_id = " + cliente.getId());
+                    long pago = consultarLong("SELECT COALESCE(SUM(valor_pago_centavos), 0) FROM pagamentos " +
+                        "WHERE cliente_id = " + cliente.getId());
+                    recalculados &= saldo.getTotalVendas().getCentavos() == vendas
+                        && saldo.getTotalPago().getCentavos() == pago
+                        && saldo.getSaldo().getCentavos() == vendas - pago;
+                }
+                verificar("Saldos reconstruídos iguais ao recálculo das vendas e pagamentos", recalculados);
+            });
+            
+        } catch (Exception e) {
+            System.err.println("✗ ERRO no teste 11.13: " + e.getMessage());
+            e.printStackTrace();
+        }
+        
+        System.out.println();
+    }
+    
+    /**
+     * Teste 11.14: Resumo financeiro
+     * - Verificação aponta o resumo alterado
+     * - Reconstrução volta a conferir com produtos e vendas
+     */
+    private static void testar11_14_ResumoFinanceiro() {
+        System.out.println("=================================================");
+        System.out.println("  TESTE 11.14: Resumo Financeiro");
+        System.out.println("=================================================\n");
+        
+        try {
+            emBancoTemporario(() -> {
+                DatabaseManager.inicializarBanco();
+                ProdutoDAO produtoDAO = new ProdutoDAO();
+                GerenciamentoController gerenciamentoController = new GerenciamentoController();
+                
+                Cliente cliente = novoCliente("Cliente Resumo");
+                for (int i = 0; i < 3; i++) {
+                    produtoDAO.inserir(novoProduto("Camisa Resumo " + i, "M", false));
+                }
+                Produto vendido = novoProduto("Camisa Resumo Vendida", "G", false);
+                produtoDAO.inserir(vendido);
+                new VendaController().registrarVenda(novaVenda(vendido.getId(), cliente.getId()));
+                
+                verificar("Resumo mantido pelos gatilhos confere", gerenciamentoController.verificarResumoFinanceiro());
+                ResumoFinanceiro antes = gerenciamentoController.obterResumoFinanceiro();
+                
+                // Teste 1: resumo alterado
+                executarSql("UPDATE resumo_financeiro SET total_gasto_centavos = 1, quantidade_estoque = 99 WHERE id = 1");
+                verificar("Verificação aponta o resumo divergente", !gerenciamentoController.verificarResumoFinanceiro());
+                
+                // Teste 2: reconstrução, inclusive do resumo em cache
+                gerenciamentoController.reconstruirResumoFinanceiro();
+                verificar("Resumo confere depois da reconstrução", gerenciamentoController.verificarResumoFinanceiro());
+                ResumoFinanceiro depois = gerenciamentoController.obterResumoFinanceiro();
+                verificar("Resumo reconstruído igual ao recálculo dos produtos e vendas",
+                    depois.getTotalGasto().getCentavos() == consultarLong("SELECT SUM(valor_compra_centavos) FROM produtos")
+                        && depois.getTotalRecebido().getCentavos() == consultarLong("SELECT SUM(valor_venda_centavos) FROM vendas")
+                        && depois.getQuantidadeEmEstoque() == 3
+                        && depois.getValorEmEstoque().getCentavos() == 9000
+                        && depois.getTotalGasto().equals(antes.getTotalGasto()));
+            });
+            
+        } catch (Exception e) {
+            System.err.println("✗ ERRO no teste 11.14: " + e.getMessage());
+            e.printStackTrace();
+        }
+        
+        System.out.println();
+    }
+    
+    /**
+     * Teste 11.15: Listagem de clientes com saldo
+     * - Uma linha por cliente, em ordem alfabética sem diferenciar maiúsculas
+     * - Totais e saldo de cada cliente iguais à soma das vendas e pagamentos
+     * - Clientes sem movimento vêm com valores zerados
+     */
+    private static void testar11_15_ListagemComSaldo() {
+        System.out.println("=================================================");
+        System.out.println("  TESTE 11.15: Listagem com Saldo");
+        System.out.println("=================================================\n");
+        
+        try {
+            emBancoTemporario(() -> {
+                DatabaseManager.inicializarBanco();
+                ProdutoDAO produtoDAO = new ProdutoDAO();
+                VendaDAO vendaDAO = new VendaDAO();
+                PagamentoDAO pagamentoDAO = new PagamentoDAO();
+                
+                Cliente bruno = novoCliente("bruno Lista");
+                Cliente ana = novoCliente("Ana Lista");
+                Cliente carla = novoCliente("Carla Lista");
+                String[] valores = {"50.00", "30.00", "40.00"};
+                Long[] compradores = {ana.getId(), ana.getId(), bruno.getId()};
+                for (int i = 0; i < valores.length; i++) {
+                    Produto produto = novoProduto("Camisa Lista " + i, "M", false);
+                    produtoDAO.inserir(produto);
+                    Venda venda = novaVenda(produto.getId(), compradores[i]);
+                    venda.setValorVenda(new BigDecimal(valores[i]));
+                    vendaDAO.inserir(venda);
+                }
+                pagamentoDAO.inserir(new Pagamento(null, ana.getId(), LocalDate.now(), new BigDecimal("20.00"), null));
+                pagamentoDAO.inserir(new Pagamento(null, ana.getId(), LocalDate.now(), new BigDecimal("5.00"), null));
+                pagamentoDAO.inserir(new Pagamento(null, bruno.getId(), LocalDate.now(), new BigDecimal("40.00"), null));
+                
+                List<ClienteComSaldo> listagem = new ClienteController().listarClientesComSaldo();
+                
+                // Teste 1: uma linha por cliente, em ordem alfabética
+                verificar("Listagem traz cada cliente uma vez em ordem alfabética",
+                    listagem.size() == 3 && listagem.get(0).getCliente().getId().equals(ana.getId())
+                        && listagem.get(1).getCliente().getId().equals(bruno.getId())
+                        && listagem.get(2).getCliente().getId().equals(carla.getId()));
+                
+                // Teste 2: totais agrupados por cliente
+                boolean conferem = true;
+                for (ClienteComSaldo item : listagem) {
+                    long vendas = consultarLong("SELECT COALESCE(SUM(valor_venda_centavos), 0) FROM vendas " +
+                        "WHERE cliente_id = " + item.getCliente().getId());
+                    long pago = consultarLong("SELECT COALESCE(SUM(valor_pago_centavos), 0) FROM pagamentos " +
+                        "WHERE cliente_id = " + item.getCliente().getId());
+                    conferem &= item.getTotalComprado().getCentavos() == vendas
+                        && item.getTotalPago().getCentavos() == pago
+                        && item.getSaldo().getCentavos() == vendas - pago;
+                }
+                verificar("Totais da listagem iguais à soma das vendas e pagamentos", conferem);
+                verificar("Cliente com várias vendas e pagamentos somados uma vez",
+                    listagem.get(0).getTotalComprado().getCentavos() == 8000
+                        && listagem.get(0).getSaldo().getCentavos() == 5500 && listagem.get(0).isDevedor());
+                verificar("Cliente quitado e cliente sem movimento com saldo zero",
+                    listagem.get(1).getSaldo().isZero() && !listagem.get(1).isDevedor()
+                        && listagem.get(2).getSaldo().isZero() && listagem.get(2).getTotalComprado().isZero());
+            });
+            
+        } catch (Exception e) {
+            System.err.println("✗ ERRO no teste 11.15: " + e.getMessage());
+            e.printStackTrace();
+        }
+        
+        System.out.println();
+    }
+    
+    /**
+     * Teste 11.16: Índice de pesquisa em memória
+     * - Início do texto vem antes de início de palavra, que vem antes do meio
+     * - Acentos e maiúsculas são ignorados no texto e na pesquisa
+     * - Com vários termos, só voltam os itens que casam com todos
+     */
+    private static void testar11_16_IndiceBusca() {
+        System.out.println("=================================================");
+        System.out.println("  TESTE 11.16: Índice de Pesquisa");
+        System.out.println("=================================================\n");
+        
+        try {
+            IndiceBusca<String> indice = new IndiceBusca<>(texto -> texto, Comparator.naturalOrder());
+            indice.adicionar(1L, "Camisa Flamengo Retrô");
+            indice.adicionar(2L, "Retrô Seleção Brasileira");
+            indice.adicionar(3L, "Camisa Corinthians");
+            indice.adicionar(4L, "Bermuda retro");
+            indice.adicionar(6L, "Camisa Neoretrô");
+            
+            // Teste 1: relevância, com desempate pela ordem do índice
+            verificar("Pesquisa ordena por início do texto, de palavra e meio de palavra",
+                indice.pesquisar("retro", 10).equals(Arrays.asList(
+                    "Retrô Seleção Brasileira", "Bermuda retro", "Camisa Flamengo Retrô", "Camisa Neoretrô")));
+            verificar("Pesquisa respeita o limite mantendo os mais relevantes",
+                indice.pesquisar("retro", 2).equals(Arrays.asList("Retrô Seleção Brasileira", "Bermuda retro")));
+            
+            // Teste 2: acentos e maiúsculas
+            verificar("Pesquisa sem acento acha texto acentuado",
+                indice.pesquisar("selecao", 10).equals(Collections.singletonList("Retrô Seleção Brasileira")));
+            verificar("Pesquisa acentuada e maiúscula acha o mesmo item",
+                indice.pesquisar("SELEÇÃO", 10).equals(indice.pesquisar("selecao", 10)));
+            
+            // Teste 3: todos os termos
+            verificar("Vários termos exigem todos",
+                indice.pesquisar("camisa retro", 10).equals(Arrays.asList("Camisa Flamengo Retrô", "Camisa Neoretrô")));
+            verificar("Termo sem correspondência esvazia o resultado",
+                indice.pesquisar("camisa palmeiras", 10).isEmpty());
+            
+            // Teste 4: remoção
+            indice.remover(2L);
+            verificar("Item removido some da pesquisa",
+                indice.pesquisar("selecao", 10).isEmpty() && indice.tamanho() == 4);
+            
+        } catch (Exception e) {
+            System.err.println("✗ ERRO no teste 11.16: " + e.getMessage());
+            e.printStackTrace();
+        }
+        
+        System.out.println();
+    }
+    
+    /**
+     * Teste 11.17: Índice de facetas
+     * - Valores marcados da mesma faceta somam (OR) e facetas diferentes restringem (AND)
+     * - As contagens de uma faceta ignoram o filtro dela mesma
+     */
+    private static void testar11_17_IndiceFacetas() {
+        System.out.println("=================================================");
+        System.out.println("  TESTE 11.17: Índice de Facetas");
+        System.out.println("=================================================\n");
+        
+        try {
+            // Itens no formato "tamanho:situação"
+            IndiceFacetas<FacetasEstoque.Faceta, String> indice = new IndiceFacetas<>(FacetasEstoque.Faceta.class);
+            indice.definirFaceta(FacetasEstoque.Faceta.TAMANHO, item -> item.split(":")[0], Comparator.naturalOrder());
+            indice.definirFaceta(FacetasEstoque.Faceta.SITUACAO, item -> item.split(":")[1], Comparator.naturalOrder());
+            String[] itens = {"P:disponivel", "M:disponivel", "M:vendido", "G:vendido", "G:disponivel", "M:disponivel"};
+            for (int i = 0; i < itens.length; i++) {
+                indice.adicionar((long) i + 1, itens[i]);
+            }
+            
+            Map<FacetasEstoque.Faceta, Set<String>> selecao = new EnumMap<>(FacetasEstoque.Faceta.class);
+            selecao.put(FacetasEstoque.Faceta.TAMANHO, new HashSet<>(Arrays.asList("M", "G")));
+            
+            // Teste 1: OR dentro da faceta
+            IndiceFacetas.Resultado<FacetasEstoque.Faceta, String> resultado = indice.filtrar(selecao);
+            verificar("Valores da mesma faceta somam", resultado.getItens().size() == 5);
+            
+            // Teste 2: AND entre facetas, contagens sem o próprio filtro
+            selecao.put(FacetasEstoque.Faceta.TAMANHO, Collections.singleton("M"));
+            selecao.put(FacetasEstoque.Faceta.SITUACAO, Collections.singleton("disponivel"));
+            resultado = indice.filtrar(selecao);
+            verificar("Facetas diferentes restringem",
+                resultado.getItens().equals(Arrays.asList("M:disponivel", "M:disponivel")));
+            Map<String, Integer> tamanhos = resultado.getContagens(FacetasEstoque.Faceta.TAMANHO);
+            verificar("Contagem de tamanho ignora o filtro de tamanho e aplica o de situação",
+                tamanhos.get("P") == 1 && tamanhos.get("M") == 2 && tamanhos.get("G") == 1);
+            Map<String, Integer> situacoes = resultado.getContagens(FacetasEstoque.Faceta.SITUACAO);
+            verificar("Contagem de situação ignora o filtro de situação e aplica o de tamanho",
+                situacoes.get("disponivel") == 2 && situacoes.get("vendido") == 1);
+            
+            // Teste 3: item removido sai das contagens
+            indice.remover(6L);
+            resultado = indice.filtrar(selecao);
+            verificar("Item removido sai do filtro e das contagens",
+                resultado.getItens().size() == 1
+                    && resultado.getContagens(FacetasEstoque.Faceta.TAMANHO).get("M") == 1);
+            
+        } catch (Exception e) {
+            System.err.println("✗ ERRO no teste 11.17: " + e.getMessage());
+            e.printStackTrace();
+        }
+        
+        System.out.println();
+    }
+    
+    /**
+     * Teste 11.18: Cache LRU
+     * - Acima da capacidade sai o item usado há mais tempo
+     * - Valor lido antes de uma invalidação não é guardado
+     * - Com pesos, saem os usados há mais tempo até a soma caber
+     * - Resultados de consultas expiram após a validade, se houver
+     */
+    private static void testar11_18_CacheLRU() {
+        System.out.println("=================================================");
+        System.out.println("  TESTE 11.18: Cache LRU");
+        System.out.println("=================================================\n");
+        
+        try {
+            // Teste 1: remoção do usado há mais tempo
+            CacheLRU<Long, String> cache = new CacheLRU<>("teste", 2);
+            cache.colocar(1L, "um", cache.getGeracao());
+            cache.colocar(2L, "dois", cache.getGeracao());
+            cache.obter(1L);
+            cache.colocar(3L, "três", cache.getGeracao());
+            verificar("Item usado há mais tempo removido acima da capacidade",
+                cache.obter(2L) == null && "um".equals(cache.obter(1L)) && "três".equals(cache.obter(3L))
+                    && cache.getEstatisticas().getRemocoes() == 1);
+            
+            // Teste 2: geração
+            long antesDaLeitura = cache.getGeracao();
+            cache.remover(Collections.singleton(1L));
+            cache.colocar(1L, "um lido antes da alteração", antesDaLeitura);
+            verificar("Valor lido antes de uma invalidação não é guardado", cache.obter(1L) == null);
+            cache.colocar(1L, "um relido", cache.getGeracao());
+            verificar("Valor lido depois da invalidação é guardado", "um relido".equals(cache.obter(1L)));
+            
+            long antesDaLimpeza = cache.getGeracao();
+            cache.limpar();
+            cache.colocar(3L, "três", antesDaLimpeza);
+            verificar("Limpeza também invalida leituras em andamento",
+                cache.tamanho() == 0 && cache.getEstatisticas().getInvalidacoes() == 2);
+            
+            // Teste 3: capacidade por peso (tamanho do texto)
+            CacheLRU<Long, String> pesado = new CacheLRU<>("teste-peso", 10, String::length);
+            pesado.colocar(1L, "aaaa", pesado.getGeracao());
+            pesado.colocar(2L, "bbbb", pesado.getGeracao());
+            pesado.obter(1L);
+            pesado.colocar(3L, "ccccc", pesado.getGeracao());
+            verificar("Itens usados há mais tempo removidos até o peso caber",
+                pesado.obter(2L) == null && pesado.obter(1L) != null && pesado.obter(3L) != null
+                    && pesado.getEstatisticas().getOcupacao() == 9 && pesado.getEstatisticas().getRemocoes() == 1);
+            
+            pesado.colocar(1L, "a", pesado.getGeracao());
+            pesado.colocar(4L, "dddd", pesado.getGeracao());
+            verificar("Substituir um item desconta o peso anterior",
+                pesado.tamanho() == 3 && pesado.getEstatisticas().getOcupacao() == 10
+                    && pesado.getEstatisticas().getRemocoes() == 1);
+            
+            pesado.colocar(3L, "maior que a capacidade", pesado.getGeracao());
+            verificar("Item maior que a capacidade não esvazia o cache e descarta o valor anterior",
+                pesado.obter(3L) == null && pesado.tamanho() == 2 && pesado.getEstatisticas().getOcupacao() == 5);
+            
+            // Teste 4: validade dos resultados de consultas
+            int[] consultas = new int[1];
+            CacheConsultas.Consulta<Integer> contar = () -> ++consultas[0];
+            CacheConsultas comValidade = new CacheConsultas(10, 50);
+            CacheConsultas semValidade = new CacheConsultas(10, 0);
+            comValidade.obter("total", contar, "tabela");
+            comValidade.obter("total", contar, "tabela");
+            semValidade.obter("total", contar, "tabela");
+            verificar("Resultado em cache atendido sem consultar de novo", consultas[0] == 2);
+            Thread.sleep(80);
+            verificar("Resultado expira depois da validade",
+                comValidade.obter("total", contar, "tabela") == 3);
+            verificar("Validade 0 mantém o resultado até uma alteração",
+                semValidade.obter("total", contar, "tabela") == 2);
+            
+        } catch (Exception e) {
+            System.err.println("✗ ERRO no teste 11.18: " + e.getMessage());
+            e.printStackTrace();
+        }
+        
+        System.out.println();
+    }
+    
+    /**
+     * Teste 11.19: Miniaturas gravadas em disco
+     * - Miniaturas gravadas voltam iguais depois de reabrir o armazém
+     * - Registro incompleto no fim do índice é descartado ao abrir
+     * - Arquivo de pixels acima do limite recomeça vazio
+     */
+    private static void testar11_19_ArmazemMiniaturas() {
+        System.out.println("=================================================");
+        System.out.println("  TESTE 11.19: Armazém de Miniaturas");
+        System.out.println("=================================================\n");
+        
+        try {
+            Path pasta = Files.createTempDirectory("vendas-miniaturas");
+            Path indice = pasta.resolve("miniaturas.idx");
+            Path pixels = pasta.resolve("miniaturas.dat");
+            BufferedImage opaca = new BufferedImage(4, 3, BufferedImage.TYPE_INT_RGB);
+            BufferedImage transparente = new BufferedImage(2, 2, BufferedImage.TYPE_INT_ARGB);
+            for (int i = 0; i < 12; i++) {
+                opaca.setRGB(i % 4, i / 4, 0xFF000000 | (i * 0x151515));
+            }
+            transparente.setRGB(1, 1, 0x80FF0000);
+            try {
+                // Teste 1: reabrir
+                ArmazemMiniaturas armazem = new ArmazemMiniaturas(pasta, 1024 * 1024);
+                armazem.gravar("opaca", opaca);
+                armazem.gravar("transparente", transparente);
+                armazem.fechar();
+                ArmazemMiniaturas reaberto = new ArmazemMiniaturas(pasta, 1024 * 1024);
+                verificar("Miniaturas voltam iguais depois de reabrir",
+                    reaberto.tamanho() == 2 && mesmosPixels(opaca, reaberto.ler("opaca"))
+                        && mesmosPixels(transparente, reaberto.ler("transparente"))
+                        && reaberto.ler("transparente").getColorModel().hasAlpha());
+                reaberto.fechar();
+                
+                // Teste 2: índice cortado no meio do último registro
+                Files.write(indice, Arrays.copyOf(Files.readAllBytes(indice), (int) Files.size(indice) - 3));
+                ArmazemMiniaturas cortado = new ArmazemMiniaturas(pasta, 1024 * 1024);
+                verificar("Registro incompleto do índice descartado",
+                    cortado.tamanho() == 1 && cortado.ler("transparente") == null
+                        && mesmosPixels(opaca, cortado.ler("opaca")));
+                cortado.gravar("transparente", transparente);
+                cortado.fechar();
+                ArmazemMiniaturas regravado = new ArmazemMiniaturas(pasta, 1024 * 1024);
+                verificar("Registro gravado depois do corte fica legível",
+                    regravado.tamanho() == 2 && mesmosPixels(transparente, regravado.ler("transparente")));
+                regravado.fechar();
+                
+                // Teste 3: limite (os pixels gravados ocupam 64 bytes)
+                ArmazemMiniaturas limitado = new ArmazemMiniaturas(pasta, 40);
+                verificar("Armazém acima do limite recomeça vazio",
+                    limitado.tamanho() == 0 && limitado.ler("opaca") == null);
+                limitado.gravar("opaca", opaca);
+                limitado.gravar("transparente", transparente);
+                verificar("Miniatura que passaria do limite não é gravada",
+                    limitado.tamanho() == 1 && limitado.ler("opaca") == null && Files.size(pixels) == 16);
+                limitado.fechar();
+            } finally {
+                for (Path arquivo : new Path[] {indice, pixels, pasta}) {
+                    Files.deleteIfExists(arquivo);
+                }
+            }
+            
+        } catch (Exception e) {
+            System.err.println("✗ ERRO no teste 11.19: " + e.getMessage());
+            e.printStackTrace();
+        }
+        
+        System.out.println();
+    }
+    
+    /**
+     * Teste 11.20: Orientação EXIF das fotos
+     * - As oito orientações giram e espelham a foto normalizada
+     * - A tag é lida nas duas ordens de bytes do TIFF
+     * - Um bloco EXIF cortado não gira a foto
+     */
+    private static void testar11_20_OrientacaoExif() {
+        System.out.println("=================================================");
+        System.out.println("  TESTE 11.20: Orientação EXIF");
+        System.out.println("=================================================\n");
+        
+        try {
+            // Foto 40x20 com um bloco vermelho no canto superior esquerdo
+            BufferedImage foto = new BufferedImage(40, 20, BufferedImage.TYPE_INT_RGB);
+            for (int y = 0; y < 20; y++) {
+                for (int x = 0; x < 40; x++) {
+                    foto.setRGB(x, y, x < 10 && y < 10 ? 0xFF0000 : 0xFFFFFF);
+                }
+            }
+            String[] cantos = {"", "TL", "TR", "BR", "BL", "TL", "TR", "BR", "BL"};
+            
+            // Teste 1: as oito orientações, em Motorola (MM)
+            boolean todas = true;
+            for (int orientacao = 1; orientacao <= 8; orientacao++) {
+                byte[] jpeg = jpegComExif(foto, tiffOrientacao(orientacao, false));
+                BufferedImage normalizada = ImageIO.read(new ByteArrayInputStream(
+                    ProcessadorImagens.normalizar(jpeg).getDados()));
+                boolean deitada = orientacao >= 5;
+                boolean certa = normalizada.getWidth() == (deitada ? 20 : 40)
+                    && normalizada.getHeight() == (deitada ? 40 : 20)
+                    && cantos[orientacao].equals(cantoVermelho(normalizada));
+                if (!certa) {
+                    System.out.println("  orientação " + orientacao + ": " + normalizada.getWidth() + "x"
+                        + normalizada.getHeight() + " " + cantoVermelho(normalizada));
+                }
+                todas &= certa;
+            }
+            verificar("Orientações 1 a 8 giradas e espelhadas", todas);
+            
+            // Teste 2: ordem de bytes Intel (II)
+            byte[] intel = jpegComExif(foto, tiffOrientacao(6, true));
+            BufferedImage girada = ImageIO.read(new ByteArrayInputStream(
+                ProcessadorImagens.normalizar(intel).getDados()));
+            verificar("Orientação lida em little-endian",
+                girada.getWidth() == 20 && girada.getHeight() == 40
+                    && "TR".equals(cantoVermelho(girada)));
+            
+            // Teste 3: APP1 cortado (diretório fora do segmento e entrada pela metade)
+            boolean intactas = true;
+            for (int tamanho : new int[] {8, 18}) {
+                byte[] cortado = jpegComExif(foto, Arrays.copyOf(tiffOrientacao(6, false), tamanho));
+                BufferedImage normalizada = ImageIO.read(new ByteArrayInputStream(
+                    ProcessadorImagens.normalizar(cortado).getDados()));
+                intactas &= normalizada.getWidth() == 40 && "TL".equals(cantoVermelho(normalizada));
+            }
+            verificar("APP1 cortado não gira a foto", intactas);
+            
+        } catch (Exception e) {
+            System.err.println("✗ ERRO no teste 11.20: " + e.getMessage());
+            e.printStackTrace();
+        }
+        
+        System.out.println();
+    }
+    
+    /**
+     * Teste 11.21: Busca textual
+     * - Filtro de disponíveis aplicado antes do limite de candidatos
+     * - Relevância entre todos os resultados, quando são poucos
+     * - Relevância entre os mais recentes, quando passam do limite de candidatos
+     */
+    private static void testar11_21_BuscaTextual() {
+        System.out.println("=================================================");
+        System.out.println("  TESTE 11.21: Busca Textual");
+        System.out.println("=================================================\n");
+        
+        try {
+            emBancoTemporario(() -> {
+                DatabaseManager.inicializarBanco();
+                ProdutoDAO produtoDAO = new ProdutoDAO();
+                ClienteDAO clienteDAO = new ClienteDAO();
+                
+                // Teste 1: produto disponível mais antigo que 1100 vendidos com o mesmo texto
+                Produto disponivel = novoProduto("Camisa Retrô Raridade", "M", false);
+                produtoDAO.inserir(disponivel);
+                List<Produto> vendidos = new ArrayList<>();
+                for (int i = 0; i < 1100; i++) {
+                    vendidos.add(novoProduto("Camisa Retrô Vendida " + i, "G", true));
+                }
+                DatabaseManager.executarTransacao(conn -> {
+                    produtoDAO.inserirLote(conn, vendidos);
+                    return null;
+                });
+                
+                List<ProdutoResumo> disponiveis = produtoDAO.pesquisarResumos("retro", true, 100);
+                verificar("Pesquisa de disponíveis acha o antigo entre mais de 1000 vendidos",
+                    disponiveis.size() == 1 && disponiveis.get(0).getId().equals(disponivel.getId()));
+                verificar("Pesquisa sem filtro retorna até o limite",
+                    produtoDAO.pesquisarResumos("retro", false, 100).size() == 100);
+                
+                // Teste 2: com poucos resultados, o mais relevante vem primeiro mesmo sendo o mais antigo
+                Cliente relevante = new Cliente();
+                relevante.setNome("Moura Moura Teste");
+                relevante.setEmail("moura@moura.com");
+                clienteDAO.inserir(relevante);
+                inserirClientes("Cliente Moura Teste ", 20);
+                
+                List<ClienteComSaldo> poucos = clienteDAO.pesquisarComSaldo("moura", 5);
+                verificar("Cliente mais relevante vem primeiro entre poucos resultados",
+                    !poucos.isEmpty() && poucos.get(0).getCliente().getId().equals(relevante.getId()));
+                
+                // Teste 3: com mais resultados que os 1000 candidatos, a relevância é
+                // ordenada entre os mais recentes (comportamento documentado em BuscaTextual)
+                inserirClientes("Cliente Moura Teste ", 1000);
+                long maiorId = clienteDAO.buscarTodos().stream().mapToLong(Cliente::getId).max().orElse(0);
+                List<ClienteComSaldo> muitos = clienteDAO.pesquisarComSaldo("moura", 100);
+                verificar("Busca com muitos resultados ordena entre os 1000 mais recentes",
+                    muitos.size() == 100
+                        && muitos.stream().allMatch(c -> c.getCliente().getId() > maiorId - 1000));
+            });
+            
+        } catch (Exception e) {
+            System.err.println("✗ ERRO no teste 11.21: " + e.getMessage());
+            e.printStackTrace();
+        }
+        
+        System.out.println();
+    }
+    
+    /**
+     * Teste 11.22: Transações
+     * - Escrita aninhada usa a conexão da transação aberta
+     * - Rollback desfaz também a escrita aninhada
+     * - Error desfaz a transação e descarta os avisos de alteração
+     */
+    private static void testar11_22_Transacoes() {
+        System.out.println("=================================================");
+        System.out.println("  TESTE 11.22: Transações");
+        System.out.println("=================================================\n");
+        
+        try {
+            emBancoTemporario(() -> {
+                DatabaseManager.inicializarBanco();
+                ClienteDAO clienteDAO = new ClienteDAO();
+                
+                // Teste 1: sem usar a mesma conexão, a escrita aninhada esperaria o
+                // lock da transação até o busy_timeout
+                long inicio = System.currentTimeMillis();
+                boolean mesmaConexao = DatabaseManager.executarTransacao(conn ->
+                    DatabaseManager.executarEscrita(aninhada -> aninhada == conn));
+                verificar("Escrita aninhada usa a conexão da transação",
+                    mesmaConexao && System.currentTimeMillis() - inicio < 1000);
+                
+                // Teste 2: rollback desfaz a escrita aninhada
+                try {
+                    DatabaseManager.executarTransacao(conn -> {
+                        Cliente cliente = new Cliente();
+                        cliente.setNome("Cliente Descartado");
+                        clienteDAO.inserir(cliente);
+                        throw new IllegalStateException("falha simulada");
+                    });
+                } catch (IllegalStateException e) {
+                    // Esperado
+                }
+                verificar("Rollback desfaz escrita aninhada", clienteDAO.buscarTodos().isEmpty());
+                
+                // Teste 3: um Error também desfaz a transação e descarta os avisos
+                List<String> avisos = new ArrayList<>();
+                EventosBanco.Ouvinte ouvinte = (tabela, ids) -> avisos.add(tabela);
+                EventosBanco.registrar(ouvinte);
+                try {
+                    try {
+                        DatabaseManager.executarTransacao(conn -> {
+                            Cliente cliente = new Cliente();
+                            cliente.setNome("Cliente do Erro");
+                            clienteDAO.inserir(cliente);
+                            throw new AssertionError("erro simulado");
+                        });
+                    } catch (AssertionError e) {
+                        // Esperado
+                    }
+                    verificar("Error desfaz a transação antes de voltar ao autocommit",
+                        clienteDAO.buscarTodos().isEmpty()
+                            && DatabaseManager.executarEscrita(Connection::getAutoCommit));
+                    verificar("Avisos da transação desfeita descartados", avisos.isEmpty());
+                    
+                    novoCliente("Cliente Depois do Erro");
+                    verificar("Avisos voltam a ser entregues depois do erro",
+                        avisos.contains(EventosBanco.CLIENTES) && clienteDAO.buscarTodos().size() == 1);
+                } finally {
+                    EventosBanco.remover(ouvinte);
+                }
+            });
+            
+        } catch (Exception e) {
+            System.err.println("✗ ERRO no teste 11.22: " + e.getMessage());
+            e.printStackTrace();
+        }
+        
+        System.out.println();
+    }
+    
+    /**
+     * Teste 11.23: Importação de produtos por CSV
+     * - Produtos válidos gravados em lotes
+     * - Linhas inválidas registradas com o número da linha
+     * - Imagem fora da pasta de imagens rejeitada
+     * - Cabeçalho sem as colunas obrigatórias rejeitado
+     * - Arquivo em windows-1252 ou UTF-8 com BOM lido com os acentos
+     */
+    private static void testar11_23_ImportacaoCsv() {
+        System.out.println("=================================================");
+        System.out.println("  TESTE 11.23: Importação CSV");
+        System.out.println("=================================================\n");
+        
+        try {
+            emBancoTemporario(() -> {
+                DatabaseManager.inicializarBanco();
+                ImportacaoController importacaoController = new ImportacaoController();
+                Path diretorio = Files.createTempDirectory("vendas-importacao");
+                Path pastaImagens = Files.createDirectory(diretorio.resolve("imagens"));
+                Path csv = diretorio.resolve("produtos.csv");
+                Path segredo = diretorio.resolve("segredo.png");
+                try {
+                    ImageIO.write(new BufferedImage(4, 4, BufferedImage.TYPE_INT_RGB), "png",
+                        pastaImagens.resolve("foto.png").toFile());
+                    ImageIO.write(new BufferedImage(4, 4, BufferedImage.TYPE_INT_RGB), "png", segredo.toFile());
+                    
+                    Files.write(csv, Arrays.asList(
+                        "descricao;tamanho;valor_compra;data_compra;imagem",
+                        "Camisa Importada 1;m;25,90;2024-01-10;",
+                        "Camisa Importada 2;g;30,00;10/01/2024;foto.png",
+                        "Camisa Sem Valor;m;abc;2024-01-10;",
+                        "Camisa Data Ruim;m;10,00;2024-13-40;",
+                        "Camisa Fora da Pasta;m;10,00;2024-01-10;../segredo.png",
+                        "Camisa Importada 3;p;15,00;2024-01-11;",
+                        "Camisa Importada 4;gg;15,00;2024-01-11;",
+                        "Camisa Importada 5;m;15,00;2024-01-11;",
+                        "Camisa Caminho Absoluto;m;10,00;2024-01-10;" + segredo.toAbsolutePath()),
+                        StandardCharsets.UTF_8);
+                    
+                    // Teste 1: lotes de 2 produtos
+                    List<Integer> progresso = new ArrayList<>();
+                    ImportacaoController.ResultadoImportacao resultado = importacaoController.importarProdutos(
+                        csv, pastaImagens, 2, (lidas, importados, erros) -> progresso.add(importados));
+                    verificar("Produtos válidos importados",
+                        resultado.getLinhasLidas() == 9 && resultado.getImportados() == 5
+                            && new ProdutoDAO().buscarTodos().size() == 5);
+                    verificar("Produtos gravados em lotes", progresso.equals(Arrays.asList(2, 4, 5)));
+                    verificar("Imagem da pasta importada",
+                        new ProdutoDAO().buscarTodos().stream()
+                            .anyMatch(p -> p.getDescricao().equals("Camisa Importada 2") && p.getImagemHash() != null));
+                    
+                    // Teste 2: erros por linha
+                    List<Long> linhasComErro = new ArrayList<>();
+                    for (ImportacaoController.ErroLinha erro : resultado.getErros()) {
+                        linhasComErro.add(erro.getLinha());
+                    }
+                    verificar("Linhas inválidas registradas com o número da linha",
+                        linhasComErro.equals(Arrays.asList(4L, 5L, 6L, 10L)));
+                    verificar("Imagem fora da pasta rejeitada",
+                        resultado.getErros().get(2).getMensagem().contains("fora da pasta")
+                            && resultado.getErros().get(3).getMensagem().contains("fora da pasta"));
+                    
+                    // Teste 3: cabeçalho inválido
+                    Files.write(csv, Arrays.asList("nome;preco", "Camisa;10,00"), StandardCharsets.UTF_8);
+                    verificar("Cabeçalho sem colunas obrigatórias rejeitado",
+                        rejeitado(() -> importacaoController.importarProdutos(csv, pastaImagens, 2, null)));
+                    verificar("Cabeçalho inválido não grava produtos", new ProdutoDAO().buscarTodos().size() == 5);
+                    
+                    // Teste 4: CSV salvo pelo Excel em windows-1252, com um registro em duas linhas
+                    Files.write(csv, ("descricao;tamanho;valor_compra;data_compra\r\n"
+                        + "Camisa Seleção;m;10,00;2024-01-10\r\n"
+                        + "\"Camisa\r\nem Duas Linhas\";m;abc;2024-01-10\r\n").getBytes(Charset.forName("windows-1252")));
+                    ImportacaoController.ResultadoImportacao latin = importacaoController.importarProdutos(
+                        csv, pastaImagens, 2, null);
+                    verificar("CSV em windows-1252 importado com os acentos",
+                        latin.getImportados() == 1 && new ProdutoDAO().buscarTodos().stream()
+                            .anyMatch(p -> p.getDescricao().equals("Camisa Seleção")));
+                    verificar("Erro informa a linha em que o registro começa",
+                        latin.getErros().size() == 1 && latin.getErros().get(0).getLinha() == 3);
+                    
+                    // Teste 5: UTF-8 com BOM
+                    Files.write(csv, ("\uFEFFdescricao;tamanho;valor_compra;data_compra\n"
+                        + "Camisa Coração;p;12,00;2024-01-10\n").getBytes(StandardCharsets.UTF_8));
+                    verificar("CSV em UTF-8 com BOM importado com os acentos",
+                        importacaoController.importarProdutos(csv, pastaImagens, 2, null).getImportados() == 1
+                            && new ProdutoDAO().buscarTodos().stream()
+                                .anyMatch(p -> p.getDescricao().equals("Camisa Coração")));
+                } finally {
+                    for (Path arquivo : new Path[] {pastaImagens.resolve("foto.png"), pastaImagens, csv, segredo, diretorio}) {
+                        Files.deleteIfExists(arquivo);
+                    }
+                }
+            });
+            
+        } catch (Exception e) {
+            System.err.println("✗ ERRO no teste 11.23: " + e.getMessage());
+            e.printStackTrace();
+        }
+        
+        System.out.println();
+    }
+    
+    /**
+     * Teste 11.24: Sugestões com gravações de outros terminais
+     * - Gravação sem aviso (feita por outro terminal) não aparece sozinha
+     * - Recarregar as sugestões inclui clientes novos e tira produtos vendidos
+     */
+    private static void testar11_24_RecargaSugestoes() {
+        System.out.println("=================================================");
+        System.out.println("  TESTE 11.24: Recarga das Sugestões");
+        System.out.println("=================================================\n");
+        
+        try {
+            emBancoTemporario(() -> {
+                DatabaseManager.inicializarBanco();
+                ClienteController clienteController = new ClienteController();
+                ProdutoController produtoController = new ProdutoController();
+                Produto produto = novoProduto("Camisa Sugerida", "M", false);
+                new ProdutoDAO().inserir(produto);
+                verificar("Produto cadastrado aqui aparece nas sugestões",
+                    produtoController.sugerirProdutosDisponiveis("sugerida").size() == 1
+                        && clienteController.sugerirClientes("remoto").isEmpty());
+                
+                // Teste 1: gravações sem aviso, como as de outro terminal
+                executarSql("INSERT INTO clientes (nome) VALUES ('Cliente Remoto')");
+                executarSql("UPDATE produtos SET vendido = 1 WHERE id = " + produto.getId());
+                verificar("Gravação de outro terminal não é vista antes da recarga",
+                    clienteController.sugerirClientes("remoto").isEmpty()
+                        && produtoController.sugerirProdutosDisponiveis("sugerida").size() == 1);
+                
+                // Teste 2: recarga ao abrir a tela
+                clienteController.recarregarSugestoes();
+                produtoController.recarregarSugestoes();
+                verificar("Recarga inclui o cliente gravado por outro terminal",
+                    clienteController.sugerirClientes("remoto").size() == 1);
+                verificar("Recarga tira o produto vendido por outro terminal",
+                    produtoController.sugerirProdutosDisponiveis("sugerida").isEmpty());
+            });
+            
+        } catch (Exception e) {
+            System.err.println("✗ ERRO no teste 11.24: " + e.getMessage());
+            e.printStackTrace();
+        }
+        
+        System.out.println();
+    }
+    
+    /**
+     * Executa uma instrução SQL direto no banco, sem passar pelos DAOs.
+     */
+    private static void executarSql(String sql) throws SQLException {
+        DatabaseManager.executarEscrita(conn -> {
+            try (Statement stmt = conn.createStatement()) {
+                return stmt.executeUpdate(sql);
+            }
+        });
+    }
+    
+    /**
+     * Cria o esquema da primeira versão do sistema (sem user_version), com
+     * imagem no produto, valores DECIMAL e datas em texto ISO.
+     */
+    private static void criarBancoVersao0(byte[] imagem) throws SQLException {
+        DatabaseManager.executarTransacao(conn -> {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("CREATE TABLE produtos (id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                        "descricao TEXT NOT NULL, tamanho TEXT NOT NULL, imagem BLOB, " +
+                        "valor_compra DECIMAL(10,2) NOT NULL, data_compra DATE NOT NULL, vendido BOOLEAN DEFAULT 0)");
+                stmt.execute("CREATE TABLE clientes (id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                        "nome TEXT NOT NULL, telefone TEXT, email TEXT, endereco TEXT)");
+                stmt.execute("CREATE TABLE vendas (id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                        "produto_id INTEGER NOT NULL, cliente_id INTEGER NOT NULL, " +
+                        "data_venda DATE NOT NULL, valor_venda DECIMAL(10,2) NOT NULL, " +
+                        "FOREIGN KEY (produto_id) REFERENCES produtos(id), " +
+                        "FOREIGN KEY (cliente_id) REFERENCES clientes(id))");
+                stmt.execute("CREATE TABLE pagamentos (id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                        "cliente_id INTEGER NOT NULL, data_pagamento DATE NOT NULL, " +
+                        "valor_pago DECIMAL(10,2) NOT NULL, observacao TEXT, " +
+                        "FOREIGN KEY (cliente_id) REFERENCES clientes(id))");
+                stmt.execute("CREATE INDEX idx_produtos_vendido ON produtos(vendido)");
+                stmt.execute("CREATE INDEX idx_vendas_cliente ON vendas(cliente_id)");
+                stmt.execute("CREATE INDEX idx_pagamentos_cliente ON pagamentos(cliente_id)");
+                
+                stmt.execute("INSERT INTO clientes (nome) VALUES ('Cliente Antigo')");
+                stmt.execute("INSERT INTO produtos (descricao, tamanho, valor_compra, data_compra, vendido) " +
+                        "VALUES ('Camisa Antiga', 'M', 12.34, '2024-03-15', 1)");
+                stmt.execute("INSERT INTO produtos (descricao, tamanho, valor_compra, data_compra) " +
+                        "VALUES ('Camisa Barata', 'P', 19.99, '2024-03-16')");
+                stmt.execute("INSERT INTO vendas (produto_id, cliente_id, data_venda, valor_venda) " +
+                        "VALUES (1, 1, '2024-04-01', 50.50)");
+                stmt.execute("INSERT INTO pagamentos (cliente_id, data_pagamento, valor_pago) " +
+                        "VALUES (1, '2024-04-02', 20.25)");
+            }
+            try (PreparedStatement pstmt = conn.prepareStatement("UPDATE produtos SET imagem = ? WHERE id = 1")) {
+                pstmt.setBytes(1, imagem);
+                pstmt.executeUpdate();
+            }
+            return null;
+        });
+    }
+    
+    /**
+     * Executa uma consulta que retorna um único número.
+     */
+    private static long consultarLong(String sql) throws SQLException {
+        try (Connection conn = DatabaseManager.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            return rs.next() ? rs.getLong(1) : -1;
+        }
+    }
+    
+    /**
+     * Consulta de uma página a partir do token da página anterior.
+     */
+    @FunctionalInterface
+    private interface BuscaPagina<T> {
+        Pagina<T> buscar(String continuacao) throws SQLException;
+    }
+    
+    /**
+     * Percorre todas as páginas de uma consulta seguindo os tokens de continuação.
+     * 
+     * @return IDs dos itens, na ordem em que vieram
+     */
+    private static <T> List<Long> percorrerPaginas(BuscaPagina<T> busca, Function<T, Long> id) throws SQLException {
+        List<Long> ids = new ArrayList<>();
+        String continuacao = null;
+        do {
+            Pagina<T> pagina = busca.buscar(continuacao);
+            for (T item : pagina.getItens()) {
+                ids.add(id.apply(item));
+            }
+            continuacao = pagina.getContinuacao();
+        } while (continuacao != null);
+        return ids;
+    }
+    
+    /**
+     * @return true se a consulta lançou IllegalArgumentException
+     */
+    private static <T> boolean rejeitadoNoBanco(BuscaPagina<T> busca) throws SQLException {
+        try {
+            busca.buscar(null);
+            return false;
+        } catch (IllegalArgumentException e) {
+            return true;
+        }
+    }
+    
+    /**
+     * @return true se a chamada lançou IllegalArgumentException
+     */
+    private static boolean rejeitado(Runnable chamada) {
+        try {
+            chamada.run();
+            return false;
+        } catch (IllegalArgumentException e) {
+            return true;
+        }
+    }
+    
+    /**
+     * @return true se a chamada lançou ArithmeticException
+     */
+    private static boolean estourou(Runnable chamada) {
+        try {
+            chamada.run();
+            return false;
+        } catch (ArithmeticException e) {
+            return true;
+        }
+    }
+    
+    /**
+     * Codifica a imagem em JPEG e insere um segmento APP1 "Exif" com o
+     * cabeçalho TIFF informado logo depois do APP0.
+     */
+    private static byte[] jpegComExif(BufferedImage imagem, byte[] tiff) throws IOException {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        ImageIO.write(imagem, "jpg", saida);
+        byte[] jpeg = saida.toByteArray();
+        int posicao = 4 + (((jpeg[4] & 0xFF) << 8) | (jpeg[5] & 0xFF));
+        int tamanho = 2 + 6 + tiff.length;
+        
+        ByteArrayOutputStream comExif = new ByteArrayOutputStream();
+        comExif.write(jpeg, 0, posicao);
+        comExif.write(new byte[] {(byte) 0xFF, (byte) 0xE1, (byte) (tamanho >> 8), (byte) tamanho,
+            'E', 'x', 'i', 'f', 0, 0});
+        comExif.write(tiff);
+        comExif.write(jpeg, posicao, jpeg.length - posicao);
+        return comExif.toByteArray();
+    }
+    
+    /**
+     * Monta um cabeçalho TIFF com um único diretório contendo só a tag
+     * Orientation.
+     */
+    private static byte[] tiffOrientacao(int orientacao, boolean intel) {
+        ByteBuffer tiff = ByteBuffer.allocate(26).order(intel ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
+        tiff.put(intel ? (byte) 'I' : (byte) 'M').put(intel ? (byte) 'I' : (byte) 'M');
+        tiff.putShort((short) 42).putInt(8);
+        tiff.putShort((short) 1);
+        tiff.putShort((short) 0x0112).putShort((short) 3).putInt(1).putShort((short) orientacao).putShort((short) 0);
+        tiff.putInt(0);
+        return tiff.array();
+    }
+    
+    /**
+     * @return Canto ("TL", "TR", "BR" ou "BL") em que está o bloco vermelho,
+     *         ou null se nenhum canto for vermelho
+     */
+    private static String cantoVermelho(BufferedImage imagem) {
+        int direita = imagem.getWidth() - 4;
+        int baixo = imagem.getHeight() - 4;
+        int[][] pontos = {{3, 3}, {direita, 3}, {direita, baixo}, {3, baixo}};
+        String[] nomes = {"TL", "TR", "BR", "BL"};
+        for (int i = 0; i < pontos.length; i++) {
+            int rgb = imagem.getRGB(pontos[i][0], pontos[i][1]);
+            if (((rgb >> 16) & 0xFF) > 200 && ((rgb >> 8) & 0xFF) < 80) {
+                return nomes[i];
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * @return true se as duas imagens têm as mesmas dimensões e pixels
+     */
+    private static boolean mesmosPixels(BufferedImage esperada, BufferedImage lida) {
+        if (lida == null || lida.getWidth() != esperada.getWidth() || lida.getHeight() != esperada.getHeight()) {
+            return false;
+        }
+        int largura = esperada.getWidth();
+        int altura = esperada.getHeight();
+        return Arrays.equals(esperada.getRGB(0, 0, largura, altura, null, 0, largura),
+            lida.getRGB(0, 0, largura, altura, null, 0, largura));
+    }
+    
+    /**
+     * Operação de teste executada em um banco descartável.
+     */
+    @FunctionalInterface
+    private interface TesteBanco {
+        void executar() throws Exception;
+    }
+    
+    /**
+     * Executa um teste em um banco temporário e volta ao banco padrão ao
+     * terminar. Testes que gravam milhares de linhas ou alteram dados de
+     * propósito não podem usar o banco da aplicação. O teste chama
+     * {@link DatabaseManager#inicializarBanco()} quando precisar.
+     */
+    private static void emBancoTemporario(TesteBanco teste) throws Exception {
+        Path arquivo = Files.createTempFile("vendas-teste", ".db");
+        try {
+            DatabaseManager.configurarArquivo(arquivo.toString());
+            teste.executar();
+        } finally {
+            DatabaseManager.configurarArquivo(DatabaseManager.ARQUIVO_PADRAO);
+            for (String sufixo : new String[] {"", "-wal", "-shm", "-journal"}) {
+                Files.deleteIfExists(Paths.get(arquivo + sufixo));
+            }
+        }
+    }
+    
+    private static Produto novoProduto(String descricao, String tamanho, boolean vendido) {
+        Produto produto = new Produto();
+        produto.setDescricao(descricao);
+        produto.setTamanho(tamanho);
+        produto.setValorCompra(new BigDecimal("30.00"));
+        produto.setDataCompra(LocalDate.now());
+        produto.setVendido(vendido);
+        return produto;
+    }
+    
+    private static Cliente novoCliente(String nome) throws SQLException {
+        Cliente cliente = new Cliente();
+        cliente.setNome(nome);
+        new ClienteDAO().inserir(cliente);
+        return cliente;
+    }
+    
+    private static Venda novaVenda(Long produtoId, Long clienteId) {
+        Venda venda = new Venda();
+        venda.setProdutoId(produtoId);
+        venda.setClienteId(clienteId);
+        venda.setDataVenda(LocalDate.now());
+        venda.setValorVenda(new BigDecimal("50.00"));
+        return venda;
+    }
+    
+    /**
+     * Insere clientes numerados em uma única transação.
+     */
+    private static void inserirClientes(String prefixoNome, int quantidade) throws SQLException {
+        DatabaseManager.executarTransacao(conn -> {
+            try (PreparedStatement pstmt = conn.prepareStatement("INSERT INTO clientes (nome) VALUES (?)")) {
+                for (int i = 0; i < quantidade; i++) {
+                    pstmt.setString(1, prefixoNome + i);
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+            }
+            return null;
+        });
+    }
+    
     /**
      * Método auxiliar para verificar resultado de teste
      */
@@ -0,0 +1,157 @@
+package com.vendas.controller;
+
+import com.vendas.dao.ClienteDAO;
+import com.vendas.dao.ProdutoDAO;
+import com.vendas.model.Cliente;
+import com.vendas.model.ProdutoResumo;
+import com.vendas.util.CacheLRU;
+import com.vendas.util.EventosBanco;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Cache dos clientes e dos resumos de produtos buscados por ID, entre os
+ * controllers e os DAOs.
+ *
+ * Só as faltas vão ao banco, em uma única consulta por lote. Cada alteração
+ * confirmada em {@code clientes} ou {@code produtos} (cadastro, edição,
+ * exclusão, reserva ou venda, avisadas por {@link EventosBanco}) descarta os
+ * IDs alterados, e o próximo pedido relê a linha. Como as gravações de
+ * outros terminais não são avisadas, o cache inteiro também é descartado a
+ * cada {@link CacheResultados#VALIDADE_MS}. Os clientes são entregues como
+ * cópias, pois as telas de edição alteram o objeto recebido.
+ */
+class CacheEntidades {
+
+    private static final int CAPACIDADE_CLIENTES = 1000;
+    private static final int CAPACIDADE_PRODUTOS = 2000;
+
+    private static final CacheEntidades INSTANCIA = new CacheEntidades();
+
+    private final ClienteDAO clienteDAO = new ClienteDAO();
+    private final ProdutoDAO produtoDAO = new ProdutoDAO();
+
+    private final CacheLRU<Long, Cliente> clientes = new CacheLRU<>("clientes", CAPACIDADE_CLIENTES);
+    private final CacheLRU<Long, ProdutoResumo> produtos = new CacheLRU<>("produtos", CAPACIDADE_PRODUTOS);
+
+    // Momento da última limpeza (protegido por "this")
+    private long limpoEm = System.currentTimeMillis();
+
+    private CacheEntidades() {
+        EventosBanco.registrar(this::aoAlterar);
+    }
+
+    static CacheEntidades getInstancia() {
+        return INSTANCIA;
+    }
+
+    /**
+     * Obtém clientes por ID, indo ao banco só pelos que não estão no cache.
+     */
+    Map<Long, Cliente> obterClientes(Collection<Long> ids) throws SQLException {
+        expirar();
+        List<Long> faltantes = new ArrayList<>();
+        Map<Long, Cliente> resultado = clientes.obterTodos(ids, faltantes);
+        if (!faltantes.isEmpty()) {
+            long geracao = clientes.getGeracao();
+            Map<Long, Cliente> lidos = clienteDAO.buscarPorIds(faltantes);
+            for (Map.Entry<Long, Cliente> lido : lidos.entrySet()) {
+                clientes.colocar(lido.getKey(), lido.getValue(), geracao);
+            }
+            resultado.putAll(lidos);
+        }
+
+        Map<Long, Cliente> copias = new HashMap<>();
+        for (Map.Entry<Long, Cliente> cliente : resultado.entrySet()) {
+            copias.put(cliente.getKey(), copiar(cliente.getValue()));
+        }
+        return copias;
+    }
+
+    /**
+     * Obtém resumos de produtos por ID, indo ao banco só pelos que não estão no cache.
+     */
+    Map<Long, ProdutoResumo> obterResumosProdutos(Collection<Long> ids) throws SQLException {
+        expirar();
+        List<Long> faltantes = new ArrayList<>();
+        Map<Long, ProdutoResumo> resultado = produtos.obterTodos(ids, faltantes);
+        if (!faltantes.isEmpty()) {
+            long geracao = produtos.getGeracao();
+            Map<Long, ProdutoResumo> lidos = produtoDAO.buscarResumosPorIds(faltantes);
+            for (Map.Entry<Long, ProdutoResumo> lido : lidos.entrySet()) {
+                produtos.colocar(lido.getKey(), lido.getValue(), geracao);
+            }
+            resultado.putAll(lidos);
+        }
+        return resultado;
+    }
+
+    /**
+     * Obtém um cliente por ID.
+     */
+    Cliente obterCliente(Long id) throws SQLException {
+        return obterClientes(Collections.singletonList(id)).get(id);
+    }
+
+    /**
+     * Obtém o resumo de um produto por ID.
+     */
+    ProdutoResumo obterResumoProduto(Long id) throws SQLException {
+        return obterResumosProdutos(Collections.singletonList(id)).get(id);
+    }
+
+    CacheLRU.Estatisticas getEstatisticasClientes() {
+        return clientes.getEstatisticas();
+    }
+
+    CacheLRU.Estatisticas getEstatisticasProdutos() {
+        return produtos.getEstatisticas();
+    }
+
+    /**
+     * Descarta tudo (para ver gravações feitas por outros terminais).
+     */
+    synchronized void limpar() {
+        clientes.limpar();
+        produtos.limpar();
+        limpoEm = System.currentTimeMillis();
+    }
+
+    /**
+     * Descarta tudo se a última limpeza foi há mais de {@link CacheResultados#VALIDADE_MS}.
+     */
+    private synchronized void expirar() {
+        if (CacheResultados.VALIDADE_MS > 0 && System.currentTimeMillis() - limpoEm > CacheResultados.VALIDADE_MS) {
+            limpar();
+        }
+    }
+
+    private void aoAlterar(String tabela, Set<Long> ids) {
+        CacheLRU<Long, ?> cache;
+        if (EventosBanco.CLIENTES.equals(tabela)) {
+            cache = clientes;
+        } else if (EventosBanco.PRODUTOS.equals(tabela)) {
+            cache = produtos;
+        } else {
+            return;
+        }
+
+        if (ids.isEmpty()) {
+            cache.limpar();
+        } else {
+            cache.remover(ids);
+        }
+    }
+
+    private static Cliente copiar(Cliente cliente) {
+        return new Cliente(cliente.getId(), cliente.getNome(), cliente.getTelefone(),
+                cliente.getEmail(), cliente.getEndereco());
+    }
+}
@@ -0,0 +1,30 @@
+package com.vendas.controller;
+
+import com.vendas.util.CacheConsultas;
+
+/**
+ * Cache dos totais e listagens consultados pelos controllers, compartilhado
+ * por todas as instâncias.
+ *
+ * Com ele, trocar de tela sem ter gravado nada desde a última visita não
+ * consulta o banco. As gravações de outros terminais não são avisadas, então
+ * os resultados também expiram após {@link #VALIDADE_MS} (30 segundos por
+ * padrão, configurável com {@code -Dvendas.cache.validadeMs=<ms>}; 0 os
+ * mantém até a próxima alteração das tabelas que leem).
+ */
+final class CacheResultados {
+
+    /** Tempo máximo de um resultado em cache, em milissegundos (0 = sem limite). */
+    static final long VALIDADE_MS = Long.getLong("vendas.cache.validadeMs", 30000L);
+
+    private static final int CAPACIDADE = 200;
+
+    private static final CacheConsultas INSTANCIA = new CacheConsultas(CAPACIDADE, VALIDADE_MS);
+
+    private CacheResultados() {
+    }
+
+    static CacheConsultas getInstancia() {
+        return INSTANCIA;
+    }
+}
@@ -0,0 +1,132 @@
+package com.vendas.controller;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Agrupa buscas individuais por chave em uma única busca em lote.
+ *
+ * Quem precisa de vários objetos primeiro registra as chaves com
+ * {@link #solicitar(Object)}; a primeira chamada de {@link #carregar(Object)}
+ * busca todas as chaves pendentes de uma vez. Chaves repetidas são buscadas
+ * uma única vez e os resultados (inclusive as chaves não encontradas) ficam
+ * guardados até {@link #limpar()}.
+ *
+ * Um carregador vale para uma unidade de trabalho, como o preenchimento de
+ * uma tela: ele não percebe alterações feitas no banco depois da busca. Não
+ * é seguro para uso por várias threads.
+ *
+ * @param <K> Tipo da chave
+ * @param <V> Tipo do objeto carregado
+ */
+public class CarregadorEmLote<K, V> {
+
+    private final Function<Set<K>, Map<K, V>> buscaEmLote;
+    private final Map<K, V> carregados = new HashMap<>();
+    private final Set<K> pendentes = new LinkedHashSet<>();
+    private int buscas;
+
+    /**
+     * @param buscaEmLote Busca os objetos de um conjunto de chaves; chaves
+     *        sem objeto podem ficar de fora do mapa retornado
+     */
+    public CarregadorEmLote(Function<Set<K>, Map<K, V>> buscaEmLote) {
+        this.buscaEmLote = buscaEmLote;
+    }
+
+    /**
+     * Registra uma chave para a próxima busca em lote, sem buscar ainda.
+     *
+     * @param chave Chave a carregar
+     */
+    public void solicitar(K chave) {
+        if (chave != null && !carregados.containsKey(chave)) {
+            pendentes.add(chave);
+        }
+    }
+
+    /**
+     * Registra várias chaves para a próxima busca em lote.
+     *
+     * @param chaves Chaves a carregar
+     */
+    public void solicitarTodos(Collection<? extends K> chaves) {
+        for (K chave : chaves) {
+            solicitar(chave);
+        }
+    }
+
+    /**
+     * Obtém o objeto de uma chave. Se ele ainda não foi carregado, busca em
+     * lote esta chave junto com todas as pendentes.
+     *
+     * @param chave Chave do objeto
+     * @return Objeto encontrado, ou null se não existir
+     */
+    public V carregar(K chave) {
+        if (chave == null) {
+            return null;
+        }
+        if (!carregados.containsKey(chave)) {
+            pendentes.add(chave);
+            buscarPendentes();
+        }
+        return carregados.get(chave);
+    }
+
+    /**
+     * Obtém os objetos de várias chaves, com no máximo uma busca em lote.
+     *
+     * @param chaves Chaves dos objetos
+     * @return Objetos encontrados, na ordem das chaves (chaves inexistentes ficam de fora)
+     */
+    public Map<K, V> carregarTodos(Collection<? extends K> chaves) {
+        solicitarTodos(chaves);
+        buscarPendentes();
+
+        Map<K, V> resultado = new LinkedHashMap<>();
+        for (K chave : chaves) {
+            V valor = carregados.get(chave);
+            if (valor != null) {
+                resultado.put(chave, valor);
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Descarta os objetos carregados, para que a próxima chamada busque novamente.
+     */
+    public void limpar() {
+        carregados.clear();
+        pendentes.clear();
+    }
+
+    /**
+     * @return Número de buscas em lote feitas por este carregador
+     */
+    public int getBuscas() {
+        return buscas;
+    }
+
+    private void buscarPendentes() {
+        if (pendentes.isEmpty()) {
+            return;
+        }
+
+        // As pendentes só são descartadas depois que a busca dá certo
+        Set<K> chaves = new LinkedHashSet<>(pendentes);
+        Map<K, V> encontrados = buscaEmLote.apply(chaves);
+        pendentes.clear();
+        buscas++;
+
+        for (K chave : chaves) {
+            carregados.put(chave, encontrados.get(chave));
+        }
+    }
+}
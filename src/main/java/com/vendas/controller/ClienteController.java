@@ -1,30 +1,46 @@
 package com.vendas.controller;
 
 import com.vendas.dao.ClienteDAO;
-import com.vendas.dao.PagamentoDAO;
-import com.vendas.dao.VendaDAO;
+import com.vendas.dao.Pagina;
+import com.vendas.dao.SaldoClienteDAO;
 import com.vendas.model.Cliente;
+import com.vendas.model.ClienteComSaldo;
+import com.vendas.model.SaldoCliente;
+import com.vendas.util.CacheLRU;
+import com.vendas.util.EventosBanco;
 
 import java.math.BigDecimal;
 import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Controller para gerenciar a lógica de negócio relacionada a clientes.
  */
 public class ClienteController {
     
+    /** Quantidade máxima de clientes retornados por uma pesquisa. */
+    public static final int LIMITE_PESQUISA = 100;
+    
+    /** Quantidade máxima de clientes sugeridos enquanto o usuário digita. */
+    public static final int LIMITE_SUGESTOES = 50;
+    
+    // Tabelas lidas pelas listagens de clientes com saldo
+    private static final String[] TABELAS_SALDOS = {
+        EventosBanco.CLIENTES, EventosBanco.VENDAS, EventosBanco.PAGAMENTOS, EventosBanco.SALDOS_CLIENTES
+    };
+    
     private final ClienteDAO clienteDAO;
-    private final VendaDAO vendaDAO;
-    private final PagamentoDAO pagamentoDAO;
+    private final SaldoClienteDAO saldoClienteDAO;
     
     /**
      * Construtor padrão que inicializa os DAOs.
      */
     public ClienteController() {
         this.clienteDAO = new ClienteDAO();
-        this.vendaDAO = new VendaDAO();
-        this.pagamentoDAO = new PagamentoDAO();
+        this.saldoClienteDAO = new SaldoClienteDAO();
     }
     
     /**
@@ -69,7 +85,7 @@ public class ClienteController {
             }
             
             // Verifica se o cliente existe
-            Cliente clienteExistente = clienteDAO.buscarPorId(cliente.getId());
+            Cliente clienteExistente = CacheEntidades.getInstancia().obterCliente(cliente.getId());
             if (clienteExistente == null) {
                 throw new IllegalArgumentException("Cliente não encontrado com ID: " + cliente.getId());
             }
@@ -96,6 +112,131 @@ public class ClienteController {
         }
     }
     
+    /**
+     * Pesquisa clientes por nome, telefone e e-mail, dos mais relevantes para
+     * os menos, com os totais de compras, pagamentos e saldo de cada um. Com o
+     * texto em branco, lista todos os clientes em ordem alfabética.
+     * 
+     * @param texto Texto digitado (cada palavra é tratada como prefixo)
+     * @return Até {@link #LIMITE_PESQUISA} clientes encontrados, com saldo
+     *         (lista não modificável)
+     */
+    public List<ClienteComSaldo> pesquisarClientesComSaldo(String texto) {
+        if (texto == null || texto.trim().isEmpty()) {
+            return listarClientesComSaldo();
+        }
+        
+        try {
+            return CacheResultados.getInstancia().obter("clientes.pesquisaComSaldo:" + texto.trim(),
+                    () -> Collections.unmodifiableList(clienteDAO.pesquisarComSaldo(texto, LIMITE_PESQUISA)),
+                    TABELAS_SALDOS);
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao pesquisar clientes: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Sugere clientes para o texto digitado até agora, usando o índice em
+     * memória (nome, telefone e e-mail, sem diferenciar acentos). Feita para
+     * ser chamada a cada tecla: só vai ao banco para carregar o índice na
+     * primeira vez e para reler clientes cadastrados ou alterados.
+     * 
+     * @param texto Texto digitado (prefixos ou trechos de 3 ou mais letras)
+     * @return Até {@link #LIMITE_SUGESTOES} clientes, dos mais relevantes para
+     *         os menos (em ordem alfabética se o texto estiver em branco)
+     */
+    public List<Cliente> sugerirClientes(String texto) {
+        try {
+            return IndicesPesquisa.getInstancia().pesquisarClientes(texto, LIMITE_SUGESTOES);
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao pesquisar clientes: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Recarrega do banco o índice das sugestões de clientes na próxima
+     * pesquisa, para incluir clientes gravados por outros terminais.
+     */
+    public void recarregarSugestoes() {
+        IndicesPesquisa.getInstancia().recarregarClientes();
+    }
+    
+    /**
+     * Obtém um cliente por ID. Consultas repetidas são atendidas pelo cache
+     * de entidades, que descarta o cliente quando ele é alterado.
+     * 
+     * @param id ID do cliente
+     * @return Cliente encontrado
+     * @throws IllegalArgumentException se o ID for inválido ou o cliente não existir
+     */
+    public Cliente obterCliente(Long id) {
+        try {
+            if (id == null || id <= 0) {
+                throw new IllegalArgumentException("ID do cliente inválido");
+            }
+            
+            Cliente cliente = CacheEntidades.getInstancia().obterCliente(id);
+            if (cliente == null) {
+                throw new IllegalArgumentException("Cliente não encontrado com ID: " + id);
+            }
+            return cliente;
+            
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao buscar cliente: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Obtém vários clientes em uma única ida ao banco, apenas pelos que não
+     * estão no cache de entidades.
+     * 
+     * @param ids IDs dos clientes
+     * @return Clientes encontrados, por ID (IDs inexistentes ficam de fora)
+     */
+    public Map<Long, Cliente> obterClientes(Collection<Long> ids) {
+        try {
+            return CacheEntidades.getInstancia().obterClientes(ids);
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao buscar clientes: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Obtém os contadores do cache de clientes (acertos, falhas e taxa de acertos).
+     * 
+     * @return Estatísticas do cache
+     */
+    public CacheLRU.Estatisticas getEstatisticasCache() {
+        return CacheEntidades.getInstancia().getEstatisticasClientes();
+    }
+    
+    /**
+     * Cria um carregador que agrupa as buscas de clientes por ID feitas
+     * durante o preenchimento de uma tela em uma única consulta.
+     * 
+     * @return Novo carregador, sem nada carregado
+     */
+    public CarregadorEmLote<Long, Cliente> novoCarregadorClientes() {
+        return new CarregadorEmLote<>(this::obterClientes);
+    }
+    
+    /**
+     * Lista todos os clientes em ordem alfabética com total comprado, total
+     * pago e saldo, obtidos em uma única consulta. A lista fica em cache até
+     * o próximo cadastro ou edição de cliente, venda ou pagamento.
+     * 
+     * @return Lista de clientes com saldo (não modificável)
+     */
+    public List<ClienteComSaldo> listarClientesComSaldo() {
+        try {
+            return CacheResultados.getInstancia().obter("clientes.comSaldo",
+                    () -> Collections.unmodifiableList(clienteDAO.buscarTodosComSaldo()),
+                    TABELAS_SALDOS);
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao buscar clientes: " + e.getMessage(), e);
+        }
+    }
+    
     /**
      * Calcula o saldo devedor de um cliente (total de vendas menos pagamentos).
      * 
@@ -109,17 +250,86 @@ public class ClienteController {
                 throw new IllegalArgumentException("ID do cliente inválido");
             }
             
-            // Calcula total de vendas
-            BigDecimal totalVendas = vendaDAO.calcularTotalVendasPorCliente(clienteId);
+            // Saldo mantido pelo banco a cada venda e pagamento (vendas - pagamentos)
+            return saldoClienteDAO.buscarPorCliente(clienteId).getSaldo().toBigDecimal();
             
-            // Calcula total de pagamentos
-            BigDecimal totalPagamentos = pagamentoDAO.calcularTotalPagoPorCliente(clienteId);
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao calcular saldo devedor: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Obtém os totais de um cliente: total comprado, total pago e saldo.
+     * 
+     * @param clienteId ID do cliente
+     * @return Saldo do cliente (zerado se ele não tiver vendas nem pagamentos)
+     * @throws IllegalArgumentException se o ID do cliente for inválido
+     */
+    public SaldoCliente obterSaldoCliente(Long clienteId) {
+        try {
+            if (clienteId == null || clienteId <= 0) {
+                throw new IllegalArgumentException("ID do cliente inválido");
+            }
             
-            // Retorna o saldo devedor (vendas - pagamentos)
-            return totalVendas.subtract(totalPagamentos);
+            return saldoClienteDAO.buscarPorCliente(clienteId);
             
         } catch (SQLException e) {
-            throw new RuntimeException("Erro ao calcular saldo devedor: " + e.getMessage(), e);
+            throw new RuntimeException("Erro ao obter saldo do cliente: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Lista uma página de clientes em ordem alfabética.
+     * 
+     * @param continuacao Token da página anterior, ou null para a primeira página
+     * @param tamanho Quantidade máxima de clientes na página
+     * @return Página de clientes
+     * @throws IllegalArgumentException se o tamanho ou o token forem inválidos
+     */
+    public Pagina<Cliente> listarPaginaClientes(String continuacao, int tamanho) {
+        try {
+            return clienteDAO.buscarPagina(continuacao, tamanho);
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao buscar clientes: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Lista os saldos dos clientes que têm débito, do maior para o menor.
+     * 
+     * @return Saldos devedores
+     */
+    public List<SaldoCliente> listarSaldosDevedores() {
+        try {
+            return saldoClienteDAO.buscarDevedores();
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao buscar clientes com débito: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Confere os saldos gravados contra o histórico de vendas e pagamentos.
+     * 
+     * @return IDs dos clientes com saldo divergente (vazio se tudo confere)
+     */
+    public List<Long> verificarSaldos() {
+        try {
+            return saldoClienteDAO.verificar();
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao verificar saldos: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Recalcula todos os saldos a partir do histórico de vendas e pagamentos.
+     * 
+     * @return Número de clientes com saldo gravado
+     */
+    public int reconstruirSaldos() {
+        try {
+            return saldoClienteDAO.reconstruir();
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao reconstruir saldos: " + e.getMessage(), e);
         }
     }
 }
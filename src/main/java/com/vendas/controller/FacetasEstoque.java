@@ -0,0 +1,212 @@
+package com.vendas.controller;
+
+import com.vendas.dao.ProdutoDAO;
+import com.vendas.model.ProdutoResumo;
+import com.vendas.util.EventosBanco;
+import com.vendas.util.IndiceFacetas;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Facetas do estoque (tamanho, faixa de preço, tempo em estoque e situação)
+ * sobre todos os produtos, para filtrar o estoque sem voltar ao banco.
+ *
+ * O índice é carregado do {@link ProdutoDAO} no primeiro uso. Produtos
+ * cadastrados ou vendidos (avisados por {@link EventosBanco}) são relidos em
+ * lote antes do filtro seguinte, e o tempo em estoque é recalculado quando
+ * o dia muda.
+ */
+public class FacetasEstoque {
+
+    /**
+     * Facetas disponíveis para filtrar o estoque.
+     */
+    public enum Faceta {
+        TAMANHO("Tamanho"),
+        FAIXA_PRECO("Valor de Compra"),
+        TEMPO_ESTOQUE("Tempo em Estoque"),
+        SITUACAO("Situação");
+
+        private final String rotulo;
+
+        Faceta(String rotulo) {
+            this.rotulo = rotulo;
+        }
+
+        public String getRotulo() {
+            return rotulo;
+        }
+    }
+
+    public static final String DISPONIVEL = "Disponível";
+    public static final String VENDIDO = "Vendido";
+
+    // Limites superiores (exclusivos) das faixas de preço e de tempo em estoque
+    private static final BigDecimal[] LIMITES_PRECO = {
+        new BigDecimal("30"), new BigDecimal("60"), new BigDecimal("100")
+    };
+    private static final List<String> FAIXAS_PRECO = Arrays.asList(
+        "Até R$ 29,99", "R$ 30 a R$ 59,99", "R$ 60 a R$ 99,99", "R$ 100 ou mais");
+    private static final long[] LIMITES_DIAS = { 31, 91, 181 };
+    private static final List<String> FAIXAS_TEMPO = Arrays.asList(
+        "Até 30 dias", "31 a 90 dias", "91 a 180 dias", "Mais de 180 dias");
+    private static final List<String> ORDEM_TAMANHOS = Arrays.asList(
+        "PP", "P", "M", "G", "GG", "XG", "XGG", "EG", "EGG");
+
+    private static final FacetasEstoque INSTANCIA = new FacetasEstoque();
+
+    private final ProdutoDAO produtoDAO = new ProdutoDAO();
+    private final IndiceFacetas<Faceta, ProdutoResumo> indice = new IndiceFacetas<>(Faceta.class);
+
+    // Dia usado para calcular o tempo em estoque
+    private volatile LocalDate hoje = LocalDate.now();
+
+    // Alterações avisadas e ainda não aplicadas (protegidas por "alteracoes")
+    private final Object alteracoes = new Object();
+    private final Set<Long> produtosAlterados = new HashSet<>();
+    private boolean recarregar = true;
+
+    private FacetasEstoque() {
+        indice.definirFaceta(Faceta.TAMANHO, ProdutoResumo::getTamanho, FacetasEstoque::compararTamanhos);
+        indice.definirFaceta(Faceta.FAIXA_PRECO, p -> faixaPreco(p.getValorCompra()),
+                Comparator.comparingInt(FAIXAS_PRECO::indexOf));
+        indice.definirFaceta(Faceta.TEMPO_ESTOQUE, this::faixaTempo,
+                Comparator.comparingInt(FAIXAS_TEMPO::indexOf));
+        indice.definirFaceta(Faceta.SITUACAO, p -> p.isVendido() ? VENDIDO : DISPONIVEL,
+                Comparator.comparing(valor -> !DISPONIVEL.equals(valor)));
+        EventosBanco.registrar(this::aoAlterar);
+    }
+
+    static FacetasEstoque getInstancia() {
+        return INSTANCIA;
+    }
+
+    /**
+     * Filtra os produtos pelos valores marcados e conta os valores de cada faceta.
+     */
+    IndiceFacetas.Resultado<Faceta, ProdutoResumo> filtrar(Map<Faceta, ? extends Collection<String>> selecao)
+            throws SQLException {
+        atualizar();
+        return indice.filtrar(selecao);
+    }
+
+    /**
+     * Descarta o índice e o recarrega do banco na próxima consulta (para ver
+     * gravações feitas por outros terminais).
+     */
+    void recarregar() {
+        synchronized (alteracoes) {
+            recarregar = true;
+        }
+    }
+
+    private void aoAlterar(String tabela, Set<Long> ids) {
+        if (!EventosBanco.PRODUTOS.equals(tabela)) {
+            return;
+        }
+        synchronized (alteracoes) {
+            if (ids.isEmpty()) {
+                recarregar = true;
+            } else {
+                produtosAlterados.addAll(ids);
+            }
+        }
+    }
+
+    /**
+     * Aplica ao índice as alterações anotadas e a mudança de dia.
+     */
+    private synchronized void atualizar() throws SQLException {
+        boolean tudo;
+        Set<Long> ids;
+        synchronized (alteracoes) {
+            tudo = recarregar;
+            ids = new HashSet<>(produtosAlterados);
+            recarregar = false;
+            produtosAlterados.clear();
+        }
+
+        try {
+            if (!LocalDate.now().equals(hoje)) {
+                hoje = LocalDate.now();
+                if (!tudo) {
+                    indice.reclassificar(Faceta.TEMPO_ESTOQUE);
+                }
+            }
+
+            if (tudo) {
+                indice.limpar();
+                produtoDAO.percorrerResumos(produto -> indice.adicionar(produto.getId(), produto));
+            } else if (!ids.isEmpty()) {
+                Map<Long, ProdutoResumo> relidos = produtoDAO.buscarResumosPorIds(ids);
+                for (Long id : ids) {
+                    ProdutoResumo produto = relidos.get(id);
+                    if (produto == null) {
+                        indice.remover(id);
+                    } else {
+                        indice.adicionar(id, produto);
+                    }
+                }
+            }
+        } catch (SQLException | RuntimeException e) {
+            // Devolve o que não foi aplicado para a próxima tentativa
+            synchronized (alteracoes) {
+                recarregar |= tudo;
+                produtosAlterados.addAll(ids);
+            }
+            throw e;
+        }
+    }
+
+    private static String faixaPreco(BigDecimal valor) {
+        if (valor == null) {
+            return null;
+        }
+        for (int i = 0; i < LIMITES_PRECO.length; i++) {
+            if (valor.compareTo(LIMITES_PRECO[i]) < 0) {
+                return FAIXAS_PRECO.get(i);
+            }
+        }
+        return FAIXAS_PRECO.get(LIMITES_PRECO.length);
+    }
+
+    private String faixaTempo(ProdutoResumo produto) {
+        if (produto.getDataCompra() == null) {
+            return null;
+        }
+        long dias = hoje.toEpochDay() - produto.getDataCompra().toEpochDay();
+        for (int i = 0; i < LIMITES_DIAS.length; i++) {
+            if (dias < LIMITES_DIAS[i]) {
+                return FAIXAS_TEMPO.get(i);
+            }
+        }
+        return FAIXAS_TEMPO.get(LIMITES_DIAS.length);
+    }
+
+    /**
+     * Tamanhos conhecidos em ordem crescente, seguidos dos demais em ordem alfabética.
+     * Só retorna 0 para valores iguais: o comparador ordena um TreeMap, e "m" e
+     * "M" comparados como iguais teriam as contagens juntadas em uma só chave.
+     */
+    private static int compararTamanhos(String a, String b) {
+        int posicaoA = ORDEM_TAMANHOS.indexOf(a.toUpperCase());
+        int posicaoB = ORDEM_TAMANHOS.indexOf(b.toUpperCase());
+        if (posicaoA != posicaoB) {
+            if (posicaoA >= 0 && posicaoB >= 0) {
+                return Integer.compare(posicaoA, posicaoB);
+            }
+            return posicaoA >= 0 ? -1 : 1;
+        }
+        int semCaixa = a.compareToIgnoreCase(b);
+        return semCaixa != 0 ? semCaixa : a.compareTo(b);
+    }
+}
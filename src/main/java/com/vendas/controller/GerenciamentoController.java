@@ -1,12 +1,22 @@
 package com.vendas.controller;
 
 import com.vendas.dao.ProdutoDAO;
+import com.vendas.dao.ResumoFinanceiroDAO;
 import com.vendas.dao.VendaDAO;
-import com.vendas.model.Produto;
+import com.vendas.model.Dinheiro;
+import com.vendas.model.ProdutoResumo;
+import com.vendas.model.ResumoFinanceiro;
+import com.vendas.util.CacheLRU;
+import com.vendas.util.EventosBanco;
+import com.vendas.util.IndiceFacetas;
 
 import java.math.BigDecimal;
 import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Controller para gerenciar o painel financeiro e de estoque.
@@ -15,6 +25,7 @@ public class GerenciamentoController {
     
     private final ProdutoDAO produtoDAO;
     private final VendaDAO vendaDAO;
+    private final ResumoFinanceiroDAO resumoFinanceiroDAO;
     
     /**
      * Construtor padrão que inicializa os DAOs.
@@ -22,55 +33,200 @@ public class GerenciamentoController {
     public GerenciamentoController() {
         this.produtoDAO = new ProdutoDAO();
         this.vendaDAO = new VendaDAO();
+        this.resumoFinanceiroDAO = new ResumoFinanceiroDAO();
     }
     
     /**
-     * Obtém a lista de produtos em estoque (não vendidos).
+     * Obtém a lista de produtos em estoque (não vendidos), sem as imagens.
+     * A lista fica em cache até o próximo cadastro ou venda de produto.
      * 
-     * @return Lista de produtos disponíveis no estoque
+     * @return Lista de produtos disponíveis no estoque (não modificável)
      */
-    public List<Produto> obterProdutosEmEstoque() {
+    public List<ProdutoResumo> obterProdutosEmEstoque() {
         try {
-            return produtoDAO.buscarDisponiveis();
+            return CacheResultados.getInstancia().obter("produtos.disponiveis",
+                    () -> Collections.unmodifiableList(produtoDAO.buscarResumosDisponiveis()),
+                    EventosBanco.PRODUTOS);
         } catch (SQLException e) {
             throw new RuntimeException("Erro ao buscar produtos em estoque: " + e.getMessage(), e);
         }
     }
     
     /**
-     * Calcula o valor total gasto na compra de todos os produtos.
+     * Filtra o estoque pelas facetas (tamanho, faixa de preço, tempo em
+     * estoque e situação) e conta quantos produtos há em cada valor. Os
+     * filtros são resolvidos em memória, sem consultar o banco a cada
+     * alteração dos filtros.
      * 
-     * @return Valor total gasto
+     * @param selecao Valores marcados por faceta; valores da mesma faceta são
+     *        alternativos (OU) e facetas diferentes se somam (E)
+     * @return Produtos filtrados, em ordem de cadastro, e contagens por faceta
      */
-    public BigDecimal calcularTotalGasto() {
+    public IndiceFacetas.Resultado<FacetasEstoque.Faceta, ProdutoResumo> filtrarEstoque(
+            Map<FacetasEstoque.Faceta, ? extends Collection<String>> selecao) {
         try {
-            return produtoDAO.calcularTotalGasto();
+            return FacetasEstoque.getInstancia().filtrar(selecao);
         } catch (SQLException e) {
-            throw new RuntimeException("Erro ao calcular total gasto: " + e.getMessage(), e);
+            throw new RuntimeException("Erro ao filtrar produtos do estoque: " + e.getMessage(), e);
         }
     }
     
     /**
-     * Calcula o valor total recebido com todas as vendas.
+     * Recarrega do banco as facetas do estoque e os totais na próxima
+     * consulta, para incluir produtos e vendas gravados por outros terminais.
+     */
+    public void recarregarFacetasEstoque() {
+        FacetasEstoque.getInstancia().recarregar();
+        CacheResultados.getInstancia().invalidar(EventosBanco.PRODUTOS);
+        CacheResultados.getInstancia().invalidar(EventosBanco.VENDAS);
+    }
+    
+    /**
+     * Obtém os contadores do cache de totais e listagens (acertos, falhas,
+     * invalidações e taxa de acertos).
      * 
-     * @return Valor total recebido
+     * @return Estatísticas do cache
      */
-    public BigDecimal calcularTotalRecebido() {
+    public CacheLRU.Estatisticas getEstatisticasCache() {
+        return CacheResultados.getInstancia().getEstatisticas();
+    }
+    
+    /**
+     * Obtém os totais do painel (gasto, recebido, lucro e estoque) em uma
+     * única leitura. Os totais são mantidos pelo banco a cada produto
+     * cadastrado e a cada venda, então o custo não depende do histórico.
+     * O resumo fica em cache até o próximo cadastro de produto ou venda
+     * (ou até a reconstrução do resumo).
+     * 
+     * @return Resumo financeiro atual
+     */
+    public ResumoFinanceiro obterResumoFinanceiro() {
         try {
-            return vendaDAO.calcularTotalVendas();
+            return CacheResultados.getInstancia().obter("financeiro.resumo", resumoFinanceiroDAO::buscar,
+                    EventosBanco.PRODUTOS, EventosBanco.VENDAS, EventosBanco.RESUMO_FINANCEIRO);
         } catch (SQLException e) {
-            throw new RuntimeException("Erro ao calcular total recebido: " + e.getMessage(), e);
+            throw new RuntimeException("Erro ao obter resumo financeiro: " + e.getMessage(), e);
         }
     }
     
+    /**
+     * Confere o resumo financeiro gravado contra os produtos e vendas.
+     * 
+     * @return true se o resumo confere
+     */
+    public boolean verificarResumoFinanceiro() {
+        try {
+            return resumoFinanceiroDAO.verificar();
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao verificar resumo financeiro: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Recalcula o resumo financeiro a partir dos produtos e vendas.
+     */
+    public void reconstruirResumoFinanceiro() {
+        try {
+            resumoFinanceiroDAO.reconstruir();
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao reconstruir resumo financeiro: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Calcula o valor total gasto na compra de todos os produtos.
+     * 
+     * @return Valor total gasto
+     */
+    public BigDecimal calcularTotalGasto() {
+        return obterResumoFinanceiro().getTotalGasto().toBigDecimal();
+    }
+    
+    /**
+     * Calcula o valor total recebido com todas as vendas.
+     * 
+     * @return Valor total recebido
+     */
+    public BigDecimal calcularTotalRecebido() {
+        return obterResumoFinanceiro().getTotalRecebido().toBigDecimal();
+    }
+    
     /**
      * Calcula o lucro ou prejuízo (total recebido menos total gasto).
      * 
      * @return Lucro (positivo) ou prejuízo (negativo)
      */
     public BigDecimal calcularLucro() {
-        BigDecimal totalRecebido = calcularTotalRecebido();
-        BigDecimal totalGasto = calcularTotalGasto();
-        return totalRecebido.subtract(totalGasto);
+        return obterResumoFinanceiro().getLucro().toBigDecimal();
+    }
+    
+    /**
+     * Calcula o valor gasto na compra dos produtos comprados em um período.
+     * 
+     * @param inicio Primeiro dia do período (inclusive)
+     * @param fim Último dia do período (inclusive)
+     * @return Valor gasto no período
+     * @throws IllegalArgumentException se o período for inválido
+     */
+    public BigDecimal calcularTotalGasto(LocalDate inicio, LocalDate fim) {
+        return totalGasto(inicio, fim).toBigDecimal();
+    }
+    
+    /**
+     * Calcula o valor recebido com as vendas de um período.
+     * 
+     * @param inicio Primeiro dia do período (inclusive)
+     * @param fim Último dia do período (inclusive)
+     * @return Valor recebido no período
+     * @throws IllegalArgumentException se o período for inválido
+     */
+    public BigDecimal calcularTotalRecebido(LocalDate inicio, LocalDate fim) {
+        return totalRecebido(inicio, fim).toBigDecimal();
+    }
+    
+    /**
+     * Calcula o lucro ou prejuízo de um período (vendas menos compras do período).
+     * 
+     * @param inicio Primeiro dia do período (inclusive)
+     * @param fim Último dia do período (inclusive)
+     * @return Lucro (positivo) ou prejuízo (negativo) no período
+     * @throws IllegalArgumentException se o período for inválido
+     */
+    public BigDecimal calcularLucro(LocalDate inicio, LocalDate fim) {
+        return totalRecebido(inicio, fim).subtrair(totalGasto(inicio, fim)).toBigDecimal();
+    }
+    
+    private Dinheiro totalGasto(LocalDate inicio, LocalDate fim) {
+        validarPeriodo(inicio, fim);
+        try {
+            return CacheResultados.getInstancia().obter("financeiro.gasto:" + inicio + ":" + fim,
+                    () -> produtoDAO.calcularTotalGastoPorPeriodo(inicio, fim), EventosBanco.PRODUTOS);
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao calcular total gasto no período: " + e.getMessage(), e);
+        }
+    }
+    
+    private Dinheiro totalRecebido(LocalDate inicio, LocalDate fim) {
+        validarPeriodo(inicio, fim);
+        try {
+            return CacheResultados.getInstancia().obter("financeiro.recebido:" + inicio + ":" + fim,
+                    () -> vendaDAO.calcularTotalVendasPorPeriodo(inicio, fim), EventosBanco.VENDAS);
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao calcular total recebido no período: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Valida um período de datas.
+     * 
+     * @throws IllegalArgumentException se alguma data for nula ou o início for posterior ao fim
+     */
+    static void validarPeriodo(LocalDate inicio, LocalDate fim) {
+        if (inicio == null || fim == null) {
+            throw new IllegalArgumentException("As datas de início e fim do período são obrigatórias");
+        }
+        if (inicio.isAfter(fim)) {
+            throw new IllegalArgumentException("A data de início deve ser anterior ou igual à data de fim");
+        }
     }
 }
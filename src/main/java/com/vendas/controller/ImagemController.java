@@ -0,0 +1,163 @@
+package com.vendas.controller;
+
+import com.vendas.dao.ImagemDAO;
+import com.vendas.model.Produto;
+import com.vendas.util.DatabaseManager;
+import com.vendas.util.EventosBanco;
+import com.vendas.util.ExceptionHandler;
+import com.vendas.util.ProcessadorImagens;
+import com.vendas.util.ProcessadorImagens.ImagemNormalizada;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Controller para a normalização das imagens dos produtos.
+ *
+ * As imagens cadastradas passam por {@link ProcessadorImagens} antes de serem
+ * gravadas: saem reduzidas, em JPEG e sem metadados, acompanhadas de uma
+ * miniatura. As imagens gravadas antes disso são normalizadas uma única vez,
+ * em segundo plano, por {@link #normalizarImagensPendentes()}.
+ */
+public class ImagemController {
+
+    /** Quantidade de imagens pendentes lidas do banco por vez. */
+    private static final int TAMANHO_LOTE = 20;
+
+    private final ImagemDAO imagemDAO;
+
+    /**
+     * Construtor padrão que inicializa o DAO.
+     */
+    public ImagemController() {
+        this.imagemDAO = new ImagemDAO();
+    }
+
+    /**
+     * Normaliza uma imagem escolhida pelo usuário. Chame em segundo plano.
+     *
+     * @param imagem Bytes do arquivo de imagem
+     * @return Imagem normalizada e sua miniatura
+     * @throws IllegalArgumentException se os bytes não forem uma imagem reconhecida
+     */
+    public ImagemNormalizada normalizarImagem(byte[] imagem) {
+        try {
+            ImagemNormalizada normalizada = ProcessadorImagens.normalizar(imagem);
+            if (normalizada == null) {
+                throw new IllegalArgumentException("O arquivo não é uma imagem reconhecida");
+            }
+            return normalizada;
+        } catch (IOException e) {
+            throw new RuntimeException("Erro ao processar imagem: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Normaliza a imagem de um produto que ainda não passou pela normalização
+     * (sem miniatura). Imagens que não puderem ser decodificadas são mantidas
+     * como vieram.
+     *
+     * @param produto Produto a ser gravado
+     */
+    void prepararImagem(Produto produto) {
+        if (produto.getImagem() == null || produto.getMiniatura() != null) {
+            return;
+        }
+        try {
+            ImagemNormalizada normalizada = ProcessadorImagens.normalizar(produto.getImagem());
+            if (normalizada != null) {
+                produto.setImagem(normalizada.getDados());
+                produto.setMiniatura(normalizada.getMiniatura());
+            }
+        } catch (IOException | RuntimeException e) {
+            ExceptionHandler.logAviso("Imagem gravada sem normalizar: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Carrega a miniatura gravada junto com uma imagem normalizada.
+     *
+     * @param hash Hash da imagem
+     * @return Bytes da miniatura (JPEG), ou null se a imagem ainda não foi normalizada
+     */
+    byte[] obterMiniaturaGravada(String hash) {
+        try {
+            return imagemDAO.buscarMiniatura(hash);
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao carregar miniatura: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Normaliza as imagens gravadas antes da normalização no cadastro.
+     *
+     * Cada imagem é decodificada fora da transação e trocada pela versão
+     * normalizada em uma transação curta, que também aponta os produtos para
+     * o novo hash. Imagens que não puderem ser decodificadas são apenas
+     * marcadas, para não serem tentadas de novo. Depois da primeira execução
+     * completa não há mais pendentes e a chamada só faz uma consulta.
+     *
+     * @return Quantidade de imagens substituídas
+     */
+    public int normalizarImagensPendentes() {
+        try {
+            int substituidas = 0;
+            List<String> pendentes;
+            while (!(pendentes = imagemDAO.buscarPendentes(TAMANHO_LOTE)).isEmpty()) {
+                for (String hash : pendentes) {
+                    if (normalizarPendente(hash)) {
+                        substituidas++;
+                    }
+                }
+            }
+            return substituidas;
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao normalizar imagens: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Executa {@link #normalizarImagensPendentes()} em uma thread de baixa
+     * prioridade, sem impedir o encerramento da aplicação.
+     */
+    public void iniciarNormalizacaoPendentes() {
+        Thread thread = new Thread(() -> {
+            try {
+                int substituidas = normalizarImagensPendentes();
+                if (substituidas > 0) {
+                    ExceptionHandler.logInfo(substituidas + " imagem(ns) de produtos normalizada(s)");
+                }
+            } catch (RuntimeException e) {
+                ExceptionHandler.logAviso(e.getMessage());
+            }
+        }, "normalizacao-imagens");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+    }
+
+    /**
+     * @return true se a imagem foi trocada pela versão normalizada
+     */
+    private boolean normalizarPendente(String hash) throws SQLException {
+        ImagemNormalizada normalizada = null;
+        byte[] dados = imagemDAO.buscarPorHash(hash);
+        try {
+            normalizada = ProcessadorImagens.normalizar(dados);
+        } catch (IOException | RuntimeException e) {
+            ExceptionHandler.logAviso("Imagem " + hash + " mantida sem normalizar: " + e.getMessage());
+        }
+
+        final ImagemNormalizada resultado = normalizada;
+        return DatabaseManager.executarTransacao(conn -> {
+            if (resultado == null) {
+                imagemDAO.marcarNormalizada(conn, hash);
+                return false;
+            }
+            List<Long> produtos = imagemDAO.substituir(conn, hash, resultado.getDados(), resultado.getMiniatura());
+            EventosBanco.publicar(EventosBanco.PRODUTOS, produtos);
+            return true;
+        });
+    }
+}
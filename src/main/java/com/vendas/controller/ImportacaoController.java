@@ -0,0 +1,359 @@
+package com.vendas.controller;
+
+import com.vendas.dao.ProdutoDAO;
+import com.vendas.model.Produto;
+import com.vendas.util.DatabaseManager;
+import com.vendas.util.LeitorCsv;
+import com.vendas.util.ProcessadorImagens;
+import com.vendas.util.UIUtils;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.text.Normalizer;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Controller para importação de produtos em massa a partir de arquivos CSV.
+ *
+ * O arquivo é lido registro a registro e os produtos válidos são gravados em
+ * lotes (um INSERT em batch e um commit por lote), de modo que a memória usada
+ * depende apenas do tamanho do lote e não do tamanho do arquivo.
+ *
+ * Formato esperado (com cabeçalho, separado por ponto e vírgula ou vírgula):
+ * {@code descricao;tamanho;valor_compra;data_compra;imagem}. A coluna imagem é
+ * opcional e contém o nome de um arquivo JPG ou PNG na pasta de imagens;
+ * caminhos que saiam dessa pasta são rejeitados.
+ *
+ * O arquivo é lido em UTF-8 quando começa com o BOM ou quando todo ele é
+ * UTF-8 válido; caso contrário, em windows-1252, a codificação em que o
+ * Excel em português salva "CSV (separado por vírgulas)".
+ */
+public class ImportacaoController {
+
+    /** Tamanho padrão do lote, configurável por {@code -Dvendas.importacao.tamanhoLote}. */
+    public static final int TAMANHO_LOTE_PADRAO = Integer.getInteger("vendas.importacao.tamanhoLote", 500);
+
+    private static final DateTimeFormatter FORMATO_DATA_BR = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    private static final Charset WINDOWS_1252 = Charset.forName("windows-1252");
+
+    private final ProdutoDAO produtoDAO;
+    private final ProdutoController produtoController;
+    private final ImagemController imagemController;
+
+    /**
+     * Construtor padrão que inicializa o DAO.
+     */
+    public ImportacaoController() {
+        this.produtoDAO = new ProdutoDAO();
+        this.produtoController = new ProdutoController();
+        this.imagemController = new ImagemController();
+    }
+
+    /**
+     * Importa produtos de um arquivo CSV.
+     * Linhas inválidas são ignoradas e registradas no resultado; as demais são gravadas.
+     *
+     * @param arquivoCsv Arquivo CSV (UTF-8 ou windows-1252)
+     * @param pastaImagens Pasta com as imagens referenciadas, ou null para usar a pasta do CSV
+     * @param tamanhoLote Quantidade de produtos gravados por transação
+     * @param ouvinte Recebe o progresso da importação (pode ser null)
+     * @return Resumo da importação com os erros por linha
+     * @throws IllegalArgumentException se o cabeçalho do arquivo for inválido
+     */
+    public ResultadoImportacao importarProdutos(Path arquivoCsv, Path pastaImagens, int tamanhoLote,
+                                                OuvinteProgresso ouvinte) {
+        if (tamanhoLote <= 0) {
+            throw new IllegalArgumentException("O tamanho do lote deve ser maior que zero");
+        }
+
+        Path pasta = (pastaImagens != null ? pastaImagens : arquivoCsv.toAbsolutePath().getParent())
+                .toAbsolutePath().normalize();
+        ResultadoImportacao resultado = new ResultadoImportacao();
+        long inicio = System.currentTimeMillis();
+
+        try (LeitorCsv leitor = new LeitorCsv(Files.newBufferedReader(arquivoCsv, detectarCodificacao(arquivoCsv)))) {
+
+            Map<String, Integer> colunas = lerCabecalho(leitor.proximoRegistro());
+            List<Produto> lote = new ArrayList<>(tamanhoLote);
+            String[] registro;
+
+            while ((registro = leitor.proximoRegistro()) != null) {
+                resultado.linhasLidas++;
+
+                try {
+                    Produto produto = converterRegistro(registro, colunas, pasta);
+                    produtoController.validarProduto(produto);
+                    lote.add(produto);
+                } catch (IllegalArgumentException | IOException e) {
+                    resultado.erros.add(new ErroLinha(leitor.getLinhaInicial(), e.getMessage()));
+                }
+
+                if (lote.size() >= tamanhoLote) {
+                    gravarLote(lote, resultado);
+                    notificar(ouvinte, resultado);
+                }
+            }
+
+            gravarLote(lote, resultado);
+            resultado.duracaoMs = System.currentTimeMillis() - inicio;
+            notificar(ouvinte, resultado);
+            return resultado;
+
+        } catch (IOException e) {
+            throw new RuntimeException("Erro ao ler arquivo CSV: " + e.getMessage(), e);
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao gravar produtos no banco de dados (" + resultado.importados +
+                    " produtos já importados): " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Descobre a codificação do arquivo. Sem o BOM, o arquivo é percorrido uma
+     * vez em blocos, sem carregá-lo inteiro: um acento mal codificado perto do
+     * fim não pode ser descoberto depois de parte do arquivo já ter sido gravada.
+     *
+     * @return UTF-8 se o arquivo começar com o BOM ou for todo UTF-8 válido;
+     *         windows-1252 caso contrário
+     */
+    private Charset detectarCodificacao(Path arquivo) throws IOException {
+        try (InputStream entrada = new BufferedInputStream(Files.newInputStream(arquivo))) {
+            entrada.mark(3);
+            if (entrada.read() == 0xEF && entrada.read() == 0xBB && entrada.read() == 0xBF) {
+                return StandardCharsets.UTF_8;
+            }
+            entrada.reset();
+
+            Reader utf8 = new InputStreamReader(entrada, StandardCharsets.UTF_8.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPORT)
+                    .onUnmappableCharacter(CodingErrorAction.REPORT));
+            char[] bloco = new char[8192];
+            while (utf8.read(bloco) >= 0) {
+                // Só valida
+            }
+            return StandardCharsets.UTF_8;
+        } catch (CharacterCodingException e) {
+            return WINDOWS_1252;
+        }
+    }
+
+    /**
+     * Grava o lote atual em uma única transação e o esvazia.
+     */
+    private void gravarLote(List<Produto> lote, ResultadoImportacao resultado) throws SQLException {
+        if (lote.isEmpty()) {
+            return;
+        }
+        DatabaseManager.executarTransacao(conn -> {
+            produtoDAO.inserirLote(conn, lote);
+            return null;
+        });
+        resultado.importados += lote.size();
+        lote.clear();
+    }
+
+    private void notificar(OuvinteProgresso ouvinte, ResultadoImportacao resultado) {
+        if (ouvinte != null) {
+            ouvinte.progresso(resultado.linhasLidas, resultado.importados, resultado.erros.size());
+        }
+    }
+
+    /**
+     * Mapeia o nome de cada coluna do cabeçalho para sua posição.
+     */
+    private Map<String, Integer> lerCabecalho(String[] cabecalho) {
+        if (cabecalho == null) {
+            throw new IllegalArgumentException("O arquivo CSV está vazio");
+        }
+
+        Map<String, Integer> colunas = new HashMap<>();
+        for (int i = 0; i < cabecalho.length; i++) {
+            colunas.put(normalizarNomeColuna(cabecalho[i]), i);
+        }
+
+        for (String obrigatoria : new String[] {"descricao", "tamanho", "valor_compra", "data_compra"}) {
+            if (!colunas.containsKey(obrigatoria)) {
+                throw new IllegalArgumentException("Coluna obrigatória ausente no cabeçalho do CSV: " + obrigatoria);
+            }
+        }
+
+        return colunas;
+    }
+
+    private String normalizarNomeColuna(String nome) {
+        String semAcentos = Normalizer.normalize(nome, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+        return semAcentos.trim().toLowerCase().replace(' ', '_');
+    }
+
+    /**
+     * Converte um registro do CSV em Produto.
+     */
+    private Produto converterRegistro(String[] registro, Map<String, Integer> colunas, Path pastaImagens)
+            throws IOException {
+        Produto produto = new Produto();
+        produto.setDescricao(campo(registro, colunas, "descricao"));
+        produto.setTamanho(campo(registro, colunas, "tamanho").toUpperCase());
+
+        String valor = campo(registro, colunas, "valor_compra");
+        BigDecimal valorCompra = UIUtils.converterParaBigDecimal(valor);
+        if (!valor.isEmpty() && valorCompra == null) {
+            throw new IllegalArgumentException("Valor de compra inválido: " + valor);
+        }
+        produto.setValorCompra(valorCompra);
+
+        produto.setDataCompra(converterData(campo(registro, colunas, "data_compra")));
+
+        String imagem = campo(registro, colunas, "imagem");
+        if (!imagem.isEmpty()) {
+            produto.setImagem(lerImagem(resolverImagem(pastaImagens, imagem)));
+            imagemController.prepararImagem(produto);
+        }
+
+        produto.setVendido(false);
+        return produto;
+    }
+
+    private String campo(String[] registro, Map<String, Integer> colunas, String nome) {
+        Integer indice = colunas.get(nome);
+        if (indice == null || indice >= registro.length) {
+            return "";
+        }
+        return registro[indice];
+    }
+
+    /**
+     * Aceita datas no formato ISO (2024-01-31) ou brasileiro (31/01/2024).
+     */
+    private LocalDate converterData(String texto) {
+        if (texto.isEmpty()) {
+            return null;
+        }
+        try {
+            return texto.contains("/") ? LocalDate.parse(texto, FORMATO_DATA_BR) : LocalDate.parse(texto);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Data de compra inválida: " + texto);
+        }
+    }
+
+    /**
+     * Resolve o nome da imagem dentro da pasta de imagens. Um CSV recebido de
+     * terceiros não pode apontar para arquivos fora dela ("../", caminho absoluto).
+     *
+     * @param pastaImagens Pasta de imagens, absoluta e normalizada
+     * @param imagem Nome informado na coluna imagem
+     * @throws IllegalArgumentException se o caminho sair da pasta de imagens
+     */
+    private Path resolverImagem(Path pastaImagens, String imagem) {
+        Path arquivo = pastaImagens.resolve(imagem).normalize();
+        if (!arquivo.startsWith(pastaImagens)) {
+            throw new IllegalArgumentException("Imagem fora da pasta de imagens: " + imagem);
+        }
+        return arquivo;
+    }
+
+    /**
+     * Lê uma imagem aplicando as mesmas regras do cadastro manual (JPG/PNG até 20MB).
+     */
+    private byte[] lerImagem(Path arquivo) throws IOException {
+        String nome = arquivo.getFileName().toString().toLowerCase();
+        if (!nome.endsWith(".jpg") && !nome.endsWith(".jpeg") && !nome.endsWith(".png")) {
+            throw new IllegalArgumentException("Formato de imagem não suportado: " + arquivo.getFileName());
+        }
+        if (!Files.isRegularFile(arquivo)) {
+            throw new IllegalArgumentException("Imagem não encontrada: " + arquivo.getFileName());
+        }
+        if (Files.size(arquivo) > ProcessadorImagens.TAMANHO_MAXIMO_ARQUIVO) {
+            throw new IllegalArgumentException("Imagem maior que 20MB: " + arquivo.getFileName());
+        }
+        return Files.readAllBytes(arquivo);
+    }
+
+    /**
+     * Recebe o progresso de uma importação em andamento.
+     */
+    @FunctionalInterface
+    public interface OuvinteProgresso {
+
+        /**
+         * @param linhasLidas Registros lidos do arquivo até agora
+         * @param importados Produtos já gravados no banco
+         * @param erros Linhas rejeitadas até agora
+         */
+        void progresso(int linhasLidas, int importados, int erros);
+    }
+
+    /**
+     * Resumo de uma importação.
+     */
+    public static class ResultadoImportacao {
+        private int linhasLidas;
+        private int importados;
+        private long duracaoMs;
+        private final List<ErroLinha> erros = new ArrayList<>();
+
+        public int getLinhasLidas() {
+            return linhasLidas;
+        }
+
+        public int getImportados() {
+            return importados;
+        }
+
+        public long getDuracaoMs() {
+            return duracaoMs;
+        }
+
+        public List<ErroLinha> getErros() {
+            return erros;
+        }
+
+        /**
+         * @return Produtos gravados por segundo
+         */
+        public double getProdutosPorSegundo() {
+            return duracaoMs == 0 ? importados : importados * 1000.0 / duracaoMs;
+        }
+    }
+
+    /**
+     * Erro de validação em uma linha do arquivo.
+     */
+    public static class ErroLinha {
+        private final long linha;
+        private final String mensagem;
+
+        public ErroLinha(long linha, String mensagem) {
+            this.linha = linha;
+            this.mensagem = mensagem;
+        }
+
+        public long getLinha() {
+            return linha;
+        }
+
+        public String getMensagem() {
+            return mensagem;
+        }
+
+        @Override
+        public String toString() {
+            return "Linha " + linha + ": " + mensagem;
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.vendas.controller;
+
+import com.vendas.dao.ClienteDAO;
+import com.vendas.dao.ProdutoDAO;
+import com.vendas.model.Cliente;
+import com.vendas.model.ProdutoResumo;
+import com.vendas.util.EventosBanco;
+import com.vendas.util.IndiceBusca;
+
+import java.sql.SQLException;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Índices em memória dos clientes e dos produtos disponíveis, usados pelos
+ * campos de pesquisa que filtram a cada tecla digitada.
+ *
+ * Os índices são carregados do banco na primeira pesquisa. Depois disso,
+ * cada alteração confirmada em {@code clientes} ou {@code produtos} (avisada
+ * por {@link EventosBanco}) marca os IDs alterados, que são relidos em lote
+ * antes da pesquisa seguinte: um produto vendido sai do índice e um cliente
+ * cadastrado ou editado entra com os dados novos. Gravações de outros
+ * terminais não são avisadas; as telas pedem a recarga dos índices ao abrir.
+ */
+class IndicesPesquisa {
+
+    private static final IndicesPesquisa INSTANCIA = new IndicesPesquisa();
+
+    private final ClienteDAO clienteDAO = new ClienteDAO();
+    private final ProdutoDAO produtoDAO = new ProdutoDAO();
+
+    private final IndiceBusca<Cliente> clientes = new IndiceBusca<>(
+            IndicesPesquisa::textoCliente,
+            Comparator.comparing(Cliente::getNome, String.CASE_INSENSITIVE_ORDER));
+    private final IndiceBusca<ProdutoResumo> produtosDisponiveis = new IndiceBusca<>(
+            produto -> produto.getDescricao() + " " + produto.getTamanho(),
+            Comparator.comparing(ProdutoResumo::getDescricao, String.CASE_INSENSITIVE_ORDER));
+
+    // Alterações avisadas e ainda não aplicadas (protegidas por "alteracoes")
+    private final Object alteracoes = new Object();
+    private final Set<Long> clientesAlterados = new HashSet<>();
+    private final Set<Long> produtosAlterados = new HashSet<>();
+    private boolean recarregarClientes = true;
+    private boolean recarregarProdutos = true;
+
+    private IndicesPesquisa() {
+        EventosBanco.registrar(this::aoAlterar);
+    }
+
+    static IndicesPesquisa getInstancia() {
+        return INSTANCIA;
+    }
+
+    /**
+     * Pesquisa clientes por nome, telefone ou e-mail.
+     */
+    List<Cliente> pesquisarClientes(String texto, int limite) throws SQLException {
+        atualizar();
+        return clientes.pesquisar(texto, limite);
+    }
+
+    /**
+     * Pesquisa produtos disponíveis por descrição ou tamanho.
+     */
+    List<ProdutoResumo> pesquisarProdutosDisponiveis(String texto, int limite) throws SQLException {
+        atualizar();
+        return produtosDisponiveis.pesquisar(texto, limite);
+    }
+
+    /**
+     * Descarta o índice de clientes, que é recarregado do banco na próxima
+     * pesquisa (para ver clientes gravados por outros terminais).
+     */
+    void recarregarClientes() {
+        synchronized (alteracoes) {
+            recarregarClientes = true;
+        }
+    }
+
+    /**
+     * Descarta o índice de produtos disponíveis, que é recarregado do banco
+     * na próxima pesquisa (para ver produtos gravados ou vendidos por outros
+     * terminais).
+     */
+    void recarregarProdutos() {
+        synchronized (alteracoes) {
+            recarregarProdutos = true;
+        }
+    }
+
+    /**
+     * Ouvinte de {@link EventosBanco}: só anota os IDs, pois roda na thread
+     * que fez o commit.
+     */
+    private void aoAlterar(String tabela, Set<Long> ids) {
+        synchronized (alteracoes) {
+            if (EventosBanco.CLIENTES.equals(tabela)) {
+                if (ids.isEmpty()) {
+                    recarregarClientes = true;
+                } else {
+                    clientesAlterados.addAll(ids);
+                }
+            } else if (EventosBanco.PRODUTOS.equals(tabela)) {
+                if (ids.isEmpty()) {
+                    recarregarProdutos = true;
+                } else {
+                    produtosAlterados.addAll(ids);
+                }
+            }
+        }
+    }
+
+    /**
+     * Aplica aos índices as alterações anotadas desde a última pesquisa.
+     */
+    private synchronized void atualizar() throws SQLException {
+        boolean todosClientes;
+        boolean todosProdutos;
+        Set<Long> idsClientes;
+        Set<Long> idsProdutos;
+        synchronized (alteracoes) {
+            todosClientes = recarregarClientes;
+            todosProdutos = recarregarProdutos;
+            idsClientes = new HashSet<>(clientesAlterados);
+            idsProdutos = new HashSet<>(produtosAlterados);
+            recarregarClientes = false;
+            recarregarProdutos = false;
+            clientesAlterados.clear();
+            produtosAlterados.clear();
+        }
+
+        try {
+            if (todosClientes) {
+                clientes.limpar();
+                clienteDAO.percorrerTodos(cliente -> clientes.adicionar(cliente.getId(), cliente));
+            } else if (!idsClientes.isEmpty()) {
+                Map<Long, Cliente> relidos = clienteDAO.buscarPorIds(idsClientes);
+                for (Long id : idsClientes) {
+                    Cliente cliente = relidos.get(id);
+                    if (cliente == null) {
+                        clientes.remover(id);
+                    } else {
+                        clientes.adicionar(id, cliente);
+                    }
+                }
+            }
+
+            if (todosProdutos) {
+                produtosDisponiveis.limpar();
+                produtoDAO.percorrerResumos(produto -> {
+                    if (!produto.isVendido()) {
+                        produtosDisponiveis.adicionar(produto.getId(), produto);
+                    }
+                });
+            } else if (!idsProdutos.isEmpty()) {
+                Map<Long, ProdutoResumo> relidos = produtoDAO.buscarResumosPorIds(idsProdutos);
+                for (Long id : idsProdutos) {
+                    ProdutoResumo produto = relidos.get(id);
+                    if (produto == null || produto.isVendido()) {
+                        produtosDisponiveis.remover(id);
+                    } else {
+                        produtosDisponiveis.adicionar(id, produto);
+                    }
+                }
+            }
+        } catch (SQLException | RuntimeException e) {
+            // Devolve o que não foi aplicado para a próxima tentativa
+            synchronized (alteracoes) {
+                recarregarClientes |= todosClientes;
+                recarregarProdutos |= todosProdutos;
+                clientesAlterados.addAll(idsClientes);
+                produtosAlterados.addAll(idsProdutos);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Nome, telefone (também só com os dígitos, para pesquisar sem a
+     * pontuação) e e-mail do cliente.
+     */
+    private static String textoCliente(Cliente cliente) {
+        StringBuilder texto = new StringBuilder(cliente.getNome());
+        if (cliente.getTelefone() != null) {
+            texto.append(' ').append(cliente.getTelefone())
+                 .append(' ').append(cliente.getTelefone().replaceAll("\\D", ""));
+        }
+        if (cliente.getEmail() != null) {
+            texto.append(' ').append(cliente.getEmail());
+        }
+        return texto.toString();
+    }
+}
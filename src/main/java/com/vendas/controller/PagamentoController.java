@@ -1,6 +1,7 @@
 package com.vendas.controller;
 
 import com.vendas.dao.PagamentoDAO;
+import com.vendas.dao.Pagina;
 import com.vendas.model.Pagamento;
 
 import java.sql.SQLException;
@@ -70,4 +71,28 @@ public class PagamentoController {
             throw new RuntimeException("Erro ao buscar pagamentos do cliente: " + e.getMessage(), e);
         }
     }
+    
+    /**
+     * Lista uma página de pagamentos, dos mais recentes para os mais antigos.
+     * 
+     * @param clienteId ID do cliente, ou null para todos os clientes
+     * @param continuacao Token da página anterior, ou null para a primeira página
+     * @param tamanho Quantidade máxima de pagamentos na página
+     * @return Página de pagamentos
+     * @throws IllegalArgumentException se o ID do cliente, o tamanho ou o token forem inválidos
+     */
+    public Pagina<Pagamento> listarPaginaPagamentos(Long clienteId, String continuacao, int tamanho) {
+        try {
+            if (clienteId == null) {
+                return pagamentoDAO.buscarPagina(continuacao, tamanho);
+            }
+            if (clienteId <= 0) {
+                throw new IllegalArgumentException("ID do cliente inválido");
+            }
+            return pagamentoDAO.buscarPaginaPorCliente(clienteId, continuacao, tamanho);
+            
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao buscar pagamentos: " + e.getMessage(), e);
+        }
+    }
 }
@@ -1,27 +1,45 @@
 package com.vendas.controller;
 
+import com.vendas.dao.Pagina;
 import com.vendas.dao.ProdutoDAO;
 import com.vendas.model.Produto;
+import com.vendas.model.ProdutoResumo;
+import com.vendas.util.ArmazemMiniaturas;
+import com.vendas.util.CacheLRU;
+import com.vendas.util.CacheMiniaturas;
+import com.vendas.util.EventosBanco;
 
+import java.awt.image.BufferedImage;
+import java.io.IOException;
 import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Controller para gerenciar a lógica de negócio relacionada a produtos.
  */
 public class ProdutoController {
     
+    /** Quantidade máxima de produtos sugeridos enquanto o usuário digita. */
+    public static final int LIMITE_SUGESTOES = 50;
+    
     private final ProdutoDAO produtoDAO;
+    private final ImagemController imagemController;
     
     /**
      * Construtor padrão que inicializa o DAO.
      */
     public ProdutoController() {
         this.produtoDAO = new ProdutoDAO();
+        this.imagemController = new ImagemController();
     }
     
     /**
      * Cadastra um novo produto com validações de campos obrigatórios.
+     * A imagem, se ainda não tiver sido normalizada pela tela (ver
+     * {@link ImagemController#normalizarImagem(byte[])}), é normalizada aqui.
      * 
      * @param produto Produto a ser cadastrado
      * @return true se o cadastro foi bem-sucedido, false caso contrário
@@ -29,22 +47,8 @@ public class ProdutoController {
      */
     public boolean cadastrarProduto(Produto produto) {
         try {
-            // Validações de campos obrigatórios
-            if (produto.getDescricao() == null || produto.getDescricao().trim().isEmpty()) {
-                throw new IllegalArgumentException("A descrição do produto é obrigatória");
-            }
-            
-            if (produto.getTamanho() == null || produto.getTamanho().trim().isEmpty()) {
-                throw new IllegalArgumentException("O tamanho do produto é obrigatório");
-            }
-            
-            if (produto.getValorCompra() == null || produto.getValorCompra().signum() <= 0) {
-                throw new IllegalArgumentException("O valor de compra deve ser maior que zero");
-            }
-            
-            if (produto.getDataCompra() == null) {
-                throw new IllegalArgumentException("A data de compra é obrigatória");
-            }
+            validarProduto(produto);
+            imagemController.prepararImagem(produto);
             
             // Insere o produto no banco de dados
             produtoDAO.inserir(produto);
@@ -56,18 +60,72 @@ public class ProdutoController {
     }
     
     /**
-     * Lista todos os produtos disponíveis (não vendidos).
+     * Valida os campos obrigatórios de um produto.
      * 
-     * @return Lista de produtos disponíveis
+     * @param produto Produto a ser validado
+     * @throws IllegalArgumentException se algum campo obrigatório estiver vazio ou inválido
      */
-    public List<Produto> listarProdutosDisponiveis() {
+    public void validarProduto(Produto produto) {
+        if (produto.getDescricao() == null || produto.getDescricao().trim().isEmpty()) {
+            throw new IllegalArgumentException("A descrição do produto é obrigatória");
+        }
+        
+        if (produto.getTamanho() == null || produto.getTamanho().trim().isEmpty()) {
+            throw new IllegalArgumentException("O tamanho do produto é obrigatório");
+        }
+        
+        if (produto.getValorCompra() == null || produto.getValorCompra().signum() <= 0) {
+            throw new IllegalArgumentException("O valor de compra deve ser maior que zero");
+        }
+        
+        if (produto.getDataCompra() == null) {
+            throw new IllegalArgumentException("A data de compra é obrigatória");
+        }
+    }
+    
+    /**
+     * Lista todos os produtos disponíveis (não vendidos), sem as imagens.
+     * Use {@link #obterImagemProduto(Long)} para carregar a imagem de um deles.
+     * A lista fica em cache até o próximo cadastro ou venda de produto.
+     * 
+     * @return Lista de produtos disponíveis (não modificável)
+     */
+    public List<ProdutoResumo> listarProdutosDisponiveis() {
         try {
-            return produtoDAO.buscarDisponiveis();
+            return CacheResultados.getInstancia().obter("produtos.disponiveis",
+                    () -> Collections.unmodifiableList(produtoDAO.buscarResumosDisponiveis()),
+                    EventosBanco.PRODUTOS);
         } catch (SQLException e) {
             throw new RuntimeException("Erro ao buscar produtos disponíveis: " + e.getMessage(), e);
         }
     }
     
+    /**
+     * Sugere produtos disponíveis para o texto digitado até agora, usando o
+     * índice em memória (descrição e tamanho, sem diferenciar acentos). Feita
+     * para ser chamada a cada tecla: só vai ao banco para carregar o índice na
+     * primeira vez e para reler produtos cadastrados ou vendidos.
+     * 
+     * @param texto Texto digitado (prefixos ou trechos de 3 ou mais letras)
+     * @return Até {@link #LIMITE_SUGESTOES} produtos, dos mais relevantes para
+     *         os menos (em ordem de descrição se o texto estiver em branco)
+     */
+    public List<ProdutoResumo> sugerirProdutosDisponiveis(String texto) {
+        try {
+            return IndicesPesquisa.getInstancia().pesquisarProdutosDisponiveis(texto, LIMITE_SUGESTOES);
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao pesquisar produtos: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Recarrega do banco o índice das sugestões de produtos na próxima
+     * pesquisa, para incluir produtos gravados ou vendidos por outros terminais.
+     */
+    public void recarregarSugestoes() {
+        IndicesPesquisa.getInstancia().recarregarProdutos();
+    }
+    
     /**
      * Obtém um produto específico por ID.
      * 
@@ -93,4 +151,161 @@ public class ProdutoController {
             throw new RuntimeException("Erro ao buscar produto: " + e.getMessage(), e);
         }
     }
+    
+    /**
+     * Obtém o resumo de um produto (sem a imagem). Consultas repetidas são
+     * atendidas pelo cache de entidades, que descarta o produto quando ele é
+     * reservado ou vendido.
+     * 
+     * @param id ID do produto
+     * @return Resumo do produto
+     * @throws IllegalArgumentException se o ID for inválido ou o produto não existir
+     */
+    public ProdutoResumo obterResumoProduto(Long id) {
+        try {
+            if (id == null || id <= 0) {
+                throw new IllegalArgumentException("ID do produto inválido");
+            }
+            
+            ProdutoResumo produto = CacheEntidades.getInstancia().obterResumoProduto(id);
+            if (produto == null) {
+                throw new IllegalArgumentException("Produto não encontrado com ID: " + id);
+            }
+            return produto;
+            
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao buscar produto: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Obtém os resumos de vários produtos (sem imagens) em uma única ida ao
+     * banco, apenas pelos que não estão no cache de entidades.
+     * 
+     * @param ids IDs dos produtos
+     * @return Resumos encontrados, por ID (IDs inexistentes ficam de fora)
+     */
+    public Map<Long, ProdutoResumo> obterResumosProdutos(Collection<Long> ids) {
+        try {
+            return CacheEntidades.getInstancia().obterResumosProdutos(ids);
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao buscar produtos: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Obtém os contadores do cache de produtos (acertos, falhas e taxa de acertos).
+     * 
+     * @return Estatísticas do cache
+     */
+    public CacheLRU.Estatisticas getEstatisticasCache() {
+        return CacheEntidades.getInstancia().getEstatisticasProdutos();
+    }
+    
+    /**
+     * Cria um carregador que agrupa as buscas de resumos de produtos por ID
+     * feitas durante o preenchimento de uma tela em uma única consulta.
+     * 
+     * @return Novo carregador, sem nada carregado
+     */
+    public CarregadorEmLote<Long, ProdutoResumo> novoCarregadorProdutos() {
+        return new CarregadorEmLote<>(this::obterResumosProdutos);
+    }
+    
+    /**
+     * Carrega a imagem de um produto para exibição.
+     * 
+     * @param id ID do produto
+     * @return Bytes da imagem ou null se o produto não tiver imagem
+     */
+    public byte[] obterImagemProduto(Long id) {
+        try {
+            if (id == null || id <= 0) {
+                throw new IllegalArgumentException("ID do produto inválido");
+            }
+            
+            return produtoDAO.buscarImagem(id);
+            
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao carregar imagem do produto: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Obtém a miniatura da imagem de um produto, se ela já estiver no cache
+     * compartilhado ({@link CacheMiniaturas}). Não consulta o banco.
+     * 
+     * @param produto Produto (resumo com o hash da imagem)
+     * @return Miniatura, ou null se o produto não tiver imagem ou ela ainda não foi criada
+     */
+    public BufferedImage obterMiniaturaEmCache(ProdutoResumo produto) {
+        if (!produto.isPossuiImagem()) {
+            return null;
+        }
+        return CacheMiniaturas.getInstancia().obter(produto.getId(), produto.getImagemHash());
+    }
+    
+    /**
+     * Carrega a miniatura de um produto e a guarda no cache compartilhado.
+     * Vem das miniaturas gravadas em disco ({@link ArmazemMiniaturas}) ou,
+     * na primeira vez, da miniatura gravada no banco junto com a imagem
+     * (ou da própria imagem, se ainda não foi normalizada), que é
+     * decodificada e gravada em disco para as próximas execuções. Chame em segundo plano,
+     * depois de {@link #obterMiniaturaEmCache(ProdutoResumo)} não encontrar
+     * a miniatura.
+     * 
+     * @param produto Produto (resumo com o hash da imagem)
+     * @return Miniatura, ou null se o produto não tiver imagem ou ela não for reconhecida
+     */
+    public BufferedImage carregarMiniaturaProduto(ProdutoResumo produto) {
+        if (!produto.isPossuiImagem()) {
+            return null;
+        }
+        
+        CacheMiniaturas miniaturas = CacheMiniaturas.getInstancia();
+        ArmazemMiniaturas armazem = ArmazemMiniaturas.getInstancia();
+        BufferedImage gravada = armazem.ler(produto.getImagemHash());
+        if (gravada != null) {
+            miniaturas.guardar(produto.getId(), produto.getImagemHash(), gravada);
+            return gravada;
+        }
+        
+        byte[] imagem = imagemController.obterMiniaturaGravada(produto.getImagemHash());
+        if (imagem == null) {
+            imagem = obterImagemProduto(produto.getId());
+        }
+        if (imagem == null || imagem.length == 0) {
+            return null;
+        }
+        try {
+            BufferedImage miniatura = miniaturas.criar(produto.getId(), produto.getImagemHash(), imagem);
+            if (miniatura != null) {
+                armazem.gravar(produto.getImagemHash(), miniatura);
+            }
+            return miniatura;
+        } catch (IOException e) {
+            throw new RuntimeException("Erro ao decodificar imagem do produto: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Lista uma página de produtos em ordem de cadastro, sem as imagens.
+     * 
+     * @param somenteDisponiveis true para listar apenas produtos não vendidos
+     * @param continuacao Token da página anterior, ou null para a primeira página
+     * @param tamanho Quantidade máxima de produtos na página
+     * @return Página de produtos
+     * @throws IllegalArgumentException se o tamanho ou o token forem inválidos
+     */
+    public Pagina<ProdutoResumo> listarPaginaProdutos(boolean somenteDisponiveis, String continuacao, int tamanho) {
+        try {
+            String chave = "produtos.pagina:" + somenteDisponiveis + ":" + tamanho + ":" + continuacao;
+            return CacheResultados.getInstancia().obter(chave, () -> somenteDisponiveis
+                    ? produtoDAO.buscarPaginaResumosDisponiveis(continuacao, tamanho)
+                    : produtoDAO.buscarPaginaResumos(continuacao, tamanho),
+                    EventosBanco.PRODUTOS);
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao buscar produtos: " + e.getMessage(), e);
+        }
+    }
 }
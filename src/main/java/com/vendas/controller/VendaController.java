@@ -1,12 +1,18 @@
 package com.vendas.controller;
 
+import com.vendas.dao.Pagina;
 import com.vendas.dao.ProdutoDAO;
+import com.vendas.dao.ProdutoDAO.ResultadoReserva;
 import com.vendas.dao.VendaDAO;
-import com.vendas.model.Produto;
 import com.vendas.model.Venda;
+import com.vendas.model.VendaDetalhada;
+import com.vendas.util.DatabaseManager;
 
 import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Controller para gerenciar a lógica de negócio relacionada a vendas.
@@ -26,51 +32,117 @@ public class VendaController {
     
     /**
      * Registra uma nova venda com validações de campos obrigatórios.
-     * Marca o produto como vendido após o registro da venda.
+     * A reserva do produto (só é marcado como vendido se ainda estiver
+     * disponível) e a inserção da venda acontecem na mesma transação, de modo
+     * que dois terminais nunca vendem a mesma camisa.
      * 
      * @param venda Venda a ser registrada
      * @return true se o registro foi bem-sucedido, false caso contrário
-     * @throws IllegalArgumentException se algum campo obrigatório estiver inválido
+     * @throws IllegalArgumentException se algum campo obrigatório estiver inválido,
+     *         se o produto não existir ou se já tiver sido vendido
      */
     public boolean registrarVenda(Venda venda) {
         try {
-            // Validações de campos obrigatórios
-            if (venda.getProdutoId() == null || venda.getProdutoId() <= 0) {
-                throw new IllegalArgumentException("Selecione um produto válido");
-            }
+            validarVenda(venda);
             
-            if (venda.getClienteId() == null || venda.getClienteId() <= 0) {
-                throw new IllegalArgumentException("Selecione um cliente válido");
-            }
+            // Reserva o produto e registra a venda em uma única transação
+            ResultadoReserva resultado = DatabaseManager.executarTransacao(conn -> {
+                ResultadoReserva reserva = produtoDAO.reservarParaVenda(conn, venda.getProdutoId());
+                if (reserva == ResultadoReserva.RESERVADO) {
+                    vendaDAO.inserir(conn, venda);
+                }
+                return reserva;
+            });
             
-            if (venda.getDataVenda() == null) {
-                throw new IllegalArgumentException("A data da venda é obrigatória");
+            if (resultado == ResultadoReserva.NAO_ENCONTRADO) {
+                throw new IllegalArgumentException("Produto não encontrado");
             }
             
-            if (venda.getValorVenda() == null || venda.getValorVenda().signum() <= 0) {
-                throw new IllegalArgumentException("O valor da venda deve ser maior que zero");
+            if (resultado == ResultadoReserva.JA_VENDIDO) {
+                throw new IllegalArgumentException("Este produto já foi vendido");
             }
             
-            // Verifica se o produto existe e está disponível
-            Produto produto = produtoDAO.buscarPorId(venda.getProdutoId());
-            if (produto == null) {
-                throw new IllegalArgumentException("Produto não encontrado");
-            }
+            return true;
             
-            if (produto.isVendido()) {
-                throw new IllegalArgumentException("Este produto já foi vendido");
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao registrar venda no banco de dados: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Registra as vendas de um carrinho (vários produtos para o mesmo cliente)
+     * em uma única transação. Os produtos são reservados e as vendas inseridas
+     * em lote; se algum produto não estiver disponível, nenhuma venda é registrada.
+     * 
+     * @param vendas Vendas do carrinho, todas do mesmo cliente
+     * @return true se o registro foi bem-sucedido
+     * @throws IllegalArgumentException se o carrinho estiver vazio, se algum campo
+     *         for inválido ou se algum produto não puder ser vendido
+     */
+    public boolean registrarVendas(List<Venda> vendas) {
+        try {
+            if (vendas == null || vendas.isEmpty()) {
+                throw new IllegalArgumentException("O carrinho está vazio");
             }
             
-            // Registra a venda
-            vendaDAO.inserir(venda);
+            Long clienteId = vendas.get(0).getClienteId();
+            List<Long> produtoIds = new ArrayList<>();
+            for (Venda venda : vendas) {
+                validarVenda(venda);
+                
+                if (!venda.getClienteId().equals(clienteId)) {
+                    throw new IllegalArgumentException("Todas as vendas do carrinho devem ser do mesmo cliente");
+                }
+                
+                if (produtoIds.contains(venda.getProdutoId())) {
+                    throw new IllegalArgumentException("O produto de ID " + venda.getProdutoId() +
+                            " está repetido no carrinho");
+                }
+                produtoIds.add(venda.getProdutoId());
+            }
             
-            // Marca o produto como vendido
-            produtoDAO.marcarComoVendido(venda.getProdutoId());
+            DatabaseManager.executarTransacao(conn -> {
+                Map<Long, ResultadoReserva> reservas = produtoDAO.reservarLoteParaVenda(conn, produtoIds);
+                
+                for (Map.Entry<Long, ResultadoReserva> reserva : reservas.entrySet()) {
+                    if (reserva.getValue() == ResultadoReserva.NAO_ENCONTRADO) {
+                        throw new IllegalArgumentException("Produto não encontrado (ID: " + reserva.getKey() + ")");
+                    }
+                    if (reserva.getValue() == ResultadoReserva.JA_VENDIDO) {
+                        throw new IllegalArgumentException("O produto de ID " + reserva.getKey() +
+                                " já foi vendido");
+                    }
+                }
+                
+                vendaDAO.inserirLote(conn, vendas);
+                return null;
+            });
             
             return true;
             
         } catch (SQLException e) {
-            throw new RuntimeException("Erro ao registrar venda no banco de dados: " + e.getMessage(), e);
+            throw new RuntimeException("Erro ao registrar vendas no banco de dados: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Valida os campos obrigatórios de uma venda.
+     */
+    private void validarVenda(Venda venda) {
+        if (venda.getProdutoId() == null || venda.getProdutoId() <= 0) {
+            throw new IllegalArgumentException("Selecione um produto válido");
+        }
+        
+        if (venda.getClienteId() == null || venda.getClienteId() <= 0) {
+            throw new IllegalArgumentException("Selecione um cliente válido");
+        }
+        
+        if (venda.getDataVenda() == null) {
+            throw new IllegalArgumentException("A data da venda é obrigatória");
+        }
+        
+        if (venda.getValorVenda() == null || venda.getValorVenda().signum() <= 0) {
+            throw new IllegalArgumentException("O valor da venda deve ser maior que zero");
         }
     }
     
@@ -93,4 +165,75 @@ public class VendaController {
             throw new RuntimeException("Erro ao buscar vendas do cliente: " + e.getMessage(), e);
         }
     }
+    
+    /**
+     * Obtém o histórico de compras de um cliente com a descrição e o tamanho
+     * de cada produto, em uma única consulta.
+     * 
+     * @param clienteId ID do cliente
+     * @return Vendas do cliente, em ordem de data
+     * @throws IllegalArgumentException se o ID do cliente for inválido
+     */
+    public List<VendaDetalhada> obterHistoricoCliente(Long clienteId) {
+        try {
+            if (clienteId == null || clienteId <= 0) {
+                throw new IllegalArgumentException("ID do cliente inválido");
+            }
+            
+            return vendaDAO.buscarDetalhadasPorCliente(clienteId);
+            
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao buscar histórico de vendas do cliente: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Obtém as vendas de um período, opcionalmente filtradas por cliente.
+     * 
+     * @param clienteId ID do cliente, ou null para todos os clientes
+     * @param inicio Primeiro dia do período (inclusive)
+     * @param fim Último dia do período (inclusive)
+     * @return Vendas do período, em ordem de data
+     * @throws IllegalArgumentException se o período ou o ID do cliente for inválido
+     */
+    public List<Venda> obterVendasPorPeriodo(Long clienteId, LocalDate inicio, LocalDate fim) {
+        try {
+            GerenciamentoController.validarPeriodo(inicio, fim);
+            
+            if (clienteId == null) {
+                return vendaDAO.buscarPorPeriodo(inicio, fim);
+            }
+            if (clienteId <= 0) {
+                throw new IllegalArgumentException("ID do cliente inválido");
+            }
+            return vendaDAO.buscarPorClienteEPeriodo(clienteId, inicio, fim);
+            
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao buscar vendas do período: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Obtém uma página de vendas, das mais recentes para as mais antigas.
+     * 
+     * @param clienteId ID do cliente, ou null para todos os clientes
+     * @param continuacao Token da página anterior, ou null para a primeira página
+     * @param tamanho Quantidade máxima de vendas na página
+     * @return Página de vendas
+     * @throws IllegalArgumentException se o ID do cliente, o tamanho ou o token forem inválidos
+     */
+    public Pagina<Venda> obterPaginaVendas(Long clienteId, String continuacao, int tamanho) {
+        try {
+            if (clienteId == null) {
+                return vendaDAO.buscarPagina(continuacao, tamanho);
+            }
+            if (clienteId <= 0) {
+                throw new IllegalArgumentException("ID do cliente inválido");
+            }
+            return vendaDAO.buscarPaginaPorCliente(clienteId, continuacao, tamanho);
+            
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao buscar vendas: " + e.getMessage(), e);
+        }
+    }
 }
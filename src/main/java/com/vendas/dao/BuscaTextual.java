@@ -0,0 +1,88 @@
+package com.vendas.dao;
+
+/**
+ * Montagem das consultas às tabelas de busca textual (FTS5) de produtos e
+ * clientes.
+ *
+ * O texto digitado vira uma consulta FTS5 em que cada palavra é um prefixo
+ * entre aspas, todas obrigatórias: "fla gg" encontra "Flamengo ... GG". Uma
+ * palavra de um só caractere precisa ser exata ("m" encontra o tamanho M, não
+ * toda palavra iniciada por m), o que evita percorrer quase todo o índice. As
+ * tabelas usam o tokenizador unicode61 sem acentos, então "sao" encontra "São",
+ * e guardam índices de prefixos de 2 e 3 caracteres.
+ */
+final class BuscaTextual {
+
+    /**
+     * Resultados mais recentes considerados na ordenação por relevância. A
+     * pontuação bm25 é calculada para cada candidato; limitar os candidatos
+     * mantém o tempo da busca estável mesmo para termos muito comuns.
+     *
+     * Com até {@code CANDIDATOS} resultados todos são ordenados por
+     * relevância. Com mais, a ordenação vale entre os {@code CANDIDATOS} mais
+     * recentes (maior ID): um registro antigo que atenda melhor ao texto pode
+     * ficar de fora, e o usuário refina a busca digitando mais palavras.
+     * Filtros da consulta (como "somente disponíveis") devem ser aplicados
+     * aos candidatos, por {@link #candidatos(String, String, String)}, e não
+     * depois do corte.
+     */
+    static final int CANDIDATOS = 1000;
+
+    private BuscaTextual() {
+    }
+
+    /**
+     * Converte o texto digitado em uma consulta FTS5.
+     *
+     * @param texto Texto digitado pelo usuário
+     * @return Consulta FTS5, ou null se o texto não tiver letras nem números
+     */
+    static String montarConsulta(String texto) {
+        if (texto == null) {
+            return null;
+        }
+
+        StringBuilder consulta = new StringBuilder();
+        // Só letras e números: aspas e operadores do FTS5 nunca chegam à consulta
+        for (String termo : texto.split("[^\\p{L}\\p{N}]+")) {
+            if (termo.isEmpty()) {
+                continue;
+            }
+            if (consulta.length() > 0) {
+                consulta.append(' ');
+            }
+            consulta.append('"').append(termo).append(termo.length() > 1 ? "\"*" : "\"");
+        }
+        return consulta.length() == 0 ? null : consulta.toString();
+    }
+
+    /**
+     * Subconsulta com os candidatos de uma tabela FTS5 (colunas {@code rowid}
+     * e {@code rank}). Parâmetros: a consulta FTS5 e o número de candidatos.
+     *
+     * @param tabela Nome da tabela FTS5
+     */
+    static String candidatos(String tabela) {
+        return candidatos(tabela, null, null);
+    }
+
+    /**
+     * Subconsulta com os candidatos de uma tabela FTS5 que atendem a uma
+     * condição sobre a tabela de conteúdo, aplicada antes do limite de
+     * candidatos. Parâmetros: a consulta FTS5 e o número de candidatos.
+     *
+     * @param tabela Nome da tabela FTS5
+     * @param tabelaConteudo Tabela indexada (com coluna {@code id}), ou null sem condição
+     * @param condicao Condição sobre a tabela de conteúdo, com o apelido {@code d}
+     */
+    static String candidatos(String tabela, String tabelaConteudo, String condicao) {
+        String filtro = "";
+        String juncao = "";
+        if (condicao != null) {
+            juncao = " JOIN " + tabelaConteudo + " d ON d.id = " + tabela + ".rowid";
+            filtro = " AND " + condicao;
+        }
+        return "(SELECT " + tabela + ".rowid AS rowid, " + tabela + ".rank AS rank FROM " + tabela + juncao +
+               " WHERE " + tabela + " MATCH ?" + filtro + " ORDER BY " + tabela + ".rowid DESC LIMIT ?)";
+    }
+}
@@ -1,17 +1,32 @@
 package com.vendas.dao;
 
 import com.vendas.model.Cliente;
+import com.vendas.model.ClienteComSaldo;
+import com.vendas.model.Dinheiro;
 import com.vendas.util.DatabaseManager;
+import com.vendas.util.EventosBanco;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * DAO para operações de banco de dados relacionadas a clientes.
  */
 public class ClienteDAO {
     
+    /** Clientes com os totais de saldos_clientes (zerados para quem não tem movimento). */
+    private static final String SELECT_CLIENTE_COM_SALDO =
+            "SELECT c.id, c.nome, c.telefone, c.email, c.endereco, " +
+            "COALESCE(s.total_vendas_centavos, 0) AS total_vendas_centavos, " +
+            "COALESCE(s.total_pago_centavos, 0) AS total_pago_centavos, " +
+            "COALESCE(s.saldo_centavos, 0) AS saldo_centavos " +
+            "FROM clientes c LEFT JOIN saldos_clientes s ON s.cliente_id = c.id";
+    
     /**
      * Insere um novo cliente no banco de dados.
      * 
@@ -21,23 +36,26 @@ public class ClienteDAO {
     public void inserir(Cliente cliente) throws SQLException {
         String sql = "INSERT INTO clientes (nome, telefone, email, endereco) VALUES (?, ?, ?, ?)";
         
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            
-            pstmt.setString(1, cliente.getNome());
-            pstmt.setString(2, cliente.getTelefone());
-            pstmt.setString(3, cliente.getEmail());
-            pstmt.setString(4, cliente.getEndereco());
-            
-            pstmt.executeUpdate();
-            
-            // Recupera o ID gerado
-            try (ResultSet rs = pstmt.getGeneratedKeys()) {
-                if (rs.next()) {
-                    cliente.setId(rs.getLong(1));
+        DatabaseManager.executarEscrita(conn -> {
+            try (PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                
+                pstmt.setString(1, cliente.getNome());
+                pstmt.setString(2, cliente.getTelefone());
+                pstmt.setString(3, cliente.getEmail());
+                pstmt.setString(4, cliente.getEndereco());
+                
+                pstmt.executeUpdate();
+                
+                // Recupera o ID gerado
+                try (ResultSet rs = pstmt.getGeneratedKeys()) {
+                    if (rs.next()) {
+                        cliente.setId(rs.getLong(1));
+                    }
                 }
             }
-        }
+            return cliente.getId();
+        });
+        EventosBanco.publicar(EventosBanco.CLIENTES, cliente.getId());
     }
     
     /**
@@ -49,17 +67,19 @@ public class ClienteDAO {
     public void atualizar(Cliente cliente) throws SQLException {
         String sql = "UPDATE clientes SET nome = ?, telefone = ?, email = ?, endereco = ? WHERE id = ?";
         
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setString(1, cliente.getNome());
-            pstmt.setString(2, cliente.getTelefone());
-            pstmt.setString(3, cliente.getEmail());
-            pstmt.setString(4, cliente.getEndereco());
-            pstmt.setLong(5, cliente.getId());
-            
-            pstmt.executeUpdate();
-        }
+        DatabaseManager.executarEscrita(conn -> {
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                
+                pstmt.setString(1, cliente.getNome());
+                pstmt.setString(2, cliente.getTelefone());
+                pstmt.setString(3, cliente.getEmail());
+                pstmt.setString(4, cliente.getEndereco());
+                pstmt.setLong(5, cliente.getId());
+                
+                return pstmt.executeUpdate();
+            }
+        });
+        EventosBanco.publicar(EventosBanco.CLIENTES, cliente.getId());
     }
     
     /**
@@ -85,6 +105,128 @@ public class ClienteDAO {
         return clientes;
     }
     
+    /**
+     * Busca todos os clientes em ordem alfabética, cada um com seus totais de
+     * compras, pagamentos e saldo, em uma única consulta (junção com
+     * {@code saldos_clientes}). Clientes sem movimento vêm com valores zerados.
+     * 
+     * @return Lista de clientes com saldo
+     * @throws SQLException se houver erro na consulta
+     */
+    public List<ClienteComSaldo> buscarTodosComSaldo() throws SQLException {
+        String sql = SELECT_CLIENTE_COM_SALDO + " ORDER BY c.nome COLLATE NOCASE, c.id";
+        
+        List<ClienteComSaldo> clientes = new ArrayList<>();
+        ConsultaStreaming.percorrer(sql, this::mapResultSetToClienteComSaldo, clientes::add);
+        return clientes;
+    }
+    
+    /**
+     * Pesquisa clientes por nome, telefone e e-mail usando a tabela de busca
+     * textual {@code clientes_fts}, dos mais relevantes para os menos,
+     * trazendo também os totais de compras, pagamentos e saldo de cada um.
+     * Com mais de {@link BuscaTextual#CANDIDATOS} resultados, a relevância é
+     * ordenada entre os mais recentes (ver {@link BuscaTextual#CANDIDATOS}).
+     * 
+     * @param texto Texto digitado (cada palavra é tratada como prefixo)
+     * @param limite Quantidade máxima de clientes retornados
+     * @return Clientes encontrados, com saldo (vazio se o texto não tiver letras nem números)
+     * @throws SQLException se houver erro na consulta
+     * @throws IllegalArgumentException se o limite for inválido
+     */
+    public List<ClienteComSaldo> pesquisarComSaldo(String texto, int limite) throws SQLException {
+        return pesquisar(SELECT_CLIENTE_COM_SALDO, texto, limite, this::mapResultSetToClienteComSaldo);
+    }
+    
+    private <T> List<T> pesquisar(String select, String texto, int limite,
+                                  ConsultaStreaming.MapeadorLinha<T> mapeador) throws SQLException {
+        Pagina.validarTamanho(limite);
+        
+        List<T> clientes = new ArrayList<>();
+        String consulta = BuscaTextual.montarConsulta(texto);
+        if (consulta == null) {
+            return clientes;
+        }
+        
+        String sql = select + " JOIN " + BuscaTextual.candidatos("clientes_fts") + " f " +
+                     "ON f.rowid = c.id ORDER BY f.rank LIMIT ?";
+        
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setString(1, consulta);
+            pstmt.setInt(2, Math.max(BuscaTextual.CANDIDATOS, limite));
+            pstmt.setInt(3, limite);
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    clientes.add(mapeador.mapear(rs));
+                }
+            }
+        }
+        
+        return clientes;
+    }
+    
+    /**
+     * Percorre todos os clientes em ordem de ID, entregando um por vez ao
+     * consumidor, sem carregar a tabela na memória.
+     * O consumidor não deve gravar no banco: a leitura mantém uma conexão
+     * aberta até terminar.
+     * 
+     * @param consumidor Recebe cada cliente
+     * @return Número de clientes percorridos
+     * @throws SQLException se houver erro na consulta
+     */
+    public long percorrerTodos(Consumer<? super Cliente> consumidor) throws SQLException {
+        String sql = "SELECT id, nome, telefone, email, endereco FROM clientes ORDER BY id";
+        
+        return ConsultaStreaming.percorrer(sql, this::mapResultSetToCliente, consumidor);
+    }
+    
+    /**
+     * Busca uma página de clientes em ordem alfabética (sem diferenciar
+     * maiúsculas), continuando a partir do token da página anterior.
+     * 
+     * @param continuacao Token da página anterior, ou null para a primeira página
+     * @param tamanho Quantidade máxima de clientes na página
+     * @return Página de clientes
+     * @throws SQLException se houver erro na consulta
+     * @throws IllegalArgumentException se o tamanho ou o token forem inválidos
+     */
+    public Pagina<Cliente> buscarPagina(String continuacao, int tamanho) throws SQLException {
+        Pagina.validarTamanho(tamanho);
+        
+        // A condição "nome >= ?" redundante permite ao SQLite buscar direto no índice
+        String sql = "SELECT id, nome, telefone, email, endereco FROM clientes " +
+                     (continuacao == null ? "" :
+                      "WHERE nome COLLATE NOCASE >= ? AND (nome COLLATE NOCASE, id) > (?, ?) ") +
+                     "ORDER BY nome COLLATE NOCASE, id LIMIT ?";
+        
+        List<Cliente> clientes = new ArrayList<>(tamanho + 1);
+        
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            int indice = 1;
+            if (continuacao != null) {
+                String[] chave = Continuacao.ler(continuacao, 2);
+                pstmt.setString(indice++, chave[0]);
+                pstmt.setString(indice++, chave[0]);
+                pstmt.setLong(indice++, Continuacao.lerLong(chave[1]));
+            }
+            pstmt.setInt(indice, tamanho + 1);
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    clientes.add(mapResultSetToCliente(rs));
+                }
+            }
+        }
+        
+        return Pagina.de(clientes, tamanho, c -> Continuacao.criar(c.getNome(), c.getId()));
+    }
+    
     /**
      * Busca um cliente por ID.
      * 
@@ -110,6 +252,23 @@ public class ClienteDAO {
         return null;
     }
     
+    /**
+     * Busca vários clientes pelos IDs, com uma consulta {@code IN} para cada
+     * bloco de IDs em vez de uma consulta por cliente.
+     * 
+     * @param ids IDs dos clientes (repetições são ignoradas)
+     * @return Clientes encontrados, por ID (IDs inexistentes ficam de fora)
+     * @throws SQLException se houver erro na consulta
+     */
+    public Map<Long, Cliente> buscarPorIds(Collection<Long> ids) throws SQLException {
+        String sql = "SELECT id, nome, telefone, email, endereco FROM clientes WHERE id IN";
+        
+        Map<Long, Cliente> clientes = new HashMap<>();
+        ConsultaStreaming.percorrerPorIds(sql, ids, this::mapResultSetToCliente,
+                cliente -> clientes.put(cliente.getId(), cliente));
+        return clientes;
+    }
+    
     /**
      * Exclui um cliente do banco de dados.
      * 
@@ -119,12 +278,13 @@ public class ClienteDAO {
     public void excluir(Long id) throws SQLException {
         String sql = "DELETE FROM clientes WHERE id = ?";
         
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setLong(1, id);
-            pstmt.executeUpdate();
-        }
+        DatabaseManager.executarEscrita(conn -> {
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setLong(1, id);
+                return pstmt.executeUpdate();
+            }
+        });
+        EventosBanco.publicar(EventosBanco.CLIENTES, id);
     }
     
     /**
@@ -143,4 +303,15 @@ public class ClienteDAO {
         cliente.setEndereco(rs.getString("endereco"));
         return cliente;
     }
+    
+    /**
+     * Mapeia um ResultSet com as colunas de {@code SELECT_CLIENTE_COM_SALDO}.
+     */
+    private ClienteComSaldo mapResultSetToClienteComSaldo(ResultSet rs) throws SQLException {
+        return new ClienteComSaldo(
+                mapResultSetToCliente(rs),
+                Dinheiro.deCentavos(rs.getLong("total_vendas_centavos")),
+                Dinheiro.deCentavos(rs.getLong("total_pago_centavos")),
+                Dinheiro.deCentavos(rs.getLong("saldo_centavos")));
+    }
 }
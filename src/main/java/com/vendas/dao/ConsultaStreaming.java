@@ -0,0 +1,123 @@
+package com.vendas.dao;
+
+import com.vendas.util.DatabaseManager;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Execução de consultas entregando uma linha por vez, sem montar listas.
+ *
+ * O consumidor recebe cada objeto assim que ele é lido do ResultSet, então a
+ * memória usada não depende do número de linhas. Statement e conexão são
+ * liberados ao final, mesmo que o consumidor lance exceção.
+ */
+final class ConsultaStreaming {
+
+    /** Linhas pedidas ao driver por vez. */
+    static final int TAMANHO_BUSCA = Integer.getInteger("vendas.consulta.tamanhoBusca", 500);
+    
+    /**
+     * IDs por consulta em {@link #percorrerPorIds}. Fica abaixo do limite de
+     * parâmetros do SQLite (999 em versões antigas da biblioteca).
+     */
+    static final int IDS_POR_CONSULTA = 500;
+
+    private ConsultaStreaming() {
+    }
+
+    /**
+     * Converte a linha atual do ResultSet em objeto.
+     */
+    @FunctionalInterface
+    interface MapeadorLinha<T> {
+        T mapear(ResultSet rs) throws SQLException;
+    }
+
+    /**
+     * Executa a consulta e entrega cada linha ao consumidor.
+     *
+     * @param sql Consulta com parâmetros inteiros
+     * @param mapeador Converte cada linha
+     * @param consumidor Recebe os objetos na ordem da consulta
+     * @param parametros Valores dos parâmetros, na ordem
+     * @return Número de linhas entregues
+     * @throws SQLException se houver erro na consulta
+     */
+    static <T> long percorrer(String sql, MapeadorLinha<T> mapeador, Consumer<? super T> consumidor,
+                              long... parametros) throws SQLException {
+        long linhas = 0;
+
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setFetchSize(TAMANHO_BUSCA);
+            for (int i = 0; i < parametros.length; i++) {
+                pstmt.setLong(i + 1, parametros[i]);
+            }
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    consumidor.accept(mapeador.mapear(rs));
+                    linhas++;
+                }
+            }
+        }
+
+        return linhas;
+    }
+
+    /**
+     * Executa uma consulta por lista de IDs, em blocos de até
+     * {@link #IDS_POR_CONSULTA} IDs na mesma conexão, e entrega cada linha ao
+     * consumidor. IDs repetidos são consultados uma única vez.
+     *
+     * @param sql Consulta terminada em {@code IN}, à qual é acrescentada a lista de parâmetros
+     * @param ids IDs a buscar
+     * @param mapeador Converte cada linha
+     * @param consumidor Recebe os objetos encontrados (em ordem não garantida)
+     * @return Número de linhas entregues
+     * @throws SQLException se houver erro na consulta
+     */
+    static <T> long percorrerPorIds(String sql, Collection<Long> ids, MapeadorLinha<T> mapeador,
+                                    Consumer<? super T> consumidor) throws SQLException {
+        List<Long> distintos = new ArrayList<>(new LinkedHashSet<>(ids));
+        long linhas = 0;
+        if (distintos.isEmpty()) {
+            return linhas;
+        }
+
+        try (Connection conn = DatabaseManager.getConnection()) {
+            for (int inicio = 0; inicio < distintos.size(); inicio += IDS_POR_CONSULTA) {
+                List<Long> bloco = distintos.subList(inicio, Math.min(inicio + IDS_POR_CONSULTA, distintos.size()));
+
+                StringBuilder lista = new StringBuilder(" (");
+                for (int i = 0; i < bloco.size(); i++) {
+                    lista.append(i == 0 ? "?" : ", ?");
+                }
+                lista.append(')');
+
+                try (PreparedStatement pstmt = conn.prepareStatement(sql + lista)) {
+                    for (int i = 0; i < bloco.size(); i++) {
+                        pstmt.setLong(i + 1, bloco.get(i));
+                    }
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            consumidor.accept(mapeador.mapear(rs));
+                            linhas++;
+                        }
+                    }
+                }
+            }
+        }
+
+        return linhas;
+    }
+}
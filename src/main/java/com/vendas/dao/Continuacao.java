@@ -0,0 +1,58 @@
+package com.vendas.dao;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Codifica e lê os tokens de continuação das consultas paginadas.
+ *
+ * O token é opaco para quem chama: as chaves do último item lido, cada uma em
+ * Base64 (URL-safe), separadas por ponto. Assim ele pode ser guardado ou
+ * repassado como texto simples.
+ */
+final class Continuacao {
+
+    private Continuacao() {
+    }
+
+    static String criar(Object... chaves) {
+        StringBuilder token = new StringBuilder();
+        for (Object chave : chaves) {
+            if (token.length() > 0) {
+                token.append('.');
+            }
+            token.append(Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(String.valueOf(chave).getBytes(StandardCharsets.UTF_8)));
+        }
+        return token.toString();
+    }
+
+    /**
+     * @param token Token recebido de uma página anterior
+     * @param quantidade Número de chaves esperado
+     * @return Chaves do token
+     * @throws IllegalArgumentException se o token não tiver o formato esperado
+     */
+    static String[] ler(String token, int quantidade) {
+        String[] partes = token.split("\\.", -1);
+        if (partes.length != quantidade) {
+            throw new IllegalArgumentException("Token de continuação inválido");
+        }
+        try {
+            for (int i = 0; i < partes.length; i++) {
+                partes[i] = new String(Base64.getUrlDecoder().decode(partes[i]), StandardCharsets.UTF_8);
+            }
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Token de continuação inválido", e);
+        }
+        return partes;
+    }
+
+    static long lerLong(String valor) {
+        try {
+            return Long.parseLong(valor);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Token de continuação inválido", e);
+        }
+    }
+}
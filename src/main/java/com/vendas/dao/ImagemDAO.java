@@ -0,0 +1,220 @@
+package com.vendas.dao;
+
+import com.vendas.util.DatabaseManager;
+import com.vendas.util.HashUtils;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DAO do armazenamento de imagens endereçado por conteúdo.
+ *
+ * Cada imagem é gravada uma única vez na tabela {@code imagens}, identificada
+ * pelo SHA-256 dos seus bytes; os produtos guardam apenas esse hash. Assim as
+ * linhas de {@code produtos} continuam pequenas e imagens repetidas não
+ * ocupam espaço duas vezes.
+ *
+ * Imagens cadastradas pela aplicação chegam normalizadas (ver
+ * {@link com.vendas.util.ProcessadorImagens}) e têm uma miniatura em
+ * {@code imagens_miniaturas}, tabela à parte para que ler a miniatura não
+ * percorra as páginas da imagem inteira. As gravadas antes disso ficam
+ * marcadas como pendentes ({@code normalizada = 0}) até serem normalizadas
+ * em segundo plano.
+ */
+public class ImagemDAO {
+
+    /**
+     * Grava uma imagem, se ainda não existir, na conexão informada.
+     *
+     * @param conn Conexão da transação em andamento
+     * @param dados Bytes da imagem
+     * @return Hash da imagem, ou null se não houver imagem
+     * @throws SQLException se houver erro na gravação
+     */
+    public String salvar(Connection conn, byte[] dados) throws SQLException {
+        return salvar(conn, dados, null);
+    }
+
+    /**
+     * Grava uma imagem e sua miniatura, se ainda não existir, na conexão informada.
+     * Com miniatura a imagem é considerada normalizada.
+     *
+     * @param conn Conexão da transação em andamento
+     * @param dados Bytes da imagem
+     * @param miniatura Bytes da miniatura, ou null se a imagem não foi normalizada
+     * @return Hash da imagem, ou null se não houver imagem
+     * @throws SQLException se houver erro na gravação
+     */
+    public String salvar(Connection conn, byte[] dados, byte[] miniatura) throws SQLException {
+        if (dados == null || dados.length == 0) {
+            return null;
+        }
+
+        String hash = HashUtils.sha256(dados);
+        String sql = "INSERT OR IGNORE INTO imagens (hash, dados, normalizada) VALUES (?, ?, ?)";
+
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, hash);
+            pstmt.setBytes(2, dados);
+            pstmt.setBoolean(3, miniatura != null);
+            pstmt.executeUpdate();
+        }
+
+        if (miniatura != null) {
+            String sqlMiniatura = "INSERT OR IGNORE INTO imagens_miniaturas (hash, dados) VALUES (?, ?)";
+            try (PreparedStatement pstmt = conn.prepareStatement(sqlMiniatura)) {
+                pstmt.setString(1, hash);
+                pstmt.setBytes(2, miniatura);
+                pstmt.executeUpdate();
+            }
+        }
+
+        return hash;
+    }
+
+    /**
+     * Troca uma imagem pela sua versão normalizada: grava a nova imagem,
+     * aponta para ela os produtos que usavam a antiga e apaga a antiga.
+     * Deve ser chamado dentro de uma transação.
+     *
+     * @param conn Conexão da transação em andamento
+     * @param hashAntigo Hash da imagem substituída
+     * @param dados Bytes da imagem normalizada
+     * @param miniatura Bytes da miniatura
+     * @return IDs dos produtos que passaram a usar a nova imagem
+     * @throws SQLException se houver erro na gravação
+     */
+    public List<Long> substituir(Connection conn, String hashAntigo, byte[] dados, byte[] miniatura)
+            throws SQLException {
+        String hashNovo = salvar(conn, dados, miniatura);
+        List<Long> produtos = new ArrayList<>();
+        if (hashAntigo.equals(hashNovo)) {
+            // A imagem já estava normalizada: só ganhou a miniatura
+            marcarNormalizada(conn, hashAntigo);
+            return produtos;
+        }
+
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT id FROM produtos WHERE imagem_hash = ?")) {
+            pstmt.setString(1, hashAntigo);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    produtos.add(rs.getLong(1));
+                }
+            }
+        }
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "UPDATE produtos SET imagem_hash = ? WHERE imagem_hash = ?")) {
+            pstmt.setString(1, hashNovo);
+            pstmt.setString(2, hashAntigo);
+            pstmt.executeUpdate();
+        }
+        try (PreparedStatement pstmt = conn.prepareStatement("DELETE FROM imagens WHERE hash = ?")) {
+            pstmt.setString(1, hashAntigo);
+            pstmt.executeUpdate();
+        }
+        return produtos;
+    }
+
+    /**
+     * Marca uma imagem como normalizada sem alterá-la (por exemplo, quando
+     * ela não pôde ser decodificada), para não ser tentada de novo.
+     *
+     * @param conn Conexão da transação em andamento
+     * @param hash Hash da imagem
+     * @throws SQLException se houver erro na gravação
+     */
+    public void marcarNormalizada(Connection conn, String hash) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("UPDATE imagens SET normalizada = 1 WHERE hash = ?")) {
+            pstmt.setString(1, hash);
+            pstmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Busca imagens ainda não normalizadas.
+     *
+     * @param limite Quantidade máxima de hashes retornados
+     * @return Hashes das imagens pendentes
+     * @throws SQLException se houver erro na consulta
+     */
+    public List<String> buscarPendentes(int limite) throws SQLException {
+        String sql = "SELECT hash FROM imagens WHERE normalizada = 0 LIMIT ?";
+        List<String> hashes = new ArrayList<>();
+
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setInt(1, limite);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    hashes.add(rs.getString(1));
+                }
+            }
+        }
+
+        return hashes;
+    }
+
+    /**
+     * Busca a miniatura de uma imagem pelo hash.
+     *
+     * @param hash Hash SHA-256 da imagem
+     * @return Bytes da miniatura (JPEG) ou null se a imagem não existir ou não tiver miniatura
+     * @throws SQLException se houver erro na consulta
+     */
+    public byte[] buscarMiniatura(String hash) throws SQLException {
+        if (hash == null) {
+            return null;
+        }
+
+        String sql = "SELECT dados FROM imagens_miniaturas WHERE hash = ?";
+
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setString(1, hash);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return rs.getBytes("dados");
+                }
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Busca os bytes de uma imagem pelo hash.
+     *
+     * @param hash Hash SHA-256 da imagem
+     * @return Bytes da imagem ou null se não existir
+     * @throws SQLException se houver erro na consulta
+     */
+    public byte[] buscarPorHash(String hash) throws SQLException {
+        if (hash == null) {
+            return null;
+        }
+
+        String sql = "SELECT dados FROM imagens WHERE hash = ?";
+
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setString(1, hash);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return rs.getBytes("dados");
+                }
+            }
+        }
+
+        return null;
+    }
+}
@@ -1,13 +1,15 @@
 package com.vendas.dao;
 
+import com.vendas.model.Dinheiro;
 import com.vendas.model.Pagamento;
 import com.vendas.util.DatabaseManager;
+import com.vendas.util.EventosBanco;
 
-import java.math.BigDecimal;
 import java.sql.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * DAO para operações de banco de dados relacionadas a pagamentos.
@@ -21,26 +23,29 @@ public class PagamentoDAO {
      * @throws SQLException se houver erro na inserção
      */
     public void inserir(Pagamento pagamento) throws SQLException {
-        String sql = "INSERT INTO pagamentos (cliente_id, data_pagamento, valor_pago, observacao) " +
+        String sql = "INSERT INTO pagamentos (cliente_id, data_pagamento_dia, valor_pago_centavos, observacao) " +
                      "VALUES (?, ?, ?, ?)";
         
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            
-            pstmt.setLong(1, pagamento.getClienteId());
-            pstmt.setString(2, pagamento.getDataPagamento().toString());
-            pstmt.setBigDecimal(3, pagamento.getValorPago());
-            pstmt.setString(4, pagamento.getObservacao());
-            
-            pstmt.executeUpdate();
-            
-            // Recupera o ID gerado
-            try (ResultSet rs = pstmt.getGeneratedKeys()) {
-                if (rs.next()) {
-                    pagamento.setId(rs.getLong(1));
+        DatabaseManager.executarEscrita(conn -> {
+            try (PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                
+                pstmt.setLong(1, pagamento.getClienteId());
+                pstmt.setLong(2, pagamento.getDataPagamento().toEpochDay());
+                pstmt.setLong(3, Dinheiro.centavosDe(pagamento.getValorPago()));
+                pstmt.setString(4, pagamento.getObservacao());
+                
+                pstmt.executeUpdate();
+                
+                // Recupera o ID gerado
+                try (ResultSet rs = pstmt.getGeneratedKeys()) {
+                    if (rs.next()) {
+                        pagamento.setId(rs.getLong(1));
+                    }
                 }
             }
-        }
+            return pagamento.getId();
+        });
+        EventosBanco.publicar(EventosBanco.PAGAMENTOS, pagamento.getId());
     }
     
     /**
@@ -51,7 +56,7 @@ public class PagamentoDAO {
      * @throws SQLException se houver erro na consulta
      */
     public List<Pagamento> buscarPorCliente(Long clienteId) throws SQLException {
-        String sql = "SELECT id, cliente_id, data_pagamento, valor_pago, observacao " +
+        String sql = "SELECT id, cliente_id, data_pagamento_dia, valor_pago_centavos, observacao " +
                      "FROM pagamentos WHERE cliente_id = ?";
         
         List<Pagamento> pagamentos = new ArrayList<>();
@@ -71,6 +76,140 @@ public class PagamentoDAO {
         return pagamentos;
     }
     
+    /**
+     * Busca os pagamentos de um período usando o índice por data.
+     * 
+     * @param inicio Primeiro dia do período (inclusive)
+     * @param fim Último dia do período (inclusive)
+     * @return Pagamentos do período, em ordem de data
+     * @throws SQLException se houver erro na consulta
+     */
+    public List<Pagamento> buscarPorPeriodo(LocalDate inicio, LocalDate fim) throws SQLException {
+        String sql = "SELECT id, cliente_id, data_pagamento_dia, valor_pago_centavos, observacao " +
+                     "FROM pagamentos WHERE data_pagamento_dia BETWEEN ? AND ? ORDER BY data_pagamento_dia, id";
+        
+        return buscarPagamentos(sql, inicio.toEpochDay(), fim.toEpochDay());
+    }
+    
+    /**
+     * Busca os pagamentos de um cliente em um período usando o índice (cliente, data).
+     * 
+     * @param clienteId ID do cliente
+     * @param inicio Primeiro dia do período (inclusive)
+     * @param fim Último dia do período (inclusive)
+     * @return Pagamentos do cliente no período, em ordem de data
+     * @throws SQLException se houver erro na consulta
+     */
+    public List<Pagamento> buscarPorClienteEPeriodo(Long clienteId, LocalDate inicio, LocalDate fim)
+            throws SQLException {
+        String sql = "SELECT id, cliente_id, data_pagamento_dia, valor_pago_centavos, observacao " +
+                     "FROM pagamentos WHERE cliente_id = ? AND data_pagamento_dia BETWEEN ? AND ? " +
+                     "ORDER BY data_pagamento_dia, id";
+        
+        return buscarPagamentos(sql, clienteId, inicio.toEpochDay(), fim.toEpochDay());
+    }
+    
+    private List<Pagamento> buscarPagamentos(String sql, long... parametros) throws SQLException {
+        List<Pagamento> pagamentos = new ArrayList<>();
+        ConsultaStreaming.percorrer(sql, this::mapResultSetToPagamento, pagamentos::add, parametros);
+        return pagamentos;
+    }
+    
+    /**
+     * Percorre todos os pagamentos em ordem de ID, entregando um por vez ao
+     * consumidor, sem carregar a tabela na memória.
+     * O consumidor não deve gravar no banco: a leitura mantém uma conexão
+     * aberta até terminar.
+     * 
+     * @param consumidor Recebe cada pagamento
+     * @return Número de pagamentos percorridos
+     * @throws SQLException se houver erro na consulta
+     */
+    public long percorrerTodos(Consumer<? super Pagamento> consumidor) throws SQLException {
+        String sql = "SELECT id, cliente_id, data_pagamento_dia, valor_pago_centavos, observacao " +
+                     "FROM pagamentos ORDER BY id";
+        
+        return ConsultaStreaming.percorrer(sql, this::mapResultSetToPagamento, consumidor);
+    }
+    
+    /**
+     * Percorre os pagamentos de um período em ordem de data, entregando um
+     * por vez ao consumidor, sem carregar o período na memória.
+     * O consumidor não deve gravar no banco: a leitura mantém uma conexão
+     * aberta até terminar.
+     * 
+     * @param inicio Primeiro dia do período (inclusive)
+     * @param fim Último dia do período (inclusive)
+     * @param consumidor Recebe cada pagamento
+     * @return Número de pagamentos percorridos
+     * @throws SQLException se houver erro na consulta
+     */
+    public long percorrerPorPeriodo(LocalDate inicio, LocalDate fim, Consumer<? super Pagamento> consumidor)
+            throws SQLException {
+        String sql = "SELECT id, cliente_id, data_pagamento_dia, valor_pago_centavos, observacao " +
+                     "FROM pagamentos WHERE data_pagamento_dia BETWEEN ? AND ? ORDER BY data_pagamento_dia, id";
+        
+        return ConsultaStreaming.percorrer(sql, this::mapResultSetToPagamento, consumidor,
+                inicio.toEpochDay(), fim.toEpochDay());
+    }
+    
+    /**
+     * Busca uma página de pagamentos, dos mais recentes para os mais antigos.
+     * 
+     * @param continuacao Token da página anterior, ou null para a primeira página
+     * @param tamanho Quantidade máxima de pagamentos na página
+     * @return Página de pagamentos
+     * @throws SQLException se houver erro na consulta
+     * @throws IllegalArgumentException se o tamanho ou o token forem inválidos
+     */
+    public Pagina<Pagamento> buscarPagina(String continuacao, int tamanho) throws SQLException {
+        return buscarPagina(null, continuacao, tamanho);
+    }
+    
+    /**
+     * Busca uma página dos pagamentos de um cliente, dos mais recentes para os mais antigos.
+     * 
+     * @param clienteId ID do cliente
+     * @param continuacao Token da página anterior, ou null para a primeira página
+     * @param tamanho Quantidade máxima de pagamentos na página
+     * @return Página de pagamentos do cliente
+     * @throws SQLException se houver erro na consulta
+     * @throws IllegalArgumentException se o tamanho ou o token forem inválidos
+     */
+    public Pagina<Pagamento> buscarPaginaPorCliente(Long clienteId, String continuacao, int tamanho)
+            throws SQLException {
+        return buscarPagina(clienteId, continuacao, tamanho);
+    }
+    
+    /**
+     * Página ordenada por (data, id) decrescentes, pelo índice por data ou (cliente, data).
+     */
+    private Pagina<Pagamento> buscarPagina(Long clienteId, String continuacao, int tamanho) throws SQLException {
+        Pagina.validarTamanho(tamanho);
+        
+        List<String> condicoes = new ArrayList<>();
+        List<Long> parametros = new ArrayList<>();
+        if (clienteId != null) {
+            condicoes.add("cliente_id = ?");
+            parametros.add(clienteId);
+        }
+        if (continuacao != null) {
+            String[] chave = Continuacao.ler(continuacao, 2);
+            condicoes.add("(data_pagamento_dia, id) < (?, ?)");
+            parametros.add(Continuacao.lerLong(chave[0]));
+            parametros.add(Continuacao.lerLong(chave[1]));
+        }
+        parametros.add((long) tamanho + 1);
+        
+        String sql = "SELECT id, cliente_id, data_pagamento_dia, valor_pago_centavos, observacao FROM pagamentos " +
+                     (condicoes.isEmpty() ? "" : "WHERE " + String.join(" AND ", condicoes) + " ") +
+                     "ORDER BY data_pagamento_dia DESC, id DESC LIMIT ?";
+        
+        List<Pagamento> pagamentos = buscarPagamentos(sql, parametros.stream().mapToLong(Long::longValue).toArray());
+        return Pagina.de(pagamentos, tamanho,
+                p -> Continuacao.criar(p.getDataPagamento().toEpochDay(), p.getId()));
+    }
+    
     /**
      * Calcula o valor total pago por um cliente específico.
      * 
@@ -78,8 +217,8 @@ public class PagamentoDAO {
      * @return Valor total pago pelo cliente
      * @throws SQLException se houver erro na consulta
      */
-    public BigDecimal calcularTotalPagoPorCliente(Long clienteId) throws SQLException {
-        String sql = "SELECT SUM(valor_pago) as total FROM pagamentos WHERE cliente_id = ?";
+    public Dinheiro calcularTotalPagoPorCliente(Long clienteId) throws SQLException {
+        String sql = "SELECT COALESCE(SUM(valor_pago_centavos), 0) as total FROM pagamentos WHERE cliente_id = ?";
         
         try (Connection conn = DatabaseManager.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
@@ -88,13 +227,40 @@ public class PagamentoDAO {
             
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
-                    BigDecimal total = rs.getBigDecimal("total");
-                    return total != null ? total : BigDecimal.ZERO;
+                    return Dinheiro.deCentavos(rs.getLong("total"));
+                }
+            }
+        }
+        
+        return Dinheiro.ZERO;
+    }
+    
+    /**
+     * Calcula o valor total recebido em pagamentos em um período.
+     * 
+     * @param inicio Primeiro dia do período (inclusive)
+     * @param fim Último dia do período (inclusive)
+     * @return Valor total pago no período
+     * @throws SQLException se houver erro na consulta
+     */
+    public Dinheiro calcularTotalPagoPorPeriodo(LocalDate inicio, LocalDate fim) throws SQLException {
+        String sql = "SELECT COALESCE(SUM(valor_pago_centavos), 0) as total FROM pagamentos " +
+                     "WHERE data_pagamento_dia BETWEEN ? AND ?";
+        
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setLong(1, inicio.toEpochDay());
+            pstmt.setLong(2, fim.toEpochDay());
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return Dinheiro.deCentavos(rs.getLong("total"));
                 }
             }
         }
         
-        return BigDecimal.ZERO;
+        return Dinheiro.ZERO;
     }
     
     /**
@@ -108,8 +274,8 @@ public class PagamentoDAO {
         Pagamento pagamento = new Pagamento();
         pagamento.setId(rs.getLong("id"));
         pagamento.setClienteId(rs.getLong("cliente_id"));
-        pagamento.setDataPagamento(LocalDate.parse(rs.getString("data_pagamento")));
-        pagamento.setValorPago(rs.getBigDecimal("valor_pago"));
+        pagamento.setDataPagamento(LocalDate.ofEpochDay(rs.getLong("data_pagamento_dia")));
+        pagamento.setValorPago(Dinheiro.deCentavos(rs.getLong("valor_pago_centavos")).toBigDecimal());
         pagamento.setObservacao(rs.getString("observacao"));
         return pagamento;
     }
@@ -0,0 +1,71 @@
+package com.vendas.dao;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Página de resultados de uma consulta paginada por chave (keyset).
+ *
+ * A próxima página é pedida com o token de {@link #getContinuacao()}, que
+ * guarda a chave de ordenação do último item. A consulta continua a partir
+ * dessa chave pelo índice, então o custo de cada página não depende de
+ * quantas páginas já foram lidas.
+ *
+ * @param <T> Tipo dos itens
+ */
+public class Pagina<T> {
+
+    /** Maior tamanho de página aceito pelos DAOs. */
+    public static final int TAMANHO_MAXIMO = 1000;
+
+    private final List<T> itens;
+    private final String continuacao;
+
+    public Pagina(List<T> itens, String continuacao) {
+        this.itens = Collections.unmodifiableList(itens);
+        this.continuacao = continuacao;
+    }
+
+    public List<T> getItens() {
+        return itens;
+    }
+
+    /**
+     * @return Token para buscar a próxima página, ou null se esta for a última
+     */
+    public String getContinuacao() {
+        return continuacao;
+    }
+
+    public boolean temProxima() {
+        return continuacao != null;
+    }
+
+    /**
+     * Monta a página a partir de uma consulta feita com {@code LIMIT tamanho + 1}:
+     * o item excedente apenas indica que existe uma próxima página.
+     *
+     * @param lidos Itens lidos (até tamanho + 1)
+     * @param tamanho Tamanho da página
+     * @param chave Gera o token de continuação a partir do último item da página
+     */
+    static <T> Pagina<T> de(List<T> lidos, int tamanho, Function<T, String> chave) {
+        if (lidos.size() <= tamanho) {
+            return new Pagina<>(lidos, null);
+        }
+        List<T> itens = lidos.subList(0, tamanho);
+        return new Pagina<>(itens, chave.apply(itens.get(tamanho - 1)));
+    }
+
+    /**
+     * Valida o tamanho de página pedido.
+     *
+     * @throws IllegalArgumentException se o tamanho estiver fora de 1..{@link #TAMANHO_MAXIMO}
+     */
+    static void validarTamanho(int tamanho) {
+        if (tamanho <= 0 || tamanho > TAMANHO_MAXIMO) {
+            throw new IllegalArgumentException("O tamanho da página deve estar entre 1 e " + TAMANHO_MAXIMO);
+        }
+    }
+}
@@ -1,59 +1,152 @@
 package com.vendas.dao;
 
+import com.vendas.model.Dinheiro;
 import com.vendas.model.Produto;
+import com.vendas.model.ProdutoResumo;
 import com.vendas.util.DatabaseManager;
+import com.vendas.util.EventosBanco;
 
-import java.math.BigDecimal;
 import java.sql.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * DAO para operações de banco de dados relacionadas a produtos.
  */
 public class ProdutoDAO {
     
+    /** Colunas de produtos com a imagem trazida do armazenamento de imagens. */
+    private static final String SELECT_PRODUTO =
+            "SELECT p.id, p.descricao, p.tamanho, p.imagem_hash, i.dados AS imagem, " +
+            "p.valor_compra_centavos, p.data_compra_dia, p.vendido " +
+            "FROM produtos p LEFT JOIN imagens i ON i.hash = p.imagem_hash";
+    
+    /** Colunas de produtos para listagens: somente a referência da imagem, sem os bytes. */
+    private static final String SELECT_RESUMO =
+            "SELECT id, descricao, tamanho, imagem_hash, valor_compra_centavos, data_compra_dia, vendido " +
+            "FROM produtos";
+    
+    private final ImagemDAO imagemDAO = new ImagemDAO();
+    
+    /**
+     * Resultado da tentativa de reservar um produto para venda.
+     */
+    public enum ResultadoReserva {
+        /** O produto estava disponível e foi marcado como vendido. */
+        RESERVADO,
+        /** O produto existe, mas já tinha sido vendido (inclusive por outro terminal). */
+        JA_VENDIDO,
+        /** Não existe produto com o ID informado. */
+        NAO_ENCONTRADO
+    }
+    
     /**
-     * Insere um novo produto no banco de dados.
+     * Insere um novo produto no banco de dados. A imagem, se houver, é gravada
+     * no armazenamento de imagens na mesma transação.
      * 
      * @param produto Produto a ser inserido
      * @throws SQLException se houver erro na inserção
      */
     public void inserir(Produto produto) throws SQLException {
-        String sql = "INSERT INTO produtos (descricao, tamanho, imagem, valor_compra, data_compra, vendido) " +
+        String sql = "INSERT INTO produtos (descricao, tamanho, imagem_hash, valor_compra_centavos, data_compra_dia, vendido) " +
                      "VALUES (?, ?, ?, ?, ?, ?)";
         
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            
-            pstmt.setString(1, produto.getDescricao());
-            pstmt.setString(2, produto.getTamanho());
-            pstmt.setBytes(3, produto.getImagem());
-            pstmt.setBigDecimal(4, produto.getValorCompra());
-            pstmt.setString(5, produto.getDataCompra().toString());
-            pstmt.setBoolean(6, produto.isVendido());
+        DatabaseManager.executarTransacao(conn -> {
+            String imagemHash = imagemDAO.salvar(conn, produto.getImagem(), produto.getMiniatura());
             
-            pstmt.executeUpdate();
-            
-            // Recupera o ID gerado
-            try (ResultSet rs = pstmt.getGeneratedKeys()) {
-                if (rs.next()) {
-                    produto.setId(rs.getLong(1));
+            try (PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                
+                pstmt.setString(1, produto.getDescricao());
+                pstmt.setString(2, produto.getTamanho());
+                pstmt.setString(3, imagemHash);
+                pstmt.setLong(4, Dinheiro.centavosDe(produto.getValorCompra()));
+                pstmt.setLong(5, produto.getDataCompra().toEpochDay());
+                pstmt.setBoolean(6, produto.isVendido());
+                
+                pstmt.executeUpdate();
+                
+                // Recupera o ID gerado
+                try (ResultSet rs = pstmt.getGeneratedKeys()) {
+                    if (rs.next()) {
+                        produto.setId(rs.getLong(1));
+                    }
                 }
             }
+            produto.setImagemHash(imagemHash);
+            EventosBanco.publicar(EventosBanco.PRODUTOS, produto.getId());
+            return produto.getId();
+        });
+    }
+    
+    /**
+     * Insere vários produtos com um único lote de INSERTs na conexão informada.
+     * Deve ser chamado dentro de uma transação; os IDs gerados são atribuídos
+     * aos produtos da lista.
+     * 
+     * @param conn Conexão da transação em andamento
+     * @param produtos Produtos a serem inseridos
+     * @throws SQLException se houver erro na inserção
+     */
+    public void inserirLote(Connection conn, List<Produto> produtos) throws SQLException {
+        String sql = "INSERT INTO produtos (descricao, tamanho, imagem_hash, valor_compra_centavos, data_compra_dia, vendido) " +
+                     "VALUES (?, ?, ?, ?, ?, ?)";
+        
+        if (produtos.isEmpty()) {
+            return;
+        }
+        
+        // As imagens são gravadas antes: o lote de produtos precisa dos hashes
+        for (Produto produto : produtos) {
+            produto.setImagemHash(imagemDAO.salvar(conn, produto.getImagem(), produto.getMiniatura()));
+        }
+        
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (Produto produto : produtos) {
+                pstmt.setString(1, produto.getDescricao());
+                pstmt.setString(2, produto.getTamanho());
+                pstmt.setString(3, produto.getImagemHash());
+                pstmt.setLong(4, Dinheiro.centavosDe(produto.getValorCompra()));
+                pstmt.setLong(5, produto.getDataCompra().toEpochDay());
+                pstmt.setBoolean(6, produto.isVendido());
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
         }
+        
+        // Dentro da transação nenhuma outra conexão insere em produtos, então os
+        // IDs gerados pelo lote são consecutivos e terminam em last_insert_rowid()
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT last_insert_rowid()")) {
+            if (rs.next()) {
+                long primeiroId = rs.getLong(1) - produtos.size() + 1;
+                for (int i = 0; i < produtos.size(); i++) {
+                    produtos.get(i).setId(primeiroId + i);
+                }
+            }
+        }
+        
+        List<Long> ids = new ArrayList<>();
+        for (Produto produto : produtos) {
+            ids.add(produto.getId());
+        }
+        EventosBanco.publicar(EventosBanco.PRODUTOS, ids);
     }
     
     /**
-     * Busca todos os produtos cadastrados.
+     * Busca todos os produtos cadastrados, incluindo as imagens.
+     * Para listagens use {@link #buscarResumos()}.
      * 
      * @return Lista de todos os produtos
      * @throws SQLException se houver erro na consulta
      */
     public List<Produto> buscarTodos() throws SQLException {
-        String sql = "SELECT id, descricao, tamanho, imagem, valor_compra, data_compra, vendido " +
-                     "FROM produtos";
+        String sql = SELECT_PRODUTO;
         
         List<Produto> produtos = new ArrayList<>();
         
@@ -70,14 +163,14 @@ public class ProdutoDAO {
     }
     
     /**
-     * Busca produtos disponíveis (não vendidos).
+     * Busca produtos disponíveis (não vendidos), incluindo as imagens.
+     * Para listagens use {@link #buscarResumosDisponiveis()}.
      * 
      * @return Lista de produtos não vendidos
      * @throws SQLException se houver erro na consulta
      */
     public List<Produto> buscarDisponiveis() throws SQLException {
-        String sql = "SELECT id, descricao, tamanho, imagem, valor_compra, data_compra, vendido " +
-                     "FROM produtos WHERE vendido = 0";
+        String sql = SELECT_PRODUTO + " WHERE p.vendido = 0";
         
         List<Produto> produtos = new ArrayList<>();
         
@@ -101,8 +194,7 @@ public class ProdutoDAO {
      * @throws SQLException se houver erro na consulta
      */
     public Produto buscarPorId(Long id) throws SQLException {
-        String sql = "SELECT id, descricao, tamanho, imagem, valor_compra, data_compra, vendido " +
-                     "FROM produtos WHERE id = ?";
+        String sql = SELECT_PRODUTO + " WHERE p.id = ?";
         
         try (Connection conn = DatabaseManager.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
@@ -119,6 +211,199 @@ public class ProdutoDAO {
         return null;
     }
     
+    /**
+     * Busca vários produtos pelos IDs, incluindo as imagens, com uma consulta
+     * {@code IN} para cada bloco de IDs em vez de uma consulta por produto.
+     * 
+     * @param ids IDs dos produtos (repetições são ignoradas)
+     * @return Produtos encontrados, por ID (IDs inexistentes ficam de fora)
+     * @throws SQLException se houver erro na consulta
+     */
+    public Map<Long, Produto> buscarPorIds(Collection<Long> ids) throws SQLException {
+        Map<Long, Produto> produtos = new HashMap<>();
+        ConsultaStreaming.percorrerPorIds(SELECT_PRODUTO + " WHERE p.id IN", ids,
+                this::mapResultSetToProduto, produto -> produtos.put(produto.getId(), produto));
+        return produtos;
+    }
+    
+    /**
+     * Busca os resumos de vários produtos pelos IDs, sem carregar as imagens.
+     * 
+     * @param ids IDs dos produtos (repetições são ignoradas)
+     * @return Resumos encontrados, por ID (IDs inexistentes ficam de fora)
+     * @throws SQLException se houver erro na consulta
+     */
+    public Map<Long, ProdutoResumo> buscarResumosPorIds(Collection<Long> ids) throws SQLException {
+        Map<Long, ProdutoResumo> resumos = new HashMap<>();
+        ConsultaStreaming.percorrerPorIds(SELECT_RESUMO + " WHERE id IN", ids,
+                this::mapResultSetToResumo, resumo -> resumos.put(resumo.getId(), resumo));
+        return resumos;
+    }
+    
+    /**
+     * Busca todos os produtos cadastrados sem carregar as imagens.
+     * 
+     * @return Lista de resumos de todos os produtos
+     * @throws SQLException se houver erro na consulta
+     */
+    public List<ProdutoResumo> buscarResumos() throws SQLException {
+        return buscarResumos(SELECT_RESUMO);
+    }
+    
+    /**
+     * Pesquisa produtos pela descrição e pelo tamanho usando a tabela de busca
+     * textual {@code produtos_fts}, dos mais relevantes para os menos, sem
+     * carregar as imagens.
+     * 
+     * @param texto Texto digitado (cada palavra é tratada como prefixo)
+     * @param somenteDisponiveis true para retornar apenas produtos não vendidos
+     * @param limite Quantidade máxima de produtos retornados
+     * @return Produtos encontrados (vazio se o texto não tiver letras nem números)
+     * @throws SQLException se houver erro na consulta
+     * @throws IllegalArgumentException se o limite for inválido
+     */
+    public List<ProdutoResumo> pesquisarResumos(String texto, boolean somenteDisponiveis, int limite)
+            throws SQLException {
+        Pagina.validarTamanho(limite);
+        
+        List<ProdutoResumo> resumos = new ArrayList<>();
+        String consulta = BuscaTextual.montarConsulta(texto);
+        if (consulta == null) {
+            return resumos;
+        }
+        
+        // O filtro de disponíveis vai nos candidatos: aplicado depois do corte,
+        // descartaria os disponíveis mais antigos que os candidatos
+        String candidatos = somenteDisponiveis
+                ? BuscaTextual.candidatos("produtos_fts", "produtos", "d.vendido = 0")
+                : BuscaTextual.candidatos("produtos_fts");
+        String sql = SELECT_RESUMO + " p JOIN " + candidatos + " f " +
+                     "ON f.rowid = p.id " +
+                     "ORDER BY f.rank LIMIT ?";
+        
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setString(1, consulta);
+            pstmt.setInt(2, Math.max(BuscaTextual.CANDIDATOS, limite));
+            pstmt.setInt(3, limite);
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    resumos.add(mapResultSetToResumo(rs));
+                }
+            }
+        }
+        
+        return resumos;
+    }
+    
+    /**
+     * Busca os produtos disponíveis (não vendidos) sem carregar as imagens.
+     * 
+     * @return Lista de resumos dos produtos não vendidos
+     * @throws SQLException se houver erro na consulta
+     */
+    public List<ProdutoResumo> buscarResumosDisponiveis() throws SQLException {
+        return buscarResumos(SELECT_RESUMO + " WHERE vendido = 0");
+    }
+    
+    /**
+     * Busca uma página de produtos em ordem de ID, sem carregar as imagens.
+     * 
+     * @param continuacao Token da página anterior, ou null para a primeira página
+     * @param tamanho Quantidade máxima de produtos na página
+     * @return Página de resumos de produtos
+     * @throws SQLException se houver erro na consulta
+     * @throws IllegalArgumentException se o tamanho ou o token forem inválidos
+     */
+    public Pagina<ProdutoResumo> buscarPaginaResumos(String continuacao, int tamanho) throws SQLException {
+        return buscarPaginaResumos(false, continuacao, tamanho);
+    }
+    
+    /**
+     * Busca uma página de produtos disponíveis em ordem de ID, sem carregar as imagens.
+     * 
+     * @param continuacao Token da página anterior, ou null para a primeira página
+     * @param tamanho Quantidade máxima de produtos na página
+     * @return Página de resumos de produtos não vendidos
+     * @throws SQLException se houver erro na consulta
+     * @throws IllegalArgumentException se o tamanho ou o token forem inválidos
+     */
+    public Pagina<ProdutoResumo> buscarPaginaResumosDisponiveis(String continuacao, int tamanho) throws SQLException {
+        return buscarPaginaResumos(true, continuacao, tamanho);
+    }
+    
+    private Pagina<ProdutoResumo> buscarPaginaResumos(boolean somenteDisponiveis, String continuacao, int tamanho)
+            throws SQLException {
+        Pagina.validarTamanho(tamanho);
+        
+        long ultimoId = continuacao == null ? 0 : Continuacao.lerLong(Continuacao.ler(continuacao, 1)[0]);
+        String sql = SELECT_RESUMO + " WHERE id > ?" + (somenteDisponiveis ? " AND vendido = 0" : "") +
+                     " ORDER BY id LIMIT ?";
+        
+        List<ProdutoResumo> resumos = buscarResumos(sql, ultimoId, tamanho + 1);
+        return Pagina.de(resumos, tamanho, p -> Continuacao.criar(p.getId()));
+    }
+    
+    /**
+     * Busca os produtos comprados em um período, sem carregar as imagens.
+     * 
+     * @param inicio Primeiro dia do período (inclusive)
+     * @param fim Último dia do período (inclusive)
+     * @return Resumos dos produtos comprados no período, em ordem de data
+     * @throws SQLException se houver erro na consulta
+     */
+    public List<ProdutoResumo> buscarResumosPorPeriodoCompra(LocalDate inicio, LocalDate fim) throws SQLException {
+        return buscarResumos(SELECT_RESUMO + " WHERE data_compra_dia BETWEEN ? AND ? ORDER BY data_compra_dia, id",
+                inicio.toEpochDay(), fim.toEpochDay());
+    }
+    
+    private List<ProdutoResumo> buscarResumos(String sql, long... parametros) throws SQLException {
+        List<ProdutoResumo> resumos = new ArrayList<>();
+        ConsultaStreaming.percorrer(sql, this::mapResultSetToResumo, resumos::add, parametros);
+        return resumos;
+    }
+    
+    /**
+     * Percorre todos os produtos em ordem de ID, sem as imagens, entregando um
+     * por vez ao consumidor, sem carregar a tabela na memória.
+     * O consumidor não deve gravar no banco: a leitura mantém uma conexão
+     * aberta até terminar.
+     * 
+     * @param consumidor Recebe cada resumo de produto
+     * @return Número de produtos percorridos
+     * @throws SQLException se houver erro na consulta
+     */
+    public long percorrerResumos(Consumer<? super ProdutoResumo> consumidor) throws SQLException {
+        return ConsultaStreaming.percorrer(SELECT_RESUMO + " ORDER BY id", this::mapResultSetToResumo, consumidor);
+    }
+    
+    /**
+     * Carrega apenas a imagem de um produto, para exibição sob demanda.
+     * 
+     * @param id ID do produto
+     * @return Bytes da imagem ou null se o produto não existir ou não tiver imagem
+     * @throws SQLException se houver erro na consulta
+     */
+    public byte[] buscarImagem(Long id) throws SQLException {
+        String sql = "SELECT i.dados FROM produtos p JOIN imagens i ON i.hash = p.imagem_hash WHERE p.id = ?";
+        
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setLong(1, id);
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return rs.getBytes("dados");
+                }
+            }
+        }
+        
+        return null;
+    }
+    
     /**
      * Marca um produto como vendido.
      * 
@@ -128,11 +413,89 @@ public class ProdutoDAO {
     public void marcarComoVendido(Long id) throws SQLException {
         String sql = "UPDATE produtos SET vendido = 1 WHERE id = ?";
         
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
+        DatabaseManager.executarEscrita(conn -> {
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setLong(1, id);
+                return pstmt.executeUpdate();
+            }
+        });
+        EventosBanco.publicar(EventosBanco.PRODUTOS, id);
+    }
+    
+    /**
+     * Reserva um produto para venda marcando-o como vendido somente se ainda
+     * estiver disponível ({@code UPDATE ... WHERE vendido = 0}). Deve ser
+     * chamado dentro da mesma transação que registra a venda.
+     * 
+     * @param conn Conexão da transação em andamento
+     * @param id ID do produto
+     * @return Resultado da reserva
+     * @throws SQLException se houver erro na atualização
+     */
+    public ResultadoReserva reservarParaVenda(Connection conn, Long id) throws SQLException {
+        String sql = "UPDATE produtos SET vendido = 1 WHERE id = ? AND vendido = 0";
+        
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setLong(1, id);
+            if (pstmt.executeUpdate() == 1) {
+                EventosBanco.publicar(EventosBanco.PRODUTOS, id);
+                return ResultadoReserva.RESERVADO;
+            }
+        }
+        
+        return existe(conn, id) ? ResultadoReserva.JA_VENDIDO : ResultadoReserva.NAO_ENCONTRADO;
+    }
+    
+    /**
+     * Reserva vários produtos para venda com um único lote de
+     * {@code UPDATE ... WHERE vendido = 0}. Deve ser chamado dentro da mesma
+     * transação que registra as vendas; se algum produto não puder ser
+     * reservado, cabe ao chamador desfazer a transação.
+     * 
+     * @param conn Conexão da transação em andamento
+     * @param ids IDs dos produtos
+     * @return Resultado da reserva de cada produto, na ordem dos IDs informados
+     * @throws SQLException se houver erro na atualização
+     */
+    public Map<Long, ResultadoReserva> reservarLoteParaVenda(Connection conn, List<Long> ids) throws SQLException {
+        String sql = "UPDATE produtos SET vendido = 1 WHERE id = ? AND vendido = 0";
+        
+        int[] atualizados;
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (Long id : ids) {
+                pstmt.setLong(1, id);
+                pstmt.addBatch();
+            }
+            atualizados = pstmt.executeBatch();
+        }
+        
+        Map<Long, ResultadoReserva> resultados = new LinkedHashMap<>();
+        List<Long> reservados = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            Long id = ids.get(i);
+            if (atualizados[i] == 1) {
+                resultados.put(id, ResultadoReserva.RESERVADO);
+                reservados.add(id);
+            } else {
+                resultados.put(id, existe(conn, id) ? ResultadoReserva.JA_VENDIDO : ResultadoReserva.NAO_ENCONTRADO);
+            }
+        }
+        
+        EventosBanco.publicar(EventosBanco.PRODUTOS, reservados);
+        return resultados;
+    }
+    
+    /**
+     * Verifica se existe um produto com o ID informado.
+     */
+    private boolean existe(Connection conn, Long id) throws SQLException {
+        String sql = "SELECT 1 FROM produtos WHERE id = ?";
+        
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setLong(1, id);
-            pstmt.executeUpdate();
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next();
+            }
         }
     }
     
@@ -142,20 +505,47 @@ public class ProdutoDAO {
      * @return Valor total gasto
      * @throws SQLException se houver erro na consulta
      */
-    public BigDecimal calcularTotalGasto() throws SQLException {
-        String sql = "SELECT SUM(valor_compra) as total FROM produtos";
+    public Dinheiro calcularTotalGasto() throws SQLException {
+        String sql = "SELECT COALESCE(SUM(valor_compra_centavos), 0) as total FROM produtos";
         
         try (Connection conn = DatabaseManager.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql);
              ResultSet rs = pstmt.executeQuery()) {
             
             if (rs.next()) {
-                BigDecimal total = rs.getBigDecimal("total");
-                return total != null ? total : BigDecimal.ZERO;
+                return Dinheiro.deCentavos(rs.getLong("total"));
+            }
+        }
+        
+        return Dinheiro.ZERO;
+    }
+    
+    /**
+     * Calcula o valor gasto na compra dos produtos comprados em um período.
+     * 
+     * @param inicio Primeiro dia do período (inclusive)
+     * @param fim Último dia do período (inclusive)
+     * @return Valor gasto no período
+     * @throws SQLException se houver erro na consulta
+     */
+    public Dinheiro calcularTotalGastoPorPeriodo(LocalDate inicio, LocalDate fim) throws SQLException {
+        String sql = "SELECT COALESCE(SUM(valor_compra_centavos), 0) as total FROM produtos " +
+                     "WHERE data_compra_dia BETWEEN ? AND ?";
+        
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setLong(1, inicio.toEpochDay());
+            pstmt.setLong(2, fim.toEpochDay());
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return Dinheiro.deCentavos(rs.getLong("total"));
+                }
             }
         }
         
-        return BigDecimal.ZERO;
+        return Dinheiro.ZERO;
     }
     
     /**
@@ -170,10 +560,29 @@ public class ProdutoDAO {
         produto.setId(rs.getLong("id"));
         produto.setDescricao(rs.getString("descricao"));
         produto.setTamanho(rs.getString("tamanho"));
+        produto.setImagemHash(rs.getString("imagem_hash"));
         produto.setImagem(rs.getBytes("imagem"));
-        produto.setValorCompra(rs.getBigDecimal("valor_compra"));
-        produto.setDataCompra(LocalDate.parse(rs.getString("data_compra")));
+        produto.setValorCompra(Dinheiro.deCentavos(rs.getLong("valor_compra_centavos")).toBigDecimal());
+        produto.setDataCompra(LocalDate.ofEpochDay(rs.getLong("data_compra_dia")));
         produto.setVendido(rs.getBoolean("vendido"));
         return produto;
     }
+    
+    /**
+     * Mapeia um ResultSet para um resumo de produto (sem a imagem).
+     * 
+     * @param rs ResultSet contendo dados do produto
+     * @return Objeto ProdutoResumo
+     * @throws SQLException se houver erro ao ler dados
+     */
+    private ProdutoResumo mapResultSetToResumo(ResultSet rs) throws SQLException {
+        return new ProdutoResumo(
+                rs.getLong("id"),
+                rs.getString("descricao"),
+                rs.getString("tamanho"),
+                rs.getString("imagem_hash"),
+                Dinheiro.deCentavos(rs.getLong("valor_compra_centavos")).toBigDecimal(),
+                LocalDate.ofEpochDay(rs.getLong("data_compra_dia")),
+                rs.getBoolean("vendido"));
+    }
 }
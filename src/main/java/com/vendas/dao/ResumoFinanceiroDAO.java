@@ -0,0 +1,94 @@
+package com.vendas.dao;
+
+import com.vendas.model.Dinheiro;
+import com.vendas.model.ResumoFinanceiro;
+import com.vendas.util.DatabaseManager;
+import com.vendas.util.EventosBanco;
+
+import java.sql.*;
+
+/**
+ * DAO da tabela {@code resumo_financeiro}.
+ *
+ * A tabela tem uma única linha, mantida por gatilhos do banco na mesma
+ * transação de cada produto cadastrado e de cada venda. Ler o resumo é uma
+ * leitura por chave primária, independente do tamanho do histórico. Os
+ * métodos {@link #verificar()} e {@link #reconstruir()} comparam e recalculam
+ * a linha a partir dos produtos e vendas.
+ */
+public class ResumoFinanceiroDAO {
+
+    /** Totais calculados a partir dos produtos e vendas, nas colunas de resumo_financeiro. */
+    private static final String SQL_CALCULADO =
+            "SELECT (SELECT COALESCE(SUM(valor_compra_centavos), 0) FROM produtos) AS total_gasto_centavos, " +
+            "(SELECT COALESCE(SUM(valor_venda_centavos), 0) FROM vendas) AS total_recebido_centavos, " +
+            "(SELECT COUNT(*) FROM produtos WHERE vendido = 0) AS quantidade_estoque, " +
+            "(SELECT COALESCE(SUM(valor_compra_centavos), 0) FROM produtos WHERE vendido = 0) AS valor_estoque_centavos";
+
+    /**
+     * Busca o resumo financeiro atual.
+     *
+     * @return Totais de compras, vendas e estoque
+     * @throws SQLException se houver erro na consulta
+     */
+    public ResumoFinanceiro buscar() throws SQLException {
+        String sql = "SELECT total_gasto_centavos, total_recebido_centavos, " +
+                     "quantidade_estoque, valor_estoque_centavos " +
+                     "FROM resumo_financeiro WHERE id = 1";
+
+        try (Connection conn = DatabaseManager.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+
+            if (rs.next()) {
+                return new ResumoFinanceiro(
+                        Dinheiro.deCentavos(rs.getLong("total_gasto_centavos")),
+                        Dinheiro.deCentavos(rs.getLong("total_recebido_centavos")),
+                        rs.getLong("quantidade_estoque"),
+                        Dinheiro.deCentavos(rs.getLong("valor_estoque_centavos")));
+            }
+        }
+
+        return new ResumoFinanceiro(Dinheiro.ZERO, Dinheiro.ZERO, 0, Dinheiro.ZERO);
+    }
+
+    /**
+     * Compara o resumo gravado com os totais calculados a partir dos produtos
+     * e vendas.
+     *
+     * @return true se o resumo gravado confere com o calculado
+     * @throws SQLException se houver erro na consulta
+     */
+    public boolean verificar() throws SQLException {
+        String sql = "SELECT 1 FROM (" + SQL_CALCULADO + ") c " +
+                     "JOIN resumo_financeiro r ON r.id = 1 " +
+                     "AND r.total_gasto_centavos = c.total_gasto_centavos " +
+                     "AND r.total_recebido_centavos = c.total_recebido_centavos " +
+                     "AND r.quantidade_estoque = c.quantidade_estoque " +
+                     "AND r.valor_estoque_centavos = c.valor_estoque_centavos";
+
+        try (Connection conn = DatabaseManager.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            return rs.next();
+        }
+    }
+
+    /**
+     * Recalcula o resumo a partir dos produtos e vendas, em uma única transação.
+     *
+     * @throws SQLException se houver erro na reconstrução
+     */
+    public void reconstruir() throws SQLException {
+        DatabaseManager.executarTransacao(conn -> {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("INSERT OR REPLACE INTO resumo_financeiro " +
+                        "(id, total_gasto_centavos, total_recebido_centavos, quantidade_estoque, valor_estoque_centavos) " +
+                        "SELECT 1, total_gasto_centavos, total_recebido_centavos, quantidade_estoque, " +
+                        "valor_estoque_centavos FROM (" + SQL_CALCULADO + ")");
+            }
+            EventosBanco.publicarTabela(EventosBanco.RESUMO_FINANCEIRO);
+            return null;
+        });
+    }
+}
@@ -0,0 +1,129 @@
+package com.vendas.dao;
+
+import com.vendas.model.Dinheiro;
+import com.vendas.model.SaldoCliente;
+import com.vendas.util.DatabaseManager;
+import com.vendas.util.EventosBanco;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DAO da tabela {@code saldos_clientes}.
+ *
+ * A tabela é mantida por gatilhos do banco na mesma transação de cada venda e
+ * pagamento gravados, então consultar o saldo de um cliente é uma leitura por
+ * chave primária em vez de duas somas sobre o histórico. Os métodos
+ * {@link #verificar()} e {@link #reconstruir()} comparam e recalculam a
+ * tabela a partir das vendas e pagamentos.
+ */
+public class SaldoClienteDAO {
+
+    /** Totais de cada cliente calculados a partir do histórico. */
+    private static final String SQL_CALCULADO =
+            "SELECT cliente_id, SUM(v) AS vendas, SUM(p) AS pago FROM (" +
+            "SELECT cliente_id, valor_venda_centavos AS v, 0 AS p FROM vendas " +
+            "UNION ALL " +
+            "SELECT cliente_id, 0, valor_pago_centavos FROM pagamentos" +
+            ") GROUP BY cliente_id";
+
+    /**
+     * Busca o saldo de um cliente.
+     *
+     * @param clienteId ID do cliente
+     * @return Saldo do cliente (zerado se ele não tiver vendas nem pagamentos)
+     * @throws SQLException se houver erro na consulta
+     */
+    public SaldoCliente buscarPorCliente(Long clienteId) throws SQLException {
+        String sql = "SELECT cliente_id, total_vendas_centavos, total_pago_centavos, saldo_centavos " +
+                     "FROM saldos_clientes WHERE cliente_id = ?";
+
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setLong(1, clienteId);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return mapResultSetToSaldo(rs);
+                }
+            }
+        }
+
+        return SaldoCliente.zerado(clienteId);
+    }
+
+    /**
+     * Busca os clientes com saldo devedor, do maior para o menor débito.
+     *
+     * @return Saldos positivos
+     * @throws SQLException se houver erro na consulta
+     */
+    public List<SaldoCliente> buscarDevedores() throws SQLException {
+        String sql = "SELECT cliente_id, total_vendas_centavos, total_pago_centavos, saldo_centavos " +
+                     "FROM saldos_clientes WHERE saldo_centavos > 0 ORDER BY saldo_centavos DESC";
+
+        List<SaldoCliente> saldos = new ArrayList<>();
+        ConsultaStreaming.percorrer(sql, this::mapResultSetToSaldo, saldos::add);
+        return saldos;
+    }
+
+    /**
+     * Compara a tabela de saldos com os totais calculados a partir das vendas
+     * e pagamentos.
+     *
+     * @return IDs dos clientes cujo saldo gravado diverge do calculado
+     * @throws SQLException se houver erro na consulta
+     */
+    public List<Long> verificar() throws SQLException {
+        String sql = "WITH calculado AS (" + SQL_CALCULADO + ") " +
+                     "SELECT c.cliente_id FROM calculado c " +
+                     "LEFT JOIN saldos_clientes s ON s.cliente_id = c.cliente_id " +
+                     "WHERE s.cliente_id IS NULL OR s.total_vendas_centavos <> c.vendas " +
+                     "OR s.total_pago_centavos <> c.pago OR s.saldo_centavos <> c.vendas - c.pago " +
+                     "UNION " +
+                     "SELECT s.cliente_id FROM saldos_clientes s " +
+                     "WHERE NOT EXISTS (SELECT 1 FROM calculado c WHERE c.cliente_id = s.cliente_id) " +
+                     "AND (s.total_vendas_centavos <> 0 OR s.total_pago_centavos <> 0 OR s.saldo_centavos <> 0) " +
+                     "ORDER BY 1";
+
+        List<Long> divergentes = new ArrayList<>();
+        ConsultaStreaming.percorrer(sql, rs -> rs.getLong(1), divergentes::add);
+        return divergentes;
+    }
+
+    /**
+     * Recalcula toda a tabela de saldos a partir das vendas e pagamentos,
+     * em uma única transação.
+     *
+     * @return Número de clientes com saldo gravado
+     * @throws SQLException se houver erro na reconstrução
+     */
+    public int reconstruir() throws SQLException {
+        return DatabaseManager.executarTransacao(conn -> {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("DELETE FROM saldos_clientes");
+                EventosBanco.publicarTabela(EventosBanco.SALDOS_CLIENTES);
+                return stmt.executeUpdate("INSERT INTO saldos_clientes " +
+                        "(cliente_id, total_vendas_centavos, total_pago_centavos, saldo_centavos) " +
+                        "SELECT cliente_id, vendas, pago, vendas - pago FROM (" + SQL_CALCULADO + ")");
+            }
+        });
+    }
+
+    /**
+     * Mapeia um ResultSet para um objeto SaldoCliente.
+     *
+     * @param rs ResultSet contendo dados do saldo
+     * @return Objeto SaldoCliente
+     * @throws SQLException se houver erro ao ler dados
+     */
+    private SaldoCliente mapResultSetToSaldo(ResultSet rs) throws SQLException {
+        return new SaldoCliente(
+                rs.getLong("cliente_id"),
+                Dinheiro.deCentavos(rs.getLong("total_vendas_centavos")),
+                Dinheiro.deCentavos(rs.getLong("total_pago_centavos")),
+                Dinheiro.deCentavos(rs.getLong("saldo_centavos")));
+    }
+}
@@ -1,13 +1,16 @@
 package com.vendas.dao;
 
+import com.vendas.model.Dinheiro;
 import com.vendas.model.Venda;
+import com.vendas.model.VendaDetalhada;
 import com.vendas.util.DatabaseManager;
+import com.vendas.util.EventosBanco;
 
-import java.math.BigDecimal;
 import java.sql.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * DAO para operações de banco de dados relacionadas a vendas.
@@ -21,16 +24,28 @@ public class VendaDAO {
      * @throws SQLException se houver erro na inserção
      */
     public void inserir(Venda venda) throws SQLException {
-        String sql = "INSERT INTO vendas (produto_id, cliente_id, data_venda, valor_venda) " +
+        DatabaseManager.executarEscrita(conn -> inserir(conn, venda));
+    }
+    
+    /**
+     * Insere uma nova venda usando a conexão informada, permitindo que a
+     * inserção faça parte de uma transação maior.
+     * 
+     * @param conn Conexão da transação em andamento
+     * @param venda Venda a ser inserida
+     * @return ID gerado para a venda
+     * @throws SQLException se houver erro na inserção
+     */
+    public Long inserir(Connection conn, Venda venda) throws SQLException {
+        String sql = "INSERT INTO vendas (produto_id, cliente_id, data_venda_dia, valor_venda_centavos) " +
                      "VALUES (?, ?, ?, ?)";
         
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+        try (PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             
             pstmt.setLong(1, venda.getProdutoId());
             pstmt.setLong(2, venda.getClienteId());
-            pstmt.setString(3, venda.getDataVenda().toString());
-            pstmt.setBigDecimal(4, venda.getValorVenda());
+            pstmt.setLong(3, venda.getDataVenda().toEpochDay());
+            pstmt.setLong(4, Dinheiro.centavosDe(venda.getValorVenda()));
             
             pstmt.executeUpdate();
             
@@ -41,6 +56,56 @@ public class VendaDAO {
                 }
             }
         }
+        
+        EventosBanco.publicar(EventosBanco.VENDAS, venda.getId());
+        return venda.getId();
+    }
+    
+    /**
+     * Insere várias vendas com um único lote de INSERTs na conexão informada.
+     * Deve ser chamado dentro de uma transação; os IDs gerados são atribuídos
+     * às vendas da lista.
+     * 
+     * @param conn Conexão da transação em andamento
+     * @param vendas Vendas a serem inseridas
+     * @throws SQLException se houver erro na inserção
+     */
+    public void inserirLote(Connection conn, List<Venda> vendas) throws SQLException {
+        String sql = "INSERT INTO vendas (produto_id, cliente_id, data_venda_dia, valor_venda_centavos) " +
+                     "VALUES (?, ?, ?, ?)";
+        
+        if (vendas.isEmpty()) {
+            return;
+        }
+        
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (Venda venda : vendas) {
+                pstmt.setLong(1, venda.getProdutoId());
+                pstmt.setLong(2, venda.getClienteId());
+                pstmt.setLong(3, venda.getDataVenda().toEpochDay());
+                pstmt.setLong(4, Dinheiro.centavosDe(venda.getValorVenda()));
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+        
+        // Dentro da transação nenhuma outra conexão insere em vendas, então os
+        // IDs gerados pelo lote são consecutivos e terminam em last_insert_rowid()
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT last_insert_rowid()")) {
+            if (rs.next()) {
+                long primeiroId = rs.getLong(1) - vendas.size() + 1;
+                for (int i = 0; i < vendas.size(); i++) {
+                    vendas.get(i).setId(primeiroId + i);
+                }
+            }
+        }
+        
+        List<Long> ids = new ArrayList<>();
+        for (Venda venda : vendas) {
+            ids.add(venda.getId());
+        }
+        EventosBanco.publicar(EventosBanco.VENDAS, ids);
     }
     
     /**
@@ -50,7 +115,7 @@ public class VendaDAO {
      * @throws SQLException se houver erro na consulta
      */
     public List<Venda> buscarTodas() throws SQLException {
-        String sql = "SELECT id, produto_id, cliente_id, data_venda, valor_venda FROM vendas";
+        String sql = "SELECT id, produto_id, cliente_id, data_venda_dia, valor_venda_centavos FROM vendas";
         
         List<Venda> vendas = new ArrayList<>();
         
@@ -74,7 +139,7 @@ public class VendaDAO {
      * @throws SQLException se houver erro na consulta
      */
     public List<Venda> buscarPorCliente(Long clienteId) throws SQLException {
-        String sql = "SELECT id, produto_id, cliente_id, data_venda, valor_venda " +
+        String sql = "SELECT id, produto_id, cliente_id, data_venda_dia, valor_venda_centavos " +
                      "FROM vendas WHERE cliente_id = ?";
         
         List<Venda> vendas = new ArrayList<>();
@@ -94,26 +159,182 @@ public class VendaDAO {
         return vendas;
     }
     
+    /**
+     * Busca o histórico de compras de um cliente já com a descrição e o
+     * tamanho de cada produto, em uma única consulta (sem as imagens).
+     * 
+     * @param clienteId ID do cliente
+     * @return Vendas do cliente, em ordem de data
+     * @throws SQLException se houver erro na consulta
+     */
+    public List<VendaDetalhada> buscarDetalhadasPorCliente(Long clienteId) throws SQLException {
+        String sql = "SELECT v.id, v.produto_id, v.cliente_id, v.data_venda_dia, v.valor_venda_centavos, " +
+                     "p.descricao, p.tamanho " +
+                     "FROM vendas v LEFT JOIN produtos p ON p.id = v.produto_id " +
+                     "WHERE v.cliente_id = ? ORDER BY v.data_venda_dia, v.id";
+        
+        List<VendaDetalhada> vendas = new ArrayList<>();
+        ConsultaStreaming.percorrer(sql, rs -> new VendaDetalhada(
+                rs.getLong("id"),
+                rs.getLong("produto_id"),
+                rs.getLong("cliente_id"),
+                LocalDate.ofEpochDay(rs.getLong("data_venda_dia")),
+                Dinheiro.deCentavos(rs.getLong("valor_venda_centavos")).toBigDecimal(),
+                rs.getString("descricao"),
+                rs.getString("tamanho")), vendas::add, clienteId);
+        return vendas;
+    }
+    
+    /**
+     * Busca as vendas de um período usando o índice por data.
+     * 
+     * @param inicio Primeiro dia do período (inclusive)
+     * @param fim Último dia do período (inclusive)
+     * @return Vendas do período, em ordem de data
+     * @throws SQLException se houver erro na consulta
+     */
+    public List<Venda> buscarPorPeriodo(LocalDate inicio, LocalDate fim) throws SQLException {
+        String sql = "SELECT id, produto_id, cliente_id, data_venda_dia, valor_venda_centavos " +
+                     "FROM vendas WHERE data_venda_dia BETWEEN ? AND ? ORDER BY data_venda_dia, id";
+        
+        return buscarVendas(sql, inicio.toEpochDay(), fim.toEpochDay());
+    }
+    
+    /**
+     * Busca as vendas de um cliente em um período usando o índice (cliente, data).
+     * 
+     * @param clienteId ID do cliente
+     * @param inicio Primeiro dia do período (inclusive)
+     * @param fim Último dia do período (inclusive)
+     * @return Vendas do cliente no período, em ordem de data
+     * @throws SQLException se houver erro na consulta
+     */
+    public List<Venda> buscarPorClienteEPeriodo(Long clienteId, LocalDate inicio, LocalDate fim) throws SQLException {
+        String sql = "SELECT id, produto_id, cliente_id, data_venda_dia, valor_venda_centavos " +
+                     "FROM vendas WHERE cliente_id = ? AND data_venda_dia BETWEEN ? AND ? " +
+                     "ORDER BY data_venda_dia, id";
+        
+        return buscarVendas(sql, clienteId, inicio.toEpochDay(), fim.toEpochDay());
+    }
+    
+    private List<Venda> buscarVendas(String sql, long... parametros) throws SQLException {
+        List<Venda> vendas = new ArrayList<>();
+        ConsultaStreaming.percorrer(sql, this::mapResultSetToVenda, vendas::add, parametros);
+        return vendas;
+    }
+    
+    /**
+     * Percorre todas as vendas em ordem de ID, entregando uma por vez ao
+     * consumidor, sem carregar a tabela na memória.
+     * O consumidor não deve gravar no banco: a leitura mantém uma conexão
+     * aberta até terminar.
+     * 
+     * @param consumidor Recebe cada venda
+     * @return Número de vendas percorridas
+     * @throws SQLException se houver erro na consulta
+     */
+    public long percorrerTodas(Consumer<? super Venda> consumidor) throws SQLException {
+        String sql = "SELECT id, produto_id, cliente_id, data_venda_dia, valor_venda_centavos " +
+                     "FROM vendas ORDER BY id";
+        
+        return ConsultaStreaming.percorrer(sql, this::mapResultSetToVenda, consumidor);
+    }
+    
+    /**
+     * Percorre as vendas de um período em ordem de data, entregando uma por
+     * vez ao consumidor, sem carregar o período na memória.
+     * O consumidor não deve gravar no banco: a leitura mantém uma conexão
+     * aberta até terminar.
+     * 
+     * @param inicio Primeiro dia do período (inclusive)
+     * @param fim Último dia do período (inclusive)
+     * @param consumidor Recebe cada venda
+     * @return Número de vendas percorridas
+     * @throws SQLException se houver erro na consulta
+     */
+    public long percorrerPorPeriodo(LocalDate inicio, LocalDate fim, Consumer<? super Venda> consumidor)
+            throws SQLException {
+        String sql = "SELECT id, produto_id, cliente_id, data_venda_dia, valor_venda_centavos " +
+                     "FROM vendas WHERE data_venda_dia BETWEEN ? AND ? ORDER BY data_venda_dia, id";
+        
+        return ConsultaStreaming.percorrer(sql, this::mapResultSetToVenda, consumidor,
+                inicio.toEpochDay(), fim.toEpochDay());
+    }
+    
+    /**
+     * Busca uma página de vendas, das mais recentes para as mais antigas.
+     * 
+     * @param continuacao Token da página anterior, ou null para a primeira página
+     * @param tamanho Quantidade máxima de vendas na página
+     * @return Página de vendas
+     * @throws SQLException se houver erro na consulta
+     * @throws IllegalArgumentException se o tamanho ou o token forem inválidos
+     */
+    public Pagina<Venda> buscarPagina(String continuacao, int tamanho) throws SQLException {
+        return buscarPagina(null, continuacao, tamanho);
+    }
+    
+    /**
+     * Busca uma página das vendas de um cliente, das mais recentes para as mais antigas.
+     * 
+     * @param clienteId ID do cliente
+     * @param continuacao Token da página anterior, ou null para a primeira página
+     * @param tamanho Quantidade máxima de vendas na página
+     * @return Página de vendas do cliente
+     * @throws SQLException se houver erro na consulta
+     * @throws IllegalArgumentException se o tamanho ou o token forem inválidos
+     */
+    public Pagina<Venda> buscarPaginaPorCliente(Long clienteId, String continuacao, int tamanho) throws SQLException {
+        return buscarPagina(clienteId, continuacao, tamanho);
+    }
+    
+    /**
+     * Página ordenada por (data, id) decrescentes, pelo índice por data ou (cliente, data).
+     */
+    private Pagina<Venda> buscarPagina(Long clienteId, String continuacao, int tamanho) throws SQLException {
+        Pagina.validarTamanho(tamanho);
+        
+        List<String> condicoes = new ArrayList<>();
+        List<Long> parametros = new ArrayList<>();
+        if (clienteId != null) {
+            condicoes.add("cliente_id = ?");
+            parametros.add(clienteId);
+        }
+        if (continuacao != null) {
+            String[] chave = Continuacao.ler(continuacao, 2);
+            condicoes.add("(data_venda_dia, id) < (?, ?)");
+            parametros.add(Continuacao.lerLong(chave[0]));
+            parametros.add(Continuacao.lerLong(chave[1]));
+        }
+        parametros.add((long) tamanho + 1);
+        
+        String sql = "SELECT id, produto_id, cliente_id, data_venda_dia, valor_venda_centavos FROM vendas " +
+                     (condicoes.isEmpty() ? "" : "WHERE " + String.join(" AND ", condicoes) + " ") +
+                     "ORDER BY data_venda_dia DESC, id DESC LIMIT ?";
+        
+        List<Venda> vendas = buscarVendas(sql, parametros.stream().mapToLong(Long::longValue).toArray());
+        return Pagina.de(vendas, tamanho, v -> Continuacao.criar(v.getDataVenda().toEpochDay(), v.getId()));
+    }
+    
     /**
      * Calcula o valor total de todas as vendas.
      * 
      * @return Valor total das vendas
      * @throws SQLException se houver erro na consulta
      */
-    public BigDecimal calcularTotalVendas() throws SQLException {
-        String sql = "SELECT SUM(valor_venda) as total FROM vendas";
+    public Dinheiro calcularTotalVendas() throws SQLException {
+        String sql = "SELECT COALESCE(SUM(valor_venda_centavos), 0) as total FROM vendas";
         
         try (Connection conn = DatabaseManager.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql);
              ResultSet rs = pstmt.executeQuery()) {
             
             if (rs.next()) {
-                BigDecimal total = rs.getBigDecimal("total");
-                return total != null ? total : BigDecimal.ZERO;
+                return Dinheiro.deCentavos(rs.getLong("total"));
             }
         }
         
-        return BigDecimal.ZERO;
+        return Dinheiro.ZERO;
     }
     
     /**
@@ -123,8 +344,8 @@ public class VendaDAO {
      * @return Valor total das vendas do cliente
      * @throws SQLException se houver erro na consulta
      */
-    public BigDecimal calcularTotalVendasPorCliente(Long clienteId) throws SQLException {
-        String sql = "SELECT SUM(valor_venda) as total FROM vendas WHERE cliente_id = ?";
+    public Dinheiro calcularTotalVendasPorCliente(Long clienteId) throws SQLException {
+        String sql = "SELECT COALESCE(SUM(valor_venda_centavos), 0) as total FROM vendas WHERE cliente_id = ?";
         
         try (Connection conn = DatabaseManager.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
@@ -133,13 +354,40 @@ public class VendaDAO {
             
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
-                    BigDecimal total = rs.getBigDecimal("total");
-                    return total != null ? total : BigDecimal.ZERO;
+                    return Dinheiro.deCentavos(rs.getLong("total"));
+                }
+            }
+        }
+        
+        return Dinheiro.ZERO;
+    }
+    
+    /**
+     * Calcula o valor total das vendas de um período.
+     * 
+     * @param inicio Primeiro dia do período (inclusive)
+     * @param fim Último dia do período (inclusive)
+     * @return Valor total das vendas do período
+     * @throws SQLException se houver erro na consulta
+     */
+    public Dinheiro calcularTotalVendasPorPeriodo(LocalDate inicio, LocalDate fim) throws SQLException {
+        String sql = "SELECT COALESCE(SUM(valor_venda_centavos), 0) as total FROM vendas " +
+                     "WHERE data_venda_dia BETWEEN ? AND ?";
+        
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setLong(1, inicio.toEpochDay());
+            pstmt.setLong(2, fim.toEpochDay());
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return Dinheiro.deCentavos(rs.getLong("total"));
                 }
             }
         }
         
-        return BigDecimal.ZERO;
+        return Dinheiro.ZERO;
     }
     
     /**
@@ -154,8 +402,8 @@ public class VendaDAO {
         venda.setId(rs.getLong("id"));
         venda.setProdutoId(rs.getLong("produto_id"));
         venda.setClienteId(rs.getLong("cliente_id"));
-        venda.setDataVenda(LocalDate.parse(rs.getString("data_venda")));
-        venda.setValorVenda(rs.getBigDecimal("valor_venda"));
+        venda.setDataVenda(LocalDate.ofEpochDay(rs.getLong("data_venda_dia")));
+        venda.setValorVenda(Dinheiro.deCentavos(rs.getLong("valor_venda_centavos")).toBigDecimal());
         return venda;
     }
 }
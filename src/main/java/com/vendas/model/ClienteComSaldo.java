@@ -0,0 +1,53 @@
+package com.vendas.model;
+
+/**
+ * Cliente acompanhado dos seus totais de compras, pagamentos e saldo, para
+ * listagens que precisam mostrar quem deve sem consultar cliente por cliente.
+ */
+public class ClienteComSaldo {
+
+    private final Cliente cliente;
+    private final Dinheiro totalComprado;
+    private final Dinheiro totalPago;
+    private final Dinheiro saldo;
+
+    public ClienteComSaldo(Cliente cliente, Dinheiro totalComprado, Dinheiro totalPago, Dinheiro saldo) {
+        this.cliente = cliente;
+        this.totalComprado = totalComprado;
+        this.totalPago = totalPago;
+        this.saldo = saldo;
+    }
+
+    public Cliente getCliente() {
+        return cliente;
+    }
+
+    public Dinheiro getTotalComprado() {
+        return totalComprado;
+    }
+
+    public Dinheiro getTotalPago() {
+        return totalPago;
+    }
+
+    /**
+     * @return Total comprado menos total pago (positivo quando o cliente deve)
+     */
+    public Dinheiro getSaldo() {
+        return saldo;
+    }
+
+    public boolean isDevedor() {
+        return saldo.compareTo(Dinheiro.ZERO) > 0;
+    }
+
+    @Override
+    public String toString() {
+        return "ClienteComSaldo{" +
+                "cliente=" + cliente +
+                ", totalComprado=" + totalComprado +
+                ", totalPago=" + totalPago +
+                ", saldo=" + saldo +
+                '}';
+    }
+}
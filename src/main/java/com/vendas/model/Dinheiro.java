@@ -0,0 +1,107 @@
+package com.vendas.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Valor monetário em reais, guardado como número inteiro de centavos.
+ *
+ * É o formato usado no banco (colunas {@code *_centavos}) e nas somas feitas
+ * pelos DAOs: a aritmética é exata e não aloca BigDecimal. A conversão para
+ * BigDecimal fica restrita à borda com a interface.
+ */
+public final class Dinheiro implements Comparable<Dinheiro> {
+
+    public static final Dinheiro ZERO = new Dinheiro(0);
+
+    private final long centavos;
+
+    private Dinheiro(long centavos) {
+        this.centavos = centavos;
+    }
+
+    /**
+     * @param centavos Valor em centavos
+     * @return Valor monetário correspondente
+     */
+    public static Dinheiro deCentavos(long centavos) {
+        return centavos == 0 ? ZERO : new Dinheiro(centavos);
+    }
+
+    /**
+     * Converte um valor em reais, arredondando para o centavo mais próximo (HALF_UP).
+     *
+     * @param valor Valor em reais
+     * @return Valor monetário correspondente, ou null se o valor for null
+     * @throws ArithmeticException se o valor não couber em um long de centavos
+     */
+    public static Dinheiro de(BigDecimal valor) {
+        if (valor == null) {
+            return null;
+        }
+        return deCentavos(valor.setScale(2, RoundingMode.HALF_UP).movePointRight(2).longValueExact());
+    }
+
+    /**
+     * Converte um valor em reais para centavos; atalho para gravar no banco.
+     *
+     * @param valor Valor em reais
+     * @return Centavos arredondados (HALF_UP)
+     */
+    public static long centavosDe(BigDecimal valor) {
+        return de(valor).centavos;
+    }
+
+    public long getCentavos() {
+        return centavos;
+    }
+
+    public Dinheiro somar(Dinheiro outro) {
+        return deCentavos(Math.addExact(centavos, outro.centavos));
+    }
+
+    public Dinheiro subtrair(Dinheiro outro) {
+        return deCentavos(Math.subtractExact(centavos, outro.centavos));
+    }
+
+    public boolean isNegativo() {
+        return centavos < 0;
+    }
+
+    public boolean isZero() {
+        return centavos == 0;
+    }
+
+    /**
+     * @return Valor em reais com duas casas decimais
+     */
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(centavos, 2);
+    }
+
+    @Override
+    public int compareTo(Dinheiro outro) {
+        return Long.compare(centavos, outro.centavos);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Dinheiro)) {
+            return false;
+        }
+        return centavos == ((Dinheiro) o).centavos;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(centavos);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
@@ -12,6 +12,8 @@ public class Produto {
     private String descricao;
     private String tamanho;
     private byte[] imagem;
+    private String imagemHash;
+    private byte[] miniatura;
     private BigDecimal valorCompra;
     private LocalDate dataCompra;
     private boolean vendido;
@@ -62,6 +64,29 @@ public class Produto {
         this.imagem = imagem;
     }
     
+    /**
+     * Hash SHA-256 da imagem no armazenamento de imagens, ou null se o produto não tiver imagem.
+     */
+    public String getImagemHash() {
+        return imagemHash;
+    }
+    
+    public void setImagemHash(String imagemHash) {
+        this.imagemHash = imagemHash;
+    }
+    
+    /**
+     * Miniatura (JPEG) gerada ao normalizar a imagem no cadastro, ou null se a
+     * imagem ainda não foi normalizada. Não é carregada nas consultas.
+     */
+    public byte[] getMiniatura() {
+        return miniatura;
+    }
+    
+    public void setMiniatura(byte[] miniatura) {
+        this.miniatura = miniatura;
+    }
+    
     public BigDecimal getValorCompra() {
         return valorCompra;
     }
@@ -0,0 +1,77 @@
+package com.vendas.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Projeção de um produto para listagens, sem os bytes da imagem.
+ * A imagem, quando necessária, é carregada sob demanda pelo ID do produto.
+ */
+public class ProdutoResumo {
+
+    private final Long id;
+    private final String descricao;
+    private final String tamanho;
+    private final String imagemHash;
+    private final BigDecimal valorCompra;
+    private final LocalDate dataCompra;
+    private final boolean vendido;
+
+    public ProdutoResumo(Long id, String descricao, String tamanho, String imagemHash,
+                         BigDecimal valorCompra, LocalDate dataCompra, boolean vendido) {
+        this.id = id;
+        this.descricao = descricao;
+        this.tamanho = tamanho;
+        this.imagemHash = imagemHash;
+        this.valorCompra = valorCompra;
+        this.dataCompra = dataCompra;
+        this.vendido = vendido;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getDescricao() {
+        return descricao;
+    }
+
+    public String getTamanho() {
+        return tamanho;
+    }
+
+    /**
+     * Hash SHA-256 da imagem no armazenamento de imagens, ou null se o produto não tiver imagem.
+     */
+    public String getImagemHash() {
+        return imagemHash;
+    }
+
+    public boolean isPossuiImagem() {
+        return imagemHash != null;
+    }
+
+    public BigDecimal getValorCompra() {
+        return valorCompra;
+    }
+
+    public LocalDate getDataCompra() {
+        return dataCompra;
+    }
+
+    public boolean isVendido() {
+        return vendido;
+    }
+
+    @Override
+    public String toString() {
+        return "ProdutoResumo{" +
+                "id=" + id +
+                ", descricao='" + descricao + '\'' +
+                ", tamanho='" + tamanho + '\'' +
+                ", valorCompra=" + valorCompra +
+                ", dataCompra=" + dataCompra +
+                ", vendido=" + vendido +
+                '}';
+    }
+}
@@ -0,0 +1,66 @@
+package com.vendas.model;
+
+/**
+ * Totais do painel de gerenciamento: gastos com compras, valor recebido com
+ * vendas e o estoque disponível.
+ */
+public class ResumoFinanceiro {
+
+    private final Dinheiro totalGasto;
+    private final Dinheiro totalRecebido;
+    private final long quantidadeEmEstoque;
+    private final Dinheiro valorEmEstoque;
+
+    public ResumoFinanceiro(Dinheiro totalGasto, Dinheiro totalRecebido,
+                            long quantidadeEmEstoque, Dinheiro valorEmEstoque) {
+        this.totalGasto = totalGasto;
+        this.totalRecebido = totalRecebido;
+        this.quantidadeEmEstoque = quantidadeEmEstoque;
+        this.valorEmEstoque = valorEmEstoque;
+    }
+
+    /**
+     * @return Soma do valor de compra de todos os produtos cadastrados
+     */
+    public Dinheiro getTotalGasto() {
+        return totalGasto;
+    }
+
+    /**
+     * @return Soma do valor de todas as vendas
+     */
+    public Dinheiro getTotalRecebido() {
+        return totalRecebido;
+    }
+
+    /**
+     * @return Total recebido menos total gasto (negativo em caso de prejuízo)
+     */
+    public Dinheiro getLucro() {
+        return totalRecebido.subtrair(totalGasto);
+    }
+
+    /**
+     * @return Número de produtos ainda não vendidos
+     */
+    public long getQuantidadeEmEstoque() {
+        return quantidadeEmEstoque;
+    }
+
+    /**
+     * @return Soma do valor de compra dos produtos ainda não vendidos
+     */
+    public Dinheiro getValorEmEstoque() {
+        return valorEmEstoque;
+    }
+
+    @Override
+    public String toString() {
+        return "ResumoFinanceiro{" +
+                "totalGasto=" + totalGasto +
+                ", totalRecebido=" + totalRecebido +
+                ", quantidadeEmEstoque=" + quantidadeEmEstoque +
+                ", valorEmEstoque=" + valorEmEstoque +
+                '}';
+    }
+}
@@ -0,0 +1,55 @@
+package com.vendas.model;
+
+/**
+ * Totais acumulados de um cliente: vendas, pagamentos e saldo devedor.
+ */
+public class SaldoCliente {
+
+    private final Long clienteId;
+    private final Dinheiro totalVendas;
+    private final Dinheiro totalPago;
+    private final Dinheiro saldo;
+
+    public SaldoCliente(Long clienteId, Dinheiro totalVendas, Dinheiro totalPago, Dinheiro saldo) {
+        this.clienteId = clienteId;
+        this.totalVendas = totalVendas;
+        this.totalPago = totalPago;
+        this.saldo = saldo;
+    }
+
+    /**
+     * Saldo de um cliente sem vendas nem pagamentos.
+     */
+    public static SaldoCliente zerado(Long clienteId) {
+        return new SaldoCliente(clienteId, Dinheiro.ZERO, Dinheiro.ZERO, Dinheiro.ZERO);
+    }
+
+    public Long getClienteId() {
+        return clienteId;
+    }
+
+    public Dinheiro getTotalVendas() {
+        return totalVendas;
+    }
+
+    public Dinheiro getTotalPago() {
+        return totalPago;
+    }
+
+    /**
+     * @return Total de vendas menos total pago (positivo quando o cliente deve)
+     */
+    public Dinheiro getSaldo() {
+        return saldo;
+    }
+
+    @Override
+    public String toString() {
+        return "SaldoCliente{" +
+                "clienteId=" + clienteId +
+                ", totalVendas=" + totalVendas +
+                ", totalPago=" + totalPago +
+                ", saldo=" + saldo +
+                '}';
+    }
+}
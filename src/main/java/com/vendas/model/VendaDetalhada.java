@@ -0,0 +1,77 @@
+package com.vendas.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Venda acompanhada da descrição e do tamanho do produto vendido, para o
+ * histórico de compras de um cliente. Não inclui a imagem do produto.
+ */
+public class VendaDetalhada {
+
+    private final Long id;
+    private final Long produtoId;
+    private final Long clienteId;
+    private final LocalDate dataVenda;
+    private final BigDecimal valorVenda;
+    private final String descricaoProduto;
+    private final String tamanhoProduto;
+
+    public VendaDetalhada(Long id, Long produtoId, Long clienteId, LocalDate dataVenda, BigDecimal valorVenda,
+                          String descricaoProduto, String tamanhoProduto) {
+        this.id = id;
+        this.produtoId = produtoId;
+        this.clienteId = clienteId;
+        this.dataVenda = dataVenda;
+        this.valorVenda = valorVenda;
+        this.descricaoProduto = descricaoProduto;
+        this.tamanhoProduto = tamanhoProduto;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getProdutoId() {
+        return produtoId;
+    }
+
+    public Long getClienteId() {
+        return clienteId;
+    }
+
+    public LocalDate getDataVenda() {
+        return dataVenda;
+    }
+
+    public BigDecimal getValorVenda() {
+        return valorVenda;
+    }
+
+    /**
+     * @return Descrição do produto, ou null se o produto não existir mais
+     */
+    public String getDescricaoProduto() {
+        return descricaoProduto;
+    }
+
+    /**
+     * @return Tamanho do produto, ou null se o produto não existir mais
+     */
+    public String getTamanhoProduto() {
+        return tamanhoProduto;
+    }
+
+    @Override
+    public String toString() {
+        return "VendaDetalhada{" +
+                "id=" + id +
+                ", produtoId=" + produtoId +
+                ", clienteId=" + clienteId +
+                ", dataVenda=" + dataVenda +
+                ", valorVenda=" + valorVenda +
+                ", descricaoProduto='" + descricaoProduto + '\'' +
+                ", tamanhoProduto='" + tamanhoProduto + '\'' +
+                '}';
+    }
+}
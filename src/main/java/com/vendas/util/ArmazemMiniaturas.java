@@ -0,0 +1,378 @@
+package com.vendas.util;
+
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UTFDataFormatException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Miniaturas dos produtos gravadas em disco, para que a primeira exibição
+ * depois de abrir a aplicação não precise decodificar as imagens originais.
+ *
+ * As miniaturas ficam em dois arquivos na pasta de dados (por padrão
+ * {@code miniaturas}, ao lado do banco; configurável com
+ * {@code -Dvendas.miniaturas.pasta=<pasta>}):
+ * <ul>
+ *   <li>{@code miniaturas.dat}: os pixels (ARGB, 4 bytes por pixel) de cada
+ *       miniatura, um registro após o outro, lidos por {@link FileChannel#map};</li>
+ *   <li>{@code miniaturas.idx}: para cada miniatura, o hash da imagem original,
+ *       a posição no arquivo de pixels, as dimensões e se há transparência.</li>
+ * </ul>
+ *
+ * A chave é o hash (SHA-256) da imagem original: quando a imagem de um
+ * produto muda, o hash muda e a miniatura antiga simplesmente deixa de ser
+ * procurada. Os arquivos só crescem; ao abrir, se o arquivo de pixels passou
+ * do limite ({@code -Dvendas.miniaturas.limiteMb}, padrão 256), o armazém é
+ * recomeçado vazio e as miniaturas são recriadas conforme forem usadas.
+ *
+ * Erros de disco nunca impedem a exibição: são registrados no log e o
+ * armazém é desativado até a próxima execução.
+ */
+public final class ArmazemMiniaturas {
+
+    private static final int VERSAO = 1;
+    private static final int MAGICO = 0x4D494E49; // "MINI"
+    private static final long BYTES_POR_MB = 1024L * 1024L;
+    private static final int LADO_MAXIMO = 4096;
+
+    private static ArmazemMiniaturas instancia;
+
+    private final Path arquivoPixels;
+    private final Path arquivoIndice;
+    private final long limiteBytes;
+
+    private final Map<String, Registro> registros = new HashMap<>();
+    private FileChannel canalPixels;
+    private FileChannel canalIndice;
+    private DataOutputStream saidaIndice;
+    private MappedByteBuffer mapeado;
+    private long tamanhoPixels;
+    private boolean aberto;
+    private boolean desativado;
+
+    /**
+     * Cria um armazém em uma pasta própria. A aplicação usa
+     * {@link #getInstancia()}; este construtor serve aos testes.
+     *
+     * @param pasta Pasta dos arquivos de miniaturas
+     * @param limiteBytes Tamanho máximo do arquivo de pixels
+     */
+    public ArmazemMiniaturas(Path pasta, long limiteBytes) {
+        this.arquivoPixels = pasta.resolve("miniaturas.dat");
+        this.arquivoIndice = pasta.resolve("miniaturas.idx");
+        // Um único mapeamento cobre no máximo 2 GB
+        this.limiteBytes = Math.min(limiteBytes, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Retorna o armazém da aplicação, criado na primeira chamada ao lado do
+     * arquivo de banco configurado nesse momento.
+     */
+    public static synchronized ArmazemMiniaturas getInstancia() {
+        if (instancia == null) {
+            instancia = new ArmazemMiniaturas(pastaPadrao(),
+                    Long.getLong("vendas.miniaturas.limiteMb", 256L) * BYTES_POR_MB);
+        }
+        return instancia;
+    }
+
+    /**
+     * Pasta de {@code vendas.miniaturas.pasta} ou, sem ela, a pasta
+     * {@code miniaturas} ao lado do banco, e não no diretório de trabalho.
+     */
+    private static Path pastaPadrao() {
+        String configurada = System.getProperty("vendas.miniaturas.pasta");
+        if (configurada != null) {
+            return Paths.get(configurada);
+        }
+        return Paths.get(DatabaseManager.getArquivo()).toAbsolutePath().resolveSibling("miniaturas");
+    }
+
+    /**
+     * Lê a miniatura de uma imagem.
+     *
+     * @param hash Hash da imagem original
+     * @return Miniatura, ou null se não estiver gravada
+     */
+    public synchronized BufferedImage ler(String hash) {
+        if (hash == null || !abrir()) {
+            return null;
+        }
+        Registro registro = registros.get(hash);
+        if (registro == null) {
+            return null;
+        }
+
+        try {
+            long fim = registro.posicao + registro.bytes();
+            if (mapeado == null || fim > mapeado.capacity()) {
+                // O arquivo cresceu desde o último mapeamento
+                mapeado = canalPixels.map(FileChannel.MapMode.READ_ONLY, 0, tamanhoPixels);
+            }
+
+            int[] pixels = new int[registro.largura * registro.altura];
+            ByteBuffer trecho = mapeado.duplicate();
+            trecho.position((int) registro.posicao);
+            trecho.asIntBuffer().get(pixels);
+
+            BufferedImage miniatura = new BufferedImage(registro.largura, registro.altura,
+                    registro.alfa ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+            miniatura.getRaster().setDataElements(0, 0, registro.largura, registro.altura, pixels);
+            return miniatura;
+        } catch (IOException | RuntimeException e) {
+            desativar("Erro ao ler miniatura gravada", e);
+            return null;
+        }
+    }
+
+    /**
+     * Grava a miniatura de uma imagem, se ainda não estiver gravada e houver
+     * espaço dentro do limite.
+     *
+     * @param hash Hash da imagem original
+     * @param miniatura Miniatura a gravar
+     */
+    public synchronized void gravar(String hash, BufferedImage miniatura) {
+        if (hash == null || registros.containsKey(hash) || !abrir()) {
+            return;
+        }
+        int largura = miniatura.getWidth();
+        int altura = miniatura.getHeight();
+        Registro registro = new Registro(tamanhoPixels, largura, altura, miniatura.getColorModel().hasAlpha());
+        if (tamanhoPixels + registro.bytes() > limiteBytes) {
+            return;
+        }
+
+        try {
+            ByteBuffer buffer = ByteBuffer.allocate((int) registro.bytes());
+            IntBuffer pixels = buffer.asIntBuffer();
+            pixels.put(miniatura.getRGB(0, 0, largura, altura, null, 0, largura));
+            while (buffer.hasRemaining()) {
+                canalPixels.write(buffer, tamanhoPixels + buffer.position());
+            }
+
+            // O índice só é gravado depois dos pixels: uma gravação
+            // interrompida deixa pixels sobrando, nunca um índice inválido.
+            // A ordem no disco só é garantida em fechar(), para não pagar
+            // uma sincronização por miniatura
+            saidaIndice.writeUTF(hash);
+            saidaIndice.writeLong(registro.posicao);
+            saidaIndice.writeInt(largura);
+            saidaIndice.writeInt(altura);
+            saidaIndice.writeBoolean(registro.alfa);
+            saidaIndice.flush();
+
+            tamanhoPixels += registro.bytes();
+            registros.put(hash, registro);
+        } catch (IOException | RuntimeException e) {
+            desativar("Erro ao gravar miniatura", e);
+        }
+    }
+
+    /**
+     * @return Número de miniaturas gravadas
+     */
+    public synchronized int tamanho() {
+        return abrir() ? registros.size() : 0;
+    }
+
+    /**
+     * Sincroniza e fecha os arquivos. Chamado ao encerrar a aplicação.
+     */
+    public synchronized void fechar() {
+        if (aberto) {
+            try {
+                // Pixels antes do índice: o índice salvo nunca aponta para
+                // pixels que ainda estavam só no cache do sistema
+                canalPixels.force(false);
+                saidaIndice.flush();
+                canalIndice.force(false);
+            } catch (IOException e) {
+                ExceptionHandler.logAviso("Erro ao sincronizar o armazém de miniaturas: " + e.getMessage());
+            }
+        }
+        fecharArquivos();
+        aberto = false;
+    }
+
+    /**
+     * Abre os arquivos e carrega o índice na primeira chamada.
+     *
+     * @return false se o armazém estiver desativado
+     */
+    private boolean abrir() {
+        if (aberto || desativado) {
+            return aberto;
+        }
+        try {
+            Files.createDirectories(arquivoPixels.getParent());
+            if (Files.exists(arquivoPixels) && Files.size(arquivoPixels) > limiteBytes) {
+                ExceptionHandler.logInfo("Armazém de miniaturas passou do limite; recomeçando vazio");
+                Files.deleteIfExists(arquivoIndice);
+                Files.deleteIfExists(arquivoPixels);
+            }
+
+            canalPixels = FileChannel.open(arquivoPixels, StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            tamanhoPixels = canalPixels.size();
+            long tamanhoIndice = carregarIndice();
+
+            // Descarta um registro incompleto no fim do índice, se houver
+            canalIndice = FileChannel.open(arquivoIndice, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE);
+            canalIndice.truncate(tamanhoIndice);
+            canalIndice.position(tamanhoIndice);
+            saidaIndice = new DataOutputStream(Channels.newOutputStream(canalIndice));
+            if (tamanhoIndice == 0) {
+                saidaIndice.writeInt(MAGICO);
+                saidaIndice.writeInt(VERSAO);
+                saidaIndice.flush();
+            }
+
+            aberto = true;
+            ExceptionHandler.logInfo("Armazém de miniaturas aberto: " + registros.size() + " miniaturas");
+        } catch (IOException | RuntimeException e) {
+            desativar("Erro ao abrir o armazém de miniaturas", e);
+        }
+        return aberto;
+    }
+
+    /**
+     * Lê o índice, ignorando registros que apontam para além do arquivo de pixels.
+     *
+     * @return Tamanho da parte válida do índice, em bytes (0 se ele não existir
+     *         ou for de outra versão)
+     */
+    private long carregarIndice() throws IOException {
+        registros.clear();
+        if (!Files.exists(arquivoIndice)) {
+            return 0;
+        }
+
+        long valido = 0;
+        try (InputStream arquivo = Files.newInputStream(arquivoIndice);
+             ContadorEntrada contador = new ContadorEntrada(new BufferedInputStream(arquivo));
+             DataInputStream entrada = new DataInputStream(contador)) {
+            if (entrada.readInt() != MAGICO || entrada.readInt() != VERSAO) {
+                // Formato desconhecido: recomeça, descartando também os pixels
+                canalPixels.truncate(0);
+                tamanhoPixels = 0;
+                return 0;
+            }
+            valido = contador.lidos;
+
+            while (true) {
+                String hash = entrada.readUTF();
+                Registro registro = new Registro(entrada.readLong(), entrada.readInt(), entrada.readInt(),
+                        entrada.readBoolean());
+                if (!registro.valido() || registro.posicao + registro.bytes() > tamanhoPixels) {
+                    break;
+                }
+                registros.put(hash, registro);
+                valido = contador.lidos;
+            }
+        } catch (EOFException | UTFDataFormatException e) {
+            // Fim do índice (ou registro incompleto, descartado)
+        }
+        return valido;
+    }
+
+    private void desativar(String mensagem, Exception e) {
+        ExceptionHandler.logAviso(mensagem + ": " + e.getMessage() + ". Miniaturas em disco desativadas.");
+        fecharArquivos();
+        aberto = false;
+        desativado = true;
+    }
+
+    private void fecharArquivos() {
+        mapeado = null;
+        registros.clear();
+        try {
+            if (saidaIndice != null) {
+                saidaIndice.close();
+            } else if (canalIndice != null) {
+                canalIndice.close();
+            }
+            if (canalPixels != null) {
+                canalPixels.close();
+            }
+        } catch (IOException e) {
+            ExceptionHandler.logAviso("Erro ao fechar o armazém de miniaturas: " + e.getMessage());
+        } finally {
+            saidaIndice = null;
+            canalIndice = null;
+            canalPixels = null;
+        }
+    }
+
+    /**
+     * Posição e formato de uma miniatura no arquivo de pixels.
+     */
+    private static final class Registro {
+        final long posicao;
+        final int largura;
+        final int altura;
+        final boolean alfa;
+
+        Registro(long posicao, int largura, int altura, boolean alfa) {
+            this.posicao = posicao;
+            this.largura = largura;
+            this.altura = altura;
+            this.alfa = alfa;
+        }
+
+        long bytes() {
+            return 4L * largura * altura;
+        }
+
+        boolean valido() {
+            return posicao >= 0 && largura > 0 && altura > 0
+                    && largura <= LADO_MAXIMO && altura <= LADO_MAXIMO;
+        }
+    }
+
+    /**
+     * Conta os bytes lidos, para saber onde termina o último registro completo.
+     */
+    private static final class ContadorEntrada extends FilterInputStream {
+        long lidos;
+
+        ContadorEntrada(InputStream entrada) {
+            super(entrada);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int lido = super.read();
+            if (lido >= 0) {
+                lidos++;
+            }
+            return lido;
+        }
+
+        @Override
+        public int read(byte[] b, int inicio, int tamanho) throws IOException {
+            int lido = super.read(b, inicio, tamanho);
+            if (lido > 0) {
+                lidos += lido;
+            }
+            return lido;
+        }
+    }
+}
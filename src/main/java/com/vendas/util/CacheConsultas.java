@@ -0,0 +1,203 @@
+package com.vendas.util;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache de resultados de consultas, marcados pelas tabelas que cada consulta lê.
+ *
+ * Uma alteração confirmada em uma tabela (avisada por {@link EventosBanco})
+ * descarta todos os resultados marcados com ela, qualquer que seja a linha
+ * alterada, pois totais e listagens dependem da tabela inteira. Opcionalmente
+ * os resultados também expiram após um tempo máximo, para enxergar gravações
+ * feitas por outros terminais. Quando a capacidade é excedida, o resultado
+ * usado há mais tempo é descartado.
+ *
+ * Os resultados são compartilhados entre os chamadores e não devem ser
+ * alterados. Pode ser usado por várias threads.
+ */
+public class CacheConsultas {
+
+    /**
+     * Consulta executada quando o resultado não está no cache.
+     *
+     * @param <V> Tipo do resultado
+     */
+    @FunctionalInterface
+    public interface Consulta<V> {
+        V executar() throws SQLException;
+    }
+
+    private final int capacidade;
+    private final long validadeMs;
+    private final LinkedHashMap<String, Entrada> resultados;
+    private final Map<String, Set<String>> chavesPorTabela = new HashMap<>();
+    private long geracao;
+
+    private final AtomicLong acertos = new AtomicLong();
+    private final AtomicLong falhas = new AtomicLong();
+    private final AtomicLong remocoes = new AtomicLong();
+    private final AtomicLong invalidacoes = new AtomicLong();
+
+    /**
+     * Cria o cache e o registra em {@link EventosBanco}.
+     *
+     * @param capacidade Número máximo de resultados mantidos
+     * @param validadeMs Tempo máximo de um resultado no cache, em milissegundos
+     *        (0 para manter até a próxima alteração das tabelas)
+     */
+    public CacheConsultas(int capacidade, long validadeMs) {
+        if (capacidade <= 0) {
+            throw new IllegalArgumentException("A capacidade do cache deve ser positiva");
+        }
+        if (validadeMs < 0) {
+            throw new IllegalArgumentException("A validade do cache não pode ser negativa");
+        }
+        this.capacidade = capacidade;
+        this.validadeMs = validadeMs;
+        this.resultados = new LinkedHashMap<String, Entrada>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entrada> maisAntigo) {
+                if (size() > CacheConsultas.this.capacidade) {
+                    remocoes.incrementAndGet();
+                    desmarcar(maisAntigo.getKey(), maisAntigo.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+        EventosBanco.registrar(this::aoAlterar);
+    }
+
+    /**
+     * Devolve o resultado guardado para a chave ou executa a consulta e o guarda.
+     *
+     * @param chave Identificação da consulta e de seus parâmetros
+     * @param consulta Consulta ao banco
+     * @param tabelas Tabelas lidas pela consulta
+     * @param <V> Tipo do resultado
+     * @return Resultado da consulta
+     * @throws SQLException se a consulta falhar
+     */
+    @SuppressWarnings("unchecked")
+    public <V> V obter(String chave, Consulta<V> consulta, String... tabelas) throws SQLException {
+        long geracaoLeitura;
+        synchronized (this) {
+            Entrada entrada = resultados.get(chave);
+            if (entrada != null && !expirada(entrada)) {
+                acertos.incrementAndGet();
+                return (V) entrada.valor;
+            }
+            if (entrada != null) {
+                resultados.remove(chave);
+                desmarcar(chave, entrada);
+            }
+            falhas.incrementAndGet();
+            geracaoLeitura = geracao;
+        }
+
+        // A consulta roda fora do bloqueio; se uma tabela mudou nesse meio
+        // tempo, o resultado é devolvido mas não guardado
+        V valor = consulta.executar();
+        synchronized (this) {
+            if (geracaoLeitura == geracao) {
+                Entrada entrada = new Entrada(valor, Arrays.asList(tabelas), System.currentTimeMillis());
+                Entrada anterior = resultados.put(chave, entrada);
+                if (anterior != null) {
+                    desmarcar(chave, anterior);
+                }
+                for (String tabela : tabelas) {
+                    chavesPorTabela.computeIfAbsent(tabela, t -> new HashSet<>()).add(chave);
+                }
+            }
+        }
+        return valor;
+    }
+
+    /**
+     * Descarta os resultados que leem a tabela.
+     *
+     * @param tabela Nome da tabela alterada
+     */
+    public synchronized void invalidar(String tabela) {
+        geracao++;
+        Set<String> chaves = chavesPorTabela.remove(tabela);
+        if (chaves == null) {
+            return;
+        }
+        invalidacoes.incrementAndGet();
+        for (String chave : chaves) {
+            Entrada entrada = resultados.remove(chave);
+            if (entrada != null) {
+                desmarcar(chave, entrada);
+            }
+        }
+    }
+
+    /**
+     * Descarta todos os resultados.
+     */
+    public synchronized void limpar() {
+        geracao++;
+        invalidacoes.incrementAndGet();
+        resultados.clear();
+        chavesPorTabela.clear();
+    }
+
+    /**
+     * @return Número de resultados guardados
+     */
+    public synchronized int tamanho() {
+        return resultados.size();
+    }
+
+    /**
+     * @return Contadores acumulados desde a criação do cache
+     */
+    public synchronized CacheLRU.Estatisticas getEstatisticas() {
+        return new CacheLRU.Estatisticas("consultas", resultados.size(), resultados.size(), capacidade, acertos.get(),
+                falhas.get(), remocoes.get(), invalidacoes.get());
+    }
+
+    private void aoAlterar(String tabela, Set<Long> ids) {
+        invalidar(tabela);
+    }
+
+    private boolean expirada(Entrada entrada) {
+        return validadeMs > 0 && System.currentTimeMillis() - entrada.criadaEm > validadeMs;
+    }
+
+    /**
+     * Tira a chave dos índices das tabelas que o resultado lia.
+     */
+    private void desmarcar(String chave, Entrada entrada) {
+        for (String tabela : entrada.tabelas) {
+            Set<String> chaves = chavesPorTabela.get(tabela);
+            if (chaves != null) {
+                chaves.remove(chave);
+                if (chaves.isEmpty()) {
+                    chavesPorTabela.remove(tabela);
+                }
+            }
+        }
+    }
+
+    private static final class Entrada {
+        final Object valor;
+        final List<String> tabelas;
+        final long criadaEm;
+
+        Entrada(Object valor, List<String> tabelas, long criadaEm) {
+            this.valor = valor;
+            this.tabelas = tabelas;
+            this.criadaEm = criadaEm;
+        }
+    }
+}
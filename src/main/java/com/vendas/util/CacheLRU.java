@@ -0,0 +1,259 @@
+package com.vendas.util;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToLongFunction;
+
+/**
+ * Cache em memória de tamanho limitado, com remoção do item usado há mais tempo.
+ *
+ * O limite é o número de itens ou, com uma função de peso, a soma dos pesos
+ * (por exemplo, bytes de pixels de imagens).
+ *
+ * Quem consulta o banco após uma falha deve ler a {@link #getGeracao() geração}
+ * antes da consulta e passá-la a {@link #colocar(Object, Object, long)}: se
+ * houve uma invalidação nesse meio tempo, o valor lido pode estar desatualizado
+ * e não é guardado. Pode ser usado por várias threads.
+ *
+ * @param <K> Tipo das chaves
+ * @param <V> Tipo dos valores
+ */
+public class CacheLRU<K, V> {
+
+    private final String nome;
+    private final long capacidade;
+    private final ToLongFunction<? super V> peso;
+    private final LinkedHashMap<K, V> itens = new LinkedHashMap<>(16, 0.75f, true);
+    private long pesoTotal;
+    private long geracao;
+
+    private final AtomicLong acertos = new AtomicLong();
+    private final AtomicLong falhas = new AtomicLong();
+    private final AtomicLong remocoes = new AtomicLong();
+    private final AtomicLong invalidacoes = new AtomicLong();
+
+    /**
+     * @param nome Nome do cache, usado nas estatísticas
+     * @param capacidade Número máximo de itens mantidos
+     */
+    public CacheLRU(String nome, int capacidade) {
+        this(nome, capacidade, valor -> 1);
+    }
+
+    /**
+     * @param nome Nome do cache, usado nas estatísticas
+     * @param capacidade Soma máxima dos pesos dos itens mantidos
+     * @param peso Peso de cada item
+     */
+    public CacheLRU(String nome, long capacidade, ToLongFunction<? super V> peso) {
+        if (capacidade <= 0) {
+            throw new IllegalArgumentException("A capacidade do cache deve ser positiva");
+        }
+        this.nome = nome;
+        this.capacidade = capacidade;
+        this.peso = peso;
+    }
+
+    /**
+     * Obtém um item e o marca como usado agora.
+     *
+     * @param chave Chave do item
+     * @return Item guardado, ou null se não estiver no cache
+     */
+    public synchronized V obter(K chave) {
+        V valor = itens.get(chave);
+        if (valor != null) {
+            acertos.incrementAndGet();
+        } else {
+            falhas.incrementAndGet();
+        }
+        return valor;
+    }
+
+    /**
+     * Obtém os itens guardados de várias chaves.
+     *
+     * @param chaves Chaves procuradas
+     * @param faltantes Recebe as chaves que não estão no cache
+     * @return Itens encontrados, por chave
+     */
+    public synchronized Map<K, V> obterTodos(Collection<K> chaves, Collection<K> faltantes) {
+        Map<K, V> encontrados = new HashMap<>();
+        for (K chave : chaves) {
+            V valor = obter(chave);
+            if (valor != null) {
+                encontrados.put(chave, valor);
+            } else {
+                faltantes.add(chave);
+            }
+        }
+        return encontrados;
+    }
+
+    /**
+     * @return Contador de invalidações, para {@link #colocar(Object, Object, long)}
+     */
+    public synchronized long getGeracao() {
+        return geracao;
+    }
+
+    /**
+     * Guarda um item lido do banco, se não houve invalidação desde a leitura.
+     *
+     * @param chave Chave do item
+     * @param valor Item (null não é guardado)
+     * @param geracaoLeitura Valor de {@link #getGeracao()} antes da leitura
+     */
+    public synchronized void colocar(K chave, V valor, long geracaoLeitura) {
+        if (valor == null || geracaoLeitura != geracao) {
+            return;
+        }
+        long pesoValor = peso.applyAsLong(valor);
+        if (pesoValor > capacidade) {
+            // Não cabe nem sozinho: não vale esvaziar o cache por ele, mas o
+            // valor anterior da chave deixa de valer
+            V anterior = itens.remove(chave);
+            if (anterior != null) {
+                pesoTotal -= peso.applyAsLong(anterior);
+            }
+            return;
+        }
+        V anterior = itens.put(chave, valor);
+        if (anterior != null) {
+            pesoTotal -= peso.applyAsLong(anterior);
+        }
+        pesoTotal += pesoValor;
+
+        // Remove os usados há mais tempo até caber
+        Iterator<V> maisAntigos = itens.values().iterator();
+        while (pesoTotal > capacidade && maisAntigos.hasNext()) {
+            pesoTotal -= peso.applyAsLong(maisAntigos.next());
+            maisAntigos.remove();
+            remocoes.incrementAndGet();
+        }
+    }
+
+    /**
+     * Descarta os itens de algumas chaves.
+     *
+     * @param chaves Chaves alteradas
+     */
+    public synchronized void remover(Collection<K> chaves) {
+        geracao++;
+        invalidacoes.incrementAndGet();
+        for (K chave : chaves) {
+            V removido = itens.remove(chave);
+            if (removido != null) {
+                pesoTotal -= peso.applyAsLong(removido);
+            }
+        }
+    }
+
+    /**
+     * Descarta todos os itens.
+     */
+    public synchronized void limpar() {
+        geracao++;
+        invalidacoes.incrementAndGet();
+        itens.clear();
+        pesoTotal = 0;
+    }
+
+    /**
+     * @return Número de itens guardados
+     */
+    public synchronized int tamanho() {
+        return itens.size();
+    }
+
+    /**
+     * @return Contadores acumulados desde a criação do cache
+     */
+    public synchronized Estatisticas getEstatisticas() {
+        return new Estatisticas(nome, itens.size(), pesoTotal, capacidade, acertos.get(), falhas.get(),
+                remocoes.get(), invalidacoes.get());
+    }
+
+    /**
+     * Fotografia dos contadores de um cache.
+     */
+    public static class Estatisticas {
+        private final String nome;
+        private final int tamanho;
+        private final long ocupacao;
+        private final long capacidade;
+        private final long acertos;
+        private final long falhas;
+        private final long remocoes;
+        private final long invalidacoes;
+
+        Estatisticas(String nome, int tamanho, long ocupacao, long capacidade, long acertos, long falhas,
+                     long remocoes, long invalidacoes) {
+            this.nome = nome;
+            this.tamanho = tamanho;
+            this.ocupacao = ocupacao;
+            this.capacidade = capacidade;
+            this.acertos = acertos;
+            this.falhas = falhas;
+            this.remocoes = remocoes;
+            this.invalidacoes = invalidacoes;
+        }
+
+        public String getNome() {
+            return nome;
+        }
+
+        public int getTamanho() {
+            return tamanho;
+        }
+
+        /**
+         * @return Soma dos pesos dos itens (igual ao tamanho quando não há função de peso)
+         */
+        public long getOcupacao() {
+            return ocupacao;
+        }
+
+        public long getCapacidade() {
+            return capacidade;
+        }
+
+        public long getAcertos() {
+            return acertos;
+        }
+
+        public long getFalhas() {
+            return falhas;
+        }
+
+        public long getRemocoes() {
+            return remocoes;
+        }
+
+        public long getInvalidacoes() {
+            return invalidacoes;
+        }
+
+        /**
+         * Proporção de consultas atendidas sem ir ao banco.
+         *
+         * @return Valor entre 0 e 1
+         */
+        public double getTaxaAcertos() {
+            long pedidos = acertos + falhas;
+            return pedidos == 0 ? 0 : (double) acertos / pedidos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Cache %s{itens=%d, ocupacao=%d/%d, acertos=%d, falhas=%d, remocoes=%d, " +
+                            "invalidacoes=%d, taxa=%.1f%%}",
+                    nome, tamanho, ocupacao, capacidade, acertos, falhas, remocoes, invalidacoes,
+                    getTaxaAcertos() * 100);
+        }
+    }
+}
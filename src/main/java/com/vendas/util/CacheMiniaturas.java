@@ -0,0 +1,170 @@
+package com.vendas.util;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Objects;
+import javax.imageio.ImageIO;
+
+/**
+ * Miniaturas das imagens dos produtos, prontas para desenhar, compartilhadas
+ * por todas as telas.
+ *
+ * Cada miniatura cabe em {@link #LADO}×{@link #LADO} pixels, mantendo a
+ * proporção, e é guardada pelo ID do produto e pelo hash da imagem: trocar a
+ * imagem muda a chave, e a miniatura antiga sai do cache por falta de uso. O
+ * cache é limitado pelos bytes de pixels (4 por pixel), configuráveis com a
+ * propriedade de sistema {@code -Dvendas.cache.miniaturasMb=<MB>}.
+ *
+ * Decodificar e reduzir a imagem é lento para a thread de eventos do Swing;
+ * {@link #criar(Long, String, byte[])} deve ser chamado em segundo plano e
+ * {@link #obter(Long, String)} pode ser chamado em qualquer thread.
+ */
+public final class CacheMiniaturas {
+
+    /** Largura e altura máximas das miniaturas, em pixels. */
+    public static final int LADO = 180;
+
+    private static final long BYTES_POR_MB = 1024L * 1024L;
+    private static final int BYTES_POR_PIXEL = 4;
+
+    private static final CacheMiniaturas INSTANCIA = new CacheMiniaturas(
+            Long.getLong("vendas.cache.miniaturasMb", 16L) * BYTES_POR_MB);
+
+    private final CacheLRU<Chave, BufferedImage> miniaturas;
+
+    private CacheMiniaturas(long limiteBytes) {
+        this.miniaturas = new CacheLRU<>("miniaturas", limiteBytes,
+                imagem -> (long) imagem.getWidth() * imagem.getHeight() * BYTES_POR_PIXEL);
+    }
+
+    public static CacheMiniaturas getInstancia() {
+        return INSTANCIA;
+    }
+
+    /**
+     * Obtém uma miniatura já pronta.
+     *
+     * @param produtoId ID do produto
+     * @param hash Hash da imagem do produto
+     * @return Miniatura, ou null se ainda não foi criada
+     */
+    public BufferedImage obter(Long produtoId, String hash) {
+        return miniaturas.obter(new Chave(produtoId, hash));
+    }
+
+    /**
+     * Decodifica a imagem, reduz para o tamanho da miniatura e a guarda.
+     *
+     * @param produtoId ID do produto
+     * @param hash Hash da imagem do produto
+     * @param imagem Bytes da imagem (JPEG, PNG, GIF ou BMP)
+     * @return Miniatura, ou null se os bytes não forem uma imagem reconhecida
+     * @throws IOException se houver erro ao decodificar a imagem
+     */
+    public BufferedImage criar(Long produtoId, String hash, byte[] imagem) throws IOException {
+        BufferedImage original = ImageIO.read(new ByteArrayInputStream(imagem));
+        if (original == null) {
+            return null;
+        }
+        BufferedImage miniatura = reduzir(original, LADO);
+        guardar(produtoId, hash, miniatura);
+        return miniatura;
+    }
+
+    /**
+     * Guarda uma miniatura criada em outro lugar.
+     *
+     * @param produtoId ID do produto
+     * @param hash Hash da imagem do produto
+     * @param miniatura Miniatura de até {@link #LADO}×{@link #LADO} pixels
+     */
+    public void guardar(Long produtoId, String hash, BufferedImage miniatura) {
+        miniaturas.colocar(new Chave(produtoId, hash), miniatura, miniaturas.getGeracao());
+    }
+
+    /**
+     * Descarta todas as miniaturas.
+     */
+    public void limpar() {
+        miniaturas.limpar();
+    }
+
+    /**
+     * @return Contadores do cache (a ocupação é em bytes de pixels)
+     */
+    public CacheLRU.Estatisticas getEstatisticas() {
+        return miniaturas.getEstatisticas();
+    }
+
+    /**
+     * Reduz uma imagem para caber em um quadrado, mantendo a proporção.
+     * A redução é feita pela metade a cada passo, com interpolação bilinear,
+     * o que dá qualidade próxima à de {@code SCALE_SMOOTH} em bem menos tempo.
+     * Imagens menores que o quadrado não são ampliadas.
+     *
+     * @param original Imagem decodificada
+     * @param lado Largura e altura máximas
+     * @return Imagem em formato de pixels inteiros (RGB ou ARGB), pronta para desenhar
+     */
+    public static BufferedImage reduzir(BufferedImage original, int lado) {
+        double proporcao = Math.min(1.0, Math.min(
+                (double) lado / original.getWidth(), (double) lado / original.getHeight()));
+        int larguraFinal = Math.max(1, (int) Math.round(original.getWidth() * proporcao));
+        int alturaFinal = Math.max(1, (int) Math.round(original.getHeight() * proporcao));
+        int tipo = original.getTransparency() == Transparency.OPAQUE
+                ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB;
+
+        BufferedImage atual = original;
+        int largura = original.getWidth();
+        int altura = original.getHeight();
+        do {
+            largura = Math.max(larguraFinal, largura / 2);
+            altura = Math.max(alturaFinal, altura / 2);
+
+            BufferedImage passo = new BufferedImage(largura, altura, tipo);
+            Graphics2D g = passo.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.drawImage(atual, 0, 0, largura, altura, null);
+            } finally {
+                g.dispose();
+            }
+            atual = passo;
+        } while (largura != larguraFinal || altura != alturaFinal);
+        return atual;
+    }
+
+    /**
+     * Chave de uma miniatura: produto e hash da imagem.
+     */
+    private static final class Chave {
+        private final Long produtoId;
+        private final String hash;
+
+        Chave(Long produtoId, String hash) {
+            this.produtoId = produtoId;
+            this.hash = hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Chave)) {
+                return false;
+            }
+            Chave outra = (Chave) o;
+            return Objects.equals(produtoId, outra.produtoId) && Objects.equals(hash, outra.hash);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Objects.hashCode(produtoId) + Objects.hashCode(hash);
+        }
+    }
+}
@@ -0,0 +1,546 @@
+package com.vendas.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pool limitado de conexões JDBC.
+ *
+ * As conexões emprestadas são proxies: chamar {@code close()} devolve a conexão
+ * física ao pool em vez de fechá-la, o que permite aos DAOs continuarem usando
+ * try-with-resources normalmente. O pool valida conexões ociosas antes de
+ * emprestá-las, remove periodicamente as que ficaram ociosas por muito tempo
+ * e mantém métricas de uso (tempo de espera, conexões ativas, etc.).
+ *
+ * Cada conexão física mantém um {@link StatementCache}: {@code prepareStatement}
+ * com o mesmo SQL reaproveita o statement já preparado naquela conexão.
+ */
+public class ConnectionPool {
+
+    private final String url;
+    private final Configuracao config;
+    private final String[] comandosIniciais;
+
+    private final Semaphore permissoes;
+    private final LinkedBlockingDeque<ConexaoFisica> ociosas = new LinkedBlockingDeque<>();
+    private final ScheduledExecutorService limpador;
+    private volatile boolean fechado;
+
+    // Métricas
+    private final AtomicInteger ativas = new AtomicInteger();
+    private final AtomicInteger total = new AtomicInteger();
+    private final AtomicLong emprestimos = new AtomicLong();
+    private final AtomicLong tempoEsperaTotalNanos = new AtomicLong();
+    private final AtomicLong tempoEsperaMaximoNanos = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong criadas = new AtomicLong();
+    private final AtomicLong descartadas = new AtomicLong();
+    private final StatementCache.Metricas metricasCache = new StatementCache.Metricas();
+
+    /**
+     * Cria um novo pool de conexões.
+     *
+     * @param url URL JDBC do banco de dados
+     * @param config Configuração do pool
+     * @param comandosIniciais Comandos SQL executados em cada nova conexão física (ex: PRAGMAs)
+     */
+    public ConnectionPool(String url, Configuracao config, String... comandosIniciais) {
+        this.url = url;
+        this.config = config;
+        this.comandosIniciais = comandosIniciais;
+        this.permissoes = new Semaphore(config.getTamanhoMaximo(), true);
+
+        this.limpador = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "pool-conexoes-limpeza");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalo = Math.max(1000, config.getTempoMaximoOciosoMs() / 2);
+        limpador.scheduleWithFixedDelay(this::removerOciosas, intervalo, intervalo, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Empresta uma conexão do pool, aguardando até o tempo máximo configurado
+     * caso todas estejam em uso.
+     *
+     * @return Conexão emprestada; deve ser fechada para voltar ao pool
+     * @throws SQLException se o pool estiver fechado, se o tempo de espera esgotar
+     *         ou se houver erro ao abrir uma nova conexão
+     */
+    public Connection obterConexao() throws SQLException {
+        if (fechado) {
+            throw new SQLException("O pool de conexões está fechado");
+        }
+
+        long inicio = System.nanoTime();
+        try {
+            if (!permissoes.tryAcquire(config.getTempoMaximoEsperaMs(), TimeUnit.MILLISECONDS)) {
+                timeouts.incrementAndGet();
+                throw new SQLException("Tempo esgotado aguardando conexão livre no pool (" +
+                        config.getTempoMaximoEsperaMs() + " ms)");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrompido aguardando conexão do pool", e);
+        }
+
+        try {
+            ConexaoFisica fisica = obterOuCriar();
+            registrarEspera(System.nanoTime() - inicio);
+            ativas.incrementAndGet();
+            return fisica.emprestar();
+        } catch (SQLException | RuntimeException e) {
+            permissoes.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Retorna uma conexão ociosa válida ou abre uma nova.
+     * As ociosas são usadas em ordem LIFO para manter as mais recentes "quentes".
+     */
+    private ConexaoFisica obterOuCriar() throws SQLException {
+        ConexaoFisica fisica;
+        while ((fisica = ociosas.pollFirst()) != null) {
+            if (fisica.precisaValidar() && !fisica.isValida()) {
+                descartar(fisica);
+                continue;
+            }
+            return fisica;
+        }
+        return criar();
+    }
+
+    private ConexaoFisica criar() throws SQLException {
+        Connection conn = DriverManager.getConnection(url);
+        try (Statement stmt = conn.createStatement()) {
+            for (String comando : comandosIniciais) {
+                stmt.execute(comando);
+            }
+        } catch (SQLException e) {
+            conn.close();
+            throw e;
+        }
+        criadas.incrementAndGet();
+        total.incrementAndGet();
+        return new ConexaoFisica(conn);
+    }
+
+    /**
+     * Recebe de volta uma conexão emprestada, restaurando seu estado padrão.
+     */
+    private void devolver(ConexaoFisica fisica) {
+        ativas.decrementAndGet();
+        try {
+            boolean reutilizavel = !fechado && fisica.restaurarEstado();
+            if (reutilizavel) {
+                fisica.ultimoUso = System.currentTimeMillis();
+                ociosas.offerFirst(fisica);
+            } else {
+                descartar(fisica);
+            }
+        } finally {
+            permissoes.release();
+        }
+    }
+
+    private void descartar(ConexaoFisica fisica) {
+        total.decrementAndGet();
+        descartadas.incrementAndGet();
+        try {
+            if (fisica.statements != null) {
+                fisica.statements.fechar();
+            }
+            fisica.conexao.close();
+        } catch (SQLException e) {
+            ExceptionHandler.logAviso("Erro ao fechar conexão descartada do pool: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Remove conexões ociosas há mais tempo que o limite configurado,
+     * preservando o mínimo de conexões ociosas.
+     */
+    private void removerOciosas() {
+        long limite = System.currentTimeMillis() - config.getTempoMaximoOciosoMs();
+        Iterator<ConexaoFisica> it = ociosas.descendingIterator();
+        while (it.hasNext() && ociosas.size() > config.getMinimoOcioso()) {
+            ConexaoFisica fisica = it.next();
+            if (fisica.ultimoUso < limite && ociosas.remove(fisica)) {
+                descartar(fisica);
+            }
+        }
+    }
+
+    private void registrarEspera(long nanos) {
+        emprestimos.incrementAndGet();
+        tempoEsperaTotalNanos.addAndGet(nanos);
+        long maximo;
+        do {
+            maximo = tempoEsperaMaximoNanos.get();
+        } while (nanos > maximo && !tempoEsperaMaximoNanos.compareAndSet(maximo, nanos));
+    }
+
+    /**
+     * Fecha o pool e todas as conexões ociosas. Conexões ainda emprestadas
+     * são fechadas quando forem devolvidas.
+     */
+    public void fechar() {
+        fechado = true;
+        limpador.shutdownNow();
+        ConexaoFisica fisica;
+        while ((fisica = ociosas.pollFirst()) != null) {
+            descartar(fisica);
+        }
+    }
+
+    /**
+     * Verifica se o pool foi fechado.
+     *
+     * @return true se o pool está fechado
+     */
+    public boolean isFechado() {
+        return fechado;
+    }
+
+    /**
+     * Retorna um retrato das métricas atuais do pool.
+     *
+     * @return Estatísticas do pool
+     */
+    public Estatisticas getEstatisticas() {
+        return new Estatisticas(ativas.get(), ociosas.size(), total.get(), emprestimos.get(),
+                tempoEsperaTotalNanos.get(), tempoEsperaMaximoNanos.get(), timeouts.get(),
+                criadas.get(), descartadas.get(), metricasCache.acertos.get(),
+                metricasCache.falhas.get(), metricasCache.remocoes.get());
+    }
+
+    /**
+     * Conexão física mantida pelo pool.
+     */
+    private class ConexaoFisica {
+        private final Connection conexao;
+        private final StatementCache statements;
+        private volatile long ultimoUso = System.currentTimeMillis();
+
+        ConexaoFisica(Connection conexao) {
+            this.conexao = conexao;
+            this.statements = config.getCapacidadeCacheStatements() > 0
+                    ? new StatementCache(conexao, config.getCapacidadeCacheStatements(), metricasCache)
+                    : null;
+        }
+
+        boolean precisaValidar() {
+            return System.currentTimeMillis() - ultimoUso > config.getIntervaloValidacaoMs();
+        }
+
+        boolean isValida() {
+            try {
+                return conexao.isValid(config.getTimeoutValidacaoSeg());
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        /**
+         * Desfaz transações pendentes e volta ao modo auto-commit.
+         *
+         * @return false se a conexão não puder ser reaproveitada
+         */
+        boolean restaurarEstado() {
+            try {
+                if (conexao.isClosed()) {
+                    return false;
+                }
+                if (!conexao.getAutoCommit()) {
+                    conexao.rollback();
+                    conexao.setAutoCommit(true);
+                }
+                return true;
+            } catch (SQLException e) {
+                ExceptionHandler.logAviso("Conexão descartada ao ser devolvida ao pool: " + e.getMessage());
+                return false;
+            }
+        }
+
+        Connection emprestar() {
+            return (Connection) Proxy.newProxyInstance(
+                    ConnectionPool.class.getClassLoader(),
+                    new Class<?>[] { Connection.class },
+                    new ConexaoEmprestada(this));
+        }
+    }
+
+    /**
+     * Proxy entregue aos chamadores: {@code close()} devolve a conexão ao pool.
+     */
+    private class ConexaoEmprestada implements InvocationHandler {
+        private ConexaoFisica fisica;
+
+        ConexaoEmprestada(ConexaoFisica fisica) {
+            this.fisica = fisica;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String nome = method.getName();
+
+            if ("close".equals(nome)) {
+                if (fisica != null) {
+                    ConexaoFisica devolvida = fisica;
+                    fisica = null;
+                    devolver(devolvida);
+                }
+                return null;
+            }
+            if ("isClosed".equals(nome)) {
+                return fisica == null || fisica.conexao.isClosed();
+            }
+            if ("equals".equals(nome)) {
+                return proxy == args[0];
+            }
+            if ("hashCode".equals(nome)) {
+                return System.identityHashCode(proxy);
+            }
+            if ("toString".equals(nome)) {
+                return "ConexaoEmprestada[" + (fisica != null ? fisica.conexao : "devolvida") + "]";
+            }
+            if (fisica == null) {
+                throw new SQLException("A conexão já foi devolvida ao pool");
+            }
+            if ("prepareStatement".equals(nome) && fisica.statements != null && isCacheavel(method)) {
+                int chavesGeradas = args.length > 1 ? (Integer) args[1] : Statement.NO_GENERATED_KEYS;
+                return fisica.statements.obter((String) args[0], chavesGeradas, (Connection) proxy);
+            }
+
+            try {
+                return method.invoke(fisica.conexao, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    /**
+     * Só passam pelo cache {@code prepareStatement(String)} e
+     * {@code prepareStatement(String, int autoGeneratedKeys)}.
+     */
+    private static boolean isCacheavel(Method method) {
+        Class<?>[] parametros = method.getParameterTypes();
+        return parametros.length == 1
+                || (parametros.length == 2 && parametros[1] == int.class);
+    }
+
+    /**
+     * Parâmetros de configuração do pool.
+     * Os valores padrão podem ser sobrescritos por propriedades de sistema
+     * (ex: {@code -Dvendas.pool.tamanhoMaximo=8}).
+     */
+    public static class Configuracao {
+        private int tamanhoMaximo = 4;
+        private int minimoOcioso = 1;
+        private long tempoMaximoEsperaMs = 10000;
+        private long tempoMaximoOciosoMs = 300000;
+        private long intervaloValidacaoMs = 30000;
+        private int timeoutValidacaoSeg = 2;
+        private int capacidadeCacheStatements = 32;
+
+        /**
+         * Cria uma configuração a partir das propriedades de sistema {@code vendas.pool.*},
+         * usando os valores padrão para as que não forem informadas.
+         *
+         * @return Configuração do pool
+         */
+        public static Configuracao doSistema() {
+            Configuracao config = new Configuracao();
+            config.setTamanhoMaximo(Integer.getInteger("vendas.pool.tamanhoMaximo", config.tamanhoMaximo));
+            config.setMinimoOcioso(Integer.getInteger("vendas.pool.minimoOcioso", config.minimoOcioso));
+            config.setTempoMaximoEsperaMs(Long.getLong("vendas.pool.tempoMaximoEsperaMs", config.tempoMaximoEsperaMs));
+            config.setTempoMaximoOciosoMs(Long.getLong("vendas.pool.tempoMaximoOciosoMs", config.tempoMaximoOciosoMs));
+            config.setIntervaloValidacaoMs(Long.getLong("vendas.pool.intervaloValidacaoMs", config.intervaloValidacaoMs));
+            config.setCapacidadeCacheStatements(Integer.getInteger("vendas.pool.cacheStatements",
+                    config.capacidadeCacheStatements));
+            return config;
+        }
+
+        public int getTamanhoMaximo() {
+            return tamanhoMaximo;
+        }
+
+        public void setTamanhoMaximo(int tamanhoMaximo) {
+            if (tamanhoMaximo <= 0) {
+                throw new IllegalArgumentException("O tamanho máximo do pool deve ser maior que zero");
+            }
+            this.tamanhoMaximo = tamanhoMaximo;
+        }
+
+        public int getMinimoOcioso() {
+            return minimoOcioso;
+        }
+
+        public void setMinimoOcioso(int minimoOcioso) {
+            this.minimoOcioso = Math.max(0, minimoOcioso);
+        }
+
+        public long getTempoMaximoEsperaMs() {
+            return tempoMaximoEsperaMs;
+        }
+
+        public void setTempoMaximoEsperaMs(long tempoMaximoEsperaMs) {
+            this.tempoMaximoEsperaMs = tempoMaximoEsperaMs;
+        }
+
+        public long getTempoMaximoOciosoMs() {
+            return tempoMaximoOciosoMs;
+        }
+
+        public void setTempoMaximoOciosoMs(long tempoMaximoOciosoMs) {
+            this.tempoMaximoOciosoMs = tempoMaximoOciosoMs;
+        }
+
+        public long getIntervaloValidacaoMs() {
+            return intervaloValidacaoMs;
+        }
+
+        public void setIntervaloValidacaoMs(long intervaloValidacaoMs) {
+            this.intervaloValidacaoMs = intervaloValidacaoMs;
+        }
+
+        public int getTimeoutValidacaoSeg() {
+            return timeoutValidacaoSeg;
+        }
+
+        public void setTimeoutValidacaoSeg(int timeoutValidacaoSeg) {
+            this.timeoutValidacaoSeg = timeoutValidacaoSeg;
+        }
+
+        public int getCapacidadeCacheStatements() {
+            return capacidadeCacheStatements;
+        }
+
+        /**
+         * Define quantos PreparedStatements livres cada conexão mantém em cache.
+         * Zero desativa o cache.
+         */
+        public void setCapacidadeCacheStatements(int capacidadeCacheStatements) {
+            this.capacidadeCacheStatements = Math.max(0, capacidadeCacheStatements);
+        }
+    }
+
+    /**
+     * Retrato imutável das métricas do pool em um dado momento.
+     */
+    public static class Estatisticas {
+        private final int ativas;
+        private final int ociosas;
+        private final int total;
+        private final long emprestimos;
+        private final long tempoEsperaTotalNanos;
+        private final long tempoEsperaMaximoNanos;
+        private final long timeouts;
+        private final long criadas;
+        private final long descartadas;
+        private final long acertosCache;
+        private final long falhasCache;
+        private final long remocoesCache;
+
+        Estatisticas(int ativas, int ociosas, int total, long emprestimos, long tempoEsperaTotalNanos,
+                     long tempoEsperaMaximoNanos, long timeouts, long criadas, long descartadas,
+                     long acertosCache, long falhasCache, long remocoesCache) {
+            this.ativas = ativas;
+            this.ociosas = ociosas;
+            this.total = total;
+            this.emprestimos = emprestimos;
+            this.tempoEsperaTotalNanos = tempoEsperaTotalNanos;
+            this.tempoEsperaMaximoNanos = tempoEsperaMaximoNanos;
+            this.timeouts = timeouts;
+            this.criadas = criadas;
+            this.descartadas = descartadas;
+            this.acertosCache = acertosCache;
+            this.falhasCache = falhasCache;
+            this.remocoesCache = remocoesCache;
+        }
+
+        public int getAtivas() {
+            return ativas;
+        }
+
+        public int getOciosas() {
+            return ociosas;
+        }
+
+        public int getTotal() {
+            return total;
+        }
+
+        public long getEmprestimos() {
+            return emprestimos;
+        }
+
+        public double getTempoEsperaMedioMs() {
+            return emprestimos == 0 ? 0 : tempoEsperaTotalNanos / 1_000_000.0 / emprestimos;
+        }
+
+        public double getTempoEsperaMaximoMs() {
+            return tempoEsperaMaximoNanos / 1_000_000.0;
+        }
+
+        public long getTimeouts() {
+            return timeouts;
+        }
+
+        public long getCriadas() {
+            return criadas;
+        }
+
+        public long getDescartadas() {
+            return descartadas;
+        }
+
+        public long getAcertosCache() {
+            return acertosCache;
+        }
+
+        public long getFalhasCache() {
+            return falhasCache;
+        }
+
+        public long getRemocoesCache() {
+            return remocoesCache;
+        }
+
+        /**
+         * Proporção de {@code prepareStatement} atendidos pelo cache de statements.
+         *
+         * @return Valor entre 0 e 1
+         */
+        public double getTaxaAcertoCache() {
+            long pedidos = acertosCache + falhasCache;
+            return pedidos == 0 ? 0 : (double) acertosCache / pedidos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Pool{ativas=%d, ociosas=%d, total=%d, emprestimos=%d, " +
+                            "esperaMedia=%.3fms, esperaMaxima=%.3fms, timeouts=%d, criadas=%d, descartadas=%d, " +
+                            "cacheStatements={acertos=%d, falhas=%d, remocoes=%d, taxa=%.1f%%}}",
+                    ativas, ociosas, total, emprestimos, getTempoEsperaMedioMs(), getTempoEsperaMaximoMs(),
+                    timeouts, criadas, descartadas, acertosCache, falhasCache, remocoesCache,
+                    getTaxaAcertoCache() * 100);
+        }
+    }
+}
@@ -1,41 +1,202 @@
 package com.vendas.util;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.sql.Statement;
 
 /**
  * Gerenciador de conexões e inicialização do banco de dados SQLite.
+ * As conexões são emprestadas de um {@link ConnectionPool} e devolvidas
+ * a ele quando fechadas.
+ * 
+ * Com a propriedade de sistema {@code -Dvendas.db.wal=true} o banco opera em
+ * modo WAL: as leituras usam um pool de conexões somente leitura e todas as
+ * escritas passam por uma única thread escritora ({@link DatabaseWriter}),
+ * de modo que relatórios longos não bloqueiam o registro de vendas.
  */
 public class DatabaseManager {
     
-    private static final String DB_URL = "jdbc:sqlite:vendas_camisas.db";
-    private static Connection connection;
+    /** Arquivo do banco usado pela aplicação. */
+    public static final String ARQUIVO_PADRAO = "vendas_camisas.db";
+    
+    private static final int BUSY_TIMEOUT_MS = 5000;
+    private static final boolean MODO_WAL = Boolean.getBoolean("vendas.db.wal");
+    
+    /** Tokenizador sem acentos e índices de prefixos de 2 e 3 caracteres das tabelas FTS5. */
+    private static final String OPCOES_FTS = "tokenize='unicode61 remove_diacritics 2', prefix='2 3'";
+    
+    private static String arquivo = ARQUIVO_PADRAO;
+    private static ConnectionPool pool;
+    private static DatabaseWriter escritor;
+    
+    /** Conexão da transação aberta por {@link #executarTransacao} na thread atual. */
+    private static final ThreadLocal<Connection> TRANSACAO_ATUAL = new ThreadLocal<>();
     
     /**
-     * Retorna uma conexão com o banco de dados SQLite.
+     * Empresta uma conexão do pool. A conexão deve ser fechada após o uso
+     * (preferencialmente com try-with-resources) para voltar ao pool.
+     * No modo WAL a conexão é somente leitura; escritas devem usar
+     * {@link #executarEscrita(OperacaoBanco)}.
      * 
      * @return Connection objeto de conexão com o banco
      * @throws SQLException se houver erro ao conectar
      */
     public static Connection getConnection() throws SQLException {
-        if (connection == null || connection.isClosed()) {
-            connection = DriverManager.getConnection(DB_URL);
+        return obterPool().obterConexao();
+    }
+    
+    /**
+     * Executa uma operação de escrita. No modo WAL a operação é enfileirada
+     * para a thread escritora; caso contrário usa uma conexão do pool.
+     * Chamada dentro de {@link #executarTransacao(OperacaoBanco)}, usa a
+     * conexão da transação: outra conexão ficaria esperando o lock de escrita
+     * da própria transação até estourar o busy_timeout.
+     * 
+     * @param operacao Operação de escrita
+     * @return Resultado da operação
+     * @throws SQLException se houver erro na escrita
+     */
+    public static <T> T executarEscrita(OperacaoBanco<T> operacao) throws SQLException {
+        Connection transacao = TRANSACAO_ATUAL.get();
+        if (transacao != null) {
+            return operacao.executar(transacao);
+        }
+        ConnectionPool poolAtual = obterPool();
+        DatabaseWriter escritorAtual = getEscritor();
+        if (escritorAtual != null) {
+            return escritorAtual.executar(operacao);
+        }
+        try (Connection conn = poolAtual.obterConexao()) {
+            return operacao.executar(conn);
         }
-        return connection;
+    }
+    
+    /**
+     * Executa uma operação de escrita dentro de uma única transação.
+     * Faz commit se a operação terminar normalmente e rollback se lançar
+     * qualquer exceção ou erro. Se a conexão já estiver em uma transação, a
+     * operação participa dela. Os avisos de {@link EventosBanco} publicados
+     * durante a transação só são entregues depois do commit e são descartados
+     * em qualquer outro caso.
+     * 
+     * @param operacao Operação a ser executada na transação
+     * @return Resultado da operação
+     * @throws SQLException se houver erro na escrita ou no commit
+     */
+    public static <T> T executarTransacao(OperacaoBanco<T> operacao) throws SQLException {
+        return executarEscrita(conn -> {
+            if (!conn.getAutoCommit()) {
+                return operacao.executar(conn);
+            }
+            
+            conn.setAutoCommit(false);
+            TRANSACAO_ATUAL.set(conn);
+            EventosBanco.iniciarTransacao();
+            boolean confirmada = false;
+            try {
+                T resultado = operacao.executar(conn);
+                conn.commit();
+                confirmada = true;
+                return resultado;
+            } catch (Throwable e) {
+                // Desfazer antes de voltar ao autocommit, que confirmaria o que
+                // a operação já gravou
+                try {
+                    conn.rollback();
+                } catch (SQLException erroRollback) {
+                    e.addSuppressed(erroRollback);
+                }
+                throw e;
+            } finally {
+                TRANSACAO_ATUAL.remove();
+                try {
+                    conn.setAutoCommit(true);
+                } finally {
+                    if (confirmada) {
+                        EventosBanco.confirmarTransacao();
+                    } else {
+                        EventosBanco.descartarTransacao();
+                    }
+                }
+            }
+        });
+    }
+    
+    /**
+     * Retorna o pool de conexões, criando-o na primeira chamada.
+     * No modo WAL também cria a thread escritora e ativa o journal WAL.
+     */
+    private static synchronized ConnectionPool obterPool() throws SQLException {
+        if (pool == null || pool.isFechado()) {
+            if (MODO_WAL) {
+                escritor = new DatabaseWriter(getUrl(),
+                        "PRAGMA busy_timeout = " + BUSY_TIMEOUT_MS,
+                        "PRAGMA journal_mode = WAL",
+                        "PRAGMA synchronous = NORMAL");
+                // Abre a conexão de escrita antes das leituras para ativar o WAL
+                escritor.executar(conn -> null);
+                pool = new ConnectionPool(getUrl(), ConnectionPool.Configuracao.doSistema(),
+                        "PRAGMA busy_timeout = " + BUSY_TIMEOUT_MS,
+                        "PRAGMA query_only = 1");
+            } else {
+                pool = new ConnectionPool(getUrl(), ConnectionPool.Configuracao.doSistema(),
+                        "PRAGMA busy_timeout = " + BUSY_TIMEOUT_MS);
+            }
+        }
+        return pool;
+    }
+    
+    private static synchronized DatabaseWriter getEscritor() {
+        return escritor;
+    }
+    
+    /**
+     * Verifica se o banco está operando em modo WAL com escritor único.
+     * 
+     * @return true se o modo WAL está ativo
+     */
+    public static boolean isModoWal() {
+        return MODO_WAL;
+    }
+    
+    /**
+     * Retorna as métricas atuais do pool de conexões.
+     * 
+     * @return Estatísticas do pool
+     * @throws SQLException se houver erro ao criar o pool
+     */
+    public static ConnectionPool.Estatisticas getEstatisticasPool() throws SQLException {
+        return obterPool().getEstatisticas();
     }
     
     /**
      * Inicializa o banco de dados criando o arquivo .db se não existir
-     * e criando as tabelas necessárias.
+     * e criando as tabelas necessárias. Bancos criados por versões anteriores
+     * do sistema são migrados para o esquema atual (ver {@link MigracoesBanco}).
      * 
-     * @throws SQLException se houver erro na inicialização
+     * @throws SQLException se houver erro na inicialização ou na migração
      */
     public static void inicializarBanco() throws SQLException {
-        getConnection();
-        criarTabelas();
-        criarIndices();
+        executarTransacao(conn -> {
+            int versao = MigracoesBanco.lerVersao(conn);
+            if (versao > MigracoesBanco.VERSAO_ATUAL) {
+                throw new SQLException("O banco de dados foi criado por uma versão mais nova do sistema " +
+                        "(esquema " + versao + ")");
+            }
+            
+            // Banco sem a tabela produtos é novo e já nasce no esquema atual
+            if (versao < MigracoesBanco.VERSAO_ATUAL && MigracoesBanco.existeTabela(conn, "produtos")) {
+                MigracoesBanco.migrar(conn, versao);
+            }
+            
+            try (Statement stmt = conn.createStatement()) {
+                criarTabelas(stmt);
+                criarIndices(stmt);
+                criarGatilhos(stmt);
+            }
+            MigracoesBanco.definirVersao(conn, MigracoesBanco.VERSAO_ATUAL);
+            return null;
+        });
     }
     
     /**
@@ -44,17 +205,42 @@ public class DatabaseManager {
      * @throws SQLException se houver erro ao criar tabelas
      */
     public static void criarTabelas() throws SQLException {
-        Connection conn = getConnection();
-        Statement stmt = conn.createStatement();
+        executarEscrita(conn -> {
+            try (Statement stmt = conn.createStatement()) {
+                criarTabelas(stmt);
+            }
+            return null;
+        });
+    }
+    
+    private static void criarTabelas(Statement stmt) throws SQLException {
+        // Tabela de imagens, endereçada pelo SHA-256 do conteúdo. normalizada = 0
+        // marca imagens gravadas antes da normalização (ver ProcessadorImagens)
+        String sqlImagens = "CREATE TABLE IF NOT EXISTS imagens (" +
+                "hash TEXT PRIMARY KEY, " +
+                "dados BLOB NOT NULL, " +
+                "normalizada INTEGER NOT NULL DEFAULT 0" +
+                ")";
+        stmt.execute(sqlImagens);
+        
+        // Miniaturas das imagens normalizadas, fora de imagens para serem lidas
+        // sem percorrer as páginas da imagem inteira
+        String sqlMiniaturas = "CREATE TABLE IF NOT EXISTS imagens_miniaturas (" +
+                "hash TEXT PRIMARY KEY REFERENCES imagens(hash), " +
+                "dados BLOB NOT NULL" +
+                ")";
+        stmt.execute(sqlMiniaturas);
         
-        // Tabela de produtos
+        // Tabela de produtos (a imagem fica em imagens para manter as linhas pequenas).
+        // Valores monetários são gravados em centavos inteiros (ver Dinheiro) e
+        // datas em dias desde 1970-01-01 (LocalDate.toEpochDay()).
         String sqlProdutos = "CREATE TABLE IF NOT EXISTS produtos (" +
                 "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
                 "descricao TEXT NOT NULL, " +
                 "tamanho TEXT NOT NULL, " +
-                "imagem BLOB, " +
-                "valor_compra DECIMAL(10,2) NOT NULL, " +
-                "data_compra DATE NOT NULL, " +
+                "imagem_hash TEXT REFERENCES imagens(hash), " +
+                "valor_compra_centavos INTEGER NOT NULL, " +
+                "data_compra_dia INTEGER NOT NULL, " +
                 "vendido BOOLEAN DEFAULT 0" +
                 ")";
         stmt.execute(sqlProdutos);
@@ -74,8 +260,8 @@ public class DatabaseManager {
                 "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
                 "produto_id INTEGER NOT NULL, " +
                 "cliente_id INTEGER NOT NULL, " +
-                "data_venda DATE NOT NULL, " +
-                "valor_venda DECIMAL(10,2) NOT NULL, " +
+                "data_venda_dia INTEGER NOT NULL, " +
+                "valor_venda_centavos INTEGER NOT NULL, " +
                 "FOREIGN KEY (produto_id) REFERENCES produtos(id), " +
                 "FOREIGN KEY (cliente_id) REFERENCES clientes(id)" +
                 ")";
@@ -85,14 +271,40 @@ public class DatabaseManager {
         String sqlPagamentos = "CREATE TABLE IF NOT EXISTS pagamentos (" +
                 "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
                 "cliente_id INTEGER NOT NULL, " +
-                "data_pagamento DATE NOT NULL, " +
-                "valor_pago DECIMAL(10,2) NOT NULL, " +
+                "data_pagamento_dia INTEGER NOT NULL, " +
+                "valor_pago_centavos INTEGER NOT NULL, " +
                 "observacao TEXT, " +
                 "FOREIGN KEY (cliente_id) REFERENCES clientes(id)" +
                 ")";
         stmt.execute(sqlPagamentos);
         
-        stmt.close();
+        // Saldo de cada cliente, mantido pelos gatilhos de vendas e pagamentos
+        String sqlSaldos = "CREATE TABLE IF NOT EXISTS saldos_clientes (" +
+                "cliente_id INTEGER PRIMARY KEY, " +
+                "total_vendas_centavos INTEGER NOT NULL DEFAULT 0, " +
+                "total_pago_centavos INTEGER NOT NULL DEFAULT 0, " +
+                "saldo_centavos INTEGER NOT NULL DEFAULT 0" +
+                ")";
+        stmt.execute(sqlSaldos);
+        
+        // Resumo do painel de gerenciamento: uma única linha (id = 1), mantida
+        // pelos gatilhos de produtos e vendas
+        String sqlResumo = "CREATE TABLE IF NOT EXISTS resumo_financeiro (" +
+                "id INTEGER PRIMARY KEY CHECK (id = 1), " +
+                "total_gasto_centavos INTEGER NOT NULL DEFAULT 0, " +
+                "total_recebido_centavos INTEGER NOT NULL DEFAULT 0, " +
+                "quantidade_estoque INTEGER NOT NULL DEFAULT 0, " +
+                "valor_estoque_centavos INTEGER NOT NULL DEFAULT 0" +
+                ")";
+        stmt.execute(sqlResumo);
+        stmt.execute("INSERT OR IGNORE INTO resumo_financeiro (id) VALUES (1)");
+        
+        // Busca textual (FTS5) sobre produtos e clientes. As tabelas apontam para o
+        // conteúdo das tabelas originais e guardam apenas o índice, mantido pelos gatilhos
+        stmt.execute("CREATE VIRTUAL TABLE IF NOT EXISTS produtos_fts USING fts5(" +
+                "descricao, tamanho, content='produtos', content_rowid='id', " + OPCOES_FTS + ")");
+        stmt.execute("CREATE VIRTUAL TABLE IF NOT EXISTS clientes_fts USING fts5(" +
+                "nome, telefone, email, content='clientes', content_rowid='id', " + OPCOES_FTS + ")");
     }
     
     /**
@@ -101,53 +313,219 @@ public class DatabaseManager {
      * @throws SQLException se houver erro ao criar índices
      */
     public static void criarIndices() throws SQLException {
-        Connection conn = getConnection();
-        Statement stmt = conn.createStatement();
-        
+        executarEscrita(conn -> {
+            try (Statement stmt = conn.createStatement()) {
+                criarIndices(stmt);
+            }
+            return null;
+        });
+    }
+    
+    private static void criarIndices(Statement stmt) throws SQLException {
         // Índice para produtos vendidos
         String idxProdutosVendido = "CREATE INDEX IF NOT EXISTS idx_produtos_vendido " +
                 "ON produtos(vendido)";
         stmt.execute(idxProdutosVendido);
         
-        // Índice para vendas por cliente
-        String idxVendasCliente = "CREATE INDEX IF NOT EXISTS idx_vendas_cliente " +
-                "ON vendas(cliente_id)";
-        stmt.execute(idxVendasCliente);
+        // Índice para a listagem de clientes em ordem alfabética
+        String idxClientesNome = "CREATE INDEX IF NOT EXISTS idx_clientes_nome " +
+                "ON clientes(nome COLLATE NOCASE)";
+        stmt.execute(idxClientesNome);
+        
+        // Índice para produtos por data de compra
+        String idxProdutosData = "CREATE INDEX IF NOT EXISTS idx_produtos_data_compra " +
+                "ON produtos(data_compra_dia)";
+        stmt.execute(idxProdutosData);
+        
+        // Índice parcial com as imagens que faltam normalizar: encontrá-las não
+        // exige ler as linhas de imagens, cujas colunas ficam depois dos bytes
+        String idxImagensPendentes = "CREATE INDEX IF NOT EXISTS idx_imagens_pendentes " +
+                "ON imagens(hash) WHERE normalizada = 0";
+        stmt.execute(idxImagensPendentes);
+        
+        // Índices para vendas por período e por cliente (com ou sem período)
+        String idxVendasData = "CREATE INDEX IF NOT EXISTS idx_vendas_data " +
+                "ON vendas(data_venda_dia)";
+        stmt.execute(idxVendasData);
         
-        // Índice para pagamentos por cliente
-        String idxPagamentosCliente = "CREATE INDEX IF NOT EXISTS idx_pagamentos_cliente " +
-                "ON pagamentos(cliente_id)";
-        stmt.execute(idxPagamentosCliente);
+        String idxVendasClienteData = "CREATE INDEX IF NOT EXISTS idx_vendas_cliente_data " +
+                "ON vendas(cliente_id, data_venda_dia)";
+        stmt.execute(idxVendasClienteData);
         
-        stmt.close();
+        // Índices para pagamentos por período e por cliente (com ou sem período)
+        String idxPagamentosData = "CREATE INDEX IF NOT EXISTS idx_pagamentos_data " +
+                "ON pagamentos(data_pagamento_dia)";
+        stmt.execute(idxPagamentosData);
+        
+        String idxPagamentosClienteData = "CREATE INDEX IF NOT EXISTS idx_pagamentos_cliente_data " +
+                "ON pagamentos(cliente_id, data_pagamento_dia)";
+        stmt.execute(idxPagamentosClienteData);
+        
+        // Índice para a busca de clientes com débito
+        String idxSaldosSaldo = "CREATE INDEX IF NOT EXISTS idx_saldos_clientes_saldo " +
+                "ON saldos_clientes(saldo_centavos)";
+        stmt.execute(idxSaldosSaldo);
     }
     
     /**
-     * Fecha a conexão com o banco de dados.
+     * Cria os gatilhos que mantêm as tabelas derivadas. Eles executam na mesma
+     * transação da escrita que os dispara, então as tabelas derivadas nunca
+     * ficam defasadas em relação a produtos, vendas e pagamentos.
      */
-    public static void fecharConexao() {
-        try {
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
-                System.out.println("Conexão com banco de dados fechada com sucesso");
-            }
-        } catch (SQLException e) {
-            System.err.println("Erro ao fechar conexão com banco de dados: " + e.getMessage());
-            e.printStackTrace();
+    private static void criarGatilhos(Statement stmt) throws SQLException {
+        // Saldos: cada venda soma ao saldo do cliente e cada pagamento subtrai
+        String somarVenda = "INSERT INTO saldos_clientes (cliente_id, total_vendas_centavos, saldo_centavos) " +
+                "VALUES (NEW.cliente_id, NEW.valor_venda_centavos, NEW.valor_venda_centavos) " +
+                "ON CONFLICT(cliente_id) DO UPDATE SET " +
+                "total_vendas_centavos = total_vendas_centavos + excluded.total_vendas_centavos, " +
+                "saldo_centavos = saldo_centavos + excluded.saldo_centavos;";
+        String subtrairVenda = "UPDATE saldos_clientes SET " +
+                "total_vendas_centavos = total_vendas_centavos - OLD.valor_venda_centavos, " +
+                "saldo_centavos = saldo_centavos - OLD.valor_venda_centavos " +
+                "WHERE cliente_id = OLD.cliente_id;";
+        String somarPagamento = "INSERT INTO saldos_clientes (cliente_id, total_pago_centavos, saldo_centavos) " +
+                "VALUES (NEW.cliente_id, NEW.valor_pago_centavos, -NEW.valor_pago_centavos) " +
+                "ON CONFLICT(cliente_id) DO UPDATE SET " +
+                "total_pago_centavos = total_pago_centavos + excluded.total_pago_centavos, " +
+                "saldo_centavos = saldo_centavos + excluded.saldo_centavos;";
+        String subtrairPagamento = "UPDATE saldos_clientes SET " +
+                "total_pago_centavos = total_pago_centavos - OLD.valor_pago_centavos, " +
+                "saldo_centavos = saldo_centavos + OLD.valor_pago_centavos " +
+                "WHERE cliente_id = OLD.cliente_id;";
+        
+        stmt.execute("CREATE TRIGGER IF NOT EXISTS trg_vendas_saldo_insercao AFTER INSERT ON vendas " +
+                "BEGIN " + somarVenda + " END");
+        stmt.execute("CREATE TRIGGER IF NOT EXISTS trg_vendas_saldo_exclusao AFTER DELETE ON vendas " +
+                "BEGIN " + subtrairVenda + " END");
+        stmt.execute("CREATE TRIGGER IF NOT EXISTS trg_vendas_saldo_alteracao " +
+                "AFTER UPDATE OF cliente_id, valor_venda_centavos ON vendas " +
+                "BEGIN " + subtrairVenda + " " + somarVenda + " END");
+        
+        stmt.execute("CREATE TRIGGER IF NOT EXISTS trg_pagamentos_saldo_insercao AFTER INSERT ON pagamentos " +
+                "BEGIN " + somarPagamento + " END");
+        stmt.execute("CREATE TRIGGER IF NOT EXISTS trg_pagamentos_saldo_exclusao AFTER DELETE ON pagamentos " +
+                "BEGIN " + subtrairPagamento + " END");
+        stmt.execute("CREATE TRIGGER IF NOT EXISTS trg_pagamentos_saldo_alteracao " +
+                "AFTER UPDATE OF cliente_id, valor_pago_centavos ON pagamentos " +
+                "BEGIN " + subtrairPagamento + " " + somarPagamento + " END");
+        
+        stmt.execute("CREATE TRIGGER IF NOT EXISTS trg_clientes_saldo_exclusao AFTER DELETE ON clientes " +
+                "BEGIN DELETE FROM saldos_clientes WHERE cliente_id = OLD.id; END");
+        
+        // Resumo financeiro: produtos entram no total gasto e, enquanto não
+        // vendidos, na quantidade e no valor em estoque; vendas entram no total recebido
+        String somarProduto = "UPDATE resumo_financeiro SET " +
+                "total_gasto_centavos = total_gasto_centavos + NEW.valor_compra_centavos, " +
+                "quantidade_estoque = quantidade_estoque + (NEW.vendido = 0), " +
+                "valor_estoque_centavos = valor_estoque_centavos + " +
+                "CASE WHEN NEW.vendido = 0 THEN NEW.valor_compra_centavos ELSE 0 END " +
+                "WHERE id = 1;";
+        String subtrairProduto = "UPDATE resumo_financeiro SET " +
+                "total_gasto_centavos = total_gasto_centavos - OLD.valor_compra_centavos, " +
+                "quantidade_estoque = quantidade_estoque - (OLD.vendido = 0), " +
+                "valor_estoque_centavos = valor_estoque_centavos - " +
+                "CASE WHEN OLD.vendido = 0 THEN OLD.valor_compra_centavos ELSE 0 END " +
+                "WHERE id = 1;";
+        
+        stmt.execute("CREATE TRIGGER IF NOT EXISTS trg_produtos_resumo_insercao AFTER INSERT ON produtos " +
+                "BEGIN " + somarProduto + " END");
+        stmt.execute("CREATE TRIGGER IF NOT EXISTS trg_produtos_resumo_exclusao AFTER DELETE ON produtos " +
+                "BEGIN " + subtrairProduto + " END");
+        stmt.execute("CREATE TRIGGER IF NOT EXISTS trg_produtos_resumo_alteracao " +
+                "AFTER UPDATE OF valor_compra_centavos, vendido ON produtos " +
+                "BEGIN " + subtrairProduto + " " + somarProduto + " END");
+        
+        stmt.execute("CREATE TRIGGER IF NOT EXISTS trg_vendas_resumo_insercao AFTER INSERT ON vendas " +
+                "BEGIN UPDATE resumo_financeiro SET " +
+                "total_recebido_centavos = total_recebido_centavos + NEW.valor_venda_centavos " +
+                "WHERE id = 1; END");
+        stmt.execute("CREATE TRIGGER IF NOT EXISTS trg_vendas_resumo_exclusao AFTER DELETE ON vendas " +
+                "BEGIN UPDATE resumo_financeiro SET " +
+                "total_recebido_centavos = total_recebido_centavos - OLD.valor_venda_centavos " +
+                "WHERE id = 1; END");
+        stmt.execute("CREATE TRIGGER IF NOT EXISTS trg_vendas_resumo_alteracao " +
+                "AFTER UPDATE OF valor_venda_centavos ON vendas " +
+                "BEGIN UPDATE resumo_financeiro SET " +
+                "total_recebido_centavos = total_recebido_centavos - OLD.valor_venda_centavos " +
+                "+ NEW.valor_venda_centavos WHERE id = 1; END");
+        
+        // Busca textual: tabelas FTS5 de conteúdo externo precisam receber a
+        // remoção com os valores antigos antes da inserção dos novos
+        criarGatilhosFts(stmt, "produtos", "produtos_fts", "descricao", "tamanho");
+        criarGatilhosFts(stmt, "clientes", "clientes_fts", "nome", "telefone", "email");
+    }
+    
+    private static void criarGatilhosFts(Statement stmt, String tabela, String tabelaFts, String... colunas)
+            throws SQLException {
+        String lista = String.join(", ", colunas);
+        String valoresNovos = "NEW." + String.join(", NEW.", colunas);
+        String valoresAntigos = "OLD." + String.join(", OLD.", colunas);
+        
+        String inserir = "INSERT INTO " + tabelaFts + " (rowid, " + lista + ") " +
+                "VALUES (NEW.id, " + valoresNovos + ");";
+        String remover = "INSERT INTO " + tabelaFts + " (" + tabelaFts + ", rowid, " + lista + ") " +
+                "VALUES ('delete', OLD.id, " + valoresAntigos + ");";
+        
+        stmt.execute("CREATE TRIGGER IF NOT EXISTS trg_" + tabela + "_fts_insercao AFTER INSERT ON " + tabela +
+                " BEGIN " + inserir + " END");
+        stmt.execute("CREATE TRIGGER IF NOT EXISTS trg_" + tabela + "_fts_exclusao AFTER DELETE ON " + tabela +
+                " BEGIN " + remover + " END");
+        stmt.execute("CREATE TRIGGER IF NOT EXISTS trg_" + tabela + "_fts_alteracao AFTER UPDATE OF " + lista +
+                " ON " + tabela + " BEGIN " + remover + " " + inserir + " END");
+    }
+    
+    /**
+     * Fecha o pool e todas as conexões com o banco de dados.
+     */
+    public static synchronized void fecharConexao() {
+        if (escritor != null) {
+            System.out.println("Encerrando escritor do banco de dados: " + escritor);
+            escritor.fechar();
+            escritor = null;
+        }
+        if (pool != null && !pool.isFechado()) {
+            System.out.println("Encerrando pool de conexões: " + pool.getEstatisticas());
+            pool.fechar();
+            System.out.println("Conexão com banco de dados fechada com sucesso");
         }
     }
     
     /**
-     * Verifica se a conexão está ativa.
+     * Passa a usar outro arquivo de banco de dados, fechando as conexões com o
+     * atual. Os índices em memória recebem um aviso de alteração de todas as
+     * tabelas e são descartados. Usado pelos testes para trabalhar em um
+     * banco descartável; o novo banco ainda precisa de {@link #inicializarBanco()}.
      * 
-     * @return true se a conexão está ativa, false caso contrário
+     * @param arquivo Caminho do arquivo (ver {@link #ARQUIVO_PADRAO})
      */
-    public static boolean isConexaoAtiva() {
-        try {
-            return connection != null && !connection.isClosed();
-        } catch (SQLException e) {
-            System.err.println("Erro ao verificar status da conexão: " + e.getMessage());
-            return false;
+    public static void configurarArquivo(String arquivo) {
+        synchronized (DatabaseManager.class) {
+            fecharConexao();
+            DatabaseManager.arquivo = arquivo;
         }
+        for (String tabela : new String[] {EventosBanco.PRODUTOS, EventosBanco.CLIENTES, EventosBanco.VENDAS,
+                EventosBanco.PAGAMENTOS, EventosBanco.SALDOS_CLIENTES, EventosBanco.RESUMO_FINANCEIRO}) {
+            EventosBanco.publicarTabela(tabela);
+        }
+    }
+    
+    /**
+     * @return Caminho do arquivo de banco de dados em uso
+     */
+    public static synchronized String getArquivo() {
+        return arquivo;
+    }
+    
+    private static String getUrl() {
+        return "jdbc:sqlite:" + arquivo;
+    }
+    
+    /**
+     * Verifica se o pool de conexões está ativo.
+     * 
+     * @return true se a conexão está ativa, false caso contrário
+     */
+    public static synchronized boolean isConexaoAtiva() {
+        return pool != null && !pool.isFechado();
     }
 }
@@ -0,0 +1,161 @@
+package com.vendas.util;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Executor de escritas com uma única thread e uma única conexão.
+ *
+ * Usado no modo WAL: todas as operações de escrita entram em uma fila e são
+ * executadas em ordem pela thread escritora, enquanto as leituras usam
+ * conexões somente leitura em paralelo. Assim o SQLite nunca disputa o
+ * lock de escrita entre conexões da própria aplicação.
+ */
+public class DatabaseWriter {
+    
+    private final ConnectionPool poolEscrita;
+    private final ThreadPoolExecutor executor;
+    private volatile Thread threadEscritora;
+    
+    // Conexão em uso pela thread escritora (permite operações aninhadas)
+    private Connection conexaoAtual;
+    
+    private final AtomicLong escritas = new AtomicLong();
+    private final AtomicLong tempoFilaTotalNanos = new AtomicLong();
+    
+    /**
+     * Cria o executor de escritas.
+     * 
+     * @param url URL JDBC do banco de dados
+     * @param comandosIniciais Comandos SQL executados ao abrir a conexão de escrita
+     */
+    public DatabaseWriter(String url, String... comandosIniciais) {
+        ConnectionPool.Configuracao config = ConnectionPool.Configuracao.doSistema();
+        config.setTamanhoMaximo(1);
+        config.setMinimoOcioso(1);
+        this.poolEscrita = new ConnectionPool(url, config, comandosIniciais);
+        
+        this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), r -> {
+                    Thread thread = new Thread(r, "banco-escritor");
+                    thread.setDaemon(true);
+                    threadEscritora = thread;
+                    return thread;
+                });
+    }
+    
+    /**
+     * Enfileira uma operação de escrita e aguarda seu resultado.
+     * Se chamada a partir da própria thread escritora, executa imediatamente.
+     * 
+     * @param operacao Operação a ser executada
+     * @return Resultado da operação
+     * @throws SQLException se a operação falhar ou a fila estiver encerrada
+     */
+    public <T> T executar(OperacaoBanco<T> operacao) throws SQLException {
+        if (Thread.currentThread() == threadEscritora) {
+            return executarNaConexao(operacao);
+        }
+        
+        long enfileirado = System.nanoTime();
+        Future<T> futuro;
+        try {
+            futuro = executor.submit(() -> {
+                tempoFilaTotalNanos.addAndGet(System.nanoTime() - enfileirado);
+                return executarNaConexao(operacao);
+            });
+        } catch (RejectedExecutionException e) {
+            throw new SQLException("A fila de escrita do banco de dados está encerrada", e);
+        }
+        
+        try {
+            return futuro.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrompido aguardando escrita no banco de dados", e);
+        } catch (ExecutionException e) {
+            Throwable causa = e.getCause();
+            if (causa instanceof SQLException) {
+                throw (SQLException) causa;
+            }
+            if (causa instanceof RuntimeException) {
+                throw (RuntimeException) causa;
+            }
+            if (causa instanceof Error) {
+                throw (Error) causa;
+            }
+            throw new SQLException("Erro na escrita do banco de dados", causa);
+        }
+    }
+    
+    private <T> T executarNaConexao(OperacaoBanco<T> operacao) throws SQLException {
+        if (conexaoAtual != null) {
+            return operacao.executar(conexaoAtual);
+        }
+        try (Connection conn = poolEscrita.obterConexao()) {
+            conexaoAtual = conn;
+            escritas.incrementAndGet();
+            return operacao.executar(conn);
+        } finally {
+            conexaoAtual = null;
+        }
+    }
+    
+    /**
+     * Retorna o número de escritas aguardando na fila.
+     * 
+     * @return Tamanho atual da fila
+     */
+    public int getTamanhoFila() {
+        return executor.getQueue().size();
+    }
+    
+    /**
+     * Retorna o número de escritas executadas.
+     * 
+     * @return Total de escritas
+     */
+    public long getEscritas() {
+        return escritas.get();
+    }
+    
+    /**
+     * Retorna o tempo médio que uma escrita aguardou na fila.
+     * 
+     * @return Tempo médio de fila em milissegundos
+     */
+    public double getTempoFilaMedioMs() {
+        long total = escritas.get();
+        return total == 0 ? 0 : tempoFilaTotalNanos.get() / 1_000_000.0 / total;
+    }
+    
+    /**
+     * Encerra a fila, aguardando as escritas pendentes, e fecha a conexão de escrita.
+     */
+    public void fechar() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                ExceptionHandler.logAviso("Escritas pendentes descartadas ao encerrar o banco de dados");
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            executor.shutdownNow();
+        }
+        poolEscrita.fechar();
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("Escritor{escritas=%d, fila=%d, filaMedia=%.3fms, %s}",
+                escritas.get(), getTamanhoFila(), getTempoFilaMedioMs(), poolEscrita.getEstatisticas());
+    }
+}
@@ -0,0 +1,166 @@
+package com.vendas.util;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Avisos de alteração de tabelas, entregues depois do commit.
+ *
+ * Os DAOs publicam a tabela e os IDs das linhas que gravaram. Fora de uma
+ * transação o aviso é entregue na hora; dentro de uma transação aberta por
+ * {@link DatabaseManager#executarTransacao(OperacaoBanco)} os avisos ficam
+ * pendentes na thread que executa a transação e só são entregues após o
+ * commit (ou descartados no rollback). Assim índices e caches em memória
+ * nunca enxergam uma gravação que foi desfeita.
+ *
+ * Os ouvintes são chamados na thread que fez o commit (a thread escritora,
+ * no modo WAL) e devem ser rápidos e seguros para uso entre threads.
+ */
+public final class EventosBanco {
+
+    public static final String PRODUTOS = "produtos";
+    public static final String CLIENTES = "clientes";
+    public static final String VENDAS = "vendas";
+    public static final String PAGAMENTOS = "pagamentos";
+    public static final String SALDOS_CLIENTES = "saldos_clientes";
+    public static final String RESUMO_FINANCEIRO = "resumo_financeiro";
+
+    /**
+     * Recebe os avisos de alteração.
+     */
+    @FunctionalInterface
+    public interface Ouvinte {
+
+        /**
+         * Chamado depois que alterações na tabela foram confirmadas.
+         *
+         * @param tabela Nome da tabela alterada
+         * @param ids IDs das linhas alteradas; vazio quando a tabela inteira
+         *        pode ter mudado
+         */
+        void aoAlterar(String tabela, Set<Long> ids);
+    }
+
+    private static final List<Ouvinte> ouvintes = new CopyOnWriteArrayList<>();
+
+    // Avisos da transação em andamento na thread, por tabela
+    private static final ThreadLocal<Map<String, Set<Long>>> pendentes = new ThreadLocal<>();
+
+    private EventosBanco() {
+    }
+
+    /**
+     * Registra um ouvinte para todas as tabelas.
+     *
+     * @param ouvinte Ouvinte a ser registrado
+     */
+    public static void registrar(Ouvinte ouvinte) {
+        ouvintes.add(ouvinte);
+    }
+
+    /**
+     * Remove um ouvinte registrado.
+     *
+     * @param ouvinte Ouvinte a ser removido
+     */
+    public static void remover(Ouvinte ouvinte) {
+        ouvintes.remove(ouvinte);
+    }
+
+    /**
+     * Publica a alteração de linhas de uma tabela.
+     *
+     * @param tabela Nome da tabela alterada
+     * @param ids IDs das linhas alteradas
+     */
+    public static void publicar(String tabela, Long... ids) {
+        publicar(tabela, Arrays.asList(ids));
+    }
+
+    /**
+     * Publica a alteração de linhas de uma tabela. Não faz nada se a lista
+     * de IDs estiver vazia.
+     *
+     * @param tabela Nome da tabela alterada
+     * @param ids IDs das linhas alteradas
+     */
+    public static void publicar(String tabela, Collection<Long> ids) {
+        if (!ids.isEmpty()) {
+            acumular(tabela, ids);
+        }
+    }
+
+    /**
+     * Publica uma alteração que pode ter atingido qualquer linha da tabela.
+     *
+     * @param tabela Nome da tabela alterada
+     */
+    public static void publicarTabela(String tabela) {
+        acumular(tabela, Collections.<Long>emptySet());
+    }
+
+    private static void acumular(String tabela, Collection<Long> ids) {
+        Map<String, Set<Long>> transacao = pendentes.get();
+        if (transacao == null) {
+            entregar(tabela, Collections.unmodifiableSet(new LinkedHashSet<>(ids)));
+            return;
+        }
+
+        Set<Long> acumulado = transacao.get(tabela);
+        if (acumulado == null) {
+            transacao.put(tabela, new LinkedHashSet<>(ids));
+        } else if (ids.isEmpty()) {
+            // Um aviso da tabela inteira prevalece sobre os de linhas
+            acumulado.clear();
+        } else if (!acumulado.isEmpty()) {
+            acumulado.addAll(ids);
+        }
+    }
+
+    /**
+     * Passa a acumular os avisos da thread até {@link #confirmarTransacao()}
+     * ou {@link #descartarTransacao()}.
+     */
+    static void iniciarTransacao() {
+        pendentes.set(new LinkedHashMap<>());
+    }
+
+    /**
+     * Entrega os avisos acumulados pela transação que acabou de ser confirmada.
+     */
+    static void confirmarTransacao() {
+        Map<String, Set<Long>> transacao = pendentes.get();
+        pendentes.remove();
+        if (transacao == null) {
+            return;
+        }
+        for (Map.Entry<String, Set<Long>> aviso : transacao.entrySet()) {
+            entregar(aviso.getKey(), Collections.unmodifiableSet(aviso.getValue()));
+        }
+    }
+
+    /**
+     * Descarta os avisos acumulados por uma transação desfeita.
+     */
+    static void descartarTransacao() {
+        pendentes.remove();
+    }
+
+    private static void entregar(String tabela, Set<Long> ids) {
+        for (Ouvinte ouvinte : ouvintes) {
+            try {
+                ouvinte.aoAlterar(tabela, ids);
+            } catch (RuntimeException e) {
+                // Um ouvinte com defeito não pode desfazer uma gravação já confirmada
+                ExceptionHandler.logErro("Erro ao notificar alteração da tabela " + tabela, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.vendas.util;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Cálculo de hashes usados como chave de conteúdo.
+ */
+public final class HashUtils {
+
+    private static final char[] HEXADECIMAL = "0123456789abcdef".toCharArray();
+
+    private HashUtils() {
+    }
+
+    /**
+     * Calcula o SHA-256 de um conteúdo.
+     *
+     * @param dados Conteúdo a ser resumido
+     * @return Hash em hexadecimal minúsculo (64 caracteres)
+     */
+    public static String sha256(byte[] dados) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // Toda JVM é obrigada a oferecer SHA-256
+            throw new IllegalStateException(e);
+        }
+
+        byte[] hash = digest.digest(dados);
+        char[] texto = new char[hash.length * 2];
+        for (int i = 0; i < hash.length; i++) {
+            texto[i * 2] = HEXADECIMAL[(hash[i] >> 4) & 0xF];
+            texto[i * 2 + 1] = HEXADECIMAL[hash[i] & 0xF];
+        }
+        return new String(texto);
+    }
+}
@@ -0,0 +1,323 @@
+package com.vendas.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Índice em memória para pesquisa enquanto o usuário digita.
+ *
+ * O texto de cada item é normalizado (minúsculas, sem acentos) e quebrado em
+ * palavras. Cada termo da pesquisa casa com as palavras que começam com ele
+ * (mapa ordenado de palavras) ou, a partir de 3 caracteres, com as que o
+ * contêm em qualquer posição (trigramas, confirmados no texto). Um item só
+ * é devolvido se casar com todos os termos; os mais relevantes vêm primeiro
+ * e o desempate segue a ordem informada na criação do índice.
+ *
+ * O índice é atualizado item a item ({@link #adicionar(Long, Object)} e
+ * {@link #remover(Long)}) e pode ser usado por várias threads.
+ *
+ * @param <T> Tipo dos itens indexados
+ */
+public class IndiceBusca<T> {
+
+    private static final Pattern SEPARADORES = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+    private static final int TAMANHO_TRIGRAMA = 3;
+
+    // Pontos de cada termo: início do texto, início de palavra ou meio de palavra
+    private static final int PONTOS_INICIO_TEXTO = 3;
+    private static final int PONTOS_INICIO_PALAVRA = 2;
+    private static final int PONTOS_MEIO_PALAVRA = 1;
+
+    private final Function<? super T, String> extratorTexto;
+    private final Comparator<? super T> ordem;
+
+    private final Map<Long, Entrada<T>> entradas = new HashMap<>();
+    private final TreeMap<String, Set<Entrada<T>>> palavras = new TreeMap<>();
+    private final Map<String, Set<Entrada<T>>> trigramas = new HashMap<>();
+
+    // Entradas na ordem do índice; refeita na primeira pesquisa após uma alteração
+    private final List<Entrada<T>> ordenadas = new ArrayList<>();
+    private boolean ordemValida = true;
+
+    /**
+     * Cria um índice vazio.
+     *
+     * @param extratorTexto Texto pesquisável de cada item
+     * @param ordem Ordem dos itens de mesma relevância (e da pesquisa em branco)
+     */
+    public IndiceBusca(Function<? super T, String> extratorTexto, Comparator<? super T> ordem) {
+        this.extratorTexto = extratorTexto;
+        this.ordem = ordem;
+    }
+
+    /**
+     * Normaliza um texto para comparação: minúsculas e sem acentos.
+     *
+     * @param texto Texto original (pode ser null)
+     * @return Texto normalizado
+     */
+    public static String normalizar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        String semAcentos = MARCAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return semAcentos.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Adiciona um item ao índice, substituindo o item de mesmo ID.
+     *
+     * @param id ID do item
+     * @param valor Item
+     */
+    public synchronized void adicionar(Long id, T valor) {
+        remover(id);
+
+        String texto = normalizar(extratorTexto.apply(valor));
+        Entrada<T> entrada = new Entrada<>(id, valor, texto, dividir(texto));
+        entradas.put(id, entrada);
+        ordemValida = false;
+
+        for (String palavra : entrada.palavras) {
+            palavras.computeIfAbsent(palavra, p -> new HashSet<>()).add(entrada);
+            for (String trigrama : trigramasDe(palavra)) {
+                trigramas.computeIfAbsent(trigrama, t -> new HashSet<>()).add(entrada);
+            }
+        }
+    }
+
+    /**
+     * Remove um item do índice. Não faz nada se o ID não estiver indexado.
+     *
+     * @param id ID do item
+     */
+    public synchronized void remover(Long id) {
+        Entrada<T> entrada = entradas.remove(id);
+        if (entrada == null) {
+            return;
+        }
+        ordemValida = false;
+
+        for (String palavra : entrada.palavras) {
+            removerPostagem(palavras, palavra, entrada);
+            for (String trigrama : trigramasDe(palavra)) {
+                removerPostagem(trigramas, trigrama, entrada);
+            }
+        }
+    }
+
+    /**
+     * Esvazia o índice.
+     */
+    public synchronized void limpar() {
+        entradas.clear();
+        palavras.clear();
+        trigramas.clear();
+        ordemValida = false;
+    }
+
+    /**
+     * @return Número de itens indexados
+     */
+    public synchronized int tamanho() {
+        return entradas.size();
+    }
+
+    /**
+     * Pesquisa os itens que casam com todos os termos do texto.
+     *
+     * @param texto Texto digitado; em branco devolve os primeiros itens na ordem do índice
+     * @param limite Número máximo de itens devolvidos
+     * @return Até {@code limite} itens, dos mais relevantes para os menos relevantes
+     */
+    public synchronized List<T> pesquisar(String texto, int limite) {
+        List<T> resultado = new ArrayList<>();
+        if (limite <= 0) {
+            return resultado;
+        }
+        ordenar();
+
+        // Pontos acumulados por posição na ordem do índice; 0 = não casou
+        int[] pontos = null;
+        for (String termo : dividir(normalizar(texto))) {
+            pontos = pontuarTermo(termo, pontos);
+            if (pontos == null) {
+                return resultado;
+            }
+        }
+
+        if (pontos == null) {
+            for (int i = 0; i < ordenadas.size() && i < limite; i++) {
+                resultado.add(ordenadas.get(i).valor);
+            }
+            return resultado;
+        }
+
+        // Uma passada na ordem do índice separa os primeiros itens de cada pontuação
+        int maximo = 0;
+        for (int ponto : pontos) {
+            maximo = Math.max(maximo, ponto);
+        }
+        List<List<T>> porPontuacao = new ArrayList<>();
+        for (int i = 0; i <= maximo; i++) {
+            porPontuacao.add(new ArrayList<>());
+        }
+        for (int i = 0; i < pontos.length; i++) {
+            List<T> faixa = porPontuacao.get(pontos[i]);
+            if (pontos[i] > 0 && faixa.size() < limite) {
+                faixa.add(ordenadas.get(i).valor);
+            }
+        }
+        for (int ponto = maximo; ponto > 0 && resultado.size() < limite; ponto--) {
+            List<T> faixa = porPontuacao.get(ponto);
+            resultado.addAll(faixa.subList(0, Math.min(faixa.size(), limite - resultado.size())));
+        }
+        return resultado;
+    }
+
+    /**
+     * Soma aos pontos dos termos anteriores (ou, no primeiro termo, a partir
+     * de zero) os pontos de um termo, descartando quem não casa com ele.
+     *
+     * @return Pontos por posição, ou null se nenhum item casou
+     */
+    private int[] pontuarTermo(String termo, int[] anteriores) {
+        int[] pontos = new int[ordenadas.size()];
+        boolean algum = false;
+
+        // Palavras que começam com o termo: faixa do mapa ordenado a partir dele
+        for (Set<Entrada<T>> conjunto : palavras.subMap(termo, true, termo + Character.MAX_VALUE, false).values()) {
+            for (Entrada<T> entrada : conjunto) {
+                int posicao = entrada.posicao;
+                if (pontos[posicao] < PONTOS_INICIO_TEXTO && (anteriores == null || anteriores[posicao] > 0)) {
+                    pontos[posicao] = entrada.texto.startsWith(termo) ? PONTOS_INICIO_TEXTO : PONTOS_INICIO_PALAVRA;
+                    algum = true;
+                }
+            }
+        }
+
+        if (termo.length() >= TAMANHO_TRIGRAMA) {
+            for (Entrada<T> entrada : candidatosPorTrigramas(termo)) {
+                int posicao = entrada.posicao;
+                if (pontos[posicao] == 0 && (anteriores == null || anteriores[posicao] > 0)
+                        && entrada.texto.contains(termo)) {
+                    pontos[posicao] = PONTOS_MEIO_PALAVRA;
+                    algum = true;
+                }
+            }
+        }
+
+        if (!algum) {
+            return null;
+        }
+        if (anteriores != null) {
+            for (int i = 0; i < pontos.length; i++) {
+                if (pontos[i] > 0) {
+                    pontos[i] += anteriores[i];
+                }
+            }
+        }
+        return pontos;
+    }
+
+    /**
+     * Itens que têm todos os trigramas do termo (a menor lista é percorrida
+     * e as demais só consultadas).
+     */
+    private List<Entrada<T>> candidatosPorTrigramas(String termo) {
+        List<Set<Entrada<T>>> listas = new ArrayList<>();
+        for (String trigrama : trigramasDe(termo)) {
+            Set<Entrada<T>> conjunto = trigramas.get(trigrama);
+            if (conjunto == null) {
+                return Collections.emptyList();
+            }
+            listas.add(conjunto);
+        }
+        listas.sort(Comparator.comparingInt(Set::size));
+
+        List<Entrada<T>> resultado = new ArrayList<>();
+        for (Entrada<T> entrada : listas.get(0)) {
+            boolean emTodas = true;
+            for (int i = 1; i < listas.size() && emTodas; i++) {
+                emTodas = listas.get(i).contains(entrada);
+            }
+            if (emTodas) {
+                resultado.add(entrada);
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Refaz a lista de entradas na ordem do índice, se houve alteração desde
+     * a última pesquisa, e anota a posição de cada uma.
+     */
+    private void ordenar() {
+        if (ordemValida) {
+            return;
+        }
+        ordenadas.clear();
+        ordenadas.addAll(entradas.values());
+        ordenadas.sort(Comparator.<Entrada<T>, T>comparing(entrada -> entrada.valor, ordem)
+                .thenComparing(entrada -> entrada.id));
+        for (int i = 0; i < ordenadas.size(); i++) {
+            ordenadas.get(i).posicao = i;
+        }
+        ordemValida = true;
+    }
+
+    private static List<String> dividir(String textoNormalizado) {
+        List<String> partes = new ArrayList<>();
+        for (String parte : SEPARADORES.split(textoNormalizado)) {
+            if (!parte.isEmpty()) {
+                partes.add(parte);
+            }
+        }
+        return partes;
+    }
+
+    private static Set<String> trigramasDe(String palavra) {
+        Set<String> resultado = new HashSet<>();
+        for (int i = 0; i + TAMANHO_TRIGRAMA <= palavra.length(); i++) {
+            resultado.add(palavra.substring(i, i + TAMANHO_TRIGRAMA));
+        }
+        return resultado;
+    }
+
+    private static <E> void removerPostagem(Map<String, Set<E>> postagens, String chave, E entrada) {
+        Set<E> conjunto = postagens.get(chave);
+        if (conjunto != null) {
+            conjunto.remove(entrada);
+            if (conjunto.isEmpty()) {
+                postagens.remove(chave);
+            }
+        }
+    }
+
+    private static final class Entrada<T> {
+        final Long id;
+        final T valor;
+        final String texto;
+        final List<String> palavras;
+        int posicao;
+
+        Entrada(Long id, T valor, String texto, List<String> palavras) {
+            this.id = id;
+            this.valor = valor;
+            this.texto = texto;
+            this.palavras = palavras;
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package com.vendas.util;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Índice de facetas em memória com um {@link BitSet} por valor de faceta.
+ *
+ * Cada item recebe um ordinal (posição nos bitsets) e, para cada faceta, um
+ * valor calculado por um classificador. Um filtro seleciona valores de
+ * algumas facetas: dentro de uma faceta os valores são combinados com OR e
+ * entre facetas com AND. As contagens de cada valor consideram os filtros
+ * das outras facetas, de modo que mostram quantos itens restariam se o
+ * valor fosse marcado.
+ *
+ * Os ordinais não são reaproveitados: itens removidos só deixam de estar
+ * ativos até o próximo {@link #limpar()}. Pode ser usado por várias threads.
+ *
+ * @param <D> Enumeração das facetas
+ * @param <T> Tipo dos itens indexados
+ */
+public class IndiceFacetas<D extends Enum<D>, T> {
+
+    private final Class<D> tipoFacetas;
+    private final Map<D, Function<? super T, String>> classificadores;
+    private final Map<D, Comparator<String>> ordens;
+
+    private final Map<Long, Integer> ordinais = new HashMap<>();
+    private final List<T> itens = new ArrayList<>();
+    private final List<String[]> valoresItens = new ArrayList<>();
+    private final BitSet ativos = new BitSet();
+    private final Map<D, Map<String, BitSet>> bitsets;
+
+    /**
+     * Cria um índice sem facetas.
+     *
+     * @param tipoFacetas Classe da enumeração das facetas
+     */
+    public IndiceFacetas(Class<D> tipoFacetas) {
+        this.tipoFacetas = tipoFacetas;
+        this.classificadores = new EnumMap<>(tipoFacetas);
+        this.ordens = new EnumMap<>(tipoFacetas);
+        this.bitsets = new EnumMap<>(tipoFacetas);
+    }
+
+    /**
+     * Define uma faceta. Deve ser chamado antes de adicionar itens.
+     *
+     * @param faceta Faceta
+     * @param classificador Valor da faceta para um item (null deixa o item sem valor)
+     * @param ordemValores Ordem em que os valores são apresentados
+     */
+    public synchronized void definirFaceta(D faceta, Function<? super T, String> classificador,
+                                           Comparator<String> ordemValores) {
+        classificadores.put(faceta, classificador);
+        ordens.put(faceta, ordemValores);
+        bitsets.put(faceta, new HashMap<>());
+    }
+
+    /**
+     * Adiciona um item ou atualiza os valores de um item já indexado.
+     *
+     * @param id ID do item
+     * @param item Item
+     */
+    public synchronized void adicionar(Long id, T item) {
+        Integer ordinal = ordinais.get(id);
+        if (ordinal == null) {
+            ordinal = itens.size();
+            ordinais.put(id, ordinal);
+            itens.add(item);
+            valoresItens.add(new String[tipoFacetas.getEnumConstants().length]);
+        } else {
+            itens.set(ordinal, item);
+        }
+
+        for (D faceta : classificadores.keySet()) {
+            classificar(faceta, ordinal);
+        }
+        ativos.set(ordinal);
+    }
+
+    /**
+     * Remove um item. Não faz nada se o ID não estiver indexado.
+     *
+     * @param id ID do item
+     */
+    public synchronized void remover(Long id) {
+        Integer ordinal = ordinais.get(id);
+        if (ordinal == null || !ativos.get(ordinal)) {
+            return;
+        }
+
+        String[] valores = valoresItens.get(ordinal);
+        for (D faceta : classificadores.keySet()) {
+            desmarcar(faceta, valores[faceta.ordinal()], ordinal);
+            valores[faceta.ordinal()] = null;
+        }
+        ativos.clear(ordinal);
+    }
+
+    /**
+     * Recalcula uma faceta para todos os itens ativos, para classificadores
+     * que dependem de algo além do item (como a data de hoje).
+     *
+     * @param faceta Faceta a recalcular
+     */
+    public synchronized void reclassificar(D faceta) {
+        for (int ordinal = ativos.nextSetBit(0); ordinal >= 0; ordinal = ativos.nextSetBit(ordinal + 1)) {
+            classificar(faceta, ordinal);
+        }
+    }
+
+    /**
+     * Esvazia o índice, mantendo as facetas definidas.
+     */
+    public synchronized void limpar() {
+        ordinais.clear();
+        itens.clear();
+        valoresItens.clear();
+        ativos.clear();
+        for (Map<String, BitSet> porValor : bitsets.values()) {
+            porValor.clear();
+        }
+    }
+
+    /**
+     * @return Número de itens ativos
+     */
+    public synchronized int tamanho() {
+        return ativos.cardinality();
+    }
+
+    /**
+     * Filtra os itens e conta os valores de cada faceta.
+     *
+     * @param selecao Valores marcados por faceta; facetas ausentes ou sem
+     *        valores marcados não filtram
+     * @return Itens que atendem ao filtro (na ordem em que foram indexados) e
+     *         contagens por valor de cada faceta
+     */
+    public synchronized Resultado<D, T> filtrar(Map<D, ? extends Collection<String>> selecao) {
+        // Para cada faceta com valores marcados: OR dos bitsets desses valores
+        Map<D, BitSet> porFaceta = new EnumMap<>(tipoFacetas);
+        for (D faceta : classificadores.keySet()) {
+            Collection<String> marcados = selecao.get(faceta);
+            if (marcados != null && !marcados.isEmpty()) {
+                BitSet uniao = new BitSet();
+                for (String valor : marcados) {
+                    BitSet bits = bitsets.get(faceta).get(valor);
+                    if (bits != null) {
+                        uniao.or(bits);
+                    }
+                }
+                porFaceta.put(faceta, uniao);
+            }
+        }
+
+        BitSet filtro = combinar(porFaceta, null);
+        List<T> selecionados = new ArrayList<>(filtro.cardinality());
+        for (int ordinal = filtro.nextSetBit(0); ordinal >= 0; ordinal = filtro.nextSetBit(ordinal + 1)) {
+            selecionados.add(itens.get(ordinal));
+        }
+
+        // As contagens de uma faceta ignoram o filtro dela mesma
+        Map<D, Map<String, Integer>> contagens = new EnumMap<>(tipoFacetas);
+        for (D faceta : classificadores.keySet()) {
+            BitSet base = porFaceta.containsKey(faceta) ? combinar(porFaceta, faceta) : filtro;
+            Map<String, Integer> porValor = new LinkedHashMap<>();
+            for (Map.Entry<String, BitSet> valor : ordenados(faceta).entrySet()) {
+                BitSet intersecao = (BitSet) valor.getValue().clone();
+                intersecao.and(base);
+                porValor.put(valor.getKey(), intersecao.cardinality());
+            }
+            contagens.put(faceta, Collections.unmodifiableMap(porValor));
+        }
+
+        return new Resultado<>(selecionados, contagens);
+    }
+
+    /**
+     * AND dos itens ativos com os filtros de todas as facetas, exceto a informada.
+     */
+    private BitSet combinar(Map<D, BitSet> porFaceta, D exceto) {
+        BitSet resultado = (BitSet) ativos.clone();
+        for (Map.Entry<D, BitSet> faceta : porFaceta.entrySet()) {
+            if (faceta.getKey() != exceto) {
+                resultado.and(faceta.getValue());
+            }
+        }
+        return resultado;
+    }
+
+    private Map<String, BitSet> ordenados(D faceta) {
+        Map<String, BitSet> resultado = new TreeMap<>(ordens.get(faceta));
+        resultado.putAll(bitsets.get(faceta));
+        return resultado;
+    }
+
+    private void classificar(D faceta, int ordinal) {
+        String[] valores = valoresItens.get(ordinal);
+        String anterior = valores[faceta.ordinal()];
+        String novo = classificadores.get(faceta).apply(itens.get(ordinal));
+        if (novo != null && novo.equals(anterior)) {
+            return;
+        }
+
+        desmarcar(faceta, anterior, ordinal);
+        if (novo != null) {
+            bitsets.get(faceta).computeIfAbsent(novo, v -> new BitSet()).set(ordinal);
+        }
+        valores[faceta.ordinal()] = novo;
+    }
+
+    private void desmarcar(D faceta, String valor, int ordinal) {
+        if (valor == null) {
+            return;
+        }
+        Map<String, BitSet> porValor = bitsets.get(faceta);
+        BitSet bits = porValor.get(valor);
+        if (bits != null) {
+            bits.clear(ordinal);
+            if (bits.isEmpty()) {
+                porValor.remove(valor);
+            }
+        }
+    }
+
+    /**
+     * Itens filtrados e contagens por valor de cada faceta.
+     *
+     * @param <D> Enumeração das facetas
+     * @param <T> Tipo dos itens
+     */
+    public static class Resultado<D extends Enum<D>, T> {
+
+        private final List<T> itens;
+        private final Map<D, Map<String, Integer>> contagens;
+
+        Resultado(List<T> itens, Map<D, Map<String, Integer>> contagens) {
+            this.itens = Collections.unmodifiableList(itens);
+            this.contagens = Collections.unmodifiableMap(contagens);
+        }
+
+        /**
+         * @return Itens que atendem ao filtro
+         */
+        public List<T> getItens() {
+            return itens;
+        }
+
+        /**
+         * @param faceta Faceta
+         * @return Quantidade de itens por valor da faceta, na ordem de apresentação
+         */
+        public Map<String, Integer> getContagens(D faceta) {
+            Map<String, Integer> porValor = contagens.get(faceta);
+            return porValor != null ? porValor : Collections.<String, Integer>emptyMap();
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.vendas.util;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Leitor de arquivos CSV que processa um registro por vez, sem carregar o
+ * arquivo inteiro na memória.
+ *
+ * Suporta campos entre aspas (com delimitadores, quebras de linha e aspas
+ * duplicadas dentro deles). O delimitador pode ser informado ou detectado
+ * a partir do cabeçalho: ponto e vírgula (padrão do Excel em português)
+ * ou vírgula.
+ */
+public class LeitorCsv implements Closeable {
+
+    private final BufferedReader leitor;
+    private char delimitador;
+    private boolean detectarDelimitador;
+    private long numeroLinha;
+    private long linhaInicial;
+
+    /**
+     * Cria um leitor que detecta o delimitador pela primeira linha.
+     *
+     * @param reader Fonte do conteúdo CSV
+     */
+    public LeitorCsv(Reader reader) {
+        this.leitor = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+        this.detectarDelimitador = true;
+    }
+
+    /**
+     * Cria um leitor com delimitador fixo.
+     *
+     * @param reader Fonte do conteúdo CSV
+     * @param delimitador Caractere delimitador de campos
+     */
+    public LeitorCsv(Reader reader, char delimitador) {
+        this(reader);
+        this.delimitador = delimitador;
+        this.detectarDelimitador = false;
+    }
+
+    /**
+     * Lê o próximo registro do arquivo. Linhas em branco são ignoradas.
+     *
+     * @return Campos do registro ou null no fim do arquivo
+     * @throws IOException se houver erro de leitura ou aspas não fechadas
+     */
+    public String[] proximoRegistro() throws IOException {
+        String linha;
+        do {
+            linha = leitor.readLine();
+            if (linha == null) {
+                return null;
+            }
+            numeroLinha++;
+        } while (linha.trim().isEmpty());
+        linhaInicial = numeroLinha;
+
+        // Remove o BOM UTF-8 gerado por alguns editores
+        if (numeroLinha == 1 && !linha.isEmpty() && linha.charAt(0) == '\uFEFF') {
+            linha = linha.substring(1);
+        }
+
+        if (detectarDelimitador) {
+            delimitador = linha.indexOf(';') >= 0 ? ';' : ',';
+            detectarDelimitador = false;
+        }
+
+        List<String> campos = new ArrayList<>();
+        StringBuilder campo = new StringBuilder();
+        boolean entreAspas = false;
+        int i = 0;
+
+        while (true) {
+            if (i >= linha.length()) {
+                if (!entreAspas) {
+                    break;
+                }
+                // Campo entre aspas continua na próxima linha
+                String continuacao = leitor.readLine();
+                if (continuacao == null) {
+                    throw new IOException("Aspas não fechadas no registro iniciado antes da linha " + numeroLinha);
+                }
+                numeroLinha++;
+                campo.append('\n');
+                linha = continuacao;
+                i = 0;
+                continue;
+            }
+
+            char c = linha.charAt(i);
+            if (entreAspas) {
+                if (c == '"') {
+                    if (i + 1 < linha.length() && linha.charAt(i + 1) == '"') {
+                        campo.append('"');
+                        i++;
+                    } else {
+                        entreAspas = false;
+                    }
+                } else {
+                    campo.append(c);
+                }
+            } else if (c == '"') {
+                entreAspas = true;
+            } else if (c == delimitador) {
+                campos.add(campo.toString().trim());
+                campo.setLength(0);
+            } else {
+                campo.append(c);
+            }
+            i++;
+        }
+
+        campos.add(campo.toString().trim());
+        return campos.toArray(new String[0]);
+    }
+
+    /**
+     * Retorna a linha física (começando em 1) em que começa o último registro
+     * lido. Difere de {@link #getNumeroLinha()} quando um campo entre aspas
+     * tem quebras de linha.
+     *
+     * @return Número da linha
+     */
+    public long getLinhaInicial() {
+        return linhaInicial;
+    }
+
+    /**
+     * Retorna o número da última linha física lida (começando em 1).
+     *
+     * @return Número da linha
+     */
+    public long getNumeroLinha() {
+        return numeroLinha;
+    }
+
+    @Override
+    public void close() throws IOException {
+        leitor.close();
+    }
+}
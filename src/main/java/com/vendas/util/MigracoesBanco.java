@@ -0,0 +1,284 @@
+package com.vendas.util;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Migrações do esquema do banco de dados.
+ *
+ * A versão do esquema fica gravada em {@code PRAGMA user_version}. Um banco
+ * novo é criado diretamente na versão atual; um banco de uma versão anterior
+ * recebe, em ordem, as migrações que faltam. Cada migração descreve o esquema
+ * da sua própria versão e não deve ser alterada depois de publicada.
+ */
+final class MigracoesBanco {
+
+    /** Versão do esquema criado por {@link DatabaseManager#criarTabelas()}. */
+    static final int VERSAO_ATUAL = 7;
+
+    private MigracoesBanco() {
+    }
+
+    /**
+     * Lê a versão do esquema gravada no banco (0 para bancos anteriores ao controle de versão).
+     */
+    static int lerVersao(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA user_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    /**
+     * Grava a versão do esquema. Faz parte da transação em andamento.
+     */
+    static void definirVersao(Connection conn, int versao) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("PRAGMA user_version = " + versao);
+        }
+    }
+
+    /**
+     * Verifica se uma tabela existe no banco.
+     */
+    static boolean existeTabela(Connection conn, String tabela) throws SQLException {
+        String sql = "SELECT 1 FROM sqlite_master WHERE type = 'table' AND name = ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, tabela);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    /**
+     * Aplica as migrações da versão informada até {@link #VERSAO_ATUAL}.
+     * Deve ser chamado dentro de uma transação.
+     *
+     * @param conn Conexão da transação em andamento
+     * @param versao Versão atual do banco
+     * @throws SQLException se alguma migração falhar
+     */
+    static void migrar(Connection conn, int versao) throws SQLException {
+        for (int proxima = versao + 1; proxima <= VERSAO_ATUAL; proxima++) {
+            System.out.println("Migrando esquema do banco para a versão " + proxima);
+            switch (proxima) {
+                case 1:
+                    migrarParaV1(conn);
+                    break;
+                case 2:
+                    migrarParaV2(conn);
+                    break;
+                case 3:
+                    migrarParaV3(conn);
+                    break;
+                case 4:
+                    migrarParaV4(conn);
+                    break;
+                case 5:
+                    migrarParaV5(conn);
+                    break;
+                case 6:
+                    migrarParaV6(conn);
+                    break;
+                case 7:
+                    migrarParaV7(conn);
+                    break;
+                default:
+                    throw new IllegalStateException("Migração não implementada: versão " + proxima);
+            }
+        }
+    }
+
+    /**
+     * Versão 1: as imagens saem de {@code produtos.imagem} para a tabela
+     * {@code imagens}, endereçada pelo SHA-256 do conteúdo, e o produto passa
+     * a guardar apenas {@code imagem_hash}.
+     */
+    private static void migrarParaV1(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE IF NOT EXISTS imagens (" +
+                    "hash TEXT PRIMARY KEY, " +
+                    "dados BLOB NOT NULL" +
+                    ")");
+            stmt.execute("ALTER TABLE produtos ADD COLUMN imagem_hash TEXT REFERENCES imagens(hash)");
+        }
+
+        // Os IDs são lidos antes para não atualizar a tabela enquanto ela é percorrida
+        List<Long> ids = new ArrayList<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT id FROM produtos WHERE imagem IS NOT NULL")) {
+            while (rs.next()) {
+                ids.add(rs.getLong(1));
+            }
+        }
+
+        // Uma imagem por vez, para não carregar todas na memória
+        try (PreparedStatement ler = conn.prepareStatement("SELECT imagem FROM produtos WHERE id = ?");
+             PreparedStatement gravar = conn.prepareStatement(
+                     "INSERT OR IGNORE INTO imagens (hash, dados) VALUES (?, ?)");
+             PreparedStatement referenciar = conn.prepareStatement(
+                     "UPDATE produtos SET imagem_hash = ? WHERE id = ?")) {
+
+            for (Long id : ids) {
+                byte[] dados;
+                ler.setLong(1, id);
+                try (ResultSet rs = ler.executeQuery()) {
+                    dados = rs.next() ? rs.getBytes(1) : null;
+                }
+                if (dados == null || dados.length == 0) {
+                    continue;
+                }
+
+                String hash = HashUtils.sha256(dados);
+                gravar.setString(1, hash);
+                gravar.setBytes(2, dados);
+                gravar.executeUpdate();
+
+                referenciar.setString(1, hash);
+                referenciar.setLong(2, id);
+                referenciar.executeUpdate();
+            }
+        }
+
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("ALTER TABLE produtos DROP COLUMN imagem");
+        }
+        System.out.println("Imagens migradas para o armazenamento por hash: " + ids.size());
+    }
+
+    /**
+     * Versão 2: os valores monetários, antes {@code DECIMAL(10,2)} (armazenados
+     * pelo SQLite como REAL), passam a ser centavos inteiros em colunas
+     * {@code *_centavos}, permitindo somas exatas.
+     */
+    private static void migrarParaV2(Connection conn) throws SQLException {
+        converterParaCentavos(conn, "produtos", "valor_compra");
+        converterParaCentavos(conn, "vendas", "valor_venda");
+        converterParaCentavos(conn, "pagamentos", "valor_pago");
+    }
+
+    private static void converterParaCentavos(Connection conn, String tabela, String coluna) throws SQLException {
+        String colunaCentavos = coluna + "_centavos";
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("ALTER TABLE " + tabela + " ADD COLUMN " + colunaCentavos + " INTEGER NOT NULL DEFAULT 0");
+            stmt.execute("UPDATE " + tabela + " SET " + colunaCentavos + " = CAST(ROUND(" + coluna + " * 100) AS INTEGER)");
+            stmt.execute("ALTER TABLE " + tabela + " DROP COLUMN " + coluna);
+        }
+    }
+
+    /**
+     * Versão 3: as datas, antes texto ISO ({@code LocalDate.toString()}), passam
+     * a ser dias desde 1970-01-01 em colunas {@code *_dia}. Os índices só por
+     * cliente são substituídos por índices (cliente, data), criados em seguida
+     * por {@link DatabaseManager#criarIndices()}.
+     */
+    private static void migrarParaV3(Connection conn) throws SQLException {
+        converterParaDiaEpoch(conn, "produtos", "data_compra");
+        converterParaDiaEpoch(conn, "vendas", "data_venda");
+        converterParaDiaEpoch(conn, "pagamentos", "data_pagamento");
+
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("DROP INDEX IF EXISTS idx_vendas_cliente");
+            stmt.execute("DROP INDEX IF EXISTS idx_pagamentos_cliente");
+        }
+    }
+
+    private static void converterParaDiaEpoch(Connection conn, String tabela, String coluna) throws SQLException {
+        String colunaDia = coluna + "_dia";
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("ALTER TABLE " + tabela + " ADD COLUMN " + colunaDia + " INTEGER NOT NULL DEFAULT 0");
+            // julianday de 1970-01-01 é 2440587.5
+            stmt.execute("UPDATE " + tabela + " SET " + colunaDia +
+                    " = CAST(julianday(" + coluna + ") - 2440587.5 AS INTEGER)");
+            stmt.execute("ALTER TABLE " + tabela + " DROP COLUMN " + coluna);
+        }
+    }
+
+    /**
+     * Versão 4: tabela {@code saldos_clientes} com o saldo de cada cliente,
+     * preenchida a partir das vendas e pagamentos existentes. Os gatilhos que
+     * a mantêm são criados em seguida por {@link DatabaseManager#inicializarBanco()}.
+     */
+    private static void migrarParaV4(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE IF NOT EXISTS saldos_clientes (" +
+                    "cliente_id INTEGER PRIMARY KEY, " +
+                    "total_vendas_centavos INTEGER NOT NULL DEFAULT 0, " +
+                    "total_pago_centavos INTEGER NOT NULL DEFAULT 0, " +
+                    "saldo_centavos INTEGER NOT NULL DEFAULT 0" +
+                    ")");
+            stmt.execute("INSERT INTO saldos_clientes " +
+                    "(cliente_id, total_vendas_centavos, total_pago_centavos, saldo_centavos) " +
+                    "SELECT cliente_id, SUM(v), SUM(p), SUM(v) - SUM(p) FROM (" +
+                    "SELECT cliente_id, valor_venda_centavos AS v, 0 AS p FROM vendas " +
+                    "UNION ALL " +
+                    "SELECT cliente_id, 0, valor_pago_centavos FROM pagamentos" +
+                    ") GROUP BY cliente_id");
+        }
+    }
+
+    /**
+     * Versão 5: tabela {@code resumo_financeiro}, com uma única linha de totais
+     * do painel de gerenciamento, preenchida a partir dos produtos e vendas
+     * existentes. Os gatilhos que a mantêm são criados em seguida por
+     * {@link DatabaseManager#inicializarBanco()}.
+     */
+    private static void migrarParaV5(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE IF NOT EXISTS resumo_financeiro (" +
+                    "id INTEGER PRIMARY KEY CHECK (id = 1), " +
+                    "total_gasto_centavos INTEGER NOT NULL DEFAULT 0, " +
+                    "total_recebido_centavos INTEGER NOT NULL DEFAULT 0, " +
+                    "quantidade_estoque INTEGER NOT NULL DEFAULT 0, " +
+                    "valor_estoque_centavos INTEGER NOT NULL DEFAULT 0" +
+                    ")");
+            stmt.execute("INSERT INTO resumo_financeiro " +
+                    "(id, total_gasto_centavos, total_recebido_centavos, quantidade_estoque, valor_estoque_centavos) " +
+                    "SELECT 1, " +
+                    "(SELECT COALESCE(SUM(valor_compra_centavos), 0) FROM produtos), " +
+                    "(SELECT COALESCE(SUM(valor_venda_centavos), 0) FROM vendas), " +
+                    "(SELECT COUNT(*) FROM produtos WHERE vendido = 0), " +
+                    "(SELECT COALESCE(SUM(valor_compra_centavos), 0) FROM produtos WHERE vendido = 0)");
+        }
+    }
+
+    /**
+     * Versão 6: tabelas de busca textual (FTS5) {@code produtos_fts} e
+     * {@code clientes_fts}, indexando os produtos e clientes existentes. Os
+     * gatilhos que as mantêm são criados em seguida por
+     * {@link DatabaseManager#inicializarBanco()}.
+     */
+    private static void migrarParaV6(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE VIRTUAL TABLE IF NOT EXISTS produtos_fts USING fts5(" +
+                    "descricao, tamanho, content='produtos', content_rowid='id', " +
+                    "tokenize='unicode61 remove_diacritics 2', prefix='2 3')");
+            stmt.execute("CREATE VIRTUAL TABLE IF NOT EXISTS clientes_fts USING fts5(" +
+                    "nome, telefone, email, content='clientes', content_rowid='id', " +
+                    "tokenize='unicode61 remove_diacritics 2', prefix='2 3')");
+            stmt.execute("INSERT INTO produtos_fts (produtos_fts) VALUES ('rebuild')");
+            stmt.execute("INSERT INTO clientes_fts (clientes_fts) VALUES ('rebuild')");
+        }
+    }
+
+    /**
+     * Versão 7: imagens normalizadas. As imagens existentes ficam marcadas
+     * como pendentes ({@code normalizada = 0}) e são normalizadas em segundo
+     * plano; a tabela {@code imagens_miniaturas} guarda as miniaturas geradas.
+     */
+    private static void migrarParaV7(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("ALTER TABLE imagens ADD COLUMN normalizada INTEGER NOT NULL DEFAULT 0");
+            stmt.execute("CREATE TABLE IF NOT EXISTS imagens_miniaturas (" +
+                    "hash TEXT PRIMARY KEY REFERENCES imagens(hash), " +
+                    "dados BLOB NOT NULL" +
+                    ")");
+        }
+    }
+}
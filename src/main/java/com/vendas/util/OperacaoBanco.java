@@ -0,0 +1,23 @@
+package com.vendas.util;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Operação executada sobre uma conexão com o banco de dados.
+ *
+ * @param <T> Tipo do resultado da operação
+ */
+@FunctionalInterface
+public interface OperacaoBanco<T> {
+    
+    /**
+     * Executa a operação usando a conexão informada.
+     * A conexão pertence ao chamador e não deve ser fechada pela operação.
+     * 
+     * @param conn Conexão com o banco de dados
+     * @return Resultado da operação
+     * @throws SQLException se houver erro no banco de dados
+     */
+    T executar(Connection conn) throws SQLException;
+}
@@ -0,0 +1,298 @@
+package com.vendas.util;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+
+/**
+ * Normalização das imagens dos produtos antes de irem para o banco.
+ *
+ * Fotos de celular chegam com milhares de pixels de lado e vários megabytes
+ * de metadados; aqui elas são decodificadas, giradas conforme a orientação
+ * EXIF, reduzidas para caber em {@link #LADO_MAXIMO} pixels e regravadas em
+ * JPEG, sem metadados, na qualidade {@link #QUALIDADE_JPEG}. Junto sai uma
+ * miniatura JPEG de até {@link CacheMiniaturas#LADO} pixels, guardada ao lado
+ * da imagem para que as telas não precisem decodificar a imagem inteira.
+ *
+ * Configurável com as propriedades de sistema
+ * {@code -Dvendas.imagens.ladoMaximo=<pixels>} (padrão 1600) e
+ * {@code -Dvendas.imagens.qualidadeJpeg=<0..1>} (padrão 0.85).
+ *
+ * Decodificar uma foto grande leva algumas centenas de milissegundos: chame
+ * {@link #normalizar(byte[])} fora da thread de eventos do Swing.
+ */
+public final class ProcessadorImagens {
+
+    /** Tamanho máximo do arquivo aceito para normalização, em bytes. */
+    public static final long TAMANHO_MAXIMO_ARQUIVO = 20L * 1024 * 1024;
+
+    /** Largura e altura máximas da imagem gravada, em pixels. */
+    public static final int LADO_MAXIMO = Math.max(CacheMiniaturas.LADO,
+            Integer.getInteger("vendas.imagens.ladoMaximo", 1600));
+
+    /** Qualidade da compressão JPEG, entre 0 e 1. */
+    public static final float QUALIDADE_JPEG = lerQualidade();
+
+    private static final int MARCADOR_SOI = 0xFFD8;
+    private static final int MARCADOR_APP1 = 0xFFE1;
+    private static final int MARCADOR_SOS = 0xFFDA;
+    private static final int TAG_ORIENTACAO = 0x0112;
+
+    private ProcessadorImagens() {
+    }
+
+    /**
+     * Normaliza uma imagem enviada pelo usuário.
+     *
+     * @param original Bytes do arquivo (JPEG, PNG, GIF ou BMP)
+     * @return Imagem normalizada e sua miniatura, ou null se os bytes não
+     *         forem uma imagem reconhecida
+     * @throws IOException se houver erro ao decodificar ou codificar a imagem
+     */
+    public static ImagemNormalizada normalizar(byte[] original) throws IOException {
+        if (original == null || original.length == 0) {
+            return null;
+        }
+        BufferedImage decodificada = decodificar(original);
+        if (decodificada == null) {
+            return null;
+        }
+
+        // Reduzir antes de girar: a rotação percorre menos pixels e o lado
+        // maior continua o mesmo
+        BufferedImage imagem = CacheMiniaturas.reduzir(decodificada, LADO_MAXIMO);
+        imagem = orientar(removerTransparencia(imagem), lerOrientacao(original));
+
+        BufferedImage miniatura = CacheMiniaturas.reduzir(imagem, CacheMiniaturas.LADO);
+        return new ImagemNormalizada(codificarJpeg(imagem), codificarJpeg(miniatura),
+                imagem.getWidth(), imagem.getHeight());
+    }
+
+    /**
+     * Decodifica ignorando os metadados. Fotos com mais que o dobro do lado
+     * máximo são lidas com subamostragem, o que evita alocar os pixels de
+     * uma foto inteira só para reduzi-la em seguida.
+     */
+    private static BufferedImage decodificar(byte[] dados) throws IOException {
+        try (ImageInputStream entrada = ImageIO.createImageInputStream(new ByteArrayInputStream(dados))) {
+            Iterator<ImageReader> leitores = ImageIO.getImageReaders(entrada);
+            if (!leitores.hasNext()) {
+                return null;
+            }
+            ImageReader leitor = leitores.next();
+            try {
+                leitor.setInput(entrada, true, true);
+                int ladoOriginal = Math.max(leitor.getWidth(0), leitor.getHeight(0));
+                ImageReadParam parametros = leitor.getDefaultReadParam();
+                int passo = ladoOriginal / (2 * LADO_MAXIMO);
+                if (passo > 1) {
+                    parametros.setSourceSubsampling(passo, passo, 0, 0);
+                }
+                return leitor.read(0, parametros);
+            } finally {
+                leitor.dispose();
+            }
+        }
+    }
+
+    /**
+     * JPEG não tem transparência: áreas transparentes ficam brancas.
+     */
+    private static BufferedImage removerTransparencia(BufferedImage imagem) {
+        if (imagem.getTransparency() == Transparency.OPAQUE) {
+            return imagem;
+        }
+        BufferedImage opaca = new BufferedImage(imagem.getWidth(), imagem.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = opaca.createGraphics();
+        try {
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, imagem.getWidth(), imagem.getHeight());
+            g.drawImage(imagem, 0, 0, null);
+        } finally {
+            g.dispose();
+        }
+        return opaca;
+    }
+
+    /**
+     * Aplica a orientação EXIF (1 a 8), já que os metadados não são gravados.
+     *
+     * @param imagem Imagem em formato de pixels inteiros
+     * @param orientacao Valor da tag Orientation (1 = sem transformação)
+     */
+    static BufferedImage orientar(BufferedImage imagem, int orientacao) {
+        if (orientacao < 2 || orientacao > 8) {
+            return imagem;
+        }
+        int largura = imagem.getWidth();
+        int altura = imagem.getHeight();
+        boolean transposta = orientacao >= 5;
+        int novaLargura = transposta ? altura : largura;
+        int novaAltura = transposta ? largura : altura;
+
+        int[] origem = imagem.getRGB(0, 0, largura, altura, null, 0, largura);
+        int[] destino = new int[origem.length];
+        for (int y = 0; y < altura; y++) {
+            for (int x = 0; x < largura; x++) {
+                int nx;
+                int ny;
+                switch (orientacao) {
+                    case 2: nx = largura - 1 - x; ny = y; break;
+                    case 3: nx = largura - 1 - x; ny = altura - 1 - y; break;
+                    case 4: nx = x; ny = altura - 1 - y; break;
+                    case 5: nx = y; ny = x; break;
+                    case 6: nx = altura - 1 - y; ny = x; break;
+                    case 7: nx = altura - 1 - y; ny = largura - 1 - x; break;
+                    default: nx = y; ny = largura - 1 - x; break;
+                }
+                destino[ny * novaLargura + nx] = origem[y * largura + x];
+            }
+        }
+
+        BufferedImage orientada = new BufferedImage(novaLargura, novaAltura, BufferedImage.TYPE_INT_RGB);
+        orientada.setRGB(0, 0, novaLargura, novaAltura, destino, 0, novaLargura);
+        return orientada;
+    }
+
+    /**
+     * Lê a tag Orientation do bloco EXIF de um JPEG.
+     *
+     * @return Orientação (1 a 8), ou 1 se não for JPEG ou não houver a tag
+     */
+    static int lerOrientacao(byte[] dados) {
+        if (dados.length < 4 || lerU16(dados, 0, false) != MARCADOR_SOI) {
+            return 1;
+        }
+        int posicao = 2;
+        while (posicao + 4 <= dados.length) {
+            int marcador = lerU16(dados, posicao, false);
+            if ((marcador & 0xFF00) != 0xFF00 || marcador == MARCADOR_SOS) {
+                return 1;
+            }
+            int tamanho = lerU16(dados, posicao + 2, false);
+            int inicio = posicao + 4;
+            if (marcador == MARCADOR_APP1 && tamanho >= 8 && inicio + 6 <= dados.length
+                    && dados[inicio] == 'E' && dados[inicio + 1] == 'x' && dados[inicio + 2] == 'i'
+                    && dados[inicio + 3] == 'f' && dados[inicio + 4] == 0 && dados[inicio + 5] == 0) {
+                return lerOrientacaoTiff(dados, inicio + 6, Math.min(dados.length, posicao + 2 + tamanho));
+            }
+            posicao += 2 + tamanho;
+        }
+        return 1;
+    }
+
+    /**
+     * Procura a tag Orientation no primeiro diretório (IFD0) do cabeçalho TIFF.
+     */
+    private static int lerOrientacaoTiff(byte[] dados, int tiff, int fim) {
+        if (tiff + 8 > fim) {
+            return 1;
+        }
+        boolean intel = dados[tiff] == 'I' && dados[tiff + 1] == 'I';
+        long deslocamento = lerU32(dados, tiff + 4, intel);
+        if (deslocamento < 8 || tiff + deslocamento + 2 > fim) {
+            return 1;
+        }
+        int diretorio = (int) (tiff + deslocamento);
+        int entradas = lerU16(dados, diretorio, intel);
+        for (int i = 0; i < entradas; i++) {
+            int entrada = diretorio + 2 + i * 12;
+            if (entrada + 12 > fim) {
+                break;
+            }
+            if (lerU16(dados, entrada, intel) == TAG_ORIENTACAO) {
+                int valor = lerU16(dados, entrada + 8, intel);
+                return valor >= 1 && valor <= 8 ? valor : 1;
+            }
+        }
+        return 1;
+    }
+
+    private static int lerU16(byte[] dados, int posicao, boolean intel) {
+        int a = dados[posicao] & 0xFF;
+        int b = dados[posicao + 1] & 0xFF;
+        return intel ? (b << 8) | a : (a << 8) | b;
+    }
+
+    private static long lerU32(byte[] dados, int posicao, boolean intel) {
+        long alto = lerU16(dados, posicao, intel);
+        long baixo = lerU16(dados, posicao + 2, intel);
+        return intel ? (baixo << 16) | alto : (alto << 16) | baixo;
+    }
+
+    private static byte[] codificarJpeg(BufferedImage imagem) throws IOException {
+        ImageWriter escritor = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        try (ImageOutputStream destino = ImageIO.createImageOutputStream(saida)) {
+            ImageWriteParam parametros = escritor.getDefaultWriteParam();
+            parametros.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            parametros.setCompressionQuality(QUALIDADE_JPEG);
+            escritor.setOutput(destino);
+            escritor.write(null, new IIOImage(imagem, null, null), parametros);
+        } finally {
+            escritor.dispose();
+        }
+        return saida.toByteArray();
+    }
+
+    private static float lerQualidade() {
+        String valor = System.getProperty("vendas.imagens.qualidadeJpeg", "0.85");
+        try {
+            return Math.max(0.1f, Math.min(1.0f, Float.parseFloat(valor)));
+        } catch (NumberFormatException e) {
+            return 0.85f;
+        }
+    }
+
+    /**
+     * Resultado da normalização: a imagem em JPEG e sua miniatura.
+     */
+    public static final class ImagemNormalizada {
+        private final byte[] dados;
+        private final byte[] miniatura;
+        private final int largura;
+        private final int altura;
+
+        ImagemNormalizada(byte[] dados, byte[] miniatura, int largura, int altura) {
+            this.dados = dados;
+            this.miniatura = miniatura;
+            this.largura = largura;
+            this.altura = altura;
+        }
+
+        /**
+         * @return Imagem em JPEG, sem metadados
+         */
+        public byte[] getDados() {
+            return dados;
+        }
+
+        /**
+         * @return Miniatura em JPEG, de até {@link CacheMiniaturas#LADO} pixels de lado
+         */
+        public byte[] getMiniatura() {
+            return miniatura;
+        }
+
+        public int getLargura() {
+            return largura;
+        }
+
+        public int getAltura() {
+            return altura;
+        }
+    }
+}
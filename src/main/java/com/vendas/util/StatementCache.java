@@ -0,0 +1,278 @@
+package com.vendas.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache LRU de PreparedStatements de uma conexão física.
+ *
+ * O cache guarda apenas statements livres, indexados pelo texto SQL. Um statement
+ * emprestado sai do cache e volta a ele quando o chamador o fecha; se o mesmo SQL
+ * for pedido enquanto o anterior está em uso, um novo statement é preparado.
+ * Quando a capacidade é excedida, o statement usado há mais tempo é fechado.
+ *
+ * Ao voltar ao cache o statement é limpo para o próximo chamador: os
+ * ResultSets que ficaram abertos são fechados e maxRows, fetchSize e
+ * queryTimeout voltam aos valores de quando foi emprestado. Um statement com
+ * outra configuração alterada (fetchDirection, poolable, ...) é fechado em
+ * vez de voltar ao cache.
+ */
+class StatementCache {
+
+    /** Configurações do statement que não são restauradas ao devolvê-lo. */
+    private static final Set<String> CONFIGURACOES_NAO_RESTAURADAS = new HashSet<>(Arrays.asList(
+            "setLargeMaxRows", "setFetchDirection", "setEscapeProcessing", "setCursorName",
+            "setPoolable", "closeOnCompletion"));
+
+    private final Connection conexao;
+    private final int capacidade;
+    private final Metricas metricas;
+    private final LinkedHashMap<Chave, PreparedStatement> livres;
+
+    /**
+     * @param conexao Conexão física dona dos statements
+     * @param capacidade Número máximo de statements livres mantidos
+     * @param metricas Contadores compartilhados pelo pool
+     */
+    StatementCache(Connection conexao, int capacidade, Metricas metricas) {
+        this.conexao = conexao;
+        this.capacidade = capacidade;
+        this.metricas = metricas;
+        this.livres = new LinkedHashMap<Chave, PreparedStatement>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Chave, PreparedStatement> maisAntigo) {
+                if (size() > StatementCache.this.capacidade) {
+                    metricas.remocoes.incrementAndGet();
+                    fecharSilenciosamente(maisAntigo.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Obtém um statement para o SQL informado, reaproveitando um livre se houver.
+     *
+     * @param sql Texto SQL
+     * @param chavesGeradas Valor de {@code Statement.RETURN_GENERATED_KEYS} ou {@code NO_GENERATED_KEYS}
+     * @param conexaoProxy Conexão devolvida por {@code getConnection()} do statement
+     * @return Statement cujo {@code close()} o devolve ao cache
+     * @throws SQLException se houver erro ao preparar o statement
+     */
+    PreparedStatement obter(String sql, int chavesGeradas, Connection conexaoProxy) throws SQLException {
+        Chave chave = new Chave(sql, chavesGeradas);
+        PreparedStatement pstmt = livres.remove(chave);
+
+        if (pstmt != null && !pstmt.isClosed()) {
+            metricas.acertos.incrementAndGet();
+        } else {
+            metricas.falhas.incrementAndGet();
+            pstmt = conexao.prepareStatement(sql, chavesGeradas);
+        }
+
+        return (PreparedStatement) Proxy.newProxyInstance(
+                StatementCache.class.getClassLoader(),
+                new Class<?>[] { PreparedStatement.class },
+                new StatementEmprestado(chave, pstmt, conexaoProxy));
+    }
+
+    private void devolver(Chave chave, PreparedStatement pstmt, StatementEmprestado emprestimo) {
+        try {
+            if (pstmt.isClosed()) {
+                return;
+            }
+            emprestimo.fecharResultados();
+            if (emprestimo.configuracaoAlterada) {
+                fecharSilenciosamente(pstmt);
+                return;
+            }
+            emprestimo.restaurarConfiguracao(pstmt);
+            pstmt.clearParameters();
+            pstmt.clearBatch();
+        } catch (SQLException e) {
+            fecharSilenciosamente(pstmt);
+            return;
+        }
+
+        PreparedStatement anterior = livres.put(chave, pstmt);
+        if (anterior != null && anterior != pstmt) {
+            fecharSilenciosamente(anterior);
+        }
+    }
+
+    /**
+     * Fecha todos os statements livres. Chamado quando a conexão física é descartada.
+     */
+    void fechar() {
+        for (PreparedStatement pstmt : livres.values()) {
+            fecharSilenciosamente(pstmt);
+        }
+        livres.clear();
+    }
+
+    private static void fecharSilenciosamente(PreparedStatement pstmt) {
+        try {
+            pstmt.close();
+        } catch (SQLException e) {
+            ExceptionHandler.logAviso("Erro ao fechar statement do cache: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Proxy entregue ao chamador: {@code close()} devolve o statement ao cache.
+     */
+    private class StatementEmprestado implements InvocationHandler {
+        private final Chave chave;
+        private final Connection conexaoProxy;
+        private PreparedStatement pstmt;
+        private final List<ResultSet> resultados = new ArrayList<>(1);
+        private boolean configuracaoAlterada;
+
+        // Valores anteriores às alterações do chamador (null se não alterados)
+        private Integer maxRowsOriginal;
+        private Integer fetchSizeOriginal;
+        private Integer queryTimeoutOriginal;
+
+        StatementEmprestado(Chave chave, PreparedStatement pstmt, Connection conexaoProxy) {
+            this.chave = chave;
+            this.pstmt = pstmt;
+            this.conexaoProxy = conexaoProxy;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String nome = method.getName();
+
+            if ("close".equals(nome)) {
+                if (pstmt != null) {
+                    PreparedStatement devolvido = pstmt;
+                    pstmt = null;
+                    devolver(chave, devolvido, this);
+                }
+                return null;
+            }
+            if ("isClosed".equals(nome)) {
+                return pstmt == null || pstmt.isClosed();
+            }
+            if ("equals".equals(nome)) {
+                return proxy == args[0];
+            }
+            if ("hashCode".equals(nome)) {
+                return System.identityHashCode(proxy);
+            }
+            if ("toString".equals(nome)) {
+                return "StatementEmprestado[" + chave.sql + "]";
+            }
+            if (pstmt == null) {
+                throw new SQLException("O statement já foi fechado");
+            }
+            if ("getConnection".equals(nome)) {
+                return conexaoProxy;
+            }
+            guardarConfiguracao(nome);
+
+            Object resultado;
+            try {
+                resultado = method.invoke(pstmt, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (resultado instanceof ResultSet) {
+                resultados.add((ResultSet) resultado);
+            }
+            return resultado;
+        }
+
+        /**
+         * Guarda o valor atual de uma configuração antes da primeira alteração.
+         */
+        private void guardarConfiguracao(String nome) throws SQLException {
+            if ("setMaxRows".equals(nome) && maxRowsOriginal == null) {
+                maxRowsOriginal = pstmt.getMaxRows();
+            } else if ("setFetchSize".equals(nome) && fetchSizeOriginal == null) {
+                fetchSizeOriginal = pstmt.getFetchSize();
+            } else if ("setQueryTimeout".equals(nome) && queryTimeoutOriginal == null) {
+                queryTimeoutOriginal = pstmt.getQueryTimeout();
+            } else if (CONFIGURACOES_NAO_RESTAURADAS.contains(nome)) {
+                configuracaoAlterada = true;
+            }
+        }
+
+        /**
+         * Fecha os ResultSets obtidos pelo chamador; um ResultSet aberto
+         * manteria a leitura (e o lock do SQLite) até o próximo uso do statement.
+         */
+        void fecharResultados() throws SQLException {
+            for (ResultSet rs : resultados) {
+                rs.close();
+            }
+            resultados.clear();
+        }
+
+        void restaurarConfiguracao(PreparedStatement original) throws SQLException {
+            if (maxRowsOriginal != null) {
+                original.setMaxRows(maxRowsOriginal);
+            }
+            if (fetchSizeOriginal != null) {
+                original.setFetchSize(fetchSizeOriginal);
+            }
+            if (queryTimeoutOriginal != null) {
+                original.setQueryTimeout(queryTimeoutOriginal);
+            }
+        }
+    }
+
+    /**
+     * Chave do cache: texto SQL e modo de chaves geradas.
+     */
+    private static final class Chave {
+        private final String sql;
+        private final int chavesGeradas;
+
+        Chave(String sql, int chavesGeradas) {
+            this.sql = sql;
+            this.chavesGeradas = chavesGeradas;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Chave)) {
+                return false;
+            }
+            Chave outra = (Chave) o;
+            return chavesGeradas == outra.chavesGeradas && sql.equals(outra.sql);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * sql.hashCode() + chavesGeradas;
+        }
+    }
+
+    /**
+     * Contadores de acertos, falhas e remoções compartilhados pelos caches de um pool.
+     */
+    static class Metricas {
+        final AtomicLong acertos = new AtomicLong();
+        final AtomicLong falhas = new AtomicLong();
+        final AtomicLong remocoes = new AtomicLong();
+    }
+}
@@ -1,6 +1,10 @@
 package com.vendas.util;
 
+import com.vendas.model.Dinheiro;
+
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import java.awt.*;
 import java.math.BigDecimal;
 import java.text.NumberFormat;
@@ -27,6 +31,16 @@ public class UIUtils {
         return FORMATO_MOEDA.format(valor);
     }
     
+    /**
+     * Formata um valor em centavos para string monetária no formato brasileiro.
+     * 
+     * @param valor Valor a ser formatado
+     * @return String formatada como moeda (ex: "R$ 150,00")
+     */
+    public static String formatarValorMonetario(Dinheiro valor) {
+        return formatarValorMonetario(valor != null ? valor.toBigDecimal() : null);
+    }
+    
     /**
      * Formata um valor double para string monetária no formato brasileiro.
      * 
@@ -249,6 +263,64 @@ public class UIUtils {
         janela.setLocationRelativeTo(null);
     }
     
+    /**
+     * Executa uma ação quando o usuário para de digitar em um campo, em vez de
+     * a cada tecla. Usado nos campos de pesquisa, para não consultar o banco
+     * enquanto a palavra ainda está sendo digitada.
+     * 
+     * @param campo Campo de texto observado
+     * @param atrasoMs Tempo sem digitação, em milissegundos, antes de executar a ação
+     * @param acao Ação executada na thread de eventos do Swing
+     */
+    public static void aoPararDeDigitar(JTextField campo, int atrasoMs, Runnable acao) {
+        Timer timer = new Timer(atrasoMs, e -> acao.run());
+        timer.setRepeats(false);
+        
+        campo.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                timer.restart();
+            }
+            
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                timer.restart();
+            }
+            
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                timer.restart();
+            }
+        });
+    }
+    
+    /**
+     * Executa uma ação a cada alteração do texto de um campo. Usado nos campos
+     * de pesquisa atendidos por índices em memória, rápidos o bastante para
+     * responder a cada tecla.
+     * 
+     * @param campo Campo de texto observado
+     * @param acao Ação executada na thread de eventos do Swing
+     */
+    public static void aoDigitar(JTextField campo, Runnable acao) {
+        campo.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                acao.run();
+            }
+            
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                acao.run();
+            }
+            
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                acao.run();
+            }
+        });
+    }
+    
     /**
      * Define o look and feel do sistema para a aplicação.
      */
@@ -1,19 +1,30 @@
 package com.vendas.view;
 
+import com.vendas.controller.ImagemController;
+import com.vendas.controller.ImportacaoController;
+import com.vendas.controller.ImportacaoController.ResultadoImportacao;
 import com.vendas.controller.ProdutoController;
 import com.vendas.model.Produto;
+import com.vendas.util.ProcessadorImagens;
+import com.vendas.util.ProcessadorImagens.ImagemNormalizada;
 import com.vendas.util.UIUtils;
 
+import javax.imageio.ImageIO;
 import javax.swing.*;
 import javax.swing.filechooser.FileNameExtensionFilter;
 import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
 
 /**
  * Painel para cadastro de produtos (camisas) no estoque.
@@ -31,9 +42,11 @@ public class CadastroProdutoPanel extends JPanel {
     private JSpinner spnDataCompra;
     private JButton btnSalvar;
     private JButton btnLimpar;
+    private JButton btnImportarCsv;
     
     // Dados da imagem
     private byte[] imagemBytes;
+    private byte[] miniaturaBytes;
     private ImageIcon imagemPreview;
     
     public CadastroProdutoPanel() {
@@ -199,8 +212,20 @@ public class CadastroProdutoPanel extends JPanel {
         btnLimpar.setCursor(new Cursor(Cursor.HAND_CURSOR));
         painel.add(btnLimpar);
         
+        // Botão Importar CSV
+        btnImportarCsv = new JButton("Importar CSV");
+        btnImportarCsv.setFont(new Font("Arial", Font.BOLD, 14));
+        btnImportarCsv.setPreferredSize(new Dimension(150, 40));
+        btnImportarCsv.setBackground(new Color(52, 152, 219));
+        btnImportarCsv.setForeground(Color.WHITE);
+        btnImportarCsv.setFocusPainted(false);
+        btnImportarCsv.setCursor(new Cursor(Cursor.HAND_CURSOR));
+        btnImportarCsv.setToolTipText("Colunas: descricao;tamanho;valor_compra;data_compra;imagem");
+        painel.add(btnImportarCsv);
+        
         // Adicionar listeners
         btnLimpar.addActionListener(e -> limparFormulario());
+        btnImportarCsv.addActionListener(e -> importarCsv());
         
         return painel;
     }
@@ -242,66 +267,72 @@ public class CadastroProdutoPanel extends JPanel {
                 return;
             }
             
-            // Validar tamanho do arquivo (máximo 5MB)
+            // Validar tamanho do arquivo (a imagem é reduzida antes de ser gravada)
             long tamanhoArquivo = arquivoSelecionado.length();
-            long tamanhoMaximo = 5 * 1024 * 1024; // 5MB em bytes
-            if (tamanhoArquivo > tamanhoMaximo) {
-                UIUtils.mostrarMensagemErro(this, "A imagem é muito grande. O tamanho máximo é 5MB.");
+            if (tamanhoArquivo > ProcessadorImagens.TAMANHO_MAXIMO_ARQUIVO) {
+                UIUtils.mostrarMensagemErro(this, "A imagem é muito grande. O tamanho máximo é 20MB.");
                 return;
             }
             
-            try {
-                // Converter imagem para byte array
-                imagemBytes = Files.readAllBytes(arquivoSelecionado.toPath());
-                
-                // Exibir preview da imagem
-                exibirPreviewImagem(arquivoSelecionado);
-                
-            } catch (IOException ex) {
-                UIUtils.mostrarMensagemErro(this, "Erro ao carregar imagem: " + ex.getMessage());
-                imagemBytes = null;
-            }
+            normalizarImagem(arquivoSelecionado);
         }
     }
     
     /**
-     * Exibe o preview da imagem selecionada.
+     * Lê, normaliza (reduz e converte para JPEG sem metadados) e exibe a imagem
+     * em segundo plano. Enquanto isso o botão de salvar fica desabilitado, para
+     * não gravar o produto sem a imagem escolhida.
      */
-    private void exibirPreviewImagem(File arquivo) {
-        try {
-            // Carregar imagem original
-            ImageIcon iconOriginal = new ImageIcon(arquivo.getAbsolutePath());
-            Image imagemOriginal = iconOriginal.getImage();
-            
-            // Redimensionar imagem para caber no preview (200x200)
-            int larguraPreview = 200;
-            int alturaPreview = 200;
-            
-            // Calcular dimensões mantendo proporção
-            int larguraOriginal = imagemOriginal.getWidth(null);
-            int alturaOriginal = imagemOriginal.getHeight(null);
-            
-            double proporcao = Math.min(
-                (double) larguraPreview / larguraOriginal,
-                (double) alturaPreview / alturaOriginal
-            );
-            
-            int novaLargura = (int) (larguraOriginal * proporcao);
-            int novaAltura = (int) (alturaOriginal * proporcao);
-            
-            // Redimensionar imagem
-            Image imagemRedimensionada = imagemOriginal.getScaledInstance(
-                novaLargura, novaAltura, Image.SCALE_SMOOTH
-            );
+    private void normalizarImagem(File arquivo) {
+        btnSelecionarImagem.setEnabled(false);
+        btnSalvar.setEnabled(false);
+        lblPreviewImagem.setIcon(null);
+        lblPreviewImagem.setText("Processando imagem...");
+        
+        new SwingWorker<ImagemNormalizada, Void>() {
+            private BufferedImage preview;
             
-            // Criar e definir o ícone redimensionado
-            imagemPreview = new ImageIcon(imagemRedimensionada);
-            lblPreviewImagem.setIcon(imagemPreview);
-            lblPreviewImagem.setText("");
+            @Override
+            protected ImagemNormalizada doInBackground() throws IOException {
+                ImagemNormalizada normalizada = new ImagemController().normalizarImagem(
+                    Files.readAllBytes(arquivo.toPath()));
+                preview = ImageIO.read(new ByteArrayInputStream(normalizada.getMiniatura()));
+                return normalizada;
+            }
             
-        } catch (Exception ex) {
-            UIUtils.mostrarMensagemErro(this, "Erro ao exibir preview da imagem: " + ex.getMessage());
+            @Override
+            protected void done() {
+                btnSelecionarImagem.setEnabled(true);
+                btnSalvar.setEnabled(true);
+                try {
+                    ImagemNormalizada normalizada = get();
+                    imagemBytes = normalizada.getDados();
+                    miniaturaBytes = normalizada.getMiniatura();
+                    exibirPreviewImagem(preview);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException ex) {
+                    imagemBytes = null;
+                    miniaturaBytes = null;
+                    lblPreviewImagem.setText("Nenhuma imagem selecionada");
+                    UIUtils.mostrarMensagemErro(CadastroProdutoPanel.this,
+                        "Erro ao carregar imagem: " + ex.getCause().getMessage());
+                }
+            }
+        }.execute();
+    }
+    
+    /**
+     * Exibe o preview da imagem selecionada (a miniatura gerada na normalização).
+     */
+    private void exibirPreviewImagem(BufferedImage miniatura) {
+        if (miniatura == null) {
+            lblPreviewImagem.setText("Preview indisponível");
+            return;
         }
+        imagemPreview = new ImageIcon(miniatura);
+        lblPreviewImagem.setIcon(imagemPreview);
+        lblPreviewImagem.setText("");
     }
     
     /**
@@ -319,6 +350,7 @@ public class CadastroProdutoPanel extends JPanel {
             produto.setDescricao(txtDescricao.getText().trim());
             produto.setTamanho((String) cmbTamanho.getSelectedItem());
             produto.setImagem(imagemBytes); // Pode ser null
+            produto.setMiniatura(miniaturaBytes);
             
             // Converter valor de compra
             BigDecimal valorCompra = UIUtils.converterParaBigDecimal(txtValorCompra.getText());
@@ -350,6 +382,110 @@ public class CadastroProdutoPanel extends JPanel {
         }
     }
     
+    /**
+     * Importa produtos em massa de um arquivo CSV, com uma pasta opcional de imagens.
+     * A importação roda em segundo plano, exibindo o progresso em um diálogo.
+     */
+    private void importarCsv() {
+        JFileChooser seletorCsv = new JFileChooser();
+        seletorCsv.setDialogTitle("Selecionar Arquivo CSV de Produtos");
+        seletorCsv.setFileFilter(new FileNameExtensionFilter("Arquivos CSV (*.csv)", "csv"));
+        if (seletorCsv.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        Path arquivoCsv = seletorCsv.getSelectedFile().toPath();
+        
+        // Pasta de imagens opcional (padrão: pasta do CSV)
+        Path pastaImagens = null;
+        int opcao = JOptionPane.showConfirmDialog(this,
+            "Deseja selecionar uma pasta de imagens?\n(Se não, as imagens serão procuradas na pasta do CSV.)",
+            "Pasta de Imagens", JOptionPane.YES_NO_OPTION, JOptionPane.QUESTION_MESSAGE);
+        if (opcao == JOptionPane.YES_OPTION) {
+            JFileChooser seletorPasta = new JFileChooser(seletorCsv.getCurrentDirectory());
+            seletorPasta.setDialogTitle("Selecionar Pasta de Imagens");
+            seletorPasta.setFileSelectionMode(JFileChooser.DIRECTORIES_ONLY);
+            if (seletorPasta.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+                return;
+            }
+            pastaImagens = seletorPasta.getSelectedFile().toPath();
+        }
+        
+        // Diálogo de progresso
+        JDialog dialogo = new JDialog(SwingUtilities.getWindowAncestor(this), "Importando Produtos",
+            Dialog.ModalityType.MODELESS);
+        JProgressBar barraProgresso = new JProgressBar();
+        barraProgresso.setIndeterminate(true);
+        JLabel lblProgresso = new JLabel("Lendo arquivo...");
+        lblProgresso.setFont(new Font("Arial", Font.PLAIN, 14));
+        JPanel painelProgresso = new JPanel(new BorderLayout(10, 10));
+        painelProgresso.setBorder(BorderFactory.createEmptyBorder(15, 15, 15, 15));
+        painelProgresso.add(lblProgresso, BorderLayout.NORTH);
+        painelProgresso.add(barraProgresso, BorderLayout.CENTER);
+        dialogo.setContentPane(painelProgresso);
+        dialogo.setSize(400, 120);
+        dialogo.setLocationRelativeTo(this);
+        dialogo.setDefaultCloseOperation(JDialog.DO_NOTHING_ON_CLOSE);
+        
+        btnImportarCsv.setEnabled(false);
+        final Path pasta = pastaImagens;
+        
+        SwingWorker<ResultadoImportacao, int[]> tarefa = new SwingWorker<ResultadoImportacao, int[]>() {
+            @Override
+            protected ResultadoImportacao doInBackground() {
+                return new ImportacaoController().importarProdutos(arquivoCsv, pasta,
+                    ImportacaoController.TAMANHO_LOTE_PADRAO,
+                    (lidas, importados, erros) -> publish(new int[] {lidas, importados, erros}));
+            }
+            
+            @Override
+            protected void process(List<int[]> progressos) {
+                int[] atual = progressos.get(progressos.size() - 1);
+                lblProgresso.setText(atual[0] + " linhas lidas, " + atual[1] + " importadas, " +
+                    atual[2] + " com erro");
+            }
+            
+            @Override
+            protected void done() {
+                dialogo.dispose();
+                btnImportarCsv.setEnabled(true);
+                try {
+                    exibirResultadoImportacao(get());
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException ex) {
+                    UIUtils.mostrarMensagemErro(CadastroProdutoPanel.this,
+                        "Erro ao importar produtos: " + ex.getCause().getMessage());
+                }
+            }
+        };
+        
+        dialogo.setVisible(true);
+        tarefa.execute();
+    }
+    
+    /**
+     * Exibe o resumo da importação, listando as primeiras linhas com erro.
+     */
+    private void exibirResultadoImportacao(ResultadoImportacao resultado) {
+        StringBuilder mensagem = new StringBuilder();
+        mensagem.append(resultado.getImportados()).append(" de ").append(resultado.getLinhasLidas())
+            .append(" produtos importados em ").append(resultado.getDuracaoMs()).append(" ms");
+        
+        List<ImportacaoController.ErroLinha> erros = resultado.getErros();
+        if (!erros.isEmpty()) {
+            int limite = Math.min(erros.size(), 20);
+            mensagem.append("\n\n").append(erros.size()).append(" linha(s) com erro:");
+            for (int i = 0; i < limite; i++) {
+                mensagem.append("\n").append(erros.get(i));
+            }
+            if (erros.size() > limite) {
+                mensagem.append("\n... e mais ").append(erros.size() - limite).append(" erro(s)");
+            }
+        }
+        
+        UIUtils.mostrarMensagemSucesso(this, mensagem.toString(), "Importação Concluída");
+    }
+    
     /**
      * Valida todos os campos obrigatórios do formulário.
      */
@@ -407,6 +543,7 @@ public class CadastroProdutoPanel extends JPanel {
         txtValorCompra.setText("");
         spnDataCompra.setValue(new Date());
         imagemBytes = null;
+        miniaturaBytes = null;
         imagemPreview = null;
         lblPreviewImagem.setIcon(null);
         lblPreviewImagem.setText("Nenhuma imagem selecionada");
@@ -434,10 +571,11 @@ public class CadastroProdutoPanel extends JPanel {
     }
     
     /**
-     * Define os bytes da imagem.
+     * Define os bytes da imagem. A imagem é normalizada ao salvar o produto.
      */
     public void setImagemBytes(byte[] imagemBytes) {
         this.imagemBytes = imagemBytes;
+        this.miniaturaBytes = null;
     }
     
     /**
@@ -3,11 +3,10 @@ package com.vendas.view;
 import com.vendas.controller.ClienteController;
 import com.vendas.controller.PagamentoController;
 import com.vendas.controller.VendaController;
-import com.vendas.dao.ProdutoDAO;
 import com.vendas.model.Cliente;
 import com.vendas.model.Pagamento;
-import com.vendas.model.Produto;
-import com.vendas.model.Venda;
+import com.vendas.model.SaldoCliente;
+import com.vendas.model.VendaDetalhada;
 import com.vendas.util.UIUtils;
 
 import javax.swing.*;
@@ -28,7 +27,6 @@ public class ClienteDetalhesPanel extends JPanel {
     private final ClienteController clienteController;
     private final VendaController vendaController;
     private final PagamentoController pagamentoController;
-    private final ProdutoDAO produtoDAO;
     
     // Componentes da interface
     private JTable tabelaVendas;
@@ -40,14 +38,25 @@ public class ClienteDetalhesPanel extends JPanel {
     private JLabel lblSaldoDevedor;
     private JButton btnRegistrarPagamento;
     
+    // Chamado após registrar um pagamento, para quem exibe o saldo do cliente
+    private final Runnable aoAlterarSaldo;
+    
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy");
     
     public ClienteDetalhesPanel(Cliente cliente) {
+        this(cliente, null);
+    }
+    
+    /**
+     * @param cliente Cliente exibido
+     * @param aoAlterarSaldo Ação executada após registrar um pagamento (pode ser null)
+     */
+    public ClienteDetalhesPanel(Cliente cliente, Runnable aoAlterarSaldo) {
         this.cliente = cliente;
+        this.aoAlterarSaldo = aoAlterarSaldo;
         this.clienteController = new ClienteController();
         this.vendaController = new VendaController();
         this.pagamentoController = new PagamentoController();
-        this.produtoDAO = new ProdutoDAO();
         
         inicializarComponentes();
         carregarDados();
@@ -269,15 +278,13 @@ public class ClienteDetalhesPanel extends JPanel {
             // Limpar tabela
             modeloTabelaVendas.setRowCount(0);
             
-            // Buscar vendas do cliente
-            List<Venda> vendas = vendaController.obterVendasPorCliente(cliente.getId());
+            // Buscar vendas do cliente, já com descrição e tamanho dos produtos
+            List<VendaDetalhada> vendas = vendaController.obterHistoricoCliente(cliente.getId());
             
             // Adicionar vendas na tabela
-            for (Venda venda : vendas) {
-                // Buscar informações do produto
-                Produto produto = produtoDAO.buscarPorId(venda.getProdutoId());
-                String descricaoProduto = produto != null ? 
-                    produto.getDescricao() + " (" + produto.getTamanho() + ")" : 
+            for (VendaDetalhada venda : vendas) {
+                String descricaoProduto = venda.getDescricaoProduto() != null ? 
+                    venda.getDescricaoProduto() + " (" + venda.getTamanhoProduto() + ")" : 
                     "Produto ID: " + venda.getProdutoId();
                 
                 Object[] linha = {
@@ -326,26 +333,13 @@ public class ClienteDetalhesPanel extends JPanel {
      */
     private void calcularResumoFinanceiro() {
         try {
-            // Calcular saldo devedor usando o controller
-            BigDecimal saldoDevedor = clienteController.calcularSaldoDevedor(cliente.getId());
-            
-            // Buscar vendas e pagamentos para exibir totais
-            List<Venda> vendas = vendaController.obterVendasPorCliente(cliente.getId());
-            List<Pagamento> pagamentos = pagamentoController.listarPagamentosPorCliente(cliente.getId());
-            
-            // Calcular total de vendas
-            BigDecimal totalVendas = vendas.stream()
-                .map(Venda::getValorVenda)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-            
-            // Calcular total pago
-            BigDecimal totalPago = pagamentos.stream()
-                .map(Pagamento::getValorPago)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+            // Totais e saldo mantidos pelo banco, sem buscar vendas e pagamentos novamente
+            SaldoCliente saldo = clienteController.obterSaldoCliente(cliente.getId());
+            BigDecimal saldoDevedor = saldo.getSaldo().toBigDecimal();
             
             // Atualizar labels
-            lblTotalVendas.setText(UIUtils.formatarValorMonetario(totalVendas));
-            lblTotalPago.setText(UIUtils.formatarValorMonetario(totalPago));
+            lblTotalVendas.setText(UIUtils.formatarValorMonetario(saldo.getTotalVendas()));
+            lblTotalPago.setText(UIUtils.formatarValorMonetario(saldo.getTotalPago()));
             lblSaldoDevedor.setText(UIUtils.formatarValorMonetario(saldoDevedor));
             
             // Aplicar destaque visual ao saldo devedor
@@ -383,6 +377,9 @@ public class ClienteDetalhesPanel extends JPanel {
         // Se o pagamento foi registrado com sucesso, atualizar os dados
         if (dialogo.isConfirmado()) {
             atualizarDados();
+            if (aoAlterarSaldo != null) {
+                aoAlterarSaldo.run();
+            }
         }
     }
     
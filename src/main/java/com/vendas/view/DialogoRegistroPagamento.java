@@ -1,6 +1,8 @@
 package com.vendas.view;
 
+import com.vendas.controller.ClienteController;
 import com.vendas.controller.PagamentoController;
+import com.vendas.model.Cliente;
 import com.vendas.model.Pagamento;
 import com.vendas.util.UIUtils;
 
@@ -10,17 +12,24 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.Date;
+import java.util.List;
 
 /**
  * Diálogo para registro de pagamentos de clientes.
+ * Aberto sem um cliente definido, mostra um campo de pesquisa que filtra os
+ * clientes a cada tecla para escolher quem está pagando.
  */
 public class DialogoRegistroPagamento extends JDialog {
     
     private final PagamentoController pagamentoController;
-    private final Long clienteId;
+    private final ClienteController clienteController;
+    private Long clienteId;
+    private final boolean escolherCliente;
     private boolean confirmado = false;
     
     // Componentes da interface
+    private JTextField txtPesquisaCliente;
+    private JComboBox<Cliente> cmbCliente;
     private JSpinner spnDataPagamento;
     private JTextField txtValor;
     private JTextArea txtObservacao;
@@ -36,12 +45,23 @@ public class DialogoRegistroPagamento extends JDialog {
     public DialogoRegistroPagamento(Frame parent, Long clienteId) {
         super(parent, "Registrar Pagamento", true);
         this.pagamentoController = new PagamentoController();
+        this.clienteController = new ClienteController();
         this.clienteId = clienteId;
+        this.escolherCliente = clienteId == null;
         
         inicializarComponentes();
         configurarDialogo();
     }
     
+    /**
+     * Construtor para registro de pagamento escolhendo o cliente no diálogo.
+     * 
+     * @param parent Frame pai
+     */
+    public DialogoRegistroPagamento(Frame parent) {
+        this(parent, null);
+    }
+    
     /**
      * Inicializa os componentes da interface.
      */
@@ -69,9 +89,25 @@ public class DialogoRegistroPagamento extends JDialog {
         gbc.fill = GridBagConstraints.HORIZONTAL;
         gbc.insets = new Insets(5, 5, 5, 5);
         
+        int linha = 0;
+        
+        // Cliente (obrigatório), somente quando não foi informado
+        if (escolherCliente) {
+            gbc.gridx = 0;
+            gbc.gridy = linha++;
+            gbc.weightx = 0;
+            JLabel lblCliente = new JLabel("Cliente: *");
+            lblCliente.setFont(new Font("Arial", Font.BOLD, 12));
+            painel.add(lblCliente, gbc);
+            
+            gbc.gridx = 1;
+            gbc.weightx = 1;
+            painel.add(criarPainelCliente(), gbc);
+        }
+        
         // Data do pagamento (obrigatório)
         gbc.gridx = 0;
-        gbc.gridy = 0;
+        gbc.gridy = linha;
         gbc.weightx = 0;
         JLabel lblData = new JLabel("Data: *");
         lblData.setFont(new Font("Arial", Font.BOLD, 12));
@@ -89,7 +125,7 @@ public class DialogoRegistroPagamento extends JDialog {
         
         // Valor do pagamento (obrigatório)
         gbc.gridx = 0;
-        gbc.gridy = 1;
+        gbc.gridy = linha + 1;
         gbc.weightx = 0;
         JLabel lblValor = new JLabel("Valor: *");
         lblValor.setFont(new Font("Arial", Font.BOLD, 12));
@@ -103,7 +139,7 @@ public class DialogoRegistroPagamento extends JDialog {
         
         // Observação (opcional)
         gbc.gridx = 0;
-        gbc.gridy = 2;
+        gbc.gridy = linha + 2;
         gbc.weightx = 0;
         gbc.anchor = GridBagConstraints.NORTHWEST;
         JLabel lblObservacao = new JLabel("Observação:");
@@ -124,7 +160,7 @@ public class DialogoRegistroPagamento extends JDialog {
         
         // Nota sobre campos obrigatórios
         gbc.gridx = 0;
-        gbc.gridy = 3;
+        gbc.gridy = linha + 3;
         gbc.gridwidth = 2;
         gbc.weighty = 0;
         gbc.fill = GridBagConstraints.HORIZONTAL;
@@ -137,6 +173,61 @@ public class DialogoRegistroPagamento extends JDialog {
         return painel;
     }
     
+    /**
+     * Cria o campo de pesquisa e a lista de clientes sugeridos.
+     */
+    private JPanel criarPainelCliente() {
+        JPanel painel = new JPanel(new BorderLayout(0, 5));
+        painel.setBackground(Color.WHITE);
+        
+        txtPesquisaCliente = new JTextField(20);
+        txtPesquisaCliente.setToolTipText("Pesquisar por nome, telefone ou e-mail");
+        painel.add(txtPesquisaCliente, BorderLayout.NORTH);
+        
+        cmbCliente = new JComboBox<>();
+        cmbCliente.setRenderer(new DefaultListCellRenderer() {
+            @Override
+            public Component getListCellRendererComponent(JList<?> list, Object value, int index,
+                                                          boolean isSelected, boolean cellHasFocus) {
+                super.getListCellRendererComponent(list, value, index, isSelected, cellHasFocus);
+                if (value instanceof Cliente) {
+                    Cliente cliente = (Cliente) value;
+                    setText(cliente.getTelefone() != null && !cliente.getTelefone().isEmpty()
+                            ? cliente.getNome() + " - " + cliente.getTelefone()
+                            : cliente.getNome());
+                }
+                return this;
+            }
+        });
+        painel.add(cmbCliente, BorderLayout.CENTER);
+        
+        // O índice de clientes em memória responde a cada tecla; ao abrir o
+        // diálogo ele é relido, para incluir clientes de outros terminais
+        UIUtils.aoDigitar(txtPesquisaCliente, this::carregarClientes);
+        clienteController.recarregarSugestoes();
+        carregarClientes();
+        
+        return painel;
+    }
+    
+    /**
+     * Carrega na lista os clientes sugeridos para a pesquisa, já selecionando
+     * o mais relevante.
+     */
+    private void carregarClientes() {
+        try {
+            List<Cliente> clientes = clienteController.sugerirClientes(txtPesquisaCliente.getText());
+            
+            cmbCliente.removeAllItems();
+            for (Cliente cliente : clientes) {
+                cmbCliente.addItem(cliente);
+            }
+            
+        } catch (Exception e) {
+            UIUtils.mostrarMensagemErro(this, "Erro ao carregar clientes: " + e.getMessage());
+        }
+    }
+    
     /**
      * Cria o painel com os botões de ação.
      */
@@ -173,7 +264,7 @@ public class DialogoRegistroPagamento extends JDialog {
      * Configura as propriedades do diálogo.
      */
     private void configurarDialogo() {
-        setSize(450, 350);
+        setSize(450, escolherCliente ? 420 : 350);
         setResizable(false);
         setLocationRelativeTo(getParent());
         setDefaultCloseOperation(DISPOSE_ON_CLOSE);
@@ -185,6 +276,13 @@ public class DialogoRegistroPagamento extends JDialog {
      * @return true se todos os campos obrigatórios estão preenchidos e válidos
      */
     private boolean validarCampos() {
+        // Validar cliente
+        if (escolherCliente && cmbCliente.getSelectedItem() == null) {
+            UIUtils.mostrarMensagemErro(this, "Selecione o cliente que está pagando");
+            txtPesquisaCliente.requestFocus();
+            return false;
+        }
+        
         // Validar data
         if (spnDataPagamento.getValue() == null) {
             UIUtils.mostrarMensagemErro(this, "A data do pagamento é obrigatória");
@@ -226,6 +324,10 @@ public class DialogoRegistroPagamento extends JDialog {
         }
         
         try {
+            if (escolherCliente) {
+                clienteId = ((Cliente) cmbCliente.getSelectedItem()).getId();
+            }
+            
             // Criar objeto Pagamento
             Pagamento pagamento = new Pagamento();
             pagamento.setClienteId(clienteId);
@@ -278,4 +380,14 @@ public class DialogoRegistroPagamento extends JDialog {
     public boolean isConfirmado() {
         return confirmado;
     }
+    
+    /**
+     * Obtém o cliente do pagamento (o escolhido no diálogo, quando não foi
+     * informado na criação).
+     * 
+     * @return ID do cliente, ou null se nenhum foi escolhido
+     */
+    public Long getClienteId() {
+        return clienteId;
+    }
 }
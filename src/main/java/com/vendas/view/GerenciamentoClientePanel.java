@@ -2,16 +2,24 @@ package com.vendas.view;
 
 import com.vendas.controller.ClienteController;
 import com.vendas.model.Cliente;
+import com.vendas.model.ClienteComSaldo;
 import com.vendas.util.UIUtils;
 
 import javax.swing.*;
+import javax.swing.table.DefaultTableCellRenderer;
 import javax.swing.table.DefaultTableModel;
+import javax.swing.table.TableModel;
+import javax.swing.table.TableRowSorter;
 import java.awt.*;
+import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
  * Painel para gerenciamento de clientes.
  * Permite listar, cadastrar, editar clientes e visualizar seus detalhes.
+ * A lista mostra o saldo de cada cliente, pode ser ordenada e filtrada por débito
+ * e pesquisada por nome, telefone ou e-mail.
  */
 public class GerenciamentoClientePanel extends JPanel {
     
@@ -20,12 +28,19 @@ public class GerenciamentoClientePanel extends JPanel {
     // Componentes da interface
     private JTable tabelaClientes;
     private DefaultTableModel modeloTabela;
+    private TableRowSorter<TableModel> ordenadorTabela;
+    private JCheckBox chkSomenteDevedores;
+    private JTextField txtPesquisa;
     private JButton btnNovoCliente;
     private JButton btnEditarCliente;
     private JButton btnVerDetalhes;
+    private JButton btnRegistrarPagamento;
     private JPanel painelDetalhes;
     private ClienteDetalhesPanel clienteDetalhesPanel;
     
+    // Clientes exibidos, na ordem das linhas do modelo da tabela
+    private List<ClienteComSaldo> clientesCarregados = new ArrayList<>();
+    
     public GerenciamentoClientePanel() {
         this.clienteController = new ClienteController();
         inicializarComponentes();
@@ -77,9 +92,13 @@ public class GerenciamentoClientePanel extends JPanel {
         btnVerDetalhes.addActionListener(e -> exibirDetalhesCliente());
         btnVerDetalhes.setEnabled(false);
         
+        btnRegistrarPagamento = criarBotao("Registrar Pagamento");
+        btnRegistrarPagamento.addActionListener(e -> abrirDialogoPagamento());
+        
         painelBotoes.add(btnNovoCliente);
         painelBotoes.add(btnEditarCliente);
         painelBotoes.add(btnVerDetalhes);
+        painelBotoes.add(btnRegistrarPagamento);
         
         painel.add(painelBotoes, BorderLayout.EAST);
         
@@ -118,24 +137,70 @@ public class GerenciamentoClientePanel extends JPanel {
         painel.setBackground(Color.WHITE);
         painel.setBorder(BorderFactory.createTitledBorder("Lista de Clientes"));
         
+        // Pesquisa (consulta o banco quando o usuário para de digitar)
+        JPanel painelFiltros = new JPanel(new BorderLayout(5, 0));
+        painelFiltros.setBackground(Color.WHITE);
+        txtPesquisa = new JTextField();
+        txtPesquisa.setToolTipText("Pesquisar por nome, telefone ou e-mail");
+        UIUtils.aoPararDeDigitar(txtPesquisa, 250, this::carregarClientes);
+        painelFiltros.add(new JLabel("Pesquisar:"), BorderLayout.WEST);
+        painelFiltros.add(txtPesquisa, BorderLayout.CENTER);
+        
+        // Filtro de clientes com débito
+        chkSomenteDevedores = new JCheckBox("Somente clientes com débito");
+        chkSomenteDevedores.setBackground(Color.WHITE);
+        chkSomenteDevedores.addActionListener(e -> aplicarFiltroDevedores());
+        painelFiltros.add(chkSomenteDevedores, BorderLayout.SOUTH);
+        painel.add(painelFiltros, BorderLayout.NORTH);
+        
         // Criar tabela de clientes
-        String[] colunas = {"ID", "Nome", "Telefone", "Email"};
+        String[] colunas = {"ID", "Nome", "Telefone", "Email", "Saldo"};
         modeloTabela = new DefaultTableModel(colunas, 0) {
             @Override
             public boolean isCellEditable(int row, int column) {
                 return false;
             }
+            
+            @Override
+            public Class<?> getColumnClass(int column) {
+                // Ordenação numérica para ID e saldo
+                if (column == 0) {
+                    return Long.class;
+                }
+                return column == 4 ? BigDecimal.class : String.class;
+            }
         };
         
         tabelaClientes = new JTable(modeloTabela);
         tabelaClientes.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
         tabelaClientes.getTableHeader().setReorderingAllowed(false);
         
+        // Ordenação por clique no cabeçalho, feita sobre os dados já carregados
+        ordenadorTabela = new TableRowSorter<>(modeloTabela);
+        tabelaClientes.setRowSorter(ordenadorTabela);
+        
         // Configurar larguras das colunas
         tabelaClientes.getColumnModel().getColumn(0).setPreferredWidth(50);
         tabelaClientes.getColumnModel().getColumn(1).setPreferredWidth(150);
         tabelaClientes.getColumnModel().getColumn(2).setPreferredWidth(100);
         tabelaClientes.getColumnModel().getColumn(3).setPreferredWidth(150);
+        tabelaClientes.getColumnModel().getColumn(4).setPreferredWidth(90);
+        
+        // Saldo formatado como moeda, em vermelho quando o cliente deve
+        tabelaClientes.getColumnModel().getColumn(4).setCellRenderer(new DefaultTableCellRenderer() {
+            @Override
+            public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected,
+                                                           boolean hasFocus, int row, int column) {
+                BigDecimal saldo = (BigDecimal) value;
+                super.getTableCellRendererComponent(table, UIUtils.formatarValorMonetario(saldo),
+                    isSelected, hasFocus, row, column);
+                setHorizontalAlignment(SwingConstants.RIGHT);
+                if (!isSelected) {
+                    setForeground(saldo != null && saldo.signum() > 0 ? new Color(231, 76, 60) : Color.BLACK);
+                }
+                return this;
+            }
+        });
         
         // Listener para seleção de linha
         tabelaClientes.getSelectionModel().addListSelectionListener(e -> {
@@ -170,32 +235,70 @@ public class GerenciamentoClientePanel extends JPanel {
     }
     
     /**
-     * Carrega a lista de clientes na tabela.
+     * Carrega na tabela os clientes que atendem à pesquisa (todos, se ela
+     * estiver em branco), com os saldos.
      */
     private void carregarClientes() {
         try {
             // Limpar tabela
             modeloTabela.setRowCount(0);
             
-            // Buscar clientes
-            List<Cliente> clientes = clienteController.listarClientes();
+            // Buscar clientes e saldos em uma única consulta
+            clientesCarregados = clienteController.pesquisarClientesComSaldo(txtPesquisa.getText());
             
             // Adicionar clientes na tabela
-            for (Cliente cliente : clientes) {
+            for (ClienteComSaldo item : clientesCarregados) {
+                Cliente cliente = item.getCliente();
                 Object[] linha = {
                     cliente.getId(),
                     cliente.getNome(),
                     cliente.getTelefone() != null ? cliente.getTelefone() : "",
-                    cliente.getEmail() != null ? cliente.getEmail() : ""
+                    cliente.getEmail() != null ? cliente.getEmail() : "",
+                    item.getSaldo().toBigDecimal()
                 };
                 modeloTabela.addRow(linha);
             }
             
         } catch (Exception e) {
+            clientesCarregados = new ArrayList<>();
             UIUtils.mostrarMensagemErro(this, "Erro ao carregar clientes: " + e.getMessage());
         }
     }
     
+    /**
+     * Mostra apenas os clientes com saldo devedor, ou todos, conforme a
+     * caixa de seleção. O filtro é aplicado sobre as linhas já carregadas.
+     */
+    private void aplicarFiltroDevedores() {
+        if (chkSomenteDevedores.isSelected()) {
+            ordenadorTabela.setRowFilter(new RowFilter<TableModel, Integer>() {
+                @Override
+                public boolean include(Entry<? extends TableModel, ? extends Integer> entrada) {
+                    return clientesCarregados.get(entrada.getIdentifier()).isDevedor();
+                }
+            });
+        } else {
+            ordenadorTabela.setRowFilter(null);
+        }
+    }
+    
+    /**
+     * Obtém o cliente da linha selecionada na tabela. Devolve uma cópia, pois
+     * a lista carregada é compartilhada pelo cache de consultas e o diálogo
+     * de edição altera o cliente recebido.
+     * 
+     * @return Cliente selecionado, ou null se não houver seleção
+     */
+    private Cliente obterClienteSelecionado() {
+        int linhaSelecionada = tabelaClientes.getSelectedRow();
+        if (linhaSelecionada == -1) {
+            return null;
+        }
+        // A linha exibida pode estar ordenada ou filtrada
+        int linhaModelo = tabelaClientes.convertRowIndexToModel(linhaSelecionada);
+        return clienteController.obterCliente(clientesCarregados.get(linhaModelo).getCliente().getId());
+    }
+    
     /**
      * Abre o diálogo de cadastro/edição de cliente.
      * 
@@ -215,26 +318,35 @@ public class GerenciamentoClientePanel extends JPanel {
         }
     }
     
+    /**
+     * Abre o diálogo de registro de pagamento, onde o cliente é pesquisado
+     * pelo nome, telefone ou e-mail.
+     */
+    private void abrirDialogoPagamento() {
+        DialogoRegistroPagamento dialogo = new DialogoRegistroPagamento(
+            (Frame) SwingUtilities.getWindowAncestor(this)
+        );
+        
+        dialogo.setVisible(true);
+        
+        // Se o pagamento foi registrado, atualizar os saldos
+        if (dialogo.isConfirmado()) {
+            carregarClientes();
+        }
+    }
+    
     /**
      * Edita o cliente selecionado na tabela.
      */
     private void editarClienteSelecionado() {
-        int linhaSelecionada = tabelaClientes.getSelectedRow();
-        if (linhaSelecionada == -1) {
+        if (tabelaClientes.getSelectedRow() == -1) {
             UIUtils.mostrarMensagemAviso(this, "Selecione um cliente para editar");
             return;
         }
         
         try {
-            // Obter ID do cliente selecionado
-            Long clienteId = (Long) modeloTabela.getValueAt(linhaSelecionada, 0);
-            
-            // Buscar cliente completo
-            List<Cliente> clientes = clienteController.listarClientes();
-            Cliente clienteSelecionado = clientes.stream()
-                .filter(c -> c.getId().equals(clienteId))
-                .findFirst()
-                .orElse(null);
+            // Cópia do cliente, normalmente já em cache
+            Cliente clienteSelecionado = obterClienteSelecionado();
             
             if (clienteSelecionado != null) {
                 abrirDialogoCadastro(clienteSelecionado);
@@ -249,29 +361,21 @@ public class GerenciamentoClientePanel extends JPanel {
      * Exibe os detalhes do cliente selecionado.
      */
     private void exibirDetalhesCliente() {
-        int linhaSelecionada = tabelaClientes.getSelectedRow();
-        if (linhaSelecionada == -1) {
+        if (tabelaClientes.getSelectedRow() == -1) {
             UIUtils.mostrarMensagemAviso(this, "Selecione um cliente para ver os detalhes");
             return;
         }
         
         try {
-            // Obter ID do cliente selecionado
-            Long clienteId = (Long) modeloTabela.getValueAt(linhaSelecionada, 0);
-            
-            // Buscar cliente completo
-            List<Cliente> clientes = clienteController.listarClientes();
-            Cliente clienteSelecionado = clientes.stream()
-                .filter(c -> c.getId().equals(clienteId))
-                .findFirst()
-                .orElse(null);
+            // Cópia do cliente, normalmente já em cache
+            Cliente clienteSelecionado = obterClienteSelecionado();
             
             if (clienteSelecionado != null) {
                 // Remover conteúdo anterior
                 painelDetalhes.removeAll();
                 
                 // Criar e adicionar painel de detalhes
-                clienteDetalhesPanel = new ClienteDetalhesPanel(clienteSelecionado);
+                clienteDetalhesPanel = new ClienteDetalhesPanel(clienteSelecionado, this::carregarClientes);
                 painelDetalhes.add(clienteDetalhesPanel, BorderLayout.CENTER);
                 
                 // Atualizar interface
@@ -283,4 +387,12 @@ public class GerenciamentoClientePanel extends JPanel {
             UIUtils.mostrarMensagemErro(this, "Erro ao exibir detalhes do cliente: " + e.getMessage());
         }
     }
+    
+    /**
+     * Recarrega a lista de clientes e saldos.
+     * Método público para permitir atualização externa.
+     */
+    public void atualizarDados() {
+        carregarClientes();
+    }
 }
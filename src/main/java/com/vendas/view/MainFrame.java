@@ -183,9 +183,9 @@ public class MainFrame extends JFrame {
     private void atualizarPainel(String nomePainel) {
         switch (nomePainel) {
             case PAINEL_REGISTRO_VENDA:
-                // Atualizar lista de produtos disponíveis ao abrir tela de vendas
+                // Atualizar sugestões de produtos e clientes ao abrir tela de vendas
                 if (registroVendaPanel != null) {
-                    registroVendaPanel.carregarProdutosDisponiveis();
+                    registroVendaPanel.atualizarDados();
                 }
                 break;
             case PAINEL_GERENCIAMENTO_FINANCEIRO:
@@ -194,6 +194,12 @@ public class MainFrame extends JFrame {
                     painelGerenciamentoPanel.atualizarDados();
                 }
                 break;
+            case PAINEL_GERENCIAMENTO_CLIENTE:
+                // Atualizar saldos, que mudam a cada venda e pagamento
+                if (gerenciamentoClientePanel != null) {
+                    gerenciamentoClientePanel.atualizarDados();
+                }
+                break;
             // Outros painéis não precisam de atualização automática
         }
     }
@@ -237,6 +243,17 @@ public class MainFrame extends JFrame {
         
         if (opcao == JOptionPane.YES_OPTION) {
             try {
+                // Registrar o aproveitamento dos caches de entidades e de consultas
+                com.vendas.util.ExceptionHandler.logInfo(
+                    new com.vendas.controller.ClienteController().getEstatisticasCache().toString());
+                com.vendas.util.ExceptionHandler.logInfo(
+                    new com.vendas.controller.ProdutoController().getEstatisticasCache().toString());
+                com.vendas.util.ExceptionHandler.logInfo(
+                    new com.vendas.controller.GerenciamentoController().getEstatisticasCache().toString());
+                com.vendas.util.ExceptionHandler.logInfo(
+                    com.vendas.util.CacheMiniaturas.getInstancia().getEstatisticas().toString());
+                com.vendas.util.ArmazemMiniaturas.getInstancia().fechar();
+                
                 // Liberar recursos do banco de dados
                 com.vendas.util.ExceptionHandler.logInfo("Fechando conexão com banco de dados...");
                 com.vendas.util.DatabaseManager.fecharConexao();
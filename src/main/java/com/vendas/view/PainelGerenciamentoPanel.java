@@ -1,19 +1,31 @@
 package com.vendas.view;
 
+import com.vendas.controller.FacetasEstoque;
+import com.vendas.controller.FacetasEstoque.Faceta;
 import com.vendas.controller.GerenciamentoController;
-import com.vendas.model.Produto;
+import com.vendas.model.ProdutoResumo;
+import com.vendas.model.ResumoFinanceiro;
+import com.vendas.util.IndiceFacetas;
 import com.vendas.util.UIUtils;
 
 import javax.swing.*;
+import javax.swing.border.TitledBorder;
 import javax.swing.table.DefaultTableCellRenderer;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
-import java.math.BigDecimal;
-import java.util.List;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Painel de gerenciamento financeiro e de estoque.
- * Exibe produtos em estoque e resumo financeiro do negócio.
+ * Exibe os produtos, filtráveis por tamanho, faixa de preço, tempo em estoque
+ * e situação (com a quantidade de produtos de cada opção), e o resumo
+ * financeiro do negócio.
  */
 public class PainelGerenciamentoPanel extends JPanel {
     
@@ -24,8 +36,14 @@ public class PainelGerenciamentoPanel extends JPanel {
     private DefaultTableModel modeloTabela;
     private JLabel lblTotalGasto;
     private JLabel lblTotalRecebido;
+    private JLabel lblEstoque;
     private JLabel lblLucro;
     private JButton btnAtualizar;
+    private TitledBorder bordaTabela;
+    
+    // Filtros: painel e caixas de seleção de cada faceta, por valor
+    private final Map<Faceta, JPanel> paineisFacetas = new EnumMap<>(Faceta.class);
+    private final Map<Faceta, Map<String, JCheckBox>> caixasFacetas = new EnumMap<>(Faceta.class);
     
     public PainelGerenciamentoPanel() {
         this.gerenciamentoController = new GerenciamentoController();
@@ -45,8 +63,11 @@ public class PainelGerenciamentoPanel extends JPanel {
         JPanel painelSuperior = criarPainelSuperior();
         add(painelSuperior, BorderLayout.NORTH);
         
-        // Painel central com tabela de produtos
-        JPanel painelCentral = criarPainelTabela();
+        // Painel central com filtros e tabela de produtos
+        JPanel painelCentral = new JPanel(new BorderLayout(10, 0));
+        painelCentral.setBackground(Color.WHITE);
+        painelCentral.add(criarPainelFiltros(), BorderLayout.WEST);
+        painelCentral.add(criarPainelTabela(), BorderLayout.CENTER);
         add(painelCentral, BorderLayout.CENTER);
         
         // Painel inferior com resumo financeiro
@@ -76,29 +97,80 @@ public class PainelGerenciamentoPanel extends JPanel {
         btnAtualizar.setForeground(Color.WHITE);
         btnAtualizar.setFocusPainted(false);
         btnAtualizar.setCursor(new Cursor(Cursor.HAND_CURSOR));
-        btnAtualizar.addActionListener(e -> atualizarDados());
+        btnAtualizar.addActionListener(e -> recarregarDados());
         painel.add(btnAtualizar, BorderLayout.EAST);
         
         return painel;
     }
     
     /**
-     * Cria o painel com a tabela de produtos em estoque.
+     * Cria o painel de filtros, com um grupo de caixas de seleção por faceta.
+     * Inicialmente mostra apenas os produtos disponíveis.
+     */
+    private JComponent criarPainelFiltros() {
+        JPanel painel = new JPanel();
+        painel.setLayout(new BoxLayout(painel, BoxLayout.Y_AXIS));
+        painel.setBackground(Color.WHITE);
+        
+        for (Faceta faceta : Faceta.values()) {
+            JPanel painelFaceta = new JPanel();
+            painelFaceta.setLayout(new BoxLayout(painelFaceta, BoxLayout.Y_AXIS));
+            painelFaceta.setBackground(Color.WHITE);
+            painelFaceta.setAlignmentX(Component.LEFT_ALIGNMENT);
+            painelFaceta.setBorder(BorderFactory.createTitledBorder(
+                BorderFactory.createLineBorder(new Color(189, 195, 199), 1),
+                faceta.getRotulo(),
+                0,
+                0,
+                new Font("Arial", Font.BOLD, 13),
+                new Color(45, 52, 54)
+            ));
+            paineisFacetas.put(faceta, painelFaceta);
+            caixasFacetas.put(faceta, new LinkedHashMap<>());
+            painel.add(painelFaceta);
+        }
+        
+        // Filtro inicial: produtos em estoque
+        JCheckBox chkDisponivel = criarCaixaFaceta(FacetasEstoque.DISPONIVEL, true);
+        caixasFacetas.get(Faceta.SITUACAO).put(FacetasEstoque.DISPONIVEL, chkDisponivel);
+        paineisFacetas.get(Faceta.SITUACAO).add(chkDisponivel);
+        
+        JScrollPane scrollPane = new JScrollPane(painel);
+        scrollPane.setBorder(BorderFactory.createEmptyBorder());
+        scrollPane.setPreferredSize(new Dimension(210, 0));
+        scrollPane.getVerticalScrollBar().setUnitIncrement(16);
+        return scrollPane;
+    }
+    
+    /**
+     * Cria a caixa de seleção de um valor de faceta, que refaz o filtro ao mudar.
+     */
+    private JCheckBox criarCaixaFaceta(String valor, boolean marcada) {
+        JCheckBox caixa = new JCheckBox(valor, marcada);
+        caixa.setFont(new Font("Arial", Font.PLAIN, 13));
+        caixa.setBackground(Color.WHITE);
+        caixa.addItemListener(e -> aplicarFiltros());
+        return caixa;
+    }
+    
+    /**
+     * Cria o painel com a tabela de produtos filtrados.
      */
     private JPanel criarPainelTabela() {
         JPanel painel = new JPanel(new BorderLayout());
         painel.setBackground(Color.WHITE);
-        painel.setBorder(BorderFactory.createTitledBorder(
+        bordaTabela = BorderFactory.createTitledBorder(
             BorderFactory.createLineBorder(new Color(189, 195, 199), 1),
-            "Produtos em Estoque",
+            "Produtos",
             0,
             0,
             new Font("Arial", Font.BOLD, 16),
             new Color(45, 52, 54)
-        ));
+        );
+        painel.setBorder(bordaTabela);
         
         // Criar modelo da tabela
-        String[] colunas = {"ID", "Descrição", "Tamanho", "Valor de Compra", "Data de Compra"};
+        String[] colunas = {"ID", "Descrição", "Tamanho", "Valor de Compra", "Data de Compra", "Situação"};
         modeloTabela = new DefaultTableModel(colunas, 0) {
             @Override
             public boolean isCellEditable(int row, int column) {
@@ -122,6 +194,7 @@ public class PainelGerenciamentoPanel extends JPanel {
         tabelaProdutos.getColumnModel().getColumn(2).setPreferredWidth(80);  // Tamanho
         tabelaProdutos.getColumnModel().getColumn(3).setPreferredWidth(120); // Valor
         tabelaProdutos.getColumnModel().getColumn(4).setPreferredWidth(120); // Data
+        tabelaProdutos.getColumnModel().getColumn(5).setPreferredWidth(90);  // Situação
         
         // Centralizar conteúdo das colunas ID e Tamanho
         DefaultTableCellRenderer centralizador = new DefaultTableCellRenderer();
@@ -129,6 +202,7 @@ public class PainelGerenciamentoPanel extends JPanel {
         tabelaProdutos.getColumnModel().getColumn(0).setCellRenderer(centralizador);
         tabelaProdutos.getColumnModel().getColumn(2).setCellRenderer(centralizador);
         tabelaProdutos.getColumnModel().getColumn(4).setCellRenderer(centralizador);
+        tabelaProdutos.getColumnModel().getColumn(5).setCellRenderer(centralizador);
         
         // Alinhar valor à direita
         DefaultTableCellRenderer alinhadorDireita = new DefaultTableCellRenderer();
@@ -195,9 +269,23 @@ public class PainelGerenciamentoPanel extends JPanel {
         lblTotalRecebido.setForeground(new Color(46, 204, 113)); // Verde
         painel.add(lblTotalRecebido, gbc);
         
-        // Separador
+        // Estoque (quantidade e valor de compra dos produtos não vendidos)
         gbc.gridx = 0;
         gbc.gridy = 2;
+        gbc.anchor = GridBagConstraints.EAST;
+        JLabel lblTextoEstoque = new JLabel("Em Estoque:");
+        lblTextoEstoque.setFont(new Font("Arial", Font.BOLD, 16));
+        painel.add(lblTextoEstoque, gbc);
+        
+        gbc.gridx = 1;
+        gbc.anchor = GridBagConstraints.WEST;
+        lblEstoque = new JLabel("0 itens (R$ 0,00)");
+        lblEstoque.setFont(new Font("Arial", Font.BOLD, 18));
+        painel.add(lblEstoque, gbc);
+        
+        // Separador
+        gbc.gridx = 0;
+        gbc.gridy = 3;
         gbc.gridwidth = 2;
         JSeparator separador = new JSeparator();
         separador.setForeground(new Color(189, 195, 199));
@@ -205,7 +293,7 @@ public class PainelGerenciamentoPanel extends JPanel {
         
         // Lucro/Prejuízo
         gbc.gridx = 0;
-        gbc.gridy = 3;
+        gbc.gridy = 4;
         gbc.gridwidth = 1;
         gbc.anchor = GridBagConstraints.EAST;
         JLabel lblTextoLucro = new JLabel("Lucro/Prejuízo:");
@@ -225,55 +313,110 @@ public class PainelGerenciamentoPanel extends JPanel {
      * Carrega os dados iniciais do painel.
      */
     private void carregarDados() {
-        carregarProdutosEmEstoque();
+        aplicarFiltros();
         atualizarResumoFinanceiro();
     }
     
     /**
-     * Carrega os produtos em estoque na tabela.
+     * Carrega na tabela os produtos que atendem aos filtros marcados e
+     * atualiza as quantidades de cada opção de filtro.
      */
-    private void carregarProdutosEmEstoque() {
+    private void aplicarFiltros() {
         try {
+            // Valores marcados em cada faceta
+            Map<Faceta, Set<String>> selecao = new EnumMap<>(Faceta.class);
+            for (Map.Entry<Faceta, Map<String, JCheckBox>> faceta : caixasFacetas.entrySet()) {
+                Set<String> marcados = new LinkedHashSet<>();
+                for (Map.Entry<String, JCheckBox> caixa : faceta.getValue().entrySet()) {
+                    if (caixa.getValue().isSelected()) {
+                        marcados.add(caixa.getKey());
+                    }
+                }
+                selecao.put(faceta.getKey(), marcados);
+            }
+            
+            // Filtro resolvido em memória pelas facetas do estoque
+            IndiceFacetas.Resultado<Faceta, ProdutoResumo> resultado =
+                gerenciamentoController.filtrarEstoque(selecao);
+            
             // Limpar tabela
             modeloTabela.setRowCount(0);
             
-            // Obter produtos em estoque
-            List<Produto> produtos = gerenciamentoController.obterProdutosEmEstoque();
-            
             // Adicionar produtos à tabela
-            for (Produto produto : produtos) {
+            for (ProdutoResumo produto : resultado.getItens()) {
                 Object[] linha = {
                     produto.getId(),
                     produto.getDescricao(),
                     produto.getTamanho(),
                     UIUtils.formatarValorMonetario(produto.getValorCompra()),
-                    produto.getDataCompra().toString()
+                    produto.getDataCompra().toString(),
+                    produto.isVendido() ? FacetasEstoque.VENDIDO : FacetasEstoque.DISPONIVEL
                 };
                 modeloTabela.addRow(linha);
             }
+            bordaTabela.setTitle("Produtos (" + resultado.getItens().size() + ")");
+            
+            atualizarFacetas(resultado, selecao);
             
         } catch (Exception e) {
-            UIUtils.mostrarMensagemErro(this, "Erro ao carregar produtos em estoque: " + e.getMessage());
+            UIUtils.mostrarMensagemErro(this, "Erro ao carregar produtos: " + e.getMessage());
         }
     }
     
+    /**
+     * Atualiza as caixas de seleção de cada faceta com as quantidades do
+     * resultado. Valores marcados continuam visíveis mesmo sem produtos.
+     */
+    private void atualizarFacetas(IndiceFacetas.Resultado<Faceta, ProdutoResumo> resultado,
+                                  Map<Faceta, Set<String>> selecao) {
+        for (Faceta faceta : Faceta.values()) {
+            Map<String, Integer> contagens = new LinkedHashMap<>(resultado.getContagens(faceta));
+            for (String marcado : selecao.getOrDefault(faceta, Collections.<String>emptySet())) {
+                contagens.putIfAbsent(marcado, 0);
+            }
+            
+            // Recria as caixas só quando surgem ou somem valores
+            Map<String, JCheckBox> caixas = caixasFacetas.get(faceta);
+            if (!new ArrayList<>(caixas.keySet()).equals(new ArrayList<>(contagens.keySet()))) {
+                JPanel painelFaceta = paineisFacetas.get(faceta);
+                painelFaceta.removeAll();
+                Map<String, JCheckBox> novas = new LinkedHashMap<>();
+                for (String valor : contagens.keySet()) {
+                    JCheckBox caixa = criarCaixaFaceta(valor,
+                        selecao.getOrDefault(faceta, Collections.<String>emptySet()).contains(valor));
+                    novas.put(valor, caixa);
+                    painelFaceta.add(caixa);
+                }
+                caixas.clear();
+                caixas.putAll(novas);
+            }
+            
+            for (Map.Entry<String, Integer> contagem : contagens.entrySet()) {
+                caixas.get(contagem.getKey()).setText(contagem.getKey() + " (" + contagem.getValue() + ")");
+            }
+        }
+        
+        revalidate();
+        repaint();
+    }
+    
     /**
      * Atualiza o resumo financeiro com os cálculos.
      */
     private void atualizarResumoFinanceiro() {
         try {
-            // Obter totais do controller
-            BigDecimal totalGasto = gerenciamentoController.calcularTotalGasto();
-            BigDecimal totalRecebido = gerenciamentoController.calcularTotalRecebido();
-            BigDecimal lucro = gerenciamentoController.calcularLucro();
+            // Obter totais do controller (uma única leitura)
+            ResumoFinanceiro resumo = gerenciamentoController.obterResumoFinanceiro();
             
             // Atualizar labels
-            lblTotalGasto.setText(UIUtils.formatarValorMonetario(totalGasto));
-            lblTotalRecebido.setText(UIUtils.formatarValorMonetario(totalRecebido));
-            lblLucro.setText(UIUtils.formatarValorMonetario(lucro));
+            lblTotalGasto.setText(UIUtils.formatarValorMonetario(resumo.getTotalGasto()));
+            lblTotalRecebido.setText(UIUtils.formatarValorMonetario(resumo.getTotalRecebido()));
+            lblEstoque.setText(resumo.getQuantidadeEmEstoque() + " itens (" +
+                UIUtils.formatarValorMonetario(resumo.getValorEmEstoque()) + ")");
+            lblLucro.setText(UIUtils.formatarValorMonetario(resumo.getLucro()));
             
             // Aplicar cor ao lucro/prejuízo
-            if (lucro.signum() >= 0) {
+            if (!resumo.getLucro().isNegativo()) {
                 // Lucro positivo ou zero - verde
                 lblLucro.setForeground(new Color(46, 204, 113));
             } else {
@@ -291,10 +434,19 @@ public class PainelGerenciamentoPanel extends JPanel {
      * Método público para permitir atualização externa.
      */
     public void atualizarDados() {
-        carregarProdutosEmEstoque();
+        aplicarFiltros();
         atualizarResumoFinanceiro();
     }
     
+    /**
+     * Relê todo o estoque do banco (incluindo produtos gravados por outros
+     * terminais) e atualiza o painel.
+     */
+    private void recarregarDados() {
+        gerenciamentoController.recarregarFacetasEstoque();
+        atualizarDados();
+    }
+    
     /**
      * Obtém a tabela de produtos.
      */
@@ -323,6 +475,13 @@ public class PainelGerenciamentoPanel extends JPanel {
         return lblTotalRecebido;
     }
     
+    /**
+     * Obtém o label de estoque.
+     */
+    public JLabel getLblEstoque() {
+        return lblEstoque;
+    }
+    
     /**
      * Obtém o label de lucro.
      */
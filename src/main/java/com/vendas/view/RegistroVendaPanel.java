@@ -4,17 +4,20 @@ import com.vendas.controller.ClienteController;
 import com.vendas.controller.ProdutoController;
 import com.vendas.controller.VendaController;
 import com.vendas.model.Cliente;
-import com.vendas.model.Produto;
+import com.vendas.model.ProdutoResumo;
 import com.vendas.model.Venda;
 import com.vendas.util.UIUtils;
 
 import javax.swing.*;
 import java.awt.*;
+import java.awt.image.BufferedImage;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
 
 /**
  * Painel para registro de vendas de produtos.
@@ -26,18 +29,28 @@ public class RegistroVendaPanel extends JPanel {
     private final VendaController vendaController;
     
     // Componentes do formulário
+    private JTextField txtPesquisaProduto;
     private JComboBox<ProdutoComboItem> cmbProduto;
     private JPanel painelDetalhesProduto;
     private JLabel lblDescricaoProduto;
     private JLabel lblTamanhoProduto;
     private JLabel lblValorCompraProduto;
     private JLabel lblImagemProduto;
+    private JTextField txtPesquisaCliente;
     private JComboBox<ClienteComboItem> cmbCliente;
     private JSpinner spnDataVenda;
     private JTextField txtValorVenda;
     private JButton btnRegistrarVenda;
+    private JButton btnAdicionarCarrinho;
     private JButton btnCancelar;
     
+    // Componentes do carrinho
+    private DefaultListModel<ItemCarrinho> modeloCarrinho;
+    private JList<ItemCarrinho> lstCarrinho;
+    private JLabel lblTotalCarrinho;
+    private JButton btnRemoverItem;
+    private JButton btnFinalizarCarrinho;
+    
     public RegistroVendaPanel() {
         this.produtoController = new ProdutoController();
         this.clienteController = new ClienteController();
@@ -57,6 +70,10 @@ public class RegistroVendaPanel extends JPanel {
         // Painel principal com formulário
         JPanel painelFormulario = criarPainelFormulario();
         add(painelFormulario, BorderLayout.CENTER);
+        
+        // Painel lateral com o carrinho
+        JPanel painelCarrinho = criarPainelCarrinho();
+        add(painelCarrinho, BorderLayout.EAST);
     }
     
     /**
@@ -93,10 +110,11 @@ public class RegistroVendaPanel extends JPanel {
         painel.add(lblProduto, gbc);
         
         gbc.gridx = 1;
+        txtPesquisaProduto = criarCampoPesquisa("Pesquisar por descrição ou tamanho");
         cmbProduto = new JComboBox<>();
         cmbProduto.setFont(new Font("Arial", Font.PLAIN, 14));
         cmbProduto.setPreferredSize(new Dimension(400, 25));
-        painel.add(cmbProduto, gbc);
+        painel.add(criarPainelPesquisa(txtPesquisaProduto, cmbProduto), gbc);
         
         // Painel de detalhes do produto
         gbc.gridx = 0;
@@ -118,10 +136,11 @@ public class RegistroVendaPanel extends JPanel {
         painel.add(lblCliente, gbc);
         
         gbc.gridx = 1;
+        txtPesquisaCliente = criarCampoPesquisa("Pesquisar por nome, telefone ou e-mail");
         cmbCliente = new JComboBox<>();
         cmbCliente.setFont(new Font("Arial", Font.PLAIN, 14));
         cmbCliente.setPreferredSize(new Dimension(400, 25));
-        painel.add(cmbCliente, gbc);
+        painel.add(criarPainelPesquisa(txtPesquisaCliente, cmbCliente), gbc);
         
         // Campo Data da Venda
         gbc.gridx = 0;
@@ -162,6 +181,27 @@ public class RegistroVendaPanel extends JPanel {
         return painel;
     }
     
+    /**
+     * Cria um campo de pesquisa com a dica informada.
+     */
+    private JTextField criarCampoPesquisa(String dica) {
+        JTextField campo = new JTextField(12);
+        campo.setFont(new Font("Arial", Font.PLAIN, 14));
+        campo.setToolTipText(dica);
+        return campo;
+    }
+    
+    /**
+     * Agrupa um campo de pesquisa e o ComboBox que ele filtra.
+     */
+    private JPanel criarPainelPesquisa(JTextField campoPesquisa, JComboBox<?> combo) {
+        JPanel painel = new JPanel(new BorderLayout(5, 0));
+        painel.setBackground(Color.WHITE);
+        painel.add(campoPesquisa, BorderLayout.WEST);
+        painel.add(combo, BorderLayout.CENTER);
+        return painel;
+    }
+    
     /**
      * Cria o painel de detalhes do produto selecionado.
      */
@@ -225,6 +265,16 @@ public class RegistroVendaPanel extends JPanel {
         btnRegistrarVenda.setCursor(new Cursor(Cursor.HAND_CURSOR));
         painel.add(btnRegistrarVenda);
         
+        // Botão Adicionar ao Carrinho
+        btnAdicionarCarrinho = new JButton("Adicionar ao Carrinho");
+        btnAdicionarCarrinho.setFont(new Font("Arial", Font.BOLD, 14));
+        btnAdicionarCarrinho.setPreferredSize(new Dimension(200, 40));
+        btnAdicionarCarrinho.setBackground(new Color(52, 152, 219));
+        btnAdicionarCarrinho.setForeground(Color.WHITE);
+        btnAdicionarCarrinho.setFocusPainted(false);
+        btnAdicionarCarrinho.setCursor(new Cursor(Cursor.HAND_CURSOR));
+        painel.add(btnAdicionarCarrinho);
+        
         // Botão Cancelar
         btnCancelar = new JButton("Cancelar");
         btnCancelar.setFont(new Font("Arial", Font.BOLD, 14));
@@ -241,6 +291,55 @@ public class RegistroVendaPanel extends JPanel {
         return painel;
     }
     
+    /**
+     * Cria o painel do carrinho, usado para registrar vários produtos
+     * para o mesmo cliente de uma só vez.
+     */
+    private JPanel criarPainelCarrinho() {
+        JPanel painel = new JPanel(new BorderLayout(5, 5));
+        painel.setBackground(Color.WHITE);
+        painel.setPreferredSize(new Dimension(320, 0));
+        painel.setBorder(BorderFactory.createCompoundBorder(
+            BorderFactory.createEmptyBorder(20, 0, 20, 20),
+            BorderFactory.createTitledBorder("Carrinho")
+        ));
+        
+        // Lista de itens
+        modeloCarrinho = new DefaultListModel<>();
+        lstCarrinho = new JList<>(modeloCarrinho);
+        lstCarrinho.setFont(new Font("Arial", Font.PLAIN, 13));
+        lstCarrinho.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        painel.add(new JScrollPane(lstCarrinho), BorderLayout.CENTER);
+        
+        // Total e botões
+        JPanel painelInferior = new JPanel(new GridLayout(3, 1, 5, 5));
+        painelInferior.setBackground(Color.WHITE);
+        
+        lblTotalCarrinho = new JLabel("Total: R$ 0,00");
+        lblTotalCarrinho.setFont(new Font("Arial", Font.BOLD, 14));
+        painelInferior.add(lblTotalCarrinho);
+        
+        btnRemoverItem = new JButton("Remover Item");
+        btnRemoverItem.setFont(new Font("Arial", Font.BOLD, 13));
+        btnRemoverItem.setBackground(new Color(149, 165, 166));
+        btnRemoverItem.setForeground(Color.WHITE);
+        btnRemoverItem.setFocusPainted(false);
+        btnRemoverItem.setCursor(new Cursor(Cursor.HAND_CURSOR));
+        painelInferior.add(btnRemoverItem);
+        
+        btnFinalizarCarrinho = new JButton("Finalizar Carrinho");
+        btnFinalizarCarrinho.setFont(new Font("Arial", Font.BOLD, 13));
+        btnFinalizarCarrinho.setBackground(new Color(46, 204, 113));
+        btnFinalizarCarrinho.setForeground(Color.WHITE);
+        btnFinalizarCarrinho.setFocusPainted(false);
+        btnFinalizarCarrinho.setCursor(new Cursor(Cursor.HAND_CURSOR));
+        painelInferior.add(btnFinalizarCarrinho);
+        
+        painel.add(painelInferior, BorderLayout.SOUTH);
+        
+        return painel;
+    }
+    
     /**
      * Configura os listeners dos componentes.
      */
@@ -252,8 +351,17 @@ public class RegistroVendaPanel extends JPanel {
             }
         });
         
+        // Pesquisas: os índices em memória respondem a cada tecla
+        UIUtils.aoDigitar(txtPesquisaProduto, this::carregarProdutosDisponiveis);
+        UIUtils.aoDigitar(txtPesquisaCliente, this::carregarClientes);
+        
         // Listener para registrar venda
         btnRegistrarVenda.addActionListener(e -> registrarVenda());
+        
+        // Listeners do carrinho
+        btnAdicionarCarrinho.addActionListener(e -> adicionarAoCarrinho());
+        btnRemoverItem.addActionListener(e -> removerItemCarrinho());
+        btnFinalizarCarrinho.addActionListener(e -> finalizarCarrinho());
     }
     
     /**
@@ -265,7 +373,20 @@ public class RegistroVendaPanel extends JPanel {
     }
     
     /**
-     * Carrega a lista de produtos disponíveis no ComboBox.
+     * Relê do banco os índices de sugestões (incluindo produtos e clientes
+     * gravados por outros terminais) e recarrega a lista de produtos. A lista
+     * de clientes é atualizada na próxima tecla, sem perder o cliente já
+     * escolhido para a venda em andamento.
+     */
+    public void atualizarDados() {
+        produtoController.recarregarSugestoes();
+        clienteController.recarregarSugestoes();
+        carregarProdutosDisponiveis();
+    }
+    
+    /**
+     * Carrega no ComboBox os produtos disponíveis sugeridos para a pesquisa
+     * (os primeiros em ordem de descrição, se a pesquisa estiver em branco).
      */
     public void carregarProdutosDisponiveis() {
         try {
@@ -273,11 +394,14 @@ public class RegistroVendaPanel extends JPanel {
             cmbProduto.removeAllItems();
             
             // Buscar produtos disponíveis
-            List<Produto> produtos = produtoController.listarProdutosDisponiveis();
+            List<ProdutoResumo> produtos = produtoController.sugerirProdutosDisponiveis(
+                txtPesquisaProduto.getText());
             
-            // Adicionar produtos ao combo
-            for (Produto produto : produtos) {
-                cmbProduto.addItem(new ProdutoComboItem(produto));
+            // Adicionar produtos ao combo (exceto os que já estão no carrinho)
+            for (ProdutoResumo produto : produtos) {
+                if (!isProdutoNoCarrinho(produto.getId())) {
+                    cmbProduto.addItem(new ProdutoComboItem(produto));
+                }
             }
             
             // Limpar seleção inicial
@@ -291,7 +415,8 @@ public class RegistroVendaPanel extends JPanel {
     }
     
     /**
-     * Carrega a lista de clientes no ComboBox.
+     * Carrega no ComboBox os clientes sugeridos para a pesquisa (os primeiros
+     * em ordem alfabética, se a pesquisa estiver em branco).
      */
     private void carregarClientes() {
         try {
@@ -299,7 +424,7 @@ public class RegistroVendaPanel extends JPanel {
             cmbCliente.removeAllItems();
             
             // Buscar clientes
-            List<Cliente> clientes = clienteController.listarClientes();
+            List<Cliente> clientes = clienteController.sugerirClientes(txtPesquisaCliente.getText());
             
             // Adicionar clientes ao combo
             for (Cliente cliente : clientes) {
@@ -327,7 +452,7 @@ public class RegistroVendaPanel extends JPanel {
             return;
         }
         
-        Produto produto = itemSelecionado.getProduto();
+        ProdutoResumo produto = itemSelecionado.getProduto();
         
         // Atualizar labels com informações do produto
         lblDescricaoProduto.setText("Descrição: " + produto.getDescricao());
@@ -335,52 +460,59 @@ public class RegistroVendaPanel extends JPanel {
         lblValorCompraProduto.setText("Valor de Compra: " + 
             UIUtils.formatarValorMonetario(produto.getValorCompra()));
         
-        // Exibir imagem se disponível
-        if (produto.getImagem() != null && produto.getImagem().length > 0) {
-            exibirImagemProduto(produto.getImagem());
-        } else {
-            lblImagemProduto.setIcon(null);
-            lblImagemProduto.setText("Sem imagem");
-        }
+        // A lista não traz as imagens: exibe apenas a do produto selecionado
+        exibirImagemProduto(produto);
     }
     
     /**
-     * Exibe a imagem do produto no label.
+     * Exibe a miniatura da imagem do produto no label. Se ela já estiver no
+     * cache de miniaturas aparece na hora; senão é carregada e reduzida em
+     * segundo plano, para não travar a navegação pela lista de produtos.
      */
-    private void exibirImagemProduto(byte[] imagemBytes) {
-        try {
-            // Criar ImageIcon a partir dos bytes
-            ImageIcon iconOriginal = new ImageIcon(imagemBytes);
-            Image imagemOriginal = iconOriginal.getImage();
-            
-            // Redimensionar imagem para caber no label (180x180)
-            int larguraLabel = 180;
-            int alturaLabel = 180;
-            
-            // Calcular dimensões mantendo proporção
-            int larguraOriginal = imagemOriginal.getWidth(null);
-            int alturaOriginal = imagemOriginal.getHeight(null);
-            
-            double proporcao = Math.min(
-                (double) larguraLabel / larguraOriginal,
-                (double) alturaLabel / alturaOriginal
-            );
-            
-            int novaLargura = (int) (larguraOriginal * proporcao);
-            int novaAltura = (int) (alturaOriginal * proporcao);
-            
-            // Redimensionar imagem
-            Image imagemRedimensionada = imagemOriginal.getScaledInstance(
-                novaLargura, novaAltura, Image.SCALE_SMOOTH
-            );
+    private void exibirImagemProduto(ProdutoResumo produto) {
+        BufferedImage miniatura = produtoController.obterMiniaturaEmCache(produto);
+        if (miniatura != null || !produto.isPossuiImagem()) {
+            mostrarMiniatura(miniatura);
+            return;
+        }
+        
+        lblImagemProduto.setIcon(null);
+        lblImagemProduto.setText("Carregando imagem...");
+        new SwingWorker<BufferedImage, Void>() {
+            @Override
+            protected BufferedImage doInBackground() {
+                return produtoController.carregarMiniaturaProduto(produto);
+            }
             
-            // Definir o ícone redimensionado
-            lblImagemProduto.setIcon(new ImageIcon(imagemRedimensionada));
+            @Override
+            protected void done() {
+                // O usuário pode ter passado para outro produto durante a carga
+                ProdutoComboItem selecionado = (ProdutoComboItem) cmbProduto.getSelectedItem();
+                if (selecionado == null || !selecionado.getProduto().getId().equals(produto.getId())) {
+                    return;
+                }
+                try {
+                    mostrarMiniatura(get());
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException ex) {
+                    lblImagemProduto.setIcon(null);
+                    lblImagemProduto.setText("Erro ao carregar imagem");
+                }
+            }
+        }.execute();
+    }
+    
+    /**
+     * Mostra a miniatura no label, ou "Sem imagem" se ela for null.
+     */
+    private void mostrarMiniatura(BufferedImage miniatura) {
+        if (miniatura != null) {
+            lblImagemProduto.setIcon(new ImageIcon(miniatura));
             lblImagemProduto.setText("");
-            
-        } catch (Exception ex) {
+        } else {
             lblImagemProduto.setIcon(null);
-            lblImagemProduto.setText("Erro ao carregar imagem");
+            lblImagemProduto.setText("Sem imagem");
         }
     }
     
@@ -396,7 +528,7 @@ public class RegistroVendaPanel extends JPanel {
             
             // Obter produto selecionado
             ProdutoComboItem produtoItem = (ProdutoComboItem) cmbProduto.getSelectedItem();
-            Produto produto = produtoItem.getProduto();
+            ProdutoResumo produto = produtoItem.getProduto();
             
             // Obter cliente selecionado
             ClienteComboItem clienteItem = (ClienteComboItem) cmbCliente.getSelectedItem();
@@ -440,32 +572,168 @@ public class RegistroVendaPanel extends JPanel {
         }
     }
     
+    /**
+     * Adiciona o produto selecionado, com o valor informado, ao carrinho.
+     * O produto sai do ComboBox até ser removido do carrinho ou vendido.
+     */
+    private void adicionarAoCarrinho() {
+        if (!validarProduto() || !validarValorVenda()) {
+            return;
+        }
+        
+        ProdutoComboItem produtoItem = (ProdutoComboItem) cmbProduto.getSelectedItem();
+        BigDecimal valorVenda = UIUtils.converterParaBigDecimal(txtValorVenda.getText());
+        
+        modeloCarrinho.addElement(new ItemCarrinho(produtoItem.getProduto(), valorVenda));
+        cmbProduto.removeItem(produtoItem);
+        cmbProduto.setSelectedIndex(-1);
+        txtValorVenda.setText("");
+        limparDetalhesProduto();
+        atualizarTotalCarrinho();
+    }
+    
+    /**
+     * Remove o item selecionado do carrinho e devolve o produto ao ComboBox.
+     */
+    private void removerItemCarrinho() {
+        ItemCarrinho item = lstCarrinho.getSelectedValue();
+        if (item == null) {
+            UIUtils.mostrarMensagemErro(this, "Selecione um item do carrinho para remover.");
+            return;
+        }
+        
+        modeloCarrinho.removeElement(item);
+        cmbProduto.addItem(new ProdutoComboItem(item.getProduto()));
+        cmbProduto.setSelectedIndex(-1);
+        atualizarTotalCarrinho();
+    }
+    
+    /**
+     * Registra todas as vendas do carrinho para o cliente selecionado
+     * em uma única operação.
+     */
+    private void finalizarCarrinho() {
+        try {
+            if (modeloCarrinho.isEmpty()) {
+                UIUtils.mostrarMensagemErro(this, "O carrinho está vazio.");
+                return;
+            }
+            
+            if (!validarCliente() || !validarData()) {
+                return;
+            }
+            
+            ClienteComboItem clienteItem = (ClienteComboItem) cmbCliente.getSelectedItem();
+            Cliente cliente = clienteItem.getCliente();
+            
+            Date dataSelecionada = (Date) spnDataVenda.getValue();
+            LocalDate dataVenda = dataSelecionada.toInstant()
+                .atZone(ZoneId.systemDefault())
+                .toLocalDate();
+            
+            // Criar uma venda para cada item do carrinho
+            List<Venda> vendas = new ArrayList<>();
+            for (int i = 0; i < modeloCarrinho.size(); i++) {
+                ItemCarrinho item = modeloCarrinho.get(i);
+                Venda venda = new Venda();
+                venda.setProdutoId(item.getProduto().getId());
+                venda.setClienteId(cliente.getId());
+                venda.setDataVenda(dataVenda);
+                venda.setValorVenda(item.getValorVenda());
+                vendas.add(venda);
+            }
+            
+            boolean sucesso = vendaController.registrarVendas(vendas);
+            
+            if (sucesso) {
+                UIUtils.mostrarMensagemSucesso(this, vendas.size() + " venda(s) registrada(s) com sucesso!\n" +
+                    lblTotalCarrinho.getText());
+                
+                modeloCarrinho.clear();
+                atualizarTotalCarrinho();
+                carregarProdutosDisponiveis();
+                limparFormulario();
+            }
+            
+        } catch (IllegalArgumentException ex) {
+            UIUtils.mostrarMensagemErro(this, ex.getMessage());
+        } catch (RuntimeException ex) {
+            UIUtils.mostrarMensagemErro(this, "Erro ao registrar vendas: " + ex.getMessage());
+        } catch (Exception ex) {
+            UIUtils.mostrarMensagemErro(this, "Erro inesperado: " + ex.getMessage());
+        }
+    }
+    
+    /**
+     * Atualiza o total exibido do carrinho.
+     */
+    private void atualizarTotalCarrinho() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < modeloCarrinho.size(); i++) {
+            total = total.add(modeloCarrinho.get(i).getValorVenda());
+        }
+        lblTotalCarrinho.setText("Total: " + UIUtils.formatarValorMonetario(total));
+    }
+    
+    /**
+     * Verifica se o produto já está no carrinho.
+     */
+    private boolean isProdutoNoCarrinho(Long produtoId) {
+        for (int i = 0; i < modeloCarrinho.size(); i++) {
+            if (modeloCarrinho.get(i).getProduto().getId().equals(produtoId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
     /**
      * Valida todos os campos obrigatórios do formulário.
      */
     private boolean validarCampos() {
-        // Validar seleção de produto
+        return validarProduto() && validarCliente() && validarData() && validarValorVenda();
+    }
+    
+    /**
+     * Valida a seleção de produto.
+     */
+    private boolean validarProduto() {
         if (cmbProduto.getSelectedIndex() == -1 || cmbProduto.getSelectedItem() == null) {
             UIUtils.mostrarMensagemErro(this, "Por favor, selecione um produto.");
             cmbProduto.requestFocus();
             return false;
         }
-        
-        // Validar seleção de cliente
+        return true;
+    }
+    
+    /**
+     * Valida a seleção de cliente.
+     */
+    private boolean validarCliente() {
         if (cmbCliente.getSelectedIndex() == -1 || cmbCliente.getSelectedItem() == null) {
             UIUtils.mostrarMensagemErro(this, "Por favor, selecione um cliente.");
             cmbCliente.requestFocus();
             return false;
         }
-        
-        // Validar data de venda
+        return true;
+    }
+    
+    /**
+     * Valida a data de venda.
+     */
+    private boolean validarData() {
         if (spnDataVenda.getValue() == null) {
             UIUtils.mostrarMensagemErro(this, "Por favor, selecione a data da venda.");
             spnDataVenda.requestFocus();
             return false;
         }
-        
-        // Validar valor de venda
+        return true;
+    }
+    
+    /**
+     * Valida o valor de venda.
+     */
+    private boolean validarValorVenda() {
         if (UIUtils.campoVazio(txtValorVenda)) {
             UIUtils.mostrarMensagemErro(this, "Por favor, preencha o valor de venda.");
             txtValorVenda.requestFocus();
@@ -514,13 +782,13 @@ public class RegistroVendaPanel extends JPanel {
      * Classe auxiliar para representar um produto no ComboBox.
      */
     private static class ProdutoComboItem {
-        private final Produto produto;
+        private final ProdutoResumo produto;
         
-        public ProdutoComboItem(Produto produto) {
+        public ProdutoComboItem(ProdutoResumo produto) {
             this.produto = produto;
         }
         
-        public Produto getProduto() {
+        public ProdutoResumo getProduto() {
             return produto;
         }
         
@@ -531,6 +799,33 @@ public class RegistroVendaPanel extends JPanel {
         }
     }
     
+    /**
+     * Classe auxiliar para representar um item do carrinho.
+     */
+    private static class ItemCarrinho {
+        private final ProdutoResumo produto;
+        private final BigDecimal valorVenda;
+        
+        public ItemCarrinho(ProdutoResumo produto, BigDecimal valorVenda) {
+            this.produto = produto;
+            this.valorVenda = valorVenda;
+        }
+        
+        public ProdutoResumo getProduto() {
+            return produto;
+        }
+        
+        public BigDecimal getValorVenda() {
+            return valorVenda;
+        }
+        
+        @Override
+        public String toString() {
+            return produto.getDescricao() + " - " + produto.getTamanho() + 
+                   " (" + UIUtils.formatarValorMonetario(valorVenda) + ")";
+        }
+    }
+    
     /**
      * Classe auxiliar para representar um cliente no ComboBox.
      */